@@ -24,6 +24,8 @@ public class CloudProcessDeployedEventImpl extends CloudRuntimeEventImpl<Process
 
     private String processModelContent;
 
+    private String processModelContentHash;
+
     public CloudProcessDeployedEventImpl() {
     }
 
@@ -54,4 +56,13 @@ public class CloudProcessDeployedEventImpl extends CloudRuntimeEventImpl<Process
         this.processModelContent = processModelContent;
     }
 
+    @Override
+    public String getProcessModelContentHash() {
+        return processModelContentHash;
+    }
+
+    public void setProcessModelContentHash(String processModelContentHash) {
+        this.processModelContentHash = processModelContentHash;
+    }
+
 }
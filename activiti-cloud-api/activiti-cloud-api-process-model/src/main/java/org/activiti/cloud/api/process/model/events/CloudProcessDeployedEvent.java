@@ -23,4 +23,10 @@ import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 public interface CloudProcessDeployedEvent extends CloudRuntimeEvent<ProcessDefinition, ProcessDefinitionEvent.ProcessDefinitionEvents>,
                                                    ProcessDeployedEvent {
 
+    /**
+     * Hash of the process model content. Unchanged definitions may be announced with this hash only
+     * and no process model content.
+     */
+    String getProcessModelContentHash();
+
 }
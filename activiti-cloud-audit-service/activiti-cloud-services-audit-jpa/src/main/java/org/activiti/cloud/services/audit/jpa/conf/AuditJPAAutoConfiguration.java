@@ -60,6 +60,9 @@ import org.activiti.cloud.services.audit.jpa.converters.TimerScheduledEventConve
 import org.activiti.cloud.services.audit.jpa.converters.VariableCreatedEventConverter;
 import org.activiti.cloud.services.audit.jpa.converters.VariableDeletedEventConverter;
 import org.activiti.cloud.services.audit.jpa.converters.VariableUpdatedEventConverter;
+import org.activiti.cloud.services.audit.jpa.converters.json.AuditPayloadFormat;
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventSearchPlanner;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -75,6 +78,20 @@ public class AuditJPAAutoConfiguration {
         return new EventRepresentationModelAssembler();
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public AuditEventSearchPlanner auditEventSearchPlanner(@Value("${activiti.cloud.audit.search.unindexed-policy:ALLOW}") AuditEventSearchPlanner.UnindexedSearchPolicy unindexedSearchPolicy,
+                                                           @Value("${activiti.cloud.audit.search.max-concurrent-unindexed:2}") int maxConcurrentUnindexedSearches) {
+        return new AuditEventSearchPlanner(unindexedSearchPolicy,
+                                           maxConcurrentUnindexedSearches);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public AuditPayloadFormat auditPayloadFormat(@Value("${activiti.cloud.audit.payload.format:JSON}") AuditPayloadFormat auditPayloadFormat) {
+        return auditPayloadFormat;
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public EventContextInfoAppender eventContextInfoAppender(){
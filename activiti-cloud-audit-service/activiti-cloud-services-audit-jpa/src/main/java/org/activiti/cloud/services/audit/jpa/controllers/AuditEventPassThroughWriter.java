@@ -0,0 +1,252 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.activiti.api.model.shared.event.VariableEvent;
+import org.activiti.api.process.model.events.BPMNActivityEvent;
+import org.activiti.api.process.model.events.BPMNErrorReceivedEvent;
+import org.activiti.api.process.model.events.BPMNMessageEvent;
+import org.activiti.api.process.model.events.BPMNSignalEvent;
+import org.activiti.api.process.model.events.BPMNTimerEvent;
+import org.activiti.api.process.model.events.ProcessDeployedEvent;
+import org.activiti.api.process.model.events.ProcessRuntimeEvent;
+import org.activiti.api.process.model.events.SequenceFlowEvent;
+import org.activiti.api.runtime.model.impl.BPMNActivityImpl;
+import org.activiti.api.runtime.model.impl.BPMNErrorImpl;
+import org.activiti.api.runtime.model.impl.BPMNMessageImpl;
+import org.activiti.api.runtime.model.impl.BPMNSequenceFlowImpl;
+import org.activiti.api.runtime.model.impl.BPMNSignalImpl;
+import org.activiti.api.runtime.model.impl.BPMNTimerImpl;
+import org.activiti.api.runtime.model.impl.ProcessDefinitionImpl;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.api.runtime.model.impl.VariableInstanceImpl;
+import org.activiti.api.task.model.events.TaskCandidateGroupEvent;
+import org.activiti.api.task.model.events.TaskCandidateUserEvent;
+import org.activiti.api.task.model.events.TaskRuntimeEvent;
+import org.activiti.api.task.model.impl.TaskCandidateGroupImpl;
+import org.activiti.api.task.model.impl.TaskCandidateUserImpl;
+import org.activiti.api.task.model.impl.TaskImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventRawRow;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+
+/**
+ * Writes a page of audit events in the HAL layout of the events collection straight from the
+ * stored columns, splicing the stored payload in as the event entity. Dates of the payload are
+ * rewritten the way the object mapper writes them, as for converted events.
+ */
+public class AuditEventPassThroughWriter {
+
+    /**
+     * Payload types of the event types whose API representation is the common columns plus a single payload
+     * column. Other events carry extra or computed properties and must go through their converter.
+     */
+    private static final Map<String, Class<?>> PASS_THROUGH_PAYLOAD_TYPES = new HashMap<>();
+
+    static {
+        passThrough(ProcessInstanceImpl.class,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_CREATED,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_STARTED,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_COMPLETED,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_SUSPENDED,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_RESUMED,
+                    ProcessRuntimeEvent.ProcessEvents.PROCESS_UPDATED);
+        passThrough(ProcessDefinitionImpl.class,
+                    ProcessDeployedEvent.ProcessDefinitionEvents.PROCESS_DEPLOYED);
+        passThrough(TaskImpl.class,
+                    TaskRuntimeEvent.TaskEvents.TASK_CREATED,
+                    TaskRuntimeEvent.TaskEvents.TASK_ASSIGNED,
+                    TaskRuntimeEvent.TaskEvents.TASK_COMPLETED,
+                    TaskRuntimeEvent.TaskEvents.TASK_UPDATED,
+                    TaskRuntimeEvent.TaskEvents.TASK_SUSPENDED,
+                    TaskRuntimeEvent.TaskEvents.TASK_CANCELLED);
+        passThrough(TaskCandidateUserImpl.class,
+                    TaskCandidateUserEvent.TaskCandidateUserEvents.TASK_CANDIDATE_USER_ADDED,
+                    TaskCandidateUserEvent.TaskCandidateUserEvents.TASK_CANDIDATE_USER_REMOVED);
+        passThrough(TaskCandidateGroupImpl.class,
+                    TaskCandidateGroupEvent.TaskCandidateGroupEvents.TASK_CANDIDATE_GROUP_ADDED,
+                    TaskCandidateGroupEvent.TaskCandidateGroupEvents.TASK_CANDIDATE_GROUP_REMOVED);
+        passThrough(BPMNActivityImpl.class,
+                    BPMNActivityEvent.ActivityEvents.ACTIVITY_STARTED,
+                    BPMNActivityEvent.ActivityEvents.ACTIVITY_COMPLETED);
+        passThrough(BPMNSequenceFlowImpl.class,
+                    SequenceFlowEvent.SequenceFlowEvents.SEQUENCE_FLOW_TAKEN);
+        passThrough(BPMNSignalImpl.class,
+                    BPMNSignalEvent.SignalEvents.SIGNAL_RECEIVED);
+        passThrough(BPMNTimerImpl.class,
+                    BPMNTimerEvent.TimerEvents.TIMER_SCHEDULED,
+                    BPMNTimerEvent.TimerEvents.TIMER_FIRED,
+                    BPMNTimerEvent.TimerEvents.TIMER_CANCELLED,
+                    BPMNTimerEvent.TimerEvents.TIMER_EXECUTED,
+                    BPMNTimerEvent.TimerEvents.TIMER_FAILED,
+                    BPMNTimerEvent.TimerEvents.TIMER_RETRIES_DECREMENTED);
+        passThrough(BPMNErrorImpl.class,
+                    BPMNErrorReceivedEvent.ErrorEvents.ERROR_RECEIVED);
+        passThrough(BPMNMessageImpl.class,
+                    BPMNMessageEvent.MessageEvents.MESSAGE_WAITING,
+                    BPMNMessageEvent.MessageEvents.MESSAGE_RECEIVED,
+                    BPMNMessageEvent.MessageEvents.MESSAGE_SENT);
+        passThrough(VariableInstanceImpl.class,
+                    VariableEvent.VariableEvents.VARIABLE_CREATED,
+                    VariableEvent.VariableEvents.VARIABLE_DELETED);
+    }
+
+    private static void passThrough(Class<?> payloadType,
+                                    Enum<?>... eventTypes) {
+        for (Enum<?> eventType : eventTypes) {
+            PASS_THROUGH_PAYLOAD_TYPES.put(eventType.name(), payloadType);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final AuditPayloadTranscoder payloadTranscoder;
+
+    public AuditEventPassThroughWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.payloadTranscoder = new AuditPayloadTranscoder(objectMapper,
+                                                            new HashSet<>(PASS_THROUGH_PAYLOAD_TYPES.values()));
+    }
+
+    public static boolean isPassThrough(AuditEventRawRow row) {
+        return PASS_THROUGH_PAYLOAD_TYPES.containsKey(row.getEventType());
+    }
+
+    /**
+     * @param page       the page of event ids, in response order, with the page metadata and links of the collection
+     * @param rows       the stored columns of the events of the page, by id
+     * @param converted  the converted events of the page that are not pass-through, by id
+     * @param selfBase   the base of the self link of each event
+     */
+    public void write(OutputStream outputStream,
+                      PagedModel<EntityModel<Long>> page,
+                      Map<Long, AuditEventRawRow> rows,
+                      Map<Long, CloudRuntimeEvent<?, ?>> converted,
+                      String selfBase) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("_embedded");
+            generator.writeArrayFieldStart("events");
+            for (EntityModel<Long> model : page.getContent()) {
+                Long id = model.getContent();
+                AuditEventRawRow row = rows.get(id);
+                CloudRuntimeEvent<?, ?> event = converted.get(id);
+                if (event != null) {
+                    writeConverted(generator, event, selfBase);
+                } else if (row != null) {
+                    writeRaw(generator, row, selfBase);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            writePageLinks(generator, page);
+            if (page.getMetadata() != null) {
+                generator.writeObjectField("page", page.getMetadata());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeRaw(JsonGenerator generator,
+                          AuditEventRawRow row,
+                          String selfBase) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("eventType", row.getEventType());
+        generator.writeStringField("id", row.getEventId());
+        generator.writeFieldName("timestamp");
+        writeNumber(generator, row.getTimestamp());
+        generator.writeStringField("entityId", row.getEntityId());
+        generator.writeFieldName("entity");
+        if (row.getPayload() != null) {
+            payloadTranscoder.copy(row.getPayload(), PASS_THROUGH_PAYLOAD_TYPES.get(row.getEventType()), generator);
+        } else {
+            generator.writeNull();
+        }
+        generator.writeStringField("appName", row.getAppName());
+        generator.writeStringField("appVersion", row.getAppVersion());
+        generator.writeStringField("serviceName", row.getServiceName());
+        generator.writeStringField("serviceFullName", row.getServiceFullName());
+        generator.writeStringField("serviceType", row.getServiceType());
+        generator.writeStringField("serviceVersion", row.getServiceVersion());
+        generator.writeStringField("messageId", row.getMessageId());
+        generator.writeFieldName("sequenceNumber");
+        writeNumber(generator, row.getSequenceNumber() != null ? row.getSequenceNumber().longValue() : null);
+        generator.writeStringField("processInstanceId", row.getProcessInstanceId());
+        generator.writeStringField("processDefinitionId", row.getProcessDefinitionId());
+        generator.writeStringField("processDefinitionKey", row.getProcessDefinitionKey());
+        generator.writeStringField("businessKey", row.getBusinessKey());
+        generator.writeStringField("parentProcessInstanceId", row.getParentProcessInstanceId());
+        writeLinks(generator, selfBase, row.getEventId());
+        generator.writeEndObject();
+    }
+
+    private void writeConverted(JsonGenerator generator,
+                                CloudRuntimeEvent<?, ?> event,
+                                String selfBase) throws IOException {
+        ObjectNode node = objectMapper.valueToTree(event);
+        node.putObject("_links")
+            .putObject("self")
+            .put("href", selfBase + "/" + event.getId());
+        generator.writeTree(node);
+    }
+
+    private void writeLinks(JsonGenerator generator,
+                            String selfBase,
+                            String eventId) throws IOException {
+        generator.writeObjectFieldStart("_links");
+        generator.writeObjectFieldStart("self");
+        generator.writeStringField("href", selfBase + "/" + eventId);
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writePageLinks(JsonGenerator generator,
+                                PagedModel<EntityModel<Long>> page) throws IOException {
+        if (!page.hasLinks()) {
+            return;
+        }
+        generator.writeObjectFieldStart("_links");
+        for (Link link : page.getLinks()) {
+            generator.writeObjectFieldStart(link.getRel().value());
+            generator.writeStringField("href", link.getHref());
+            if (link.isTemplated()) {
+                generator.writeBooleanField("templated", true);
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeNumber(JsonGenerator generator,
+                             Long value) throws IOException {
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+}
@@ -15,7 +15,10 @@
  */
 package org.activiti.cloud.services.audit.jpa.controllers;
 
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.alfresco.data.domain.KeysetPage;
+import org.activiti.cloud.alfresco.data.domain.KeysetPageExecutor;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.services.audit.api.controllers.AuditEventsAdminController;
 import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
@@ -62,9 +65,15 @@ public class AuditEventsAdminControllerImpl implements AuditEventsAdminControlle
         this.pagedCollectionModelAssembler = pagedCollectionModelAssembler;
     }
 
+    @SuppressWarnings("unchecked")
     @RequestMapping(method = RequestMethod.GET)
     public PagedModel<EntityModel<CloudRuntimeEvent<?, CloudRuntimeEventType>>> findAll(Pageable pageable) {
-        Page<AuditEventEntity> allAuditInPage = eventsRepository.findAll(pageable);
+        Page<AuditEventEntity> allAuditInPage;
+        if (pageable instanceof AlfrescoKeysetPageRequest) {
+            allAuditInPage = findAllAfter((AlfrescoKeysetPageRequest) pageable);
+        } else {
+            allAuditInPage = eventsRepository.findAll(pageable);
+        }
 
         List<CloudRuntimeEvent<?, CloudRuntimeEventType>> events = new ArrayList<>();
 
@@ -72,10 +81,25 @@ public class AuditEventsAdminControllerImpl implements AuditEventsAdminControlle
             events.add(eventConverters.getConverterByEventTypeName(aee.getEventType()).convertToAPI(aee));
         }
 
+        Page<CloudRuntimeEvent<?, CloudRuntimeEventType>> eventsPage = allAuditInPage instanceof KeysetPage ?
+            ((KeysetPage<AuditEventEntity>) allAuditInPage).withContent(events) :
+            new PageImpl<>(events,
+                           pageable,
+                           allAuditInPage.getTotalElements());
+
         return pagedCollectionModelAssembler.toModel(pageable,
-                                                  new PageImpl<>(events,
-                                                                 pageable,
-                                                                 allAuditInPage.getTotalElements()),
+                                                  eventsPage,
                                                   eventRepresentationModelAssembler);
     }
+
+    @SuppressWarnings("unchecked")
+    private Page<AuditEventEntity> findAllAfter(AlfrescoKeysetPageRequest pageable) {
+        return KeysetPageExecutor.getPage(AuditEventEntity.class,
+                                          pageable,
+                                          (sort, keyValues, limit) -> eventsRepository.findAllAfter(null,
+                                                                                                    sort,
+                                                                                                    keyValues,
+                                                                                                    limit),
+                                          eventsRepository::count);
+    }
 }
@@ -15,11 +15,14 @@
  */
 package org.activiti.cloud.services.audit.jpa.controllers;
 
-import static java.util.stream.Collectors.joining;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 
-import java.util.Arrays;
+import java.io.IOException;
 import org.activiti.api.runtime.shared.NotFoundException;
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.alfresco.data.domain.KeysetPage;
+import org.activiti.cloud.alfresco.data.domain.KeysetPageExecutor;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.services.audit.api.controllers.AuditEventsController;
 import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
@@ -28,12 +31,14 @@ import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
 import org.activiti.cloud.services.audit.api.resources.EventsLinkRelationProvider;
 import org.activiti.cloud.services.audit.jpa.assembler.EventRepresentationModelAssembler;
 import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventRawRow;
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventSearchPlanner;
 import org.activiti.cloud.services.audit.jpa.repository.EventSpecificationsBuilder;
 import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
-import org.activiti.cloud.services.audit.jpa.repository.SearchOperation;
 import org.activiti.cloud.services.audit.jpa.security.SecurityPoliciesApplicationServiceImpl;
 import org.activiti.core.common.spring.security.policies.ActivitiForbiddenException;
 import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,18 +49,21 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping(value = "/v1/" + EventsLinkRelationProvider.COLLECTION_RESOURCE_REL, produces = {MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
@@ -73,17 +81,25 @@ public class AuditEventsControllerImpl implements AuditEventsController {
 
     private final APIEventToEntityConverters eventConverters;
 
+    private final AuditEventSearchPlanner searchPlanner;
+
+    private final AuditEventPassThroughWriter passThroughWriter;
+
     @Autowired
     public AuditEventsControllerImpl(EventsRepository eventsRepository,
                                      EventRepresentationModelAssembler eventRepresentationModelAssembler,
                                      APIEventToEntityConverters eventConverters,
                                      SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService,
-                                     AlfrescoPagedModelAssembler<CloudRuntimeEvent<?, CloudRuntimeEventType>> pagedCollectionModelAssembler) {
+                                     AlfrescoPagedModelAssembler<CloudRuntimeEvent<?, CloudRuntimeEventType>> pagedCollectionModelAssembler,
+                                     AuditEventSearchPlanner searchPlanner,
+                                     ObjectMapper objectMapper) {
         this.eventsRepository = eventsRepository;
         this.eventRepresentationModelAssembler = eventRepresentationModelAssembler;
         this.eventConverters = eventConverters;
         this.pagedCollectionModelAssembler = pagedCollectionModelAssembler;
         this.securityPoliciesApplicationService = securityPoliciesApplicationService;
+        this.searchPlanner = searchPlanner;
+        this.passThroughWriter = new AuditEventPassThroughWriter(objectMapper);
     }
 
     @RequestMapping(value = "/{eventId}", method = RequestMethod.GET)
@@ -106,13 +122,16 @@ public class AuditEventsControllerImpl implements AuditEventsController {
     public PagedModel<EntityModel<CloudRuntimeEvent<?, CloudRuntimeEventType>>> findAll(@RequestParam(value = "search", required = false) String search,
                                                  Pageable pageable) {
 
-        Specification<AuditEventEntity> spec = createSearchSpec(search);
+        EventSpecificationsBuilder searchBuilder = createSearchSpecBuilder(search);
+        AuditEventSearchPlanner.Plan plan = searchBuilder.plan(searchPlanner);
+        LOGGER.debug("Audit event search {}", plan);
 
-        spec = securityPoliciesApplicationService.createSpecWithSecurity(spec,
-                                                                         SecurityPolicyAccess.READ);
+        Specification<AuditEventEntity> spec = securityPoliciesApplicationService.createSpecWithSecurity(searchBuilder.build(),
+                                                                                                         SecurityPolicyAccess.READ);
 
-        Page<AuditEventEntity> allAuditInPage = eventsRepository.findAll(spec,
-                                                                         pageable);
+        Page<AuditEventEntity> allAuditInPage = searchPlanner.execute(plan,
+                                                                      () -> findPage(spec,
+                                                                                     pageable));
         List<CloudRuntimeEvent<?, CloudRuntimeEventType>> events = new ArrayList<>();
 
         for (AuditEventEntity aee : allAuditInPage.getContent()) {
@@ -125,27 +144,105 @@ public class AuditEventsControllerImpl implements AuditEventsController {
         }
 
         return pagedCollectionModelAssembler.toModel(pageable,
-                                                  new PageImpl<>(events,
-                                                                 pageable,
-                                                                 allAuditInPage.getTotalElements()),
+                                                  toEventsPage(allAuditInPage,
+                                                               events,
+                                                               pageable),
                                                   eventRepresentationModelAssembler);
     }
 
-    private Specification<AuditEventEntity> createSearchSpec(String search) {
-        EventSpecificationsBuilder builder = new EventSpecificationsBuilder();
-        if (search != null && !search.isEmpty()) {
-            String operationSetExpr = Arrays.asList(SearchOperation.SIMPLE_OPERATION_SET).stream().collect(joining("|"));
-            Pattern pattern = Pattern.compile("(\\w+?)(" + operationSetExpr + ")(\\p{Punct}?)([a-zA-Z0-9-_]+?)(\\p{Punct}?),");
-            Matcher matcher = pattern.matcher(search + ",");
-            while (matcher.find()) {
-                builder.with(matcher.group(1),
-                             matcher.group(2),
-                             matcher.group(4),
-                             matcher.group(3),
-                             matcher.group(5));
+    /**
+     * Same page as {@link #findAll(String, Pageable)} built from projected columns: stored payloads are
+     * copied into the response without creating entities or API events, except for the event types that
+     * need their converter.
+     */
+    @RequestMapping(method = RequestMethod.GET, params = "projection=raw")
+    @SuppressWarnings("unchecked")
+    public void findAllPassThrough(@RequestParam(value = "search", required = false) String search,
+                                   Pageable pageable,
+                                   HttpServletResponse response) throws IOException {
+        if (pageable instanceof AlfrescoKeysetPageRequest) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                              "Keyset paging is not supported with the raw projection");
+        }
+        EventSpecificationsBuilder searchBuilder = createSearchSpecBuilder(search);
+        AuditEventSearchPlanner.Plan plan = searchBuilder.plan(searchPlanner);
+        Specification<AuditEventEntity> spec = securityPoliciesApplicationService.createSpecWithSecurity(searchBuilder.build(),
+                                                                                                         SecurityPolicyAccess.READ);
+
+        Page<Long> ids = searchPlanner.execute(plan,
+                                               () -> eventsRepository.findIds(spec,
+                                                                              pageable));
+        List<AuditEventRawRow> rawRows = eventsRepository.findRawRows(ids.getContent());
+        Map<Long, AuditEventRawRow> rows = new HashMap<>();
+        List<Long> convertedIds = new ArrayList<>();
+        for (AuditEventRawRow row : rawRows) {
+            rows.put(row.getId(), row);
+            if (!AuditEventPassThroughWriter.isPassThrough(row)) {
+                convertedIds.add(row.getId());
+            }
+        }
+        Map<Long, CloudRuntimeEvent<?, ?>> converted = new HashMap<>();
+        if (!convertedIds.isEmpty()) {
+            for (Object entity : eventsRepository.findAllById(convertedIds)) {
+                AuditEventEntity aee = (AuditEventEntity) entity;
+                EventToEntityConverter converterByEventTypeName = eventConverters.getConverterByEventTypeName(aee.getEventType());
+                if (converterByEventTypeName != null) {
+                    converted.put(aee.getId(), converterByEventTypeName.convertToAPI(aee));
+                } else {
+                    LOGGER.warn("Converter not found for Event Type: " + aee.getEventType());
+                    rows.remove(aee.getId());
+                }
             }
         }
 
-        return builder.build();
+        // the collection links and page metadata are those of the converted listing
+        PagedModel<EntityModel<Long>> page = ((AlfrescoPagedModelAssembler<Long>) (AlfrescoPagedModelAssembler<?>) pagedCollectionModelAssembler)
+            .toModel(pageable,
+                     ids,
+                     EntityModel::of);
+        response.setContentType(MediaTypes.HAL_JSON_VALUE);
+        passThroughWriter.write(response.getOutputStream(),
+                                page,
+                                rows,
+                                converted,
+                                linkTo(AuditEventsControllerImpl.class).toUri().toString());
+    }
+
+    private Page<AuditEventEntity> findPage(Specification<AuditEventEntity> spec,
+                                            Pageable pageable) {
+        if (pageable instanceof AlfrescoKeysetPageRequest) {
+            return findAllAfter(spec,
+                                (AlfrescoKeysetPageRequest) pageable);
+        }
+        return eventsRepository.findAll(spec,
+                                        pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<AuditEventEntity> findAllAfter(Specification<AuditEventEntity> spec,
+                                                AlfrescoKeysetPageRequest pageable) {
+        return KeysetPageExecutor.getPage(AuditEventEntity.class,
+                                          pageable,
+                                          (sort, keyValues, limit) -> eventsRepository.findAllAfter(spec,
+                                                                                                    sort,
+                                                                                                    keyValues,
+                                                                                                    limit),
+                                          () -> eventsRepository.count(spec));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<CloudRuntimeEvent<?, CloudRuntimeEventType>> toEventsPage(Page<AuditEventEntity> allAuditInPage,
+                                                                          List<CloudRuntimeEvent<?, CloudRuntimeEventType>> events,
+                                                                          Pageable pageable) {
+        if (allAuditInPage instanceof KeysetPage) {
+            return ((KeysetPage<AuditEventEntity>) allAuditInPage).withContent(events);
+        }
+        return new PageImpl<>(events,
+                              pageable,
+                              allAuditInPage.getTotalElements());
+    }
+
+    private EventSpecificationsBuilder createSearchSpecBuilder(String search) {
+        return EventSpecificationsBuilder.fromSearch(search);
     }
 }
@@ -22,7 +22,11 @@ import org.activiti.cloud.services.audit.api.resources.EventsLinkRelationProvide
 import org.activiti.cloud.services.audit.jpa.assembler.EventRepresentationModelAssembler;
 import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
 import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.EntityModel;
@@ -34,6 +38,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 @ConditionalOnProperty(name = "activiti.rest.enable-deletion", matchIfMissing = true)
 @RestController
@@ -45,19 +51,29 @@ import java.util.Collection;
         })
 public class AuditEventsDeleteController {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditEventsDeleteController.class);
+
     private final EventsRepository eventsRepository;
 
+    private final AuditTimelineRepository timelineRepository;
+
     private final EventRepresentationModelAssembler eventRepresentationModelAssembler;
 
     private final APIEventToEntityConverters eventConverters;
 
+    private final int purgeChunkSize;
+
     @Autowired
     public AuditEventsDeleteController(EventsRepository eventsRepository,
+                                       AuditTimelineRepository timelineRepository,
                                        EventRepresentationModelAssembler eventRepresentationModelAssembler,
-                                       APIEventToEntityConverters eventConverters) {
+                                       APIEventToEntityConverters eventConverters,
+                                       @Value("${activiti.rest.deletion.chunk-size:500}") int purgeChunkSize) {
         this.eventsRepository = eventsRepository;
+        this.timelineRepository = timelineRepository;
         this.eventRepresentationModelAssembler = eventRepresentationModelAssembler;
         this.eventConverters = eventConverters;
+        this.purgeChunkSize = purgeChunkSize;
     }
 
     @RequestMapping(method = RequestMethod.DELETE)
@@ -65,17 +81,38 @@ public class AuditEventsDeleteController {
 
         Collection<EntityModel<CloudRuntimeEvent<?, CloudRuntimeEventType>>> result = new ArrayList<>();
         Iterable <AuditEventEntity> iterable = eventsRepository.findAll();
+        Long maxId = null;
 
         for(AuditEventEntity entity : iterable){
             result.add(eventRepresentationModelAssembler.toModel(
                     eventConverters.getConverterByEventTypeName(entity.getEventType()).convertToAPI(entity)
             ));
+            if (entity.getId() != null && (maxId == null || entity.getId() > maxId)) {
+                maxId = entity.getId();
+            }
         }
 
         eventsRepository.deleteAll(iterable);
+        if (maxId != null) {
+            timelineRepository.deleteUpTo(maxId);
+        }
 
         return CollectionModel.of(result);
     }
 
+    /**
+     * Deletes all the events in chunks, without loading them, and returns the number of deleted events.
+     */
+    @RequestMapping(method = RequestMethod.DELETE, params = "purge=true")
+    public Map<String, Long> purgeEvents() {
+        long deleted = 0;
+        long deletedInChunk;
+        do {
+            deletedInChunk = eventsRepository.deleteOldest(purgeChunkSize);
+            deleted += deletedInChunk;
+            LOGGER.info("Purged {} audit events so far", deleted);
+        } while (deletedInChunk >= purgeChunkSize);
 
+        return Collections.singletonMap("AuditEvent", deleted);
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.activiti.api.runtime.shared.NotFoundException;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
+import org.activiti.cloud.services.audit.api.resources.EventsLinkRelationProvider;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.EventSpecificationsBuilder;
+import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.activiti.cloud.services.audit.jpa.security.SecurityPoliciesApplicationServiceImpl;
+import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Streams audit history as newline delimited JSON, one API event per line in id order, from a
+ * database cursor. An interrupted export is resumed by passing the id of the last received event.
+ * <p>
+ * Exports are written by a thread of their own and are bounded by {@code activiti.cloud.audit.export.timeout}
+ * (1h by default, 0 or less for none) rather than by the MVC async request timeout, which is far too short
+ * for exporting a large history.
+ */
+@RestController
+@RequestMapping(value = "/admin/v1/" + EventsLinkRelationProvider.COLLECTION_RESOURCE_REL + "/export")
+public class AuditEventsExportController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditEventsExportController.class);
+
+    private final EventsRepository eventsRepository;
+
+    private final APIEventToEntityConverters eventConverters;
+
+    private final SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter eventWriter;
+
+    private final int fetchSize;
+
+    private final Duration timeout;
+
+    private final SimpleAsyncTaskExecutor exportExecutor = new SimpleAsyncTaskExecutor("audit-export-");
+
+    @Autowired
+    public AuditEventsExportController(EventsRepository eventsRepository,
+                                       APIEventToEntityConverters eventConverters,
+                                       SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectMapper objectMapper,
+                                       @Value("${activiti.cloud.audit.export.fetch-size:500}") int fetchSize,
+                                       @Value("${activiti.cloud.audit.export.timeout:1h}") Duration timeout) {
+        this.eventsRepository = eventsRepository;
+        this.eventConverters = eventConverters;
+        this.securityPoliciesApplicationService = securityPoliciesApplicationService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // the generator is flushed once per fetched chunk rather than after every event
+        this.eventWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ResponseBodyEmitter> export(@RequestParam(value = "search", required = false) String search,
+                                                      @RequestParam(value = "after", required = false) String afterEventId) {
+        Long afterId = afterEventId != null ? findId(afterEventId) : null;
+        // security restrictions are resolved on the request thread, the body is written asynchronously
+        Specification<AuditEventEntity> spec = securityPoliciesApplicationService.createSpecWithSecurity(EventSpecificationsBuilder.fromSearch(search).build(),
+                                                                                                         SecurityPolicyAccess.READ);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.isNegative() || timeout.isZero() ? -1L : timeout.toMillis());
+        exportExecutor.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(new EmitterOutputStream(emitter),
+                                                                         spec,
+                                                                         afterId));
+                emitter.complete();
+            } catch (RuntimeException e) {
+                LOGGER.error("Audit events export failed", e);
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                             .contentType(NDJSON)
+                             .body(emitter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long findId(String eventId) {
+        Optional<AuditEventEntity> event = eventsRepository.findByEventId(eventId);
+        return event.map(AuditEventEntity::getId)
+                    .orElseThrow(() -> new NotFoundException("Unable to find event for the given id:'" + eventId + "'"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(OutputStream outputStream,
+                       Specification<AuditEventEntity> spec,
+                       Long afterId) {
+        try (Stream<AuditEventEntity> events = eventsRepository.streamAfter(spec, afterId, fetchSize);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long count = 0;
+            Iterator<AuditEventEntity> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                AuditEventEntity event = iterator.next();
+                EventToEntityConverter converter = eventConverters.getConverterByEventTypeName(event.getEventType());
+                if (converter != null) {
+                    eventWriter.writeValue(generator, converter.convertToAPI(event));
+                } else {
+                    LOGGER.warn("Converter not found for Event Type: " + event.getEventType());
+                }
+                // keep the persistence context, and so the memory used, constant whatever the export size
+                entityManager.detach(event);
+                if (++count % fetchSize == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sends what the generator wrote since its last flush as one chunk of the response.
+     */
+    private static class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() > 0) {
+                emitter.send(buffer.toByteArray(), NDJSON);
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
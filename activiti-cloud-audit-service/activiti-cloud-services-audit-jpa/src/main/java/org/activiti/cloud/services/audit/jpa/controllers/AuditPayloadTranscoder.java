@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.activiti.cloud.services.audit.jpa.converters.json.AuditPayloadCodec;
+
+/**
+ * Copies stored payloads into a response, writing their date properties the way the response object mapper
+ * does. Payloads are stored by a plain object mapper that writes dates as epoch millis, whereas the API mapper
+ * usually writes them as ISO-8601 strings; the date properties are found from the payload type.
+ */
+class AuditPayloadTranscoder {
+
+    private final boolean datesAsTimestamps;
+    private final Map<Class<?>, Shape> shapes = new HashMap<>();
+
+    AuditPayloadTranscoder(ObjectMapper objectMapper,
+                           Set<Class<?>> payloadTypes) {
+        this.datesAsTimestamps = objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        for (Class<?> payloadType : payloadTypes) {
+            Shape shape = shapeOf(objectMapper, objectMapper.constructType(payloadType), new HashSet<>());
+            if (shape != null) {
+                shapes.put(payloadType, shape);
+            }
+        }
+    }
+
+    void copy(String payload,
+              Class<?> payloadType,
+              JsonGenerator generator) throws IOException {
+        Shape shape = shapes.get(payloadType);
+        if (datesAsTimestamps || shape == null) {
+            AuditPayloadCodec.copyPayload(payload, generator);
+            return;
+        }
+        try (JsonParser parser = AuditPayloadCodec.createParser(payload)) {
+            parser.nextToken();
+            copy(parser, generator, shape);
+        }
+    }
+
+    private static void copy(JsonParser parser,
+                             JsonGenerator generator,
+                             Shape shape) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (shape == null) {
+            generator.copyCurrentStructure(parser);
+        } else if (shape.date && token == JsonToken.VALUE_NUMBER_INT) {
+            generator.writeObject(new Date(parser.getLongValue()));
+        } else if (token == JsonToken.START_OBJECT && !shape.properties.isEmpty()) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                generator.writeFieldName(name);
+                parser.nextToken();
+                copy(parser, generator, shape.properties.get(name));
+            }
+            generator.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY && shape.content != null) {
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                copy(parser, generator, shape.content);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * @return the shape of the type, or null when its values contain no date
+     */
+    private static Shape shapeOf(ObjectMapper objectMapper,
+                                 JavaType type,
+                                 Set<JavaType> visiting) {
+        Class<?> rawClass = type.getRawClass();
+        if (Date.class.isAssignableFrom(rawClass)) {
+            return Shape.DATE;
+        }
+        if (type.isArrayType() || type.isCollectionLikeType()) {
+            Shape content = shapeOf(objectMapper, type.getContentType(), visiting);
+            return content != null ? new Shape(Collections.emptyMap(), content) : null;
+        }
+        if (rawClass.isEnum() || rawClass.getPackage() == null || !rawClass.getPackage().getName().startsWith("org.activiti")
+            || !visiting.add(type)) {
+            return null;
+        }
+        Map<String, Shape> properties = new HashMap<>();
+        for (BeanPropertyDefinition property : objectMapper.getSerializationConfig().introspect(type).findProperties()) {
+            if (property.couldSerialize()) {
+                Shape shape = shapeOf(objectMapper, property.getPrimaryType(), visiting);
+                if (shape != null) {
+                    properties.put(property.getName(), shape);
+                }
+            }
+        }
+        visiting.remove(type);
+        return properties.isEmpty() ? null : new Shape(properties, null);
+    }
+
+    private static class Shape {
+
+        private static final Shape DATE = new Shape();
+
+        private final boolean date;
+        private final Map<String, Shape> properties;
+        private final Shape content;
+
+        private Shape() {
+            this.date = true;
+            this.properties = Collections.emptyMap();
+            this.content = null;
+        }
+
+        private Shape(Map<String, Shape> properties,
+                      Shape content) {
+            this.date = false;
+            this.properties = properties;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoPageRequest;
+import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.converters.CloudRuntimeEventType;
+import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
+import org.activiti.cloud.services.audit.jpa.assembler.EventRepresentationModelAssembler;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.activiti.cloud.services.audit.jpa.security.SecurityPoliciesApplicationServiceImpl;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRepository;
+import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the events of a process instance tree in timeline order from the timeline of its root instance,
+ * instead of searching and sorting the whole audit table. The timeline of a called process instance is
+ * the one of its root instance. Timelines are only recorded when {@code activiti.cloud.audit.timeline.enabled}
+ * is set.
+ */
+@RestController
+@ConditionalOnProperty(name = "activiti.cloud.audit.timeline.enabled", havingValue = "true")
+@RequestMapping(value = "/v1/process-instances", produces = {MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+public class AuditProcessInstanceTimelineController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditProcessInstanceTimelineController.class);
+
+    private final AuditTimelineRepository timelineRepository;
+
+    private final EventsRepository eventsRepository;
+
+    private final EventRepresentationModelAssembler eventRepresentationModelAssembler;
+
+    private final AlfrescoPagedModelAssembler<CloudRuntimeEvent<?, CloudRuntimeEventType>> pagedCollectionModelAssembler;
+
+    private final SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService;
+
+    private final APIEventToEntityConverters eventConverters;
+
+    @Autowired
+    public AuditProcessInstanceTimelineController(AuditTimelineRepository timelineRepository,
+                                                  EventsRepository eventsRepository,
+                                                  EventRepresentationModelAssembler eventRepresentationModelAssembler,
+                                                  APIEventToEntityConverters eventConverters,
+                                                  SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService,
+                                                  AlfrescoPagedModelAssembler<CloudRuntimeEvent<?, CloudRuntimeEventType>> pagedCollectionModelAssembler) {
+        this.timelineRepository = timelineRepository;
+        this.eventsRepository = eventsRepository;
+        this.eventRepresentationModelAssembler = eventRepresentationModelAssembler;
+        this.eventConverters = eventConverters;
+        this.securityPoliciesApplicationService = securityPoliciesApplicationService;
+        this.pagedCollectionModelAssembler = pagedCollectionModelAssembler;
+    }
+
+    @RequestMapping(value = "/{processInstanceId}/timeline", method = RequestMethod.GET)
+    @SuppressWarnings("unchecked")
+    public PagedModel<EntityModel<CloudRuntimeEvent<?, CloudRuntimeEventType>>> findTimeline(@PathVariable String processInstanceId,
+                                                                                            Pageable pageable) {
+        if (pageable instanceof AlfrescoKeysetPageRequest) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                              "Keyset paging is not supported for process instance timelines");
+        }
+        String rootProcessInstanceId = timelineRepository.findRootProcessInstanceId(processInstanceId)
+                                                         .orElse(processInstanceId);
+        // timelines have a fixed order, the requested sort does not apply
+        Page<Long> ids = eventsRepository.findTimelineIds(rootProcessInstanceId,
+                                                          securityPoliciesApplicationService.createSpecWithSecurity(null,
+                                                                                                                    SecurityPolicyAccess.READ),
+                                                          new AlfrescoPageRequest(pageable.getOffset(),
+                                                                                  pageable.getPageSize(),
+                                                                                  PageRequest.of(0, pageable.getPageSize())));
+
+        Iterable<AuditEventEntity> entities = ids.isEmpty() ? Collections.emptyList() : eventsRepository.findAllById(ids.getContent());
+        Map<Long, AuditEventEntity> entitiesById = new HashMap<>();
+        entities.forEach(entity -> entitiesById.put(entity.getId(), entity));
+
+        List<CloudRuntimeEvent<?, CloudRuntimeEventType>> events = new ArrayList<>();
+        for (Long id : ids.getContent()) {
+            AuditEventEntity aee = entitiesById.get(id);
+            if (aee == null) {
+                continue;
+            }
+            EventToEntityConverter converterByEventTypeName = eventConverters.getConverterByEventTypeName(aee.getEventType());
+            if (converterByEventTypeName != null) {
+                events.add(converterByEventTypeName.convertToAPI(aee));
+            } else {
+                LOGGER.warn("Converter not found for Event Type: " + aee.getEventType());
+            }
+        }
+
+        return pagedCollectionModelAssembler.toModel(pageable,
+                                                     new PageImpl<>(events,
+                                                                    pageable,
+                                                                    ids.getTotalElements()),
+                                                     eventRepresentationModelAssembler);
+    }
+}
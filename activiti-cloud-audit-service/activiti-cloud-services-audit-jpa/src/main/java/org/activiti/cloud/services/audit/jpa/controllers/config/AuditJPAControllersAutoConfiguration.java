@@ -18,6 +18,8 @@ package org.activiti.cloud.services.audit.jpa.controllers.config;
 import org.activiti.cloud.services.audit.jpa.controllers.AuditEventsAdminControllerImpl;
 import org.activiti.cloud.services.audit.jpa.controllers.AuditEventsControllerImpl;
 import org.activiti.cloud.services.audit.jpa.controllers.AuditEventsDeleteController;
+import org.activiti.cloud.services.audit.jpa.controllers.AuditEventsExportController;
+import org.activiti.cloud.services.audit.jpa.controllers.AuditProcessInstanceTimelineController;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
@@ -25,7 +27,9 @@ import org.springframework.context.annotation.Import;
 @Import({
     AuditEventsAdminControllerImpl.class,
     AuditEventsControllerImpl.class,
-    AuditEventsDeleteController.class
+    AuditEventsDeleteController.class,
+    AuditEventsExportController.class,
+    AuditProcessInstanceTimelineController.class
 })
 public class AuditJPAControllersAutoConfiguration {
 
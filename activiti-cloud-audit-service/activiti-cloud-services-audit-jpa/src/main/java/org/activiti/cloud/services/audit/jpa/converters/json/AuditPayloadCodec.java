@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.converters.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodes audit payload columns either as JSON or as compact deflated Smile. The format is
+ * detected on read from the first characters, so rows written in any format stay readable
+ * whatever the format currently used for writing.
+ */
+public class AuditPayloadCodec<T> {
+
+    static final String COMPACT_HEADER = "#S";
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ObjectReader jsonReader;
+    private final ObjectWriter jsonWriter;
+    private final ObjectReader compactReader;
+    private final ObjectWriter compactWriter;
+    private final AuditPayloadFormat writeFormat;
+
+    public AuditPayloadCodec(ObjectMapper jsonMapper,
+                             ObjectMapper compactMapper,
+                             JavaType type,
+                             AuditPayloadFormat writeFormat) {
+        this.jsonReader = jsonMapper.readerFor(type);
+        this.jsonWriter = jsonMapper.writerFor(type);
+        this.compactReader = compactMapper.readerFor(type);
+        this.compactWriter = compactMapper.writerFor(type);
+        this.writeFormat = writeFormat;
+    }
+
+    public AuditPayloadFormat getWriteFormat() {
+        return writeFormat;
+    }
+
+    public String encode(T value) throws IOException {
+        if (writeFormat == AuditPayloadFormat.JSON) {
+            return jsonWriter.writeValueAsString(value);
+        }
+        Buffer buffer = BUFFERS.get();
+        Deflater deflater = DEFLATERS.get();
+        try {
+            buffer.reset();
+            deflater.reset();
+            try (DeflaterOutputStream output = new DeflaterOutputStream(buffer, deflater, 512)) {
+                compactWriter.writeValue(output, value);
+            }
+            ByteBuffer encoded = Base64.getEncoder().encode(buffer.toByteBuffer());
+            return COMPACT_HEADER + StandardCharsets.ISO_8859_1.decode(encoded);
+        } finally {
+            buffer.trim();
+        }
+    }
+
+    public T decode(String text) throws IOException {
+        if (!text.startsWith(COMPACT_HEADER)) {
+            return jsonReader.readValue(text);
+        }
+        return compactReader.readValue(openCompact(text));
+    }
+
+    /**
+     * Writes a stored payload as JSON into the generator without binding it to any object:
+     * JSON is written as is and compact payloads are transcoded token by token.
+     */
+    public static void copyPayload(String text,
+                                   JsonGenerator generator) throws IOException {
+        if (!text.startsWith(COMPACT_HEADER)) {
+            generator.writeRawValue(text);
+            return;
+        }
+        try (JsonParser parser = SMILE_FACTORY.createParser(openCompact(text))) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * Opens a parser on a stored payload whatever its format.
+     */
+    public static JsonParser createParser(String text) throws IOException {
+        if (!text.startsWith(COMPACT_HEADER)) {
+            return JSON_FACTORY.createParser(text);
+        }
+        return SMILE_FACTORY.createParser(openCompact(text));
+    }
+
+    private static InflaterInputStream openCompact(String text) {
+        byte[] compressed = Base64.getDecoder().decode(text.substring(COMPACT_HEADER.length()));
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        return new InflaterInputStream(new ByteArrayInputStream(compressed), inflater, 512);
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(1024);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        void trim() {
+            // don't keep the buffer of an unusually large payload for the lifetime of the thread
+            if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+                buf = new byte[1024];
+            }
+        }
+    }
+}
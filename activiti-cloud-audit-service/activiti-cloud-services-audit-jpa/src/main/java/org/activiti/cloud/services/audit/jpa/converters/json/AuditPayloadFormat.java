@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.converters.json;
+
+public enum AuditPayloadFormat {
+
+    /**
+     * Plain JSON text, as written by all previous versions.
+     */
+    JSON,
+
+    /**
+     * Deflated Smile, stored as base64 text behind a header so it can be told apart from JSON.
+     */
+    COMPACT
+}
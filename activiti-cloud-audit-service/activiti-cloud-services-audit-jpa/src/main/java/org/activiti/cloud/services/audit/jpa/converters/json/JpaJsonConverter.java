@@ -47,7 +47,7 @@ import org.activiti.api.task.model.Task;
 import org.activiti.api.task.model.impl.TaskImpl;
 import org.activiti.cloud.services.audit.api.AuditException;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.DeserializationConfig;
@@ -56,12 +56,17 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleAbstractTypeResolver;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 public class JpaJsonConverter<T> implements AttributeConverter<T, String> {
 
-    private final static ObjectMapper objectMapper = new ObjectMapper();
+    private final static ObjectMapper objectMapper = createObjectMapper(new JsonFactory());
 
-    static {
+    private final static ObjectMapper compactObjectMapper = createObjectMapper(new SmileFactory());
+
+    private static ObjectMapper createObjectMapper(JsonFactory jsonFactory) {
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
         {
             SimpleModule module = new SimpleModule("mapCommonModelInterfaces",
                                                    Version.unknownVersion());
@@ -108,19 +113,35 @@ public class JpaJsonConverter<T> implements AttributeConverter<T, String> {
             objectMapper.registerModule(module);
             objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         }
+        return objectMapper;
     }
 
-    private Class<T> entityClass;
+    private final JavaType entityType;
+
+    private AuditPayloadCodec<T> payloadCodec;
 
     public JpaJsonConverter(Class<T> entityClass) {
-        this.entityClass = entityClass;
+        this.entityType = objectMapper.constructType(entityClass);
+        setPayloadFormat(AuditPayloadFormat.JSON);
+    }
+
+    /**
+     * Sets the format used for writing payloads. Converters are created by Hibernate through the Spring bean
+     * container, which injects the {@link AuditPayloadFormat} bean when there is one.
+     */
+    @Autowired(required = false)
+    public void setPayloadFormat(AuditPayloadFormat payloadFormat) {
+        this.payloadCodec = new AuditPayloadCodec<>(objectMapper,
+                                                    compactObjectMapper,
+                                                    entityType,
+                                                    payloadFormat);
     }
 
     @Override
     public String convertToDatabaseColumn(T entity) {
         try {
-            return objectMapper.writeValueAsString(entity);
-        } catch (JsonProcessingException e) {
+            return payloadCodec.encode(entity);
+        } catch (IOException e) {
             throw new AuditException("Unable to serialize object.",
                                      e);
         }
@@ -130,8 +151,7 @@ public class JpaJsonConverter<T> implements AttributeConverter<T, String> {
     public T convertToEntityAttribute(String entityTextRepresentation) {
         try {
             if(entityTextRepresentation != null && entityTextRepresentation.length() > 0) {
-                return objectMapper.readValue(entityTextRepresentation,
-                                              entityClass);
+                return payloadCodec.decode(entityTextRepresentation);
             } else {
                 return null;
             }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+public class AuditPartition {
+
+    private final String name;
+    private final Long upperBound;
+
+    public AuditPartition(String name,
+                          Long upperBound) {
+        this.name = name;
+        this.upperBound = upperBound;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the exclusive upper bound, in epoch millis, of the partition, or null for a default partition.
+     */
+    public Long getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+public interface AuditPartitionDialect {
+
+    String TABLE_NAME = "audit_event";
+
+    String TIMELINE_TABLE_NAME = "audit_event_timeline";
+
+    List<AuditPartition> findPartitions(JdbcOperations jdbcOperations);
+
+    /**
+     * Returns false when the database creates partitions by itself on insert.
+     */
+    boolean supportsPartitionCreation();
+
+    void createPartition(JdbcOperations jdbcOperations,
+                         String name,
+                         long from,
+                         long to);
+
+    /**
+     * Removes the partition from audit_event and keeps its rows in a standalone table of the same name.
+     * The timeline entries of its rows are deleted.
+     */
+    void detachPartition(JdbcOperations jdbcOperations,
+                         String name);
+
+    /**
+     * Drops the partition and the timeline entries of its rows.
+     */
+    void dropPartition(JdbcOperations jdbcOperations,
+                       String name);
+
+    /**
+     * Deletes at most {@code limit} rows older than {@code before} from a partition that cannot be dropped
+     * as a whole, such as the default partition holding the rows that existed before partitioning, along
+     * with their timeline entries.
+     *
+     * @return the number of deleted rows
+     */
+    int purgePartition(JdbcOperations jdbcOperations,
+                       String name,
+                       long before,
+                       int limit);
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitioningProperties.RetentionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+
+/**
+ * Keeps partitions of audit_event ahead of the clock and removes expired ones as a whole,
+ * so that neither ingestion nor retention has to touch individual rows.
+ */
+public class AuditPartitionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    private final JdbcOperations jdbcOperations;
+    private final AuditPartitionDialect dialect;
+    private final AuditPartitioningProperties properties;
+    private final Clock clock;
+
+    public AuditPartitionManager(JdbcOperations jdbcOperations,
+                                 AuditPartitionDialect dialect,
+                                 AuditPartitioningProperties properties,
+                                 Clock clock) {
+        this.jdbcOperations = jdbcOperations;
+        this.dialect = dialect;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the partitions missing between the highest existing bound and the end of the
+     * current period plus the configured number of periods ahead.
+     *
+     * @return the names of the created partitions
+     */
+    public List<String> createPartitions() {
+        if (!dialect.supportsPartitionCreation()) {
+            return Collections.emptyList();
+        }
+        AuditPartitionPeriod period = properties.getPeriod();
+        long now = clock.millis();
+        long horizon = period.end(now);
+        for (int i = 0; i < properties.getPrecreate(); i++) {
+            horizon = period.end(horizon);
+        }
+        long from = dialect.findPartitions(jdbcOperations)
+            .stream()
+            .map(AuditPartition::getUpperBound)
+            .filter(Objects::nonNull)
+            .max(Long::compare)
+            .orElseGet(() -> period.start(now));
+
+        List<String> created = new ArrayList<>();
+        while (from < horizon) {
+            long to = period.end(from);
+            String name = AuditPartitionDialect.TABLE_NAME + "_p" + period.suffix(from);
+            dialect.createPartition(jdbcOperations, name, from, to);
+            created.add(name);
+            from = to;
+        }
+        if (!created.isEmpty()) {
+            LOGGER.info("Created audit partitions {}", created);
+        }
+        return created;
+    }
+
+    /**
+     * Drops or detaches the partitions whose whole range is older than the configured retention. When dropping,
+     * the expired rows of the partitions that cannot be dropped, i.e. the default partition and, on Oracle, the
+     * first range partition, are deleted instead.
+     *
+     * @return the names of the removed partitions
+     */
+    public List<String> removeExpiredPartitions() {
+        if (properties.getRetention() == null) {
+            return Collections.emptyList();
+        }
+        long cutoff = clock.millis() - properties.getRetention().toMillis();
+        boolean drop = properties.getRetentionMode() == RetentionMode.DROP;
+        List<String> removed = new ArrayList<>();
+        for (AuditPartition partition : dialect.findPartitions(jdbcOperations)) {
+            if (partition.getUpperBound() == null) {
+                if (drop) {
+                    purge(partition.getName(), cutoff);
+                }
+                continue;
+            }
+            if (partition.getUpperBound() > cutoff) {
+                continue;
+            }
+            try {
+                if (drop) {
+                    dialect.dropPartition(jdbcOperations, partition.getName());
+                } else {
+                    dialect.detachPartition(jdbcOperations, partition.getName());
+                }
+                removed.add(partition.getName());
+            } catch (DataAccessException e) {
+                // e.g. Oracle refuses to drop the last range partition before the interval ones
+                LOGGER.warn("Unable to remove expired audit partition {}", partition.getName(), e);
+                if (drop) {
+                    purge(partition.getName(), cutoff);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            LOGGER.info("Removed expired audit partitions {} ({})", removed, properties.getRetentionMode());
+        }
+        return removed;
+    }
+
+    private void purge(String partition,
+                       long cutoff) {
+        int batchSize = properties.getPurgeBatchSize();
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = dialect.purgePartition(jdbcOperations, partition, cutoff, batchSize);
+            purged += deleted;
+        } while (deleted >= batchSize);
+        if (purged > 0) {
+            LOGGER.info("Purged {} expired audit events from partition {}", purged, partition);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+public enum AuditPartitionPeriod {
+
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd")) {
+        @Override
+        ZonedDateTime truncate(ZonedDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS);
+        }
+
+        @Override
+        ZonedDateTime plusOne(ZonedDateTime dateTime) {
+            return dateTime.plusDays(1);
+        }
+    },
+
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM")) {
+        @Override
+        ZonedDateTime truncate(ZonedDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+
+        @Override
+        ZonedDateTime plusOne(ZonedDateTime dateTime) {
+            return dateTime.plusMonths(1);
+        }
+    };
+
+    private final DateTimeFormatter suffixFormatter;
+
+    AuditPartitionPeriod(DateTimeFormatter suffixFormatter) {
+        this.suffixFormatter = suffixFormatter;
+    }
+
+    abstract ZonedDateTime truncate(ZonedDateTime dateTime);
+
+    abstract ZonedDateTime plusOne(ZonedDateTime dateTime);
+
+    /**
+     * Returns the epoch millis at which the UTC period containing the given epoch millis starts.
+     */
+    public long start(long epochMillis) {
+        return truncate(toDateTime(epochMillis)).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Returns the epoch millis at which the UTC period containing the given epoch millis ends.
+     */
+    public long end(long epochMillis) {
+        return plusOne(truncate(toDateTime(epochMillis))).toInstant().toEpochMilli();
+    }
+
+    public String suffix(long epochMillis) {
+        return suffixFormatter.format(toDateTime(epochMillis));
+    }
+
+    private static ZonedDateTime toDateTime(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC);
+    }
+}
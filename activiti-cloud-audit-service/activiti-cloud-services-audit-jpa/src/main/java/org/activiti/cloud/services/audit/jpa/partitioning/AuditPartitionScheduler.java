@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+public class AuditPartitionScheduler implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditPartitionScheduler.class);
+
+    private final AuditPartitionManager auditPartitionManager;
+    private final AuditPartitioningProperties properties;
+
+    private ScheduledExecutorService executorService;
+
+    public AuditPartitionScheduler(AuditPartitionManager auditPartitionManager,
+                                   AuditPartitioningProperties properties) {
+        this.auditPartitionManager = auditPartitionManager;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        // partitions of the current period must exist before the consumer writes into them
+        auditPartitionManager.createPartitions();
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-partitioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        executorService.scheduleWithFixedDelay(this::run, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        try {
+            auditPartitionManager.createPartitions();
+            auditPartitionManager.removeExpiredPartitions();
+        } catch (Exception e) {
+            // keep the schedule alive, the next run will retry
+            LOGGER.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executorService != null;
+    }
+}
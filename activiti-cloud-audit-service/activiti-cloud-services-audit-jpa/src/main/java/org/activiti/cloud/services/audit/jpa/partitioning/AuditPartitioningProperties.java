@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = AuditPartitioningProperties.AUDIT_PARTITIONING_PREFIX)
+public class AuditPartitioningProperties {
+
+    public static final String AUDIT_PARTITIONING_PREFIX = "activiti.cloud.audit.partitioning";
+
+    public enum RetentionMode {
+        DROP,
+        DETACH
+    }
+
+    /**
+     * Enable range partitioning of audit_event by timestamp on PostgreSQL and Oracle. Default is false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Set the time range covered by a partition. Oracle always uses daily interval partitions. Default is DAY
+     */
+    private AuditPartitionPeriod period = AuditPartitionPeriod.DAY;
+
+    /**
+     * Set the number of partitions created ahead of the current one. Default is 3
+     */
+    private int precreate = 3;
+
+    /**
+     * Set the age after which whole partitions are removed. Rows of partitions that cannot be removed as a whole,
+     * such as the default partition holding the rows stored before partitioning, are deleted in batches instead
+     * when the retention mode is DROP. Partitions are kept forever when not set
+     */
+    private Duration retention;
+
+    /**
+     * Set whether expired partitions are dropped or detached into standalone tables. Default is DROP
+     */
+    private RetentionMode retentionMode = RetentionMode.DROP;
+
+    /**
+     * Set the number of rows deleted per statement when purging a partition that cannot be removed. Default is 10000
+     */
+    private int purgeBatchSize = 10000;
+
+    /**
+     * Set the delay between two partition maintenance runs. Default is 1 hour
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public AuditPartitionPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(AuditPartitionPeriod period) {
+        this.period = period;
+    }
+
+    public int getPrecreate() {
+        return precreate;
+    }
+
+    public void setPrecreate(int precreate) {
+        this.precreate = precreate;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public RetentionMode getRetentionMode() {
+        return retentionMode;
+    }
+
+    public void setRetentionMode(RetentionMode retentionMode) {
+        this.retentionMode = retentionMode;
+    }
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    public void setPurgeBatchSize(int purgeBatchSize) {
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+}
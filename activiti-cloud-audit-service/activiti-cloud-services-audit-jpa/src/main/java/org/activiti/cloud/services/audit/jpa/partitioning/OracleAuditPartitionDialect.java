@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+/**
+ * audit_event is interval partitioned on Oracle, new daily partitions are created by the database on insert.
+ */
+public class OracleAuditPartitionDialect implements AuditPartitionDialect {
+
+    private static final String FIND_PARTITIONS =
+        "SELECT partition_name, high_value FROM user_tab_partitions WHERE table_name = '" + TABLE_NAME.toUpperCase() + "'";
+
+    @Override
+    public List<AuditPartition> findPartitions(JdbcOperations jdbcOperations) {
+        return jdbcOperations.query(FIND_PARTITIONS,
+                                    (resultSet, rowNum) -> new AuditPartition(resultSet.getString(1),
+                                                                              parseUpperBound(resultSet.getString(2))));
+    }
+
+    @Override
+    public boolean supportsPartitionCreation() {
+        return false;
+    }
+
+    @Override
+    public void createPartition(JdbcOperations jdbcOperations,
+                                String name,
+                                long from,
+                                long to) {
+        throw new UnsupportedOperationException("Partitions of " + TABLE_NAME + " are created by the database");
+    }
+
+    @Override
+    public void detachPartition(JdbcOperations jdbcOperations,
+                                String name) {
+        deleteTimeline(jdbcOperations, name);
+        jdbcOperations.execute("CREATE TABLE " + name + " FOR EXCHANGE WITH TABLE " + TABLE_NAME);
+        jdbcOperations.execute("ALTER TABLE " + TABLE_NAME + " EXCHANGE PARTITION " + name + " WITH TABLE " + name +
+                               " UPDATE GLOBAL INDEXES");
+        dropPartition(jdbcOperations, name);
+    }
+
+    @Override
+    public void dropPartition(JdbcOperations jdbcOperations,
+                              String name) {
+        deleteTimeline(jdbcOperations, name);
+        jdbcOperations.execute("ALTER TABLE " + TABLE_NAME + " DROP PARTITION " + name + " UPDATE GLOBAL INDEXES");
+    }
+
+    @Override
+    public int purgePartition(JdbcOperations jdbcOperations,
+                              String name,
+                              long before,
+                              int limit) {
+        List<Object[]> ids = jdbcOperations.queryForList("SELECT id FROM " + TABLE_NAME + " PARTITION (" + name + ") " +
+                                                         "WHERE timestamp < ? AND ROWNUM <= ?", Long.class, before, limit)
+                                           .stream()
+                                           .map(id -> new Object[]{id})
+                                           .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            jdbcOperations.batchUpdate("DELETE FROM " + TIMELINE_TABLE_NAME + " WHERE audit_event_id = ?", ids);
+            jdbcOperations.batchUpdate("DELETE FROM " + TABLE_NAME + " WHERE id = ?", ids);
+        }
+        return ids.size();
+    }
+
+    private void deleteTimeline(JdbcOperations jdbcOperations,
+                                String name) {
+        jdbcOperations.update("DELETE FROM " + TIMELINE_TABLE_NAME + " WHERE audit_event_id IN " +
+                              "(SELECT id FROM " + TABLE_NAME + " PARTITION (" + name + "))");
+    }
+
+    private static Long parseUpperBound(String highValue) {
+        return highValue == null || "MAXVALUE".equals(highValue.trim()) ? null : Long.valueOf(highValue.trim());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+public class PostgresAuditPartitionDialect implements AuditPartitionDialect {
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('?(-?\\d+)'?\\)");
+
+    private static final String FIND_PARTITIONS =
+        "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) " +
+        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = '" + TABLE_NAME + "'::regclass";
+
+    @Override
+    public List<AuditPartition> findPartitions(JdbcOperations jdbcOperations) {
+        return jdbcOperations.query(FIND_PARTITIONS,
+                                    (resultSet, rowNum) -> new AuditPartition(resultSet.getString(1),
+                                                                              parseUpperBound(resultSet.getString(2))));
+    }
+
+    @Override
+    public boolean supportsPartitionCreation() {
+        return true;
+    }
+
+    @Override
+    public void createPartition(JdbcOperations jdbcOperations,
+                                String name,
+                                long from,
+                                long to) {
+        jdbcOperations.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + TABLE_NAME +
+                               " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+    }
+
+    @Override
+    public void detachPartition(JdbcOperations jdbcOperations,
+                                String name) {
+        jdbcOperations.update("DELETE FROM " + TIMELINE_TABLE_NAME + " WHERE audit_event_id IN (SELECT id FROM " + name + ")");
+        jdbcOperations.execute("ALTER TABLE " + TABLE_NAME + " DETACH PARTITION " + name);
+    }
+
+    @Override
+    public void dropPartition(JdbcOperations jdbcOperations,
+                              String name) {
+        detachPartition(jdbcOperations, name);
+        jdbcOperations.execute("DROP TABLE " + name);
+    }
+
+    @Override
+    public int purgePartition(JdbcOperations jdbcOperations,
+                              String name,
+                              long before,
+                              int limit) {
+        Integer deleted = jdbcOperations.queryForObject("WITH purged AS (DELETE FROM " + name + " WHERE id IN (SELECT id FROM " +
+                                                        name + " WHERE timestamp < ? LIMIT ?) RETURNING id), " +
+                                                        "timeline AS (DELETE FROM " + TIMELINE_TABLE_NAME +
+                                                        " WHERE audit_event_id IN (SELECT id FROM purged)) " +
+                                                        "SELECT count(*) FROM purged",
+                                                        Integer.class,
+                                                        before,
+                                                        limit);
+        return deleted != null ? deleted : 0;
+    }
+
+    static Long parseUpperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning.config;
+
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+import javax.sql.DataSource;
+
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitionDialect;
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitionManager;
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitionScheduler;
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitioningProperties;
+import org.activiti.cloud.services.audit.jpa.partitioning.OracleAuditPartitionDialect;
+import org.activiti.cloud.services.audit.jpa.partitioning.PostgresAuditPartitionDialect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+@Configuration
+@ConditionalOnProperty(name = "activiti.cloud.audit.partitioning.enabled", havingValue = "true")
+@EnableConfigurationProperties(AuditPartitioningProperties.class)
+public class AuditJPAPartitioningAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditPartitionDialect auditPartitionDialect(DataSource dataSource) throws MetaDataAccessException {
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("PostgreSQL".equals(productName)) {
+            return new PostgresAuditPartitionDialect();
+        }
+        if ("Oracle".equals(productName)) {
+            return new OracleAuditPartitionDialect();
+        }
+        throw new IllegalStateException("Partitioned audit storage is not supported on " + productName);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditPartitionManager auditPartitionManager(DataSource dataSource,
+                                                       AuditPartitionDialect auditPartitionDialect,
+                                                       AuditPartitioningProperties auditPartitioningProperties) {
+        return new AuditPartitionManager(new JdbcTemplate(dataSource),
+                                         auditPartitionDialect,
+                                         auditPartitioningProperties,
+                                         Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditPartitionScheduler auditPartitionScheduler(AuditPartitionManager auditPartitionManager,
+                                                           AuditPartitioningProperties auditPartitioningProperties) {
+        return new AuditPartitionScheduler(auditPartitionManager,
+                                           auditPartitioningProperties);
+    }
+}
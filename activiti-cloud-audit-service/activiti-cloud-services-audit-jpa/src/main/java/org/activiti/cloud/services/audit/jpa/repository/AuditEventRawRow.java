@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import org.activiti.cloud.services.audit.api.AuditException;
+
+/**
+ * Columns of an audit event as stored, with its payload left in its stored text form.
+ */
+public class AuditEventRawRow {
+
+    static final String COLUMNS = "id, event_id, timestamp, event_type, entity_id, app_name, app_version, " +
+        "service_name, service_full_name, service_type, service_version, message_id, sequence_number, " +
+        "process_instance_id, process_definition_id, process_definition_key, business_key, parent_process_instance_id";
+
+    private final Long id;
+    private final String eventId;
+    private final Long timestamp;
+    private final String eventType;
+    private final String entityId;
+    private final String appName;
+    private final String appVersion;
+    private final String serviceName;
+    private final String serviceFullName;
+    private final String serviceType;
+    private final String serviceVersion;
+    private final String messageId;
+    private final Integer sequenceNumber;
+    private final String processInstanceId;
+    private final String processDefinitionId;
+    private final String processDefinitionKey;
+    private final String businessKey;
+    private final String parentProcessInstanceId;
+    private final String payload;
+
+    public AuditEventRawRow(Object[] columns) {
+        this.id = toLong(columns[0]);
+        this.eventId = (String) columns[1];
+        this.timestamp = toLong(columns[2]);
+        this.eventType = (String) columns[3];
+        this.entityId = (String) columns[4];
+        this.appName = (String) columns[5];
+        this.appVersion = (String) columns[6];
+        this.serviceName = (String) columns[7];
+        this.serviceFullName = (String) columns[8];
+        this.serviceType = (String) columns[9];
+        this.serviceVersion = (String) columns[10];
+        this.messageId = (String) columns[11];
+        this.sequenceNumber = columns[12] != null ? ((Number) columns[12]).intValue() : null;
+        this.processInstanceId = (String) columns[13];
+        this.processDefinitionId = (String) columns[14];
+        this.processDefinitionKey = (String) columns[15];
+        this.businessKey = (String) columns[16];
+        this.parentProcessInstanceId = (String) columns[17];
+        this.payload = toText(columns[18]);
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static String toText(Object value) {
+        if (!(value instanceof Clob)) {
+            return (String) value;
+        }
+        // text columns are mapped to CLOB on Oracle
+        try (Reader reader = ((Clob) value).getCharacterStream()) {
+            StringWriter writer = new StringWriter();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                writer.write(buffer, 0, read);
+            }
+            return writer.toString();
+        } catch (SQLException | IOException e) {
+            throw new AuditException("Unable to read audit event payload.", e);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getAppVersion() {
+        return appVersion;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getServiceFullName() {
+        return serviceFullName;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public String getServiceVersion() {
+        return serviceVersion;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public Integer getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getProcessDefinitionId() {
+        return processDefinitionId;
+    }
+
+    public String getProcessDefinitionKey() {
+        return processDefinitionKey;
+    }
+
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    public String getParentProcessInstanceId() {
+        return parentProcessInstanceId;
+    }
+
+    /**
+     * Returns the stored payload of the event, JSON or compact, or null when the event has no payload column.
+     */
+    public String getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Maps audit event searches to the composite indexes maintained by the audit Liquibase changelogs.
+ * A search is indexed when it has an equality criterion on the leading column of one of these indexes;
+ * other searches are rejected, throttled or allowed depending on the {@link UnindexedSearchPolicy}.
+ */
+public class AuditEventSearchPlanner {
+
+    public enum UnindexedSearchPolicy {
+        REJECT, THROTTLE, ALLOW
+    }
+
+    public static final List<Index> INDEXES = Collections.unmodifiableList(Arrays.asList(
+        new Index("audit_event_event_id_idx", "eventId"),
+        new Index("audit_event_pi_ts_idx", "processInstanceId", "timestamp"),
+        new Index("audit_event_entity_type_idx", "entityId", "eventType"),
+        new Index("audit_event_type_ts_idx", "eventType", "timestamp"),
+        new Index("audit_event_pdk_ts_idx", "processDefinitionKey", "timestamp"),
+        new Index("audit_event_svc_ts_idx", "serviceName", "timestamp")
+    ));
+
+    private final UnindexedSearchPolicy unindexedSearchPolicy;
+
+    private final Semaphore unindexedSearches;
+
+    public AuditEventSearchPlanner(UnindexedSearchPolicy unindexedSearchPolicy,
+                                   int maxConcurrentUnindexedSearches) {
+        this.unindexedSearchPolicy = unindexedSearchPolicy;
+        this.unindexedSearches = new Semaphore(maxConcurrentUnindexedSearches);
+    }
+
+    public Plan plan(List<SpecSearchCriteria> criteria) {
+        if (criteria.isEmpty()) {
+            return new Plan(Collections.emptySet(), "primary key");
+        }
+        Set<String> keys = criteria.stream()
+                                   .map(SpecSearchCriteria::getKey)
+                                   .collect(Collectors.toSet());
+
+        // with or predicates each branch must be able to use an index on its own
+        if (criteria.stream().anyMatch(SpecSearchCriteria::isOrPredicate)) {
+            boolean allIndexed = criteria.stream()
+                                         .allMatch(criterion -> isEquality(criterion) && leadingIndex(criterion.getKey()).isPresent());
+            return new Plan(keys, allIndexed ? "index union" : null);
+        }
+
+        Set<String> equalityKeys = criteria.stream()
+                                           .filter(AuditEventSearchPlanner::isEquality)
+                                           .map(SpecSearchCriteria::getKey)
+                                           .collect(Collectors.toSet());
+        return new Plan(keys,
+                        INDEXES.stream()
+                               .filter(index -> equalityKeys.contains(index.getColumns().get(0)))
+                               .max((left, right) -> Long.compare(coveredColumns(left, keys), coveredColumns(right, keys)))
+                               .map(Index::getName)
+                               .orElse(null));
+    }
+
+    public <T> T execute(Plan plan,
+                         Supplier<T> search) {
+        if (plan.isIndexed() || unindexedSearchPolicy == UnindexedSearchPolicy.ALLOW) {
+            return search.get();
+        }
+        if (unindexedSearchPolicy == UnindexedSearchPolicy.REJECT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                              "Search on " + plan.getKeys() + " is not supported by an audit event index. " +
+                                                  "Include an equality on one of " + leadingColumns());
+        }
+        if (!unindexedSearches.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                                              "Too many concurrent unindexed audit event searches, include an equality on one of " + leadingColumns());
+        }
+        try {
+            return search.get();
+        } finally {
+            unindexedSearches.release();
+        }
+    }
+
+    private static boolean isEquality(SpecSearchCriteria criterion) {
+        return criterion.getOperation() == SearchOperation.EQUALITY;
+    }
+
+    private static Optional<Index> leadingIndex(String key) {
+        return INDEXES.stream()
+                      .filter(index -> index.getColumns().get(0).equals(key))
+                      .findFirst();
+    }
+
+    private static long coveredColumns(Index index,
+                                       Set<String> keys) {
+        return index.getColumns()
+                    .stream()
+                    .filter(keys::contains)
+                    .count();
+    }
+
+    private static List<String> leadingColumns() {
+        return INDEXES.stream()
+                      .map(index -> index.getColumns().get(0))
+                      .collect(Collectors.toList());
+    }
+
+    public static class Index {
+
+        private final String name;
+
+        private final List<String> columns;
+
+        public Index(String name,
+                     String... columns) {
+            this.name = name;
+            this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+
+    public static class Plan {
+
+        private final Set<String> keys;
+
+        private final String index;
+
+        public Plan(Set<String> keys,
+                    String index) {
+            this.keys = keys;
+            this.index = index;
+        }
+
+        public Set<String> getKeys() {
+            return keys;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        public boolean isIndexed() {
+            return index != null;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan{keys=" + keys + ", index=" + Objects.toString(index, "none") + "}";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+public interface CustomizedEventsRepository {
+
+    /**
+     * Fetches at most {@code limit} events matching the specification, ordered by the given sort with nulls last,
+     * that come after the given key values (one per sort key) or from the first event when they are {@literal null}.
+     */
+    List<AuditEventEntity> findAllAfter(@Nullable Specification<AuditEventEntity> spec,
+                                        Sort keysetSort,
+                                        @Nullable List<?> keyValues,
+                                        int limit);
+
+    /**
+     * Streams, in id order, the events matching the specification that come after the given id, or from
+     * the first event when it is {@literal null}. Rows are fetched from a database cursor by chunks of
+     * {@code fetchSize}; the stream must be consumed and closed within a transaction.
+     */
+    Stream<AuditEventEntity> streamAfter(@Nullable Specification<AuditEventEntity> spec,
+                                         @Nullable Long afterId,
+                                         int fetchSize);
+
+    /**
+     * Fetches the ids of a page of events matching the specification, without loading the events.
+     */
+    Page<Long> findIds(@Nullable Specification<AuditEventEntity> spec,
+                       Pageable pageable);
+
+    /**
+     * Fetches the ids of a page of the timeline of a root process instance, in timeline order, keeping only
+     * the entries whose event exists and matches the specification, so that the page total counts them only.
+     */
+    Page<Long> findTimelineIds(String rootProcessInstanceId,
+                               @Nullable Specification<AuditEventEntity> spec,
+                               Pageable pageable);
+
+    /**
+     * Fetches the columns of the given events with their payload as stored, in no particular order.
+     */
+    List<AuditEventRawRow> findRawRows(Collection<Long> ids);
+
+    /**
+     * Deletes the {@code limit} oldest events, by id, and their timeline entries with set based statements.
+     * @return the number of deleted events
+     */
+    long deleteOldest(int limit);
+}
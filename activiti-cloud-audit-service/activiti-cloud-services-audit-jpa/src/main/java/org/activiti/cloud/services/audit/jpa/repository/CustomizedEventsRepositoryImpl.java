@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineEntryEntity;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.Transactional;
+
+public class CustomizedEventsRepositoryImpl implements CustomizedEventsRepository {
+
+    // every pass-through event type stores its payload in exactly one of these columns
+    private static final String PAYLOAD_COLUMN = "coalesce(process_instance, process_definition, task, candidate_user, " +
+        "candidate_group, bpmn_activity, sequence_flow, signal, timer, error, message, variable_instance)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditEventEntity> findAllAfter(@Nullable Specification<AuditEventEntity> spec,
+                                               Sort keysetSort,
+                                               @Nullable List<?> keyValues,
+                                               int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEventEntity> query = builder.createQuery(AuditEventEntity.class);
+        Root<AuditEventEntity> root = query.from(AuditEventEntity.class);
+
+        Specification<AuditEventEntity> condition = Specification.where(spec);
+        if (keyValues != null) {
+            condition = condition.and(new KeysetSpecification(keysetSort, keyValues));
+        }
+        Predicate predicate = condition.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(keysetSort, root, builder));
+
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    @Override
+    public Stream<AuditEventEntity> streamAfter(@Nullable Specification<AuditEventEntity> spec,
+                                                @Nullable Long afterId,
+                                                int fetchSize) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEventEntity> query = builder.createQuery(AuditEventEntity.class);
+        Root<AuditEventEntity> root = query.from(AuditEventEntity.class);
+
+        Specification<AuditEventEntity> condition = Specification.where(spec);
+        if (afterId != null) {
+            condition = condition.and((r, q, b) -> b.greaterThan(r.<Long>get("id"), afterId));
+        }
+        Predicate predicate = condition.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                            .setHint(QueryHints.HINT_READONLY, true)
+                            .getResultStream();
+    }
+
+    @Override
+    public Page<Long> findIds(@Nullable Specification<AuditEventEntity> spec,
+                              Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<AuditEventEntity> root = query.from(AuditEventEntity.class);
+        query.select(root.get("id"));
+        Predicate predicate = Specification.where(spec).toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+
+        List<Long> ids = entityManager.createQuery(query)
+                                      .setFirstResult((int) pageable.getOffset())
+                                      .setMaxResults(pageable.getPageSize())
+                                      .getResultList();
+        return PageableExecutionUtils.getPage(ids,
+                                              pageable,
+                                              () -> count(spec));
+    }
+
+    @Override
+    public Page<Long> findTimelineIds(String rootProcessInstanceId,
+                                      @Nullable Specification<AuditEventEntity> spec,
+                                      Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<AuditTimelineEntryEntity> entry = query.from(AuditTimelineEntryEntity.class);
+        query.select(entry.get("auditEventId"));
+        query.where(timelinePredicate(rootProcessInstanceId, spec, entry, query, builder));
+        query.orderBy(builder.asc(entry.get("timestamp")),
+                      builder.asc(entry.get("auditEventId")));
+
+        List<Long> ids = entityManager.createQuery(query)
+                                      .setFirstResult((int) pageable.getOffset())
+                                      .setMaxResults(pageable.getPageSize())
+                                      .getResultList();
+        return PageableExecutionUtils.getPage(ids,
+                                              pageable,
+                                              () -> countTimeline(rootProcessInstanceId, spec));
+    }
+
+    private long countTimeline(String rootProcessInstanceId,
+                               @Nullable Specification<AuditEventEntity> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<AuditTimelineEntryEntity> entry = query.from(AuditTimelineEntryEntity.class);
+        query.select(builder.count(entry));
+        query.where(timelinePredicate(rootProcessInstanceId, spec, entry, query, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate timelinePredicate(String rootProcessInstanceId,
+                                        @Nullable Specification<AuditEventEntity> spec,
+                                        Root<AuditTimelineEntryEntity> entry,
+                                        CriteriaQuery<?> query,
+                                        CriteriaBuilder builder) {
+        Subquery<Long> events = query.subquery(Long.class);
+        Root<AuditEventEntity> event = events.from(AuditEventEntity.class);
+        events.select(event.get("id"));
+        Predicate eventOfEntry = builder.equal(event.get("id"), entry.get("auditEventId"));
+        Predicate predicate = Specification.where(spec).toPredicate(event, query, builder);
+        events.where(predicate != null ? builder.and(eventOfEntry, predicate) : eventOfEntry);
+        return builder.and(builder.equal(entry.get("rootProcessInstanceId"), rootProcessInstanceId),
+                           builder.exists(events));
+    }
+
+    private long count(@Nullable Specification<AuditEventEntity> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<AuditEventEntity> root = query.from(AuditEventEntity.class);
+        query.select(builder.count(root));
+        Predicate predicate = Specification.where(spec).toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<AuditEventRawRow> findRawRows(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery("select " + AuditEventRawRow.COLUMNS + ", " + PAYLOAD_COLUMN +
+                                                              " from audit_event where id in (:ids)")
+                                           .setParameter("ids", ids)
+                                           .getResultList();
+        return rows.stream()
+                   .map(AuditEventRawRow::new)
+                   .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public long deleteOldest(int limit) {
+        List<Long> ids = entityManager.createQuery("select e.id from AuditEvent e order by e.id",
+                                                   Long.class)
+                                      .setMaxResults(limit)
+                                      .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // a range on the primary key avoids binding every id of the chunk
+        Long maxId = ids.get(ids.size() - 1);
+        entityManager.createQuery("delete from AuditTimelineEntry t where t.auditEventId <= :maxId")
+                     .setParameter("maxId", maxId)
+                     .executeUpdate();
+        return entityManager.createQuery("delete from AuditEvent e where e.id <= :maxId")
+                            .setParameter("maxId", maxId)
+                            .executeUpdate();
+    }
+
+    private List<Order> toOrders(Sort keysetSort,
+                                 Root<AuditEventEntity> root,
+                                 CriteriaBuilder builder) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : keysetSort) {
+            Path<Object> path = root.get(order.getProperty());
+            // JPA has no portable nulls last, so nullable keys are ordered by their nullness first
+            if (root.getModel().getSingularAttribute(order.getProperty()).isOptional()) {
+                orders.add(builder.asc(builder.selectCase()
+                                              .when(builder.isNull(path), 1)
+                                              .otherwise(0)));
+            }
+            orders.add(order.isAscending() ? builder.asc(path) : builder.desc(path));
+        }
+        return orders;
+    }
+}
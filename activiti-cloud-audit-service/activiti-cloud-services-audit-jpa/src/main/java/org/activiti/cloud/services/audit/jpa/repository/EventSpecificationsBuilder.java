@@ -15,8 +15,13 @@
  */
 package org.activiti.cloud.services.audit.jpa.repository;
 
+import static java.util.stream.Collectors.joining;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
 import org.springframework.data.jpa.domain.Specification;
@@ -29,6 +34,26 @@ public class EventSpecificationsBuilder {
         params = new ArrayList<>();
     }
 
+    /**
+     * Creates a builder from the comma separated criteria of the search request parameter, e.g. {@code eventType:TASK_CREATED,processInstanceId:1}
+     */
+    public static EventSpecificationsBuilder fromSearch(String search) {
+        EventSpecificationsBuilder builder = new EventSpecificationsBuilder();
+        if (search != null && !search.isEmpty()) {
+            String operationSetExpr = Arrays.asList(SearchOperation.SIMPLE_OPERATION_SET).stream().collect(joining("|"));
+            Pattern pattern = Pattern.compile("(\\w+?)(" + operationSetExpr + ")(\\p{Punct}?)([a-zA-Z0-9-_]+?)(\\p{Punct}?),");
+            Matcher matcher = pattern.matcher(search + ",");
+            while (matcher.find()) {
+                builder.with(matcher.group(1),
+                             matcher.group(2),
+                             matcher.group(4),
+                             matcher.group(3),
+                             matcher.group(5));
+            }
+        }
+        return builder;
+    }
+
 
     public final EventSpecificationsBuilder with(final String key,
                                                  final String operation,
@@ -71,6 +96,13 @@ public class EventSpecificationsBuilder {
         return this;
     }
 
+    /**
+     * Plans the search against the maintained audit event indexes, see {@link AuditEventSearchPlanner}
+     */
+    public AuditEventSearchPlanner.Plan plan(AuditEventSearchPlanner planner) {
+        return planner.plan(params);
+    }
+
     public Specification<AuditEventEntity> build() {
 
         if (params.size() == 0) {
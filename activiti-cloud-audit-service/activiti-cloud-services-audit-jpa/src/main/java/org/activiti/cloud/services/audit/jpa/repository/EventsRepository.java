@@ -17,14 +17,22 @@ package org.activiti.cloud.services.audit.jpa.repository;
 
 import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @RepositoryRestResource(exported = false)
 public interface EventsRepository<T extends AuditEventEntity> extends PagingAndSortingRepository<T, Long>,
-                                                            JpaSpecificationExecutor<T> {
+                                                            JpaSpecificationExecutor<T>,
+                                                            CustomizedEventsRepository {
 
     Optional<T> findByEventId(String eventId);
+
+    @Query("select e.eventId from AuditEventEntity e where e.eventId in :eventIds")
+    List<String> findStoredEventIds(@Param("eventIds") Collection<String> eventIds);
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Restricts the events to the ones that come after the given key values when ordered by the given sort,
+ * i.e. {@code (k0 > v0) or (k0 = v0 and k1 > v1) or ...}, where "greater" follows the direction of each key
+ * and nulls sort after any value.
+ */
+public class KeysetSpecification implements Specification<AuditEventEntity> {
+
+    private final Sort keysetSort;
+
+    private final List<?> keyValues;
+
+    public KeysetSpecification(Sort keysetSort,
+                               List<?> keyValues) {
+        if (keysetSort.toList().size() != keyValues.size()) {
+            throw new IllegalStateException("The continuation token does not match the requested sort");
+        }
+        this.keysetSort = keysetSort;
+        this.keyValues = keyValues;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Predicate toPredicate(Root<AuditEventEntity> root,
+                                 CriteriaQuery<?> query,
+                                 CriteriaBuilder builder) {
+        List<Predicate> after = new ArrayList<>();
+        List<Predicate> previousKeysEqual = new ArrayList<>();
+        List<Sort.Order> orders = keysetSort.toList();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            Expression<Comparable> key = root.get(order.getProperty());
+            Comparable value = (Comparable) keyValues.get(i);
+
+            if (value != null) {
+                Predicate greater = order.isAscending() ? builder.greaterThan(key, value) : builder.lessThan(key, value);
+                List<Predicate> branch = new ArrayList<>(previousKeysEqual);
+                branch.add(builder.or(greater, builder.isNull(key)));
+                after.add(builder.and(branch.toArray(new Predicate[0])));
+                previousKeysEqual.add(builder.equal(key, value));
+            } else {
+                previousKeysEqual.add(builder.isNull(key));
+            }
+        }
+        return builder.or(after.toArray(new Predicate[0]));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.security;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+public class ApplicationsSecuritySpecification implements Specification<AuditEventEntity> {
+
+    private Set<String> serviceNames;
+
+    public ApplicationsSecuritySpecification(Set<String> serviceNames) {
+        this.serviceNames = serviceNames.stream()
+                                        .map(serviceName -> serviceName.replace("-","").toUpperCase())
+                                        .collect(Collectors.toSet());
+    }
+
+    public Set<String> getServiceNames() {
+        return serviceNames;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<AuditEventEntity> root,
+                                 CriteriaQuery<?> criteriaQuery,
+                                 CriteriaBuilder criteriaBuilder) {
+
+        Expression<String> replacedServiceName = root.get("serviceName");
+
+        replacedServiceName = criteriaBuilder.function("REPLACE",String.class,replacedServiceName,
+                criteriaBuilder.literal("-"),criteriaBuilder.literal(""));
+
+        return criteriaBuilder.upper(replacedServiceName).in(serviceNames);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Caches the security specification built for an access level, user and group set. Security specifications
+ * only hold the allowed service names and keys, so the same instance can be shared across requests until the
+ * entry expires or the security policies are bound again.
+ */
+public class AuditSecuritySpecificationCache {
+
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final long ttlMillis;
+
+    private final int maxSize;
+
+    private final Clock clock;
+
+    private volatile Object policies;
+
+    public AuditSecuritySpecificationCache(Duration ttl,
+                                           int maxSize) {
+        this(ttl, maxSize, Clock.systemUTC());
+    }
+
+    AuditSecuritySpecificationCache(Duration ttl,
+                                    int maxSize,
+                                    Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @param policies the security policies the specification is built from; binding new policies replaces
+     *                 the policy list, which drops all the entries built from the previous one
+     */
+    public Specification<AuditEventEntity> get(Object policies,
+                                               SecurityPolicyAccess access,
+                                               String userId,
+                                               Collection<String> groups,
+                                               Supplier<Specification<AuditEventEntity>> loader) {
+        if (policies != this.policies) {
+            entries.clear();
+            this.policies = policies;
+        }
+        List<Object> key = Arrays.asList(access,
+                                         userId,
+                                         groups != null ? new TreeSet<>(groups) : new TreeSet<>());
+        long now = clock.millis();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            hits.incrementAndGet();
+            return entry.specification;
+        }
+
+        misses.incrementAndGet();
+        Specification<AuditEventEntity> specification = loader.get();
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, new Entry(specification, now + ttlMillis));
+        return specification;
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static class Entry {
+
+        private final Specification<AuditEventEntity> specification;
+
+        private final long expiresAt;
+
+        private Entry(Specification<AuditEventEntity> specification,
+                      long expiresAt) {
+            this.specification = Objects.requireNonNull(specification);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
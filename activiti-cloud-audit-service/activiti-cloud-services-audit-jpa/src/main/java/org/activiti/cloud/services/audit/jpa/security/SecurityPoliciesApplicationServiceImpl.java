@@ -22,7 +22,11 @@ import org.activiti.core.common.spring.security.policies.SecurityPoliciesManager
 import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
 import org.activiti.core.common.spring.security.policies.conf.SecurityPoliciesProperties;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,24 +35,32 @@ import java.util.Set;
  */
 public class SecurityPoliciesApplicationServiceImpl extends BaseSecurityPoliciesManagerImpl implements SecurityPoliciesManager {
 
+    private final SecurityManager securityManager;
+
+    private final AuditSecuritySpecificationCache specificationCache;
+
     public SecurityPoliciesApplicationServiceImpl(SecurityManager securityManager,
                                                   SecurityPoliciesProperties securityPoliciesProperties) {
+        this(securityManager,
+             securityPoliciesProperties,
+             null);
+    }
+
+    public SecurityPoliciesApplicationServiceImpl(SecurityManager securityManager,
+                                                  SecurityPoliciesProperties securityPoliciesProperties,
+                                                  @Nullable AuditSecuritySpecificationCache specificationCache) {
         super(securityManager,
               securityPoliciesProperties);
+        this.securityManager = securityManager;
+        this.specificationCache = specificationCache;
     }
 
     /*
      * Apply Filters for Security Policies (configured in application.properties
      * Steps
      *  - If no Security Policies or no User, return unmodified
-     *  - For Each Security Policy
-     *    - Get Process Definitions associated with the policy
-     *    - If it was not a wildcard
-     *      - Add Policy for Service Name, ProcessDefinition pair
-     *    - If it was a wildcard
-     *      - Add Policy for Service Name only
-     *  - If no other policies applied
-     *    - Add Impossible filter so the user doesn't get any data
+     *  - Combine the restrictions of all the Security Policies of the user, cached per user and groups
+     *    (see buildSecuritySpec)
      */
     public Specification<AuditEventEntity> createSpecWithSecurity(Specification<AuditEventEntity> spec,
                                                                   SecurityPolicyAccess securityPolicy) {
@@ -58,26 +70,65 @@ public class SecurityPoliciesApplicationServiceImpl extends BaseSecurityPolicies
         if (!arePoliciesDefined()) {
             return spec;
         }
+        Specification<AuditEventEntity> securitySpec;
+        if (specificationCache != null) {
+            String userId = securityManager.getAuthenticatedUserId();
+            securitySpec = specificationCache.get(securityPoliciesProperties.getPolicies(),
+                                                  securityPolicy,
+                                                  userId,
+                                                  userId != null ? securityManager.getAuthenticatedUserGroups() : null,
+                                                  () -> buildSecuritySpec(securityPolicy));
+        } else {
+            securitySpec = buildSecuritySpec(securityPolicy);
+        }
+        return spec.and(securitySpec);
+    }
+
+    /*
+     * Steps
+     *  - For Each Security Policy
+     *    - Get Process Definitions associated with the policy
+     *    - If it was not a wildcard
+     *      - Add Policy for Service Name, ProcessDefinition pair
+     *    - If it was a wildcard
+     *      - Add Service Name to the ones matched by a single IN condition
+     *  - Match events of any of the added policies
+     *  - If no policies applied
+     *    - Add Impossible filter so the user doesn't get any data
+     */
+    private Specification<AuditEventEntity> buildSecuritySpec(SecurityPolicyAccess securityPolicy) {
         Map<String, Set<String>> restrictions = getAllowedKeys(securityPolicy);
 
+        Set<String> wildcardServiceNames = new HashSet<>();
+        List<Specification<AuditEventEntity>> specs = new ArrayList<>();
         for (String serviceName : restrictions.keySet()) {
 
             Set<String> defKeys = restrictions.get(serviceName);
             //will filter by app name and will also filter by definition keys if no wildcard,
             if (defKeys != null && defKeys.size() > 0 && !defKeys.contains(securityPoliciesProperties.getWildcard())) {
-                return spec.and(new ApplicationProcessDefSecuritySpecification(serviceName,
-                                                                               defKeys));
+                specs.add(new ApplicationProcessDefSecuritySpecification(serviceName,
+                                                                         defKeys));
             } else if (defKeys != null && defKeys.contains(securityPoliciesProperties.getWildcard())) {  //will filter by app name if wildcard is set
-                return spec.and(new ApplicationSecuritySpecification(serviceName));
+                wildcardServiceNames.add(serviceName);
             }
         }
+        if (wildcardServiceNames.size() == 1) {
+            specs.add(new ApplicationSecuritySpecification(wildcardServiceNames.iterator().next()));
+        } else if (!wildcardServiceNames.isEmpty()) {
+            specs.add(new ApplicationsSecuritySpecification(wildcardServiceNames));
+        }
+
         //policies are defined but none are applicable
-        if (arePoliciesDefined()) {
+        if (specs.isEmpty()) {
             //user should not see anything so give unsatisfiable condition
-            return spec.and(new ImpossibleSpecification());
+            return new ImpossibleSpecification();
         }
 
-        return spec;
+        Specification<AuditEventEntity> securitySpec = specs.get(0);
+        for (int i = 1; i < specs.size(); i++) {
+            securitySpec = securitySpec.or(specs.get(i));
+        }
+        return securitySpec;
     }
 
     public boolean canWrite(String processDefinitionKey) {
@@ -16,21 +16,38 @@
 package org.activiti.cloud.services.audit.jpa.security.config;
 
 import org.activiti.api.runtime.shared.security.SecurityManager;
+import org.activiti.cloud.services.audit.jpa.security.AuditSecuritySpecificationCache;
 import org.activiti.cloud.services.audit.jpa.security.SecurityPoliciesApplicationServiceImpl;
 import org.activiti.core.common.spring.security.policies.conf.SecurityPoliciesProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class AuditJPASecurityAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
     public SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService(SecurityManager securityManager,
-                                                                                     SecurityPoliciesProperties securityPoliciesProperties) {
+                                                                                     SecurityPoliciesProperties securityPoliciesProperties,
+                                                                                     ObjectProvider<AuditSecuritySpecificationCache> auditSecuritySpecificationCache) {
         return new SecurityPoliciesApplicationServiceImpl(securityManager, 
-                                                          securityPoliciesProperties);
+                                                          securityPoliciesProperties,
+                                                          auditSecuritySpecificationCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.security.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public AuditSecuritySpecificationCache auditSecuritySpecificationCache(@Value("${activiti.cloud.audit.security.cache.ttl:60s}") Duration ttl,
+                                                                           @Value("${activiti.cloud.audit.security.cache.max-size:10000}") int maxSize) {
+        return new AuditSecuritySpecificationCache(ttl,
+                                                   maxSize);
     }
-    
+
 }
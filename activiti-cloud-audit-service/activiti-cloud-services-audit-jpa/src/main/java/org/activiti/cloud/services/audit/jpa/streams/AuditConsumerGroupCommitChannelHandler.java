@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.streams.AuditConsumerChannelHandler;
+import org.activiti.cloud.services.audit.api.streams.AuditConsumerChannels;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.handler.annotation.Headers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Hands the converted events of each message to the {@link AuditEventGroupCommitWriter}. Messages carrying
+ * an acknowledgment callback, as delivered by polled consumers, are acknowledged asynchronously once their
+ * group is committed. Messages of message-driven bindings have no acknowledgment callback.
+ * <p>
+ * With an {@link AuditIngestionPipeline}, every message is converted on the pipeline threads and the consumer
+ * thread only waits for a free pipeline slot; message-driven messages are then acknowledged once accepted and
+ * the pipeline retries their failed writes. Without a pipeline, message-driven messages are converted on the
+ * consumer thread, which then blocks until their group is committed, so that group commit spreads over
+ * concurrent consumers and a failed commit is redelivered by the binder.
+ */
+public class AuditConsumerGroupCommitChannelHandler implements AuditConsumerChannelHandler {
+
+    private final AuditEventGroupCommitWriter writer;
+
+    private final AuditEventsConverter eventsConverter;
+
+    private final AuditEventDuplicateFilter duplicateFilter;
+
+    private final AuditIngestionPipeline pipeline;
+
+    public AuditConsumerGroupCommitChannelHandler(AuditEventGroupCommitWriter writer,
+                                                  APIEventToEntityConverters eventConverters) {
+        this(writer, eventConverters, null, null);
+    }
+
+    public AuditConsumerGroupCommitChannelHandler(AuditEventGroupCommitWriter writer,
+                                                  APIEventToEntityConverters eventConverters,
+                                                  @Nullable AuditEventDuplicateFilter duplicateFilter,
+                                                  @Nullable AuditIngestionPipeline pipeline) {
+        this.writer = writer;
+        this.eventsConverter = new AuditEventsConverter(eventConverters);
+        this.duplicateFilter = duplicateFilter;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    @StreamListener(AuditConsumerChannels.AUDIT_CONSUMER)
+    public void receiveCloudRuntimeEvent(@Headers Map<String, Object> headers, CloudRuntimeEvent<?, ?>... events) {
+        if (events == null) {
+            return;
+        }
+        Object callback = headers.get(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK);
+        if (pipeline != null && !(callback instanceof AcknowledgmentCallback)) {
+            pipeline.submit(headers, events);
+            return;
+        }
+        if (callback instanceof AcknowledgmentCallback) {
+            AcknowledgmentCallback acknowledgmentCallback = (AcknowledgmentCallback) callback;
+            CompletableFuture<Void> committed = pipeline != null
+                ? pipeline.submit(headers, events)
+                : writer.submit(convert(headers, events));
+            acknowledgmentCallback.noAutoAck();
+            committed.whenComplete((result, error) -> acknowledgmentCallback.acknowledge(error == null
+                ? AcknowledgmentCallback.Status.ACCEPT
+                : AcknowledgmentCallback.Status.REQUEUE));
+            return;
+        }
+
+        CompletableFuture<Void> committed = writer.submit(convert(headers, events));
+        try {
+            committed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for audit group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to commit audit events", e.getCause());
+        }
+    }
+
+    private List<AuditEventEntity> convert(Map<String, Object> headers, CloudRuntimeEvent<?, ?>... events) {
+        List<AuditEventEntity> entities = eventsConverter.convert(headers, events);
+        return duplicateFilter != null ? duplicateFilter.filter(entities) : entities;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = AuditConsumerProperties.AUDIT_CONSUMER_PREFIX)
+public class AuditConsumerProperties {
+
+    public static final String AUDIT_CONSUMER_PREFIX = "activiti.cloud.audit.consumer";
+
+    /**
+     * Enable group commit of audit events received in several messages into a single transaction. Default is false
+     */
+    private boolean groupCommitEnabled = false;
+
+    /**
+     * Set the number of audit events after which a group is committed. Default is 1000
+     */
+    private int groupCommitMaxSize = 1000;
+
+    /**
+     * Set the maximum time the first message of a group waits for other messages before commit, a message
+     * found alone is committed right away. Default is 50ms
+     */
+    private Duration groupCommitMaxLatency = Duration.ofMillis(50);
+
+    /**
+     * Enable dropping of audit events already stored, such as broker redeliveries. Default is true
+     */
+    private boolean duplicateFilterEnabled = true;
+
+    /**
+     * Set the number of recently received event ids checked for duplicates. Default is 100000
+     */
+    private int duplicateFilterWindowSize = 100000;
+
+    /**
+     * Enable conversion of audit events on a pool of threads ahead of group commit, consumers then only wait for a
+     * free pipeline slot. Messages of message-driven consumers are acknowledged once accepted by the pipeline, which
+     * retries their failed writes instead of the broker. Requires group commit. Default is false
+     */
+    private boolean pipelineEnabled = false;
+
+    /**
+     * Set the number of threads converting audit events in the pipeline. Default is 2
+     */
+    private int pipelineConverterThreads = 2;
+
+    /**
+     * Set the number of messages accepted by the pipeline and not committed yet, after which consumers wait. Default is 1000
+     */
+    private int pipelineMaxInFlight = 1000;
+
+    /**
+     * Set the maximum time a consumer waits for the pipeline to accept a message before rejecting it. Default is 30s
+     */
+    private Duration pipelineMaxWait = Duration.ofSeconds(30);
+
+    /**
+     * Set the maximum time the pipeline retries a failed write of a message before dropping it. Default is 5m
+     */
+    private Duration pipelineRetryTimeout = Duration.ofMinutes(5);
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    public void setGroupCommitEnabled(boolean groupCommitEnabled) {
+        this.groupCommitEnabled = groupCommitEnabled;
+    }
+
+    public int getGroupCommitMaxSize() {
+        return groupCommitMaxSize;
+    }
+
+    public void setGroupCommitMaxSize(int groupCommitMaxSize) {
+        this.groupCommitMaxSize = groupCommitMaxSize;
+    }
+
+    public Duration getGroupCommitMaxLatency() {
+        return groupCommitMaxLatency;
+    }
+
+    public void setGroupCommitMaxLatency(Duration groupCommitMaxLatency) {
+        this.groupCommitMaxLatency = groupCommitMaxLatency;
+    }
+
+    public boolean isDuplicateFilterEnabled() {
+        return duplicateFilterEnabled;
+    }
+
+    public void setDuplicateFilterEnabled(boolean duplicateFilterEnabled) {
+        this.duplicateFilterEnabled = duplicateFilterEnabled;
+    }
+
+    public int getDuplicateFilterWindowSize() {
+        return duplicateFilterWindowSize;
+    }
+
+    public void setDuplicateFilterWindowSize(int duplicateFilterWindowSize) {
+        this.duplicateFilterWindowSize = duplicateFilterWindowSize;
+    }
+
+    public boolean isPipelineEnabled() {
+        return pipelineEnabled;
+    }
+
+    public void setPipelineEnabled(boolean pipelineEnabled) {
+        this.pipelineEnabled = pipelineEnabled;
+    }
+
+    public int getPipelineConverterThreads() {
+        return pipelineConverterThreads;
+    }
+
+    public void setPipelineConverterThreads(int pipelineConverterThreads) {
+        this.pipelineConverterThreads = pipelineConverterThreads;
+    }
+
+    public int getPipelineMaxInFlight() {
+        return pipelineMaxInFlight;
+    }
+
+    public void setPipelineMaxInFlight(int pipelineMaxInFlight) {
+        this.pipelineMaxInFlight = pipelineMaxInFlight;
+    }
+
+    public Duration getPipelineMaxWait() {
+        return pipelineMaxWait;
+    }
+
+    public void setPipelineMaxWait(Duration pipelineMaxWait) {
+        this.pipelineMaxWait = pipelineMaxWait;
+    }
+
+    public Duration getPipelineRetryTimeout() {
+        return pipelineRetryTimeout;
+    }
+
+    public void setPipelineRetryTimeout(Duration pipelineRetryTimeout) {
+        this.pipelineRetryTimeout = pipelineRetryTimeout;
+    }
+}
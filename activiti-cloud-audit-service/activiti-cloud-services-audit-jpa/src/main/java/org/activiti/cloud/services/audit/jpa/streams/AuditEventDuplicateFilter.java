@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops audit entities whose event has already been stored, so that broker redeliveries do not create
+ * duplicate rows. Events are identified by the id assigned by the producer, which is the same on every
+ * delivery, and the unique index on that id rejects any duplicate this filter lets through.
+ * <p>
+ * A bounded window of recently received event ids keeps the common case free of database lookups:
+ * only events seen within the window are checked against the stored rows, as the window alone cannot
+ * tell a redelivery from an event whose row has been deleted or never committed since.
+ */
+public class AuditEventDuplicateFilter {
+
+    public static final String DUPLICATES_METRIC = "activiti.audit.consumer.duplicates";
+
+    public static final String LOOKUPS_METRIC = "activiti.audit.consumer.duplicate.lookups";
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AuditEventDuplicateFilter.class);
+
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private final EventsRepository<?> eventsRepository;
+
+    private final Set<String> recentEventIds;
+
+    private final Counter messageDuplicates;
+
+    private final Counter storedDuplicates;
+
+    private final Counter lookups;
+
+    public AuditEventDuplicateFilter(EventsRepository<?> eventsRepository,
+                                     int windowSize,
+                                     MeterRegistry meterRegistry) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Duplicate filter window size must be positive: " + windowSize);
+        }
+        this.eventsRepository = eventsRepository;
+        this.recentEventIds = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > windowSize;
+            }
+        }));
+        this.messageDuplicates = Counter.builder(DUPLICATES_METRIC)
+                                        .description("Audit events dropped as duplicates")
+                                        .tag("source", "message")
+                                        .register(meterRegistry);
+        this.storedDuplicates = Counter.builder(DUPLICATES_METRIC)
+                                       .description("Audit events dropped as duplicates")
+                                       .tag("source", "store")
+                                       .register(meterRegistry);
+        this.lookups = Counter.builder(LOOKUPS_METRIC)
+                              .description("Database lookups for audit events seen within the duplicate filter window")
+                              .register(meterRegistry);
+    }
+
+    public List<AuditEventEntity> filter(List<AuditEventEntity> entities) {
+        Set<String> messageEventIds = new HashSet<>();
+        Set<String> suspectEventIds = new HashSet<>();
+        List<AuditEventEntity> unique = new ArrayList<>(entities.size());
+        for (AuditEventEntity entity : entities) {
+            String eventId = entity.getEventId();
+            if (eventId == null) {
+                unique.add(entity);
+            } else if (!messageEventIds.add(eventId)) {
+                messageDuplicates.increment();
+            } else {
+                if (!recentEventIds.add(eventId)) {
+                    suspectEventIds.add(eventId);
+                }
+                unique.add(entity);
+            }
+        }
+        if (suspectEventIds.isEmpty()) {
+            return unique;
+        }
+
+        Set<String> storedEventIds = findStoredEventIds(new ArrayList<>(suspectEventIds));
+        if (storedEventIds.isEmpty()) {
+            return unique;
+        }
+        List<AuditEventEntity> filtered = new ArrayList<>(unique.size());
+        for (AuditEventEntity entity : unique) {
+            if (entity.getEventId() == null || !storedEventIds.contains(entity.getEventId())) {
+                filtered.add(entity);
+            }
+        }
+        storedDuplicates.increment(unique.size() - filtered.size());
+        LOGGER.debug("Dropped {} audit events already stored", unique.size() - filtered.size());
+        return filtered;
+    }
+
+    private Set<String> findStoredEventIds(List<String> eventIds) {
+        Set<String> storedEventIds = new HashSet<>();
+        for (int from = 0; from < eventIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            lookups.increment();
+            storedEventIds.addAll(eventsRepository.findStoredEventIds(eventIds.subList(from,
+                                                                                       Math.min(from + LOOKUP_CHUNK_SIZE, eventIds.size()))));
+        }
+        return storedEventIds;
+    }
+}
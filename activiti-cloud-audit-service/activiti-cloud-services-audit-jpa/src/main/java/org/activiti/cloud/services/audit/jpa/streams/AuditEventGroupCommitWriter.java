@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRecorder;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collects audit entities submitted by concurrent consumers and writes them in a single transaction.
+ * A submission found alone in the queue is written right away; otherwise the group keeps collecting
+ * until it reaches the size bound or its first submission has waited for the latency bound.
+ * Each submission is completed only after the group has been committed, so that the broker message
+ * it comes from can be acknowledged. When a group fails, its submissions are retried one by one so
+ * that a single bad message does not keep the others from being stored.
+ */
+public class AuditEventGroupCommitWriter {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AuditEventGroupCommitWriter.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSize;
+    private final long maxLatencyNanos;
+    private final AuditTimelineRecorder timelineRecorder;
+    private final BlockingQueue<Submission> submissions = new LinkedBlockingQueue<>();
+    private final ExecutorService executor;
+    private volatile boolean running = true;
+
+    public AuditEventGroupCommitWriter(EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       int maxSize,
+                                       Duration maxLatency) {
+        this(entityManager, transactionManager, maxSize, maxLatency, null);
+    }
+
+    public AuditEventGroupCommitWriter(EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       int maxSize,
+                                       Duration maxLatency,
+                                       @Nullable AuditTimelineRecorder timelineRecorder) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Group commit max size must be positive: " + maxSize);
+        }
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxSize = maxSize;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.timelineRecorder = timelineRecorder;
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("audit-group-commit-"));
+        this.executor.execute(this::run);
+    }
+
+    public CompletableFuture<Void> submit(List<AuditEventEntity> entities) {
+        if (!running) {
+            throw new IllegalStateException("Audit group commit writer has been shut down");
+        }
+        Submission submission = new Submission(entities);
+        if (entities.isEmpty()) {
+            submission.future.complete(null);
+        } else {
+            submissions.add(submission);
+        }
+        return submission.future;
+    }
+
+    public int getPendingSubmissions() {
+        return submissions.size();
+    }
+
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        failAll(new ArrayList<>(submissions), new IllegalStateException("Audit group commit writer has been shut down"));
+    }
+
+    private void run() {
+        while (running || !submissions.isEmpty()) {
+            List<Submission> group = new ArrayList<>();
+            try {
+                collect(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(group, new IllegalStateException("Interrupted while collecting audit group", e));
+                return;
+            }
+            if (!group.isEmpty()) {
+                commit(group);
+            }
+        }
+    }
+
+    private void collect(List<Submission> group) throws InterruptedException {
+        Submission first = submissions.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        int size = first.entities.size();
+        long deadline = System.nanoTime() + maxLatencyNanos;
+        while (size < maxSize) {
+            Submission next = submissions.poll();
+            if (next == null) {
+                if (group.size() == 1) {
+                    // nobody else is submitting, waiting would only delay the caller
+                    break;
+                }
+                next = submissions.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            size += next.entities.size();
+        }
+    }
+
+    private void commit(List<Submission> group) {
+        try {
+            write(group.stream()
+                       .flatMap(submission -> submission.entities.stream())
+                       .collect(Collectors.toList()));
+            group.forEach(submission -> submission.future.complete(null));
+            LOGGER.debug("Committed audit group of {} messages", group.size());
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).future.completeExceptionally(e);
+                return;
+            }
+            LOGGER.warn("Unable to commit audit group of {} messages, retrying them one by one", group.size(), e);
+            group.forEach(this::retry);
+        }
+    }
+
+    private void retry(Submission submission) {
+        // ids assigned during the rolled back attempt must not make the entities look detached
+        submission.entities.forEach(entity -> entity.setId(null));
+        try {
+            write(submission.entities);
+            submission.future.complete(null);
+        } catch (RuntimeException e) {
+            submission.future.completeExceptionally(e);
+        }
+    }
+
+    private void write(List<AuditEventEntity> entities) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(maxSize);
+            entities.forEach(entityManager::persist);
+            if (timelineRecorder != null) {
+                timelineRecorder.record(entities);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void failAll(List<Submission> group, RuntimeException cause) {
+        group.forEach(submission -> submission.future.completeExceptionally(cause));
+    }
+
+    private static class Submission {
+
+        private final List<AuditEventEntity> entities;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Submission(List<AuditEventEntity> entities) {
+            this.entities = entities;
+        }
+    }
+}
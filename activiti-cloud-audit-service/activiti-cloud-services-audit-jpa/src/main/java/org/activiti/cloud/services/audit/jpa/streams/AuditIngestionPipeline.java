@@ -0,0 +1,288 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages audit ingestion: the events of each message are converted on a pool of converter threads, then
+ * handed to the {@link AuditEventGroupCommitWriter}, so that the consumer thread only waits for a free slot.
+ * The number of messages in flight across both stages is bounded. When the writer falls behind and no
+ * slot frees up, the consumer thread blocks before any transaction is started, which stops consumption
+ * until the broker prefetch drains; a message still waiting after the maximum wait is rejected so that
+ * the broker redelivers it.
+ * <p>
+ * A message accepted by the pipeline may already be acknowledged to the broker, so a failed write is retried
+ * with a growing delay, keeping its slot, until the retry timeout. A database outage therefore fills the
+ * pipeline and pauses the consumers instead of dropping events. Messages still failing after the retry timeout
+ * are logged and counted as failed. On shutdown, the pipeline waits up to the maximum wait for the messages in
+ * flight to be written.
+ */
+public class AuditIngestionPipeline {
+
+    public static final String QUEUE_DEPTH_METRIC = "activiti.audit.pipeline.queue.depth";
+
+    public static final String IN_FLIGHT_METRIC = "activiti.audit.pipeline.in.flight";
+
+    public static final String STAGE_LATENCY_METRIC = "activiti.audit.pipeline.stage.latency";
+
+    public static final String BACKPRESSURE_METRIC = "activiti.audit.pipeline.backpressure";
+
+    public static final String REJECTED_METRIC = "activiti.audit.pipeline.rejected";
+
+    public static final String RETRIED_METRIC = "activiti.audit.pipeline.retried";
+
+    public static final String FAILED_METRIC = "activiti.audit.pipeline.failed";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditIngestionPipeline.class);
+
+    private static final long MIN_RETRY_DELAY_MILLIS = 100;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30000;
+
+    private final AuditEventsConverter eventsConverter;
+
+    private final AuditEventDuplicateFilter duplicateFilter;
+
+    private final AuditEventGroupCommitWriter writer;
+
+    private final ThreadPoolExecutor converters;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final long maxWaitNanos;
+
+    private final long retryTimeoutNanos;
+
+    private final ScheduledExecutorService retries;
+
+    private final Timer convertLatency;
+
+    private final Timer writeLatency;
+
+    private final Timer backpressure;
+
+    private final Counter rejected;
+
+    private final Counter retried;
+
+    private final Counter failed;
+
+    public AuditIngestionPipeline(AuditEventsConverter eventsConverter,
+                                  @Nullable AuditEventDuplicateFilter duplicateFilter,
+                                  AuditEventGroupCommitWriter writer,
+                                  int converterThreads,
+                                  int maxInFlight,
+                                  Duration maxWait,
+                                  Duration retryTimeout,
+                                  MeterRegistry meterRegistry) {
+        if (converterThreads < 1) {
+            throw new IllegalArgumentException("Pipeline converter threads must be positive: " + converterThreads);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Pipeline max in flight messages must be positive: " + maxInFlight);
+        }
+        this.eventsConverter = eventsConverter;
+        this.duplicateFilter = duplicateFilter;
+        this.writer = writer;
+        // the in flight bound also bounds the converter queue
+        this.converters = new ThreadPoolExecutor(converterThreads,
+                                                 converterThreads,
+                                                 0L,
+                                                 TimeUnit.MILLISECONDS,
+                                                 new LinkedBlockingQueue<>(),
+                                                 new CustomizableThreadFactory("audit-pipeline-convert-"));
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryTimeoutNanos = retryTimeout.toNanos();
+        this.retries = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("audit-pipeline-retry-"));
+
+        Gauge.builder(QUEUE_DEPTH_METRIC, converters, executor -> executor.getQueue().size())
+             .description("Audit messages waiting for a pipeline stage")
+             .tag("stage", "convert")
+             .register(meterRegistry);
+        Gauge.builder(QUEUE_DEPTH_METRIC, writer, AuditEventGroupCommitWriter::getPendingSubmissions)
+             .description("Audit messages waiting for a pipeline stage")
+             .tag("stage", "write")
+             .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, permits -> maxInFlight - permits.availablePermits())
+             .description("Audit messages accepted by the pipeline and not committed yet")
+             .register(meterRegistry);
+        this.convertLatency = Timer.builder(STAGE_LATENCY_METRIC)
+                                   .description("Time from acceptance to the end of a pipeline stage")
+                                   .tag("stage", "convert")
+                                   .register(meterRegistry);
+        this.writeLatency = Timer.builder(STAGE_LATENCY_METRIC)
+                                 .description("Time from acceptance to the end of a pipeline stage")
+                                 .tag("stage", "write")
+                                 .register(meterRegistry);
+        this.backpressure = Timer.builder(BACKPRESSURE_METRIC)
+                                 .description("Time consumers waited for the pipeline to accept a message")
+                                 .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                               .description("Audit messages rejected because the pipeline stayed full")
+                               .register(meterRegistry);
+        this.retried = Counter.builder(RETRIED_METRIC)
+                              .description("Audit message writes retried after a failure")
+                              .register(meterRegistry);
+        this.failed = Counter.builder(FAILED_METRIC)
+                             .description("Audit messages not written before the retry timeout")
+                             .register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> submit(Map<String, Object> headers,
+                                          CloudRuntimeEvent<?, ?>... events) {
+        acquire();
+        long accepted = System.nanoTime();
+        CompletableFuture<Void> committed;
+        try {
+            committed = CompletableFuture.supplyAsync(() -> convert(headers, events), converters)
+                                         .thenCompose(entities -> {
+                                             convertLatency.record(System.nanoTime() - accepted, TimeUnit.NANOSECONDS);
+                                             return write(entities, System.nanoTime() + retryTimeoutNanos, MIN_RETRY_DELAY_MILLIS);
+                                         });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            rejected.increment();
+            throw new IllegalStateException("Audit ingestion pipeline has been shut down", e);
+        }
+        return committed.whenComplete((result, error) -> {
+            writeLatency.record(System.nanoTime() - accepted, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                failed.increment();
+                LOGGER.error("Unable to store audit events of message {}", headers.get(MessageHeaders.ID), error);
+            }
+            inFlight.release();
+        });
+    }
+
+    public void shutdown() {
+        try {
+            if (!inFlight.tryAcquire(maxInFlight, maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Shutting down audit ingestion pipeline with {} messages not written",
+                            maxInFlight - inFlight.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        retries.shutdownNow();
+        converters.shutdown();
+        try {
+            if (!converters.awaitTermination(30, TimeUnit.SECONDS)) {
+                converters.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            converters.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> write(List<AuditEventEntity> entities,
+                                          long deadline,
+                                          long retryDelayMillis) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        CompletableFuture<Void> submitted;
+        try {
+            submitted = writer.submit(entities);
+        } catch (RuntimeException e) {
+            submitted = new CompletableFuture<>();
+            submitted.completeExceptionally(e);
+        }
+        submitted.whenComplete((result, error) -> {
+            if (error == null) {
+                written.complete(null);
+            } else if (deadline - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(retryDelayMillis)) {
+                written.completeExceptionally(error);
+            } else {
+                retried.increment();
+                LOGGER.warn("Unable to store audit events, retrying in {}ms", retryDelayMillis, error);
+                // ids assigned during the rolled back attempt must not make the entities look detached
+                entities.forEach(entity -> entity.setId(null));
+                try {
+                    retries.schedule(() -> write(entities, deadline, Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS))
+                                         .whenComplete((retryResult, retryError) -> complete(written, retryError)),
+                                     retryDelayMillis,
+                                     TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    written.completeExceptionally(error);
+                }
+            }
+        });
+        return written;
+    }
+
+    private static void complete(CompletableFuture<Void> future,
+                                 @Nullable Throwable error) {
+        if (error == null) {
+            future.complete(null);
+        } else {
+            future.completeExceptionally(error);
+        }
+    }
+
+    private List<AuditEventEntity> convert(Map<String, Object> headers,
+                                           CloudRuntimeEvent<?, ?>... events) {
+        List<AuditEventEntity> entities = eventsConverter.convert(headers, events);
+        return duplicateFilter != null ? duplicateFilter.filter(entities) : entities;
+    }
+
+    private void acquire() {
+        if (inFlight.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new IllegalStateException("Interrupted while waiting for the audit ingestion pipeline", e);
+        } finally {
+            backpressure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new IllegalStateException("Audit ingestion pipeline stayed full for " +
+                                            Duration.ofNanos(maxWaitNanos));
+        }
+    }
+}
@@ -15,26 +15,116 @@
  */
 package org.activiti.cloud.services.audit.jpa.streams.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
 import org.activiti.cloud.services.audit.api.streams.AuditConsumerChannelHandler;
 import org.activiti.cloud.services.audit.api.streams.AuditConsumerChannels;
 import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
 import org.activiti.cloud.services.audit.jpa.streams.AuditConsumerChannelHandlerImpl;
+import org.activiti.cloud.services.audit.jpa.streams.AuditConsumerGroupCommitChannelHandler;
+import org.activiti.cloud.services.audit.jpa.streams.AuditConsumerProperties;
+import org.activiti.cloud.services.audit.jpa.streams.AuditEventDuplicateFilter;
+import org.activiti.cloud.services.audit.jpa.streams.AuditEventGroupCommitWriter;
+import org.activiti.cloud.services.audit.jpa.streams.AuditEventsConverter;
+import org.activiti.cloud.services.audit.jpa.streams.AuditIngestionPipeline;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRecorder;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
 
 @Configuration
 @EnableBinding(AuditConsumerChannels.class)
+@EnableConfigurationProperties(AuditConsumerProperties.class)
 public class AuditJPAStreamsAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.consumer.duplicate-filter-enabled", havingValue = "true", matchIfMissing = true)
+    public AuditEventDuplicateFilter auditEventDuplicateFilter(EventsRepository eventsRepository,
+                                                               AuditConsumerProperties auditConsumerProperties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AuditEventDuplicateFilter(eventsRepository,
+                                             auditConsumerProperties.getDuplicateFilterWindowSize(),
+                                             meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.timeline.enabled", havingValue = "true")
+    public AuditTimelineRecorder auditTimelineRecorder(EntityManager entityManager,
+                                                       AuditTimelineRepository auditTimelineRepository,
+                                                       @Value("${activiti.cloud.audit.timeline.cache-size:10000}") int cacheSize) {
+        return new AuditTimelineRecorder(entityManager,
+                                         auditTimelineRepository,
+                                         cacheSize);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.consumer.group-commit-enabled", havingValue = "false", matchIfMissing = true)
     public AuditConsumerChannelHandler auditConsumerChannelHandler(EventsRepository eventsRepository,
-                                                                   APIEventToEntityConverters eventConverters) {
+                                                                   APIEventToEntityConverters eventConverters,
+                                                                   ObjectProvider<AuditEventDuplicateFilter> duplicateFilter,
+                                                                   ObjectProvider<AuditTimelineRecorder> timelineRecorder) {
         return new AuditConsumerChannelHandlerImpl(eventsRepository,
-                                                   eventConverters);
+                                                   eventConverters,
+                                                   duplicateFilter.getIfAvailable(),
+                                                   timelineRecorder.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.consumer.group-commit-enabled", havingValue = "true")
+    public AuditEventGroupCommitWriter auditEventGroupCommitWriter(EntityManager entityManager,
+                                                                   PlatformTransactionManager transactionManager,
+                                                                   AuditConsumerProperties auditConsumerProperties,
+                                                                   ObjectProvider<AuditTimelineRecorder> timelineRecorder) {
+        return new AuditEventGroupCommitWriter(entityManager,
+                                               transactionManager,
+                                               auditConsumerProperties.getGroupCommitMaxSize(),
+                                               auditConsumerProperties.getGroupCommitMaxLatency(),
+                                               timelineRecorder.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = AuditConsumerProperties.AUDIT_CONSUMER_PREFIX, name = {"group-commit-enabled", "pipeline-enabled"}, havingValue = "true")
+    public AuditIngestionPipeline auditIngestionPipeline(AuditEventGroupCommitWriter auditEventGroupCommitWriter,
+                                                         APIEventToEntityConverters eventConverters,
+                                                         ObjectProvider<AuditEventDuplicateFilter> duplicateFilter,
+                                                         AuditConsumerProperties auditConsumerProperties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AuditIngestionPipeline(new AuditEventsConverter(eventConverters),
+                                          duplicateFilter.getIfAvailable(),
+                                          auditEventGroupCommitWriter,
+                                          auditConsumerProperties.getPipelineConverterThreads(),
+                                          auditConsumerProperties.getPipelineMaxInFlight(),
+                                          auditConsumerProperties.getPipelineMaxWait(),
+                                          auditConsumerProperties.getPipelineRetryTimeout(),
+                                          meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.audit.consumer.group-commit-enabled", havingValue = "true")
+    public AuditConsumerChannelHandler auditConsumerGroupCommitChannelHandler(AuditEventGroupCommitWriter auditEventGroupCommitWriter,
+                                                                              APIEventToEntityConverters eventConverters,
+                                                                              ObjectProvider<AuditEventDuplicateFilter> duplicateFilter,
+                                                                              ObjectProvider<AuditIngestionPipeline> pipeline) {
+        return new AuditConsumerGroupCommitChannelHandler(auditEventGroupCommitWriter,
+                                                          eventConverters,
+                                                          duplicateFilter.getIfAvailable(),
+                                                          pipeline.getIfAvailable());
     }
 
 }
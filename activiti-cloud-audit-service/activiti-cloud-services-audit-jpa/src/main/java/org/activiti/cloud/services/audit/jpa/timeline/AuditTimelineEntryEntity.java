@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.timeline;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Position of an audit event in the timeline of its root process instance. The primary key orders the
+ * events of a root instance, including the ones of the instances it called, by timestamp and insertion
+ * order, so that a timeline is read with a single range scan of the key.
+ */
+@Entity(name = "AuditTimelineEntry")
+@Table(name = "audit_event_timeline")
+@IdClass(AuditTimelineEntryId.class)
+@Immutable
+public class AuditTimelineEntryEntity {
+
+    @Id
+    private String rootProcessInstanceId;
+
+    @Id
+    private Long timestamp;
+
+    @Id
+    @Column(name = "audit_event_id")
+    private Long auditEventId;
+
+    private String processInstanceId;
+
+    public AuditTimelineEntryEntity() {
+    }
+
+    public AuditTimelineEntryEntity(String rootProcessInstanceId,
+                                    Long timestamp,
+                                    Long auditEventId,
+                                    String processInstanceId) {
+        this.rootProcessInstanceId = rootProcessInstanceId;
+        this.timestamp = timestamp;
+        this.auditEventId = auditEventId;
+        this.processInstanceId = processInstanceId;
+    }
+
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getAuditEventId() {
+        return auditEventId;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+}
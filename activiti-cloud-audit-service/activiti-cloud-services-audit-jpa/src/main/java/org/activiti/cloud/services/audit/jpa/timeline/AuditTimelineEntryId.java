@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.timeline;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class AuditTimelineEntryId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String rootProcessInstanceId;
+    private Long timestamp;
+    private Long auditEventId;
+
+    public AuditTimelineEntryId() {
+    }
+
+    public AuditTimelineEntryId(String rootProcessInstanceId,
+                                Long timestamp,
+                                Long auditEventId) {
+        this.rootProcessInstanceId = rootProcessInstanceId;
+        this.timestamp = timestamp;
+        this.auditEventId = auditEventId;
+    }
+
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getAuditEventId() {
+        return auditEventId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AuditTimelineEntryId that = (AuditTimelineEntryId) o;
+        return Objects.equals(rootProcessInstanceId, that.rootProcessInstanceId) &&
+               Objects.equals(timestamp, that.timestamp) &&
+               Objects.equals(auditEventId, that.auditEventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rootProcessInstanceId, timestamp, auditEventId);
+    }
+}
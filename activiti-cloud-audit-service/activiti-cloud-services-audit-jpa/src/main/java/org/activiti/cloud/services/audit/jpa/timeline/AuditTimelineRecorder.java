@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.timeline;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends stored audit events to the timeline of their root process instance. It must be called in the
+ * transaction storing the events, once they have been assigned their ids, so that the timeline never
+ * refers to events that have not been committed.
+ * <p>
+ * Events of a called process instance carry the id of their parent instance, whose root is looked up in
+ * the timeline, or found by walking up the parents recorded on the audit events of the ancestors that are
+ * not in the timeline. Recently resolved roots are kept in a bounded cache, so that the lookup happens once
+ * per called process instance rather than once per event.
+ */
+public class AuditTimelineRecorder {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final EntityManager entityManager;
+
+    private final AuditTimelineRepository timelineRepository;
+
+    private final Map<String, String> rootProcessInstanceIds;
+
+    public AuditTimelineRecorder(EntityManager entityManager,
+                                 AuditTimelineRepository timelineRepository,
+                                 int cacheSize) {
+        this.entityManager = entityManager;
+        this.timelineRepository = timelineRepository;
+        this.rootProcessInstanceIds = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public void record(List<AuditEventEntity> entities) {
+        for (AuditEventEntity entity : entities) {
+            if (entity.getProcessInstanceId() == null || entity.getId() == null) {
+                continue;
+            }
+            entityManager.persist(new AuditTimelineEntryEntity(resolveRoot(entity.getProcessInstanceId(),
+                                                                           entity.getParentProcessInstanceId()),
+                                                               entity.getTimestamp() != null ? entity.getTimestamp() : 0L,
+                                                               entity.getId(),
+                                                               entity.getProcessInstanceId()));
+        }
+    }
+
+    private String resolveRoot(String processInstanceId,
+                               String parentProcessInstanceId) {
+        if (parentProcessInstanceId == null) {
+            return processInstanceId;
+        }
+        String root = rootProcessInstanceIds.get(processInstanceId);
+        if (root != null) {
+            return root;
+        }
+        String ancestor = parentProcessInstanceId;
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            root = rootProcessInstanceIds.get(ancestor);
+            if (root == null) {
+                root = timelineRepository.findRootProcessInstanceId(ancestor).orElse(null);
+            }
+            if (root != null) {
+                break;
+            }
+            // the ancestor is not in the timeline yet, walk up through the parent recorded on its events
+            List<String> parents = timelineRepository.findParentProcessInstanceIds(ancestor, PageRequest.of(0, 1));
+            if (parents.isEmpty()) {
+                // nothing is known about the ancestor, don't cache a root that may be wrong
+                return ancestor;
+            }
+            if (parents.get(0) == null) {
+                root = ancestor;
+                break;
+            }
+            ancestor = parents.get(0);
+        }
+        if (root == null) {
+            return ancestor;
+        }
+        rootProcessInstanceIds.put(processInstanceId, root);
+        return root;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.timeline;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@RepositoryRestResource(exported = false)
+public interface AuditTimelineRepository extends CrudRepository<AuditTimelineEntryEntity, AuditTimelineEntryId> {
+
+    @Query("select t.rootProcessInstanceId from AuditTimelineEntry t where t.processInstanceId = :processInstanceId")
+    List<String> findRootProcessInstanceIds(@Param("processInstanceId") String processInstanceId,
+                                            Pageable pageable);
+
+    default Optional<String> findRootProcessInstanceId(String processInstanceId) {
+        return findRootProcessInstanceIds(processInstanceId,
+                                          PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    /**
+     * Returns the parent recorded on the audit events of the process instance, a {@literal null} element
+     * when it is a root instance, or no element when it has no audit event.
+     */
+    @Query("select e.parentProcessInstanceId from AuditEvent e where e.processInstanceId = :processInstanceId")
+    List<String> findParentProcessInstanceIds(@Param("processInstanceId") String processInstanceId,
+                                              Pageable pageable);
+
+    /**
+     * Deletes the entries of the audit events up to the given id, when deleting the oldest events.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from AuditTimelineEntry t where t.auditEventId <= :maxAuditEventId")
+    int deleteUpTo(@Param("maxAuditEventId") Long maxAuditEventId);
+}
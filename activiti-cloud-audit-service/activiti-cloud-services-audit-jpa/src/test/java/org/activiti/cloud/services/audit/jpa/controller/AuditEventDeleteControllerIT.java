@@ -27,6 +27,7 @@ import org.activiti.cloud.services.audit.jpa.controllers.AuditEventsDeleteContro
 import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
 import org.activiti.cloud.services.audit.jpa.events.ProcessStartedAuditEventEntity;
 import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.activiti.cloud.services.audit.jpa.timeline.AuditTimelineRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,12 +45,15 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@TestPropertySource(properties = "activiti.rest.enable-deletion=true")
+@TestPropertySource(properties = {"activiti.rest.enable-deletion=true", "activiti.rest.deletion.chunk-size=2"})
 @WebMvcTest(AuditEventsDeleteController.class)
 @EnableSpringDataWebSupport
 @AutoConfigureMockMvc
@@ -65,6 +69,9 @@ public class AuditEventDeleteControllerIT {
     @MockBean
     private EventsRepository eventsRepository;
 
+    @MockBean
+    private AuditTimelineRepository timelineRepository;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -84,7 +91,7 @@ public class AuditEventDeleteControllerIT {
     public void deleteEventsShouldReturnAllEventsAndDeleteThem() throws Exception {
 
         //given
-        List<AuditEventEntity> list = buildEventsData(1);
+        List<AuditEventEntity> list = buildEventsData(3);
         given(eventsRepository.findAll())
                 .willReturn(list);
 
@@ -95,6 +102,25 @@ public class AuditEventDeleteControllerIT {
                 .andExpect(status().isOk());
 
         verify(eventsRepository).deleteAll(list);
+        verify(timelineRepository).deleteUpTo(2L);
+    }
+
+    @Test
+    public void purgeEventsShouldDeleteInChunksAndReturnTheDeletedCount() throws Exception {
+
+        //given
+        given(eventsRepository.deleteOldest(2))
+                .willReturn(2L, 2L, 1L);
+
+        //when
+        mockMvc.perform(delete("/admin/v1/" + EventsLinkRelationProvider.COLLECTION_RESOURCE_REL + "?purge=true")
+                .accept(MediaType.APPLICATION_JSON))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.AuditEvent").value(5));
+
+        verify(eventsRepository, times(3)).deleteOldest(2);
+        verify(eventsRepository, never()).findAll();
     }
 
     private List<AuditEventEntity> buildEventsData(int recordsNumber) {
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessStartedEventImpl;
+import org.activiti.cloud.services.audit.api.converters.CloudRuntimeEventType;
+import org.activiti.cloud.services.audit.api.resources.EventsLinkRelationProvider;
+import org.activiti.cloud.services.audit.jpa.assembler.EventRepresentationModelAssembler;
+import org.activiti.cloud.services.audit.jpa.converters.json.AuditPayloadFormat;
+import org.activiti.cloud.services.audit.jpa.converters.json.ProcessInstanceJpaJsonConverter;
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventRawRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditEventPassThroughWriterTest {
+
+    private final AuditEventPassThroughWriter writer = new AuditEventPassThroughWriter(new ObjectMapper());
+
+    @Test
+    public void writeShouldSpliceStoredPayloadsIntoHalPage() throws Exception {
+        //given
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("proc1");
+        processInstance.setName("My instance");
+        ProcessInstanceJpaJsonConverter converter = new ProcessInstanceJpaJsonConverter();
+        String jsonPayload = converter.convertToDatabaseColumn(processInstance);
+        converter.setPayloadFormat(AuditPayloadFormat.COMPACT);
+        String compactPayload = converter.convertToDatabaseColumn(processInstance);
+
+        Map<Long, AuditEventRawRow> rows = new HashMap<>();
+        rows.put(1L, row(1L, "event1", "PROCESS_STARTED", jsonPayload));
+        rows.put(2L, row(2L, "event2", "PROCESS_COMPLETED", compactPayload));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        //when
+        writer.write(output,
+                     page(2L, 1L),
+                     rows,
+                     Collections.emptyMap(),
+                     "http://localhost/v1/events");
+
+        //then
+        String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertThatJson(json).node("_embedded.events[0].id").isEqualTo("event2");
+        assertThatJson(json).node("_embedded.events[0].entity.name").isEqualTo("My instance");
+        assertThatJson(json).node("_embedded.events[0]._links.self.href").isEqualTo("http://localhost/v1/events/event2");
+        assertThatJson(json).node("_embedded.events[1].id").isEqualTo("event1");
+        assertThatJson(json).node("_embedded.events[1].entity.id").isEqualTo("proc1");
+        assertThatJson(json).node("_embedded.events[1].processInstanceId").isEqualTo("proc1");
+        assertThatJson(json).node("page.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    public void writeShouldWritePayloadDatesLikeConvertedEvents() throws Exception {
+        //given
+        ObjectMapper isoDatesMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        AuditEventPassThroughWriter isoDatesWriter = new AuditEventPassThroughWriter(isoDatesMapper);
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("proc1");
+        processInstance.setStartDate(new Date(1000L));
+        processInstance.setCompletedDate(new Date(2000L));
+        ProcessInstanceJpaJsonConverter converter = new ProcessInstanceJpaJsonConverter();
+        String jsonPayload = converter.convertToDatabaseColumn(processInstance);
+        converter.setPayloadFormat(AuditPayloadFormat.COMPACT);
+        String compactPayload = converter.convertToDatabaseColumn(processInstance);
+
+        Map<Long, AuditEventRawRow> rows = new HashMap<>();
+        rows.put(1L, row(1L, "event1", "PROCESS_STARTED", jsonPayload));
+        rows.put(2L, row(2L, "event2", "PROCESS_STARTED", compactPayload));
+        Map<Long, CloudRuntimeEvent<?, ?>> converted = Collections.singletonMap(
+            3L, new CloudProcessStartedEventImpl("event3", 1000L, converter.convertToEntityAttribute(jsonPayload)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        //when
+        isoDatesWriter.write(output,
+                             page(1L, 2L, 3L),
+                             rows,
+                             converted,
+                             "http://localhost/v1/events");
+
+        //then
+        JsonNode events = isoDatesMapper.readTree(output.toByteArray()).path("_embedded").path("events");
+        JsonNode convertedEntity = events.get(2).path("entity");
+        assertThat(convertedEntity.path("startDate").isTextual()).isTrue();
+        assertThat(events.get(0).path("entity")).isEqualTo(convertedEntity);
+        assertThat(events.get(1).path("entity")).isEqualTo(convertedEntity);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void writeShouldWriteSamePageAsPagedModelAssembler() throws Exception {
+        //given
+        ObjectMapper halMapper = new ObjectMapper().registerModule(new Jackson2HalModule());
+        halMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new EventsLinkRelationProvider(),
+                                                                                      CurieProvider.NONE,
+                                                                                      MessageResolver.DEFAULTS_ONLY));
+        AuditEventPassThroughWriter halWriter = new AuditEventPassThroughWriter(halMapper);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/events");
+        request.setQueryString("page=1&size=1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("proc1");
+        CloudRuntimeEvent<?, CloudRuntimeEventType> event = (CloudRuntimeEvent) new CloudProcessStartedEventImpl("event2", 1000L, processInstance);
+        PageRequest pageable = PageRequest.of(1, 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            PagedModel<EntityModel<CloudRuntimeEvent<?, CloudRuntimeEventType>>> expected = new AlfrescoPagedModelAssembler<CloudRuntimeEvent<?, CloudRuntimeEventType>>(null, null, null)
+                .toModel(pageable,
+                         new PageImpl<>(Collections.singletonList(event), pageable, 3),
+                         new EventRepresentationModelAssembler());
+            PagedModel<EntityModel<Long>> ids = new AlfrescoPagedModelAssembler<Long>(null, null, null)
+                .toModel(pageable,
+                         new PageImpl<>(Collections.singletonList(2L), pageable, 3),
+                         EntityModel::of);
+
+            //when
+            halWriter.write(output,
+                            ids,
+                            Collections.singletonMap(2L, row(2L, "event2", "PROCESS_STARTED", null)),
+                            Collections.singletonMap(2L, event),
+                            "http://localhost/v1/events");
+
+            //then
+            JsonNode written = halMapper.readTree(output.toByteArray());
+            assertThat(written.path("_links").size()).isEqualTo(5);
+            assertThat(written).isEqualTo(halMapper.readTree(halMapper.writeValueAsBytes(expected)));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void eventsWithExtraPropertiesShouldNotBePassThrough() {
+        assertThat(AuditEventPassThroughWriter.isPassThrough(row(1L, "event1", "TASK_CREATED", null))).isTrue();
+        assertThat(AuditEventPassThroughWriter.isPassThrough(row(1L, "event1", "PROCESS_CANCELLED", null))).isFalse();
+        assertThat(AuditEventPassThroughWriter.isPassThrough(row(1L, "event1", "VARIABLE_UPDATED", null))).isFalse();
+        assertThat(AuditEventPassThroughWriter.isPassThrough(row(1L, "event1", "INTEGRATION_ERROR_RECEIVED", null))).isFalse();
+    }
+
+    private PagedModel<EntityModel<Long>> page(Long... ids) {
+        return PagedModel.of(Arrays.stream(ids)
+                                   .map(EntityModel::of)
+                                   .collect(Collectors.toList()),
+                             new PagedModel.PageMetadata(10, 0, ids.length));
+    }
+
+    private AuditEventRawRow row(Long id,
+                                 String eventId,
+                                 String eventType,
+                                 String payload) {
+        return new AuditEventRawRow(new Object[]{id, eventId, 1000L, eventType, "proc1", "app", "1",
+            "rb", "rb-full", "runtime-bundle", "1", "message1", 0,
+            "proc1", "procDef1", "procDefKey", "businessKey", null, payload});
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.controllers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessStartedEventImpl;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.activiti.cloud.services.audit.jpa.security.SecurityPoliciesApplicationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class AuditEventsExportControllerTest {
+
+    @Mock
+    private EventsRepository<AuditEventEntity> eventsRepository;
+
+    @Mock
+    private APIEventToEntityConverters eventConverters;
+
+    @Mock
+    private EventToEntityConverter<AuditEventEntity> converter;
+
+    @Mock
+    private SecurityPoliciesApplicationServiceImpl securityPoliciesApplicationService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        given(transactionManager.getTransaction(any())).willReturn(mock(TransactionStatus.class));
+        given(eventConverters.getConverterByEventTypeName("PROCESS_STARTED")).willReturn(converter);
+        AuditEventsExportController controller = new AuditEventsExportController(eventsRepository,
+                                                                                 eventConverters,
+                                                                                 securityPoliciesApplicationService,
+                                                                                 entityManager,
+                                                                                 transactionManager,
+                                                                                 new ObjectMapper(),
+                                                                                 2,
+                                                                                 Duration.ofHours(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                 // the MVC async request timeout must not apply to exports
+                                 .setAsyncRequestTimeout(100)
+                                 .build();
+    }
+
+    @Test
+    public void exportShouldStreamOneEventPerLineFromTheGivenEvent() throws Exception {
+        //given
+        AuditEventEntity lastReceived = event(10L, "event10");
+        given(eventsRepository.findByEventId("event10")).willReturn(Optional.of(lastReceived));
+        AuditEventEntity first = event(11L, "event11");
+        AuditEventEntity second = event(12L, "event12");
+        given(eventsRepository.streamAfter(any(), eq(10L), anyInt())).willReturn(Stream.of(first, second));
+
+        //when
+        MvcResult result = export("event10");
+
+        //then
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(MediaType.parseMediaType("application/x-ndjson"))).isTrue();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":\"event11\"");
+        assertThat(lines[1]).contains("\"id\":\"event12\"");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void exportShouldOutliveMvcAsyncRequestTimeout() throws Exception {
+        //given
+        AuditEventEntity first = event(11L, "event11");
+        AuditEventEntity second = event(12L, "event12");
+        given(eventsRepository.streamAfter(any(), eq(null), anyInt())).willReturn(Stream.of(first, second)
+                                                                                         .peek(event -> sleep(150)));
+
+        //when
+        MvcResult result = export(null);
+
+        //then
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        assertThat(result.getResponse().getContentAsString().split("\n")).hasSize(2);
+        verify(transactionManager).commit(any());
+    }
+
+    private MvcResult export(String afterEventId) throws Exception {
+        MvcResult result = mockMvc.perform(afterEventId != null
+                                               ? get("/admin/v1/events/export").param("after", afterEventId)
+                                               : get("/admin/v1/events/export"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        result.getAsyncResult(5000);
+        return result;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AuditEventEntity event(Long id,
+                                   String eventId) {
+        AuditEventEntity entity = mock(AuditEventEntity.class);
+        given(entity.getId()).willReturn(id);
+        given(entity.getEventId()).willReturn(eventId);
+        given(entity.getEventType()).willReturn("PROCESS_STARTED");
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("proc1");
+        given(converter.convertToAPI(entity)).willReturn(new CloudProcessStartedEventImpl(eventId,
+                                                                                          1000L,
+                                                                                          processInstance));
+        return entity;
+    }
+}
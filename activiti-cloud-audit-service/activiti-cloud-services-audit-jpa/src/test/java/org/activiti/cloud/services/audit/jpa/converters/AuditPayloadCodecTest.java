@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.converters;
+
+import java.util.Date;
+
+import org.activiti.api.process.model.ProcessInstance;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.services.audit.jpa.converters.json.AuditPayloadFormat;
+import org.activiti.cloud.services.audit.jpa.converters.json.ProcessInstanceJpaJsonConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditPayloadCodecTest {
+
+    private ProcessInstanceJpaJsonConverter converter = new ProcessInstanceJpaJsonConverter();
+
+    private ProcessInstanceJpaJsonConverter compactConverter = new ProcessInstanceJpaJsonConverter();
+
+    @BeforeEach
+    public void setUp() {
+        compactConverter.setPayloadFormat(AuditPayloadFormat.COMPACT);
+    }
+
+    @Test
+    public void compactFormatShouldRoundTripWithHeader() {
+        //given
+        ProcessInstanceImpl processInstance = buildProcessInstance("My instance");
+
+        //when
+        String columnValue = compactConverter.convertToDatabaseColumn(processInstance);
+        ProcessInstance decoded = compactConverter.convertToEntityAttribute(columnValue);
+
+        //then
+        assertThat(columnValue).startsWith("#S");
+        assertThat(decoded.getId()).isEqualTo("20");
+        assertThat(decoded.getName()).isEqualTo("My instance");
+        assertThat(decoded.getStatus()).isEqualTo(ProcessInstance.ProcessInstanceStatus.RUNNING);
+        assertThat(decoded.getBusinessKey()).isEqualTo("business-key");
+    }
+
+    @Test
+    public void jsonRowsShouldStayReadableWhenWritingCompact() {
+        //given
+        String jsonColumnValue = converter.convertToDatabaseColumn(buildProcessInstance("My instance"));
+
+        //when
+        ProcessInstance decoded = compactConverter.convertToEntityAttribute(jsonColumnValue);
+
+        //then
+        assertThatJson(jsonColumnValue).node("name").isEqualTo("My instance");
+        assertThat(decoded.getName()).isEqualTo("My instance");
+    }
+
+    @Test
+    public void compactFormatShouldBeSmallerThanJsonForRepetitivePayloads() {
+        //given
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            name.append("repeated instance name ");
+        }
+        ProcessInstanceImpl processInstance = buildProcessInstance(name.toString());
+        String json = converter.convertToDatabaseColumn(processInstance);
+
+        //when
+        String compact = compactConverter.convertToDatabaseColumn(processInstance);
+
+        //then
+        assertThat(compact.length()).isLessThan(json.length() / 4);
+        assertThat(converter.convertToEntityAttribute(compact).getName()).isEqualTo(name.toString());
+    }
+
+    private ProcessInstanceImpl buildProcessInstance(String name) {
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("20");
+        processInstance.setName(name);
+        processInstance.setProcessDefinitionId("proc-def-id");
+        processInstance.setInitiator("initiator");
+        processInstance.setStartDate(new Date());
+        processInstance.setBusinessKey("business-key");
+        processInstance.setStatus(ProcessInstance.ProcessInstanceStatus.RUNNING);
+        return processInstance;
+    }
+}
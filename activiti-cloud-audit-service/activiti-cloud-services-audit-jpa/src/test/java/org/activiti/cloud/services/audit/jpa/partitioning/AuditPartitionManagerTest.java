@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.partitioning;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.activiti.cloud.services.audit.jpa.partitioning.AuditPartitioningProperties.RetentionMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditPartitionManagerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private AuditPartitionDialect dialect;
+
+    private AuditPartitioningProperties properties;
+
+    private AuditPartitionManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        properties = new AuditPartitioningProperties();
+        manager = new AuditPartitionManager(jdbcOperations,
+                                            dialect,
+                                            properties,
+                                            Clock.fixed(NOW, ZoneOffset.UTC));
+        given(dialect.supportsPartitionCreation()).willReturn(true);
+    }
+
+    @Test
+    public void createPartitionsShouldCreateCurrentAndUpcomingDays() {
+        //given
+        properties.setPrecreate(2);
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Collections.emptyList());
+
+        //when
+        List<String> created = manager.createPartitions();
+
+        //then
+        assertThat(created).containsExactly("audit_event_p20261018",
+                                            "audit_event_p20261019",
+                                            "audit_event_p20261020");
+        verify(dialect).createPartition(jdbcOperations,
+                                        "audit_event_p20261018",
+                                        millis("2026-10-18T00:00:00Z"),
+                                        millis("2026-10-19T00:00:00Z"));
+        verify(dialect).createPartition(jdbcOperations,
+                                        "audit_event_p20261020",
+                                        millis("2026-10-20T00:00:00Z"),
+                                        millis("2026-10-21T00:00:00Z"));
+    }
+
+    @Test
+    public void createPartitionsShouldContinueFromHighestExistingBound() {
+        //given
+        properties.setPeriod(AuditPartitionPeriod.MONTH);
+        properties.setPrecreate(1);
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Arrays.asList(
+            new AuditPartition("audit_event_legacy", null),
+            new AuditPartition("audit_event_p_initial", millis("2026-11-01T00:00:00Z"))));
+
+        //when
+        List<String> created = manager.createPartitions();
+
+        //then
+        assertThat(created).containsExactly("audit_event_p202611");
+        verify(dialect).createPartition(jdbcOperations,
+                                        "audit_event_p202611",
+                                        millis("2026-11-01T00:00:00Z"),
+                                        millis("2026-12-01T00:00:00Z"));
+    }
+
+    @Test
+    public void createPartitionsShouldDoNothingWhenDatabaseCreatesPartitions() {
+        //given
+        given(dialect.supportsPartitionCreation()).willReturn(false);
+
+        //when
+        List<String> created = manager.createPartitions();
+
+        //then
+        assertThat(created).isEmpty();
+        verify(dialect, never()).createPartition(any(), anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldDropOnlyPartitionsEntirelyOlderThanRetention() {
+        //given
+        properties.setRetention(Duration.ofDays(30));
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Arrays.asList(
+            new AuditPartition("audit_event_legacy", null),
+            new AuditPartition("audit_event_p20260901", millis("2026-09-02T00:00:00Z")),
+            new AuditPartition("audit_event_p20260918", millis("2026-09-19T00:00:00Z")),
+            new AuditPartition("audit_event_p20261018", millis("2026-10-19T00:00:00Z"))));
+
+        //when
+        List<String> removed = manager.removeExpiredPartitions();
+
+        //then
+        assertThat(removed).containsExactly("audit_event_p20260901");
+        verify(dialect).dropPartition(jdbcOperations, "audit_event_p20260901");
+        verify(dialect, never()).dropPartition(jdbcOperations, "audit_event_legacy");
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldDetachWhenConfigured() {
+        //given
+        properties.setRetention(Duration.ofDays(1));
+        properties.setRetentionMode(RetentionMode.DETACH);
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Collections.singletonList(
+            new AuditPartition("audit_event_p20261001", millis("2026-10-02T00:00:00Z"))));
+
+        //when
+        List<String> removed = manager.removeExpiredPartitions();
+
+        //then
+        assertThat(removed).containsExactly("audit_event_p20261001");
+        verify(dialect).detachPartition(jdbcOperations, "audit_event_p20261001");
+        verify(dialect, never()).dropPartition(jdbcOperations, "audit_event_p20261001");
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldPurgeExpiredRowsOfDefaultPartitionInBatches() {
+        //given
+        properties.setRetention(Duration.ofDays(30));
+        properties.setPurgeBatchSize(2);
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Collections.singletonList(
+            new AuditPartition("audit_event_legacy", null)));
+        given(dialect.purgePartition(jdbcOperations, "audit_event_legacy", millis("2026-09-18T12:00:00Z"), 2))
+            .willReturn(2, 1);
+
+        //when
+        List<String> removed = manager.removeExpiredPartitions();
+
+        //then
+        assertThat(removed).isEmpty();
+        verify(dialect, times(2)).purgePartition(jdbcOperations, "audit_event_legacy", millis("2026-09-18T12:00:00Z"), 2);
+        verify(dialect, never()).dropPartition(jdbcOperations, "audit_event_legacy");
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldPurgeRowsWhenPartitionCannotBeDropped() {
+        //given
+        properties.setRetention(Duration.ofDays(30));
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Collections.singletonList(
+            new AuditPartition("AUDIT_EVENT_P_INITIAL", millis("2026-09-02T00:00:00Z"))));
+        willThrow(new InvalidDataAccessApiUsageException("last range partition"))
+            .given(dialect).dropPartition(jdbcOperations, "AUDIT_EVENT_P_INITIAL");
+
+        //when
+        List<String> removed = manager.removeExpiredPartitions();
+
+        //then
+        assertThat(removed).isEmpty();
+        verify(dialect).purgePartition(jdbcOperations, "AUDIT_EVENT_P_INITIAL", millis("2026-09-18T12:00:00Z"), 10000);
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldKeepDefaultPartitionWhenDetaching() {
+        //given
+        properties.setRetention(Duration.ofDays(30));
+        properties.setRetentionMode(RetentionMode.DETACH);
+        given(dialect.findPartitions(jdbcOperations)).willReturn(Collections.singletonList(
+            new AuditPartition("audit_event_legacy", null)));
+
+        //when
+        manager.removeExpiredPartitions();
+
+        //then
+        verify(dialect, never()).purgePartition(any(), anyString(), anyLong(), anyInt());
+        verify(dialect, never()).detachPartition(jdbcOperations, "audit_event_legacy");
+    }
+
+    @Test
+    public void removeExpiredPartitionsShouldKeepEverythingWithoutRetention() {
+        //when
+        List<String> removed = manager.removeExpiredPartitions();
+
+        //then
+        assertThat(removed).isEmpty();
+        verify(dialect, never()).findPartitions(jdbcOperations);
+    }
+
+    @Test
+    public void postgresUpperBoundShouldBeParsedFromPartitionBound() {
+        assertThat(PostgresAuditPartitionDialect.parseUpperBound("FOR VALUES FROM ('1000') TO ('2000')")).isEqualTo(2000L);
+        assertThat(PostgresAuditPartitionDialect.parseUpperBound("DEFAULT")).isNull();
+    }
+
+    @Test
+    public void postgresDropShouldDeleteTimelineEntriesOfPartitionBeforeDroppingIt() {
+        //when
+        new PostgresAuditPartitionDialect().dropPartition(jdbcOperations, "audit_event_p20260901");
+
+        //then
+        InOrder inOrder = inOrder(jdbcOperations);
+        inOrder.verify(jdbcOperations).update("DELETE FROM audit_event_timeline WHERE audit_event_id IN " +
+                                              "(SELECT id FROM audit_event_p20260901)");
+        inOrder.verify(jdbcOperations).execute("ALTER TABLE audit_event DETACH PARTITION audit_event_p20260901");
+        inOrder.verify(jdbcOperations).execute("DROP TABLE audit_event_p20260901");
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
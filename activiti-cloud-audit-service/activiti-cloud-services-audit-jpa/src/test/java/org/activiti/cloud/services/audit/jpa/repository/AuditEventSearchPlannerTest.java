@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.repository;
+
+import org.activiti.cloud.services.audit.jpa.repository.AuditEventSearchPlanner.UnindexedSearchPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AuditEventSearchPlannerTest {
+
+    private final AuditEventSearchPlanner planner = new AuditEventSearchPlanner(UnindexedSearchPolicy.REJECT, 1);
+
+    @Test
+    public void planShouldPickIndexCoveringMostSearchKeys() {
+        //given
+        EventSpecificationsBuilder builder = new EventSpecificationsBuilder()
+            .with("eventType", ":", "PROCESS_STARTED", null, null)
+            .with("entityId", ":", "entity1", null, null);
+
+        //when
+        AuditEventSearchPlanner.Plan plan = builder.plan(planner);
+
+        //then
+        assertThat(plan.isIndexed()).isTrue();
+        assertThat(plan.getIndex()).isEqualTo("audit_event_entity_type_idx");
+    }
+
+    @Test
+    public void planShouldUseProcessInstanceIndexWithTimestampRange() {
+        //given
+        EventSpecificationsBuilder builder = new EventSpecificationsBuilder()
+            .with("processInstanceId", ":", "proc1", null, null)
+            .with("timestamp", ">", "1000", null, null);
+
+        //when
+        AuditEventSearchPlanner.Plan plan = builder.plan(planner);
+
+        //then
+        assertThat(plan.getIndex()).isEqualTo("audit_event_pi_ts_idx");
+    }
+
+    @Test
+    public void planShouldNotBeIndexedWhenLeadingColumnIsNotAnEquality() {
+        //given
+        EventSpecificationsBuilder builder = new EventSpecificationsBuilder()
+            .with("processInstanceId", ":", "proc", null, "*")
+            .with("timestamp", ">", "1000", null, null);
+
+        //when
+        AuditEventSearchPlanner.Plan plan = builder.plan(planner);
+
+        //then
+        assertThat(plan.isIndexed()).isFalse();
+    }
+
+    @Test
+    public void planShouldNotBeIndexedWhenOrBranchCannotUseAnIndex() {
+        //given
+        EventSpecificationsBuilder builder = new EventSpecificationsBuilder()
+            .with("processInstanceId", ":", "proc1", null, null)
+            .with("'", "businessKey", ":", "key", null, null);
+
+        //when
+        AuditEventSearchPlanner.Plan plan = builder.plan(planner);
+
+        //then
+        assertThat(plan.isIndexed()).isFalse();
+    }
+
+    @Test
+    public void executeShouldRejectUnindexedSearch() {
+        //given
+        AuditEventSearchPlanner.Plan plan = planner.plan(Collections.singletonList(new SpecSearchCriteria("businessKey",
+                                                                                                          SearchOperation.EQUALITY,
+                                                                                                          "key")));
+
+        //then
+        assertThatThrownBy(() -> planner.execute(plan, () -> "result"))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("businessKey")
+            .extracting(e -> ((ResponseStatusException) e).getStatus())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void executeShouldThrottleConcurrentUnindexedSearches() {
+        //given
+        AuditEventSearchPlanner throttlingPlanner = new AuditEventSearchPlanner(UnindexedSearchPolicy.THROTTLE, 1);
+        AuditEventSearchPlanner.Plan plan = throttlingPlanner.plan(Arrays.asList(new SpecSearchCriteria("businessKey",
+                                                                                                        SearchOperation.EQUALITY,
+                                                                                                        "key")));
+        AtomicReference<Throwable> nested = new AtomicReference<>();
+
+        //when
+        String result = throttlingPlanner.execute(plan, () -> {
+            try {
+                throttlingPlanner.execute(plan, () -> "nested");
+            } catch (RuntimeException e) {
+                nested.set(e);
+            }
+            return "result";
+        });
+
+        //then
+        assertThat(result).isEqualTo("result");
+        assertThat(nested.get()).isInstanceOf(ResponseStatusException.class);
+        assertThat(throttlingPlanner.execute(plan, () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    public void executeShouldRunUnrestrictedListing() {
+        //given
+        AuditEventSearchPlanner.Plan plan = planner.plan(Collections.emptyList());
+
+        //then
+        assertThat(planner.execute(plan, () -> "result")).isEqualTo("result");
+    }
+}
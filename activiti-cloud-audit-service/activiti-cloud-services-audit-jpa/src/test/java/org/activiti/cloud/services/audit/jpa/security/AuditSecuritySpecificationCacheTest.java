@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.core.common.spring.security.policies.SecurityPolicyAccess;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AuditSecuritySpecificationCacheTest {
+
+    private final List<Object> policies = new ArrayList<>();
+
+    @Test
+    public void getShouldReuseSpecificationForSameUserAndGroupSetInAnyOrder() {
+        //given
+        AuditSecuritySpecificationCache cache = new AuditSecuritySpecificationCache(Duration.ofMinutes(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        Specification<AuditEventEntity> first = cache.get(policies, SecurityPolicyAccess.READ, "user", Arrays.asList("b", "a"), () -> {
+            loads.incrementAndGet();
+            return new ApplicationSecuritySpecification("audit");
+        });
+        Specification<AuditEventEntity> second = cache.get(policies, SecurityPolicyAccess.READ, "user", Arrays.asList("a", "b"), () -> {
+            loads.incrementAndGet();
+            return new ApplicationSecuritySpecification("audit");
+        });
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getShouldRebuildSpecificationWhenAccessDiffers() {
+        //given
+        AuditSecuritySpecificationCache cache = new AuditSecuritySpecificationCache(Duration.ofMinutes(1), 100);
+
+        //when
+        cache.get(policies, SecurityPolicyAccess.READ, "user", null, () -> new ApplicationSecuritySpecification("audit"));
+        cache.get(policies, SecurityPolicyAccess.WRITE, "user", null, () -> new ApplicationSecuritySpecification("audit"));
+
+        //then
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void getShouldDropEntriesWhenPoliciesAreBoundAgain() {
+        //given
+        AuditSecuritySpecificationCache cache = new AuditSecuritySpecificationCache(Duration.ofMinutes(1), 100);
+        Specification<AuditEventEntity> first = cache.get(policies, SecurityPolicyAccess.READ, "user", null, () -> new ApplicationSecuritySpecification("audit"));
+
+        //when
+        Specification<AuditEventEntity> second = cache.get(new ArrayList<>(Collections.singletonList("policy")), SecurityPolicyAccess.READ, "user", null,
+                                                           () -> new ApplicationSecuritySpecification("audit"));
+
+        //then
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void getShouldRebuildSpecificationWhenEntryExpired() {
+        //given
+        MutableClock clock = new MutableClock();
+        AuditSecuritySpecificationCache cache = new AuditSecuritySpecificationCache(Duration.ofSeconds(10), 100, clock);
+        Specification<AuditEventEntity> first = cache.get(policies, SecurityPolicyAccess.READ, "user", null, () -> new ApplicationSecuritySpecification("audit"));
+
+        //when
+        clock.advance(Duration.ofSeconds(11));
+        Specification<AuditEventEntity> second = cache.get(policies, SecurityPolicyAccess.READ, "user", null, () -> new ApplicationSecuritySpecification("audit"));
+
+        //then
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    public void getShouldEvictEntriesWhenMaxSizeIsReached() {
+        //given
+        AuditSecuritySpecificationCache cache = new AuditSecuritySpecificationCache(Duration.ofMinutes(1), 2);
+
+        //when
+        cache.get(policies, SecurityPolicyAccess.READ, "user1", null, () -> new ApplicationSecuritySpecification("audit"));
+        cache.get(policies, SecurityPolicyAccess.READ, "user2", null, () -> new ApplicationSecuritySpecification("audit"));
+        cache.get(policies, SecurityPolicyAccess.READ, "user3", null, () -> new ApplicationSecuritySpecification("audit"));
+
+        //then
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import org.activiti.api.process.model.events.ProcessRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.impl.events.CloudRuntimeEventImpl;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.events.ProcessCreatedAuditEventEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditConsumerGroupCommitChannelHandlerTest {
+
+    @Mock
+    private AuditEventGroupCommitWriter writer;
+
+    @Mock
+    private APIEventToEntityConverters converters;
+
+    @Mock
+    private AuditIngestionPipeline pipeline;
+
+    @Mock
+    private AcknowledgmentCallback acknowledgmentCallback;
+
+    private AuditConsumerGroupCommitChannelHandler handler;
+
+    private final Map<String, Object> headers = new HashMap<>(Collections.singletonMap(MessageHeaders.ID, UUID.randomUUID()));
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        handler = new AuditConsumerGroupCommitChannelHandler(writer, converters, null, pipeline);
+    }
+
+    @Test
+    public void receiveShouldHandMessageWithoutAcknowledgmentCallbackToPipeline() {
+        //given
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        when(pipeline.submit(headers, event)).thenReturn(new CompletableFuture<>());
+
+        //when
+        handler.receiveCloudRuntimeEvent(headers, event);
+
+        //then
+        verify(pipeline).submit(headers, event);
+        verify(writer, never()).submit(any());
+    }
+
+    @Test
+    public void receiveShouldConvertOnConsumerThreadWhenMessageHasNoAcknowledgmentCallbackAndNoPipeline() {
+        //given
+        handler = new AuditConsumerGroupCommitChannelHandler(writer, converters);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        AuditEventEntity entity = givenConvertedTo(event);
+        when(writer.submit(Collections.singletonList(entity))).thenReturn(CompletableFuture.completedFuture(null));
+
+        //when
+        handler.receiveCloudRuntimeEvent(headers, event);
+
+        //then
+        verify(writer).submit(Collections.singletonList(entity));
+        verify(pipeline, never()).submit(any(), any());
+    }
+
+    @Test
+    public void receiveShouldFailWhenCommitFailsAndMessageHasNoAcknowledgmentCallback() {
+        //given
+        handler = new AuditConsumerGroupCommitChannelHandler(writer, converters);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        givenConvertedTo(event);
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        committed.completeExceptionally(new IllegalStateException("commit failed"));
+        when(writer.submit(any())).thenReturn(committed);
+
+        //when
+        Throwable throwable = catchThrowable(() -> handler.receiveCloudRuntimeEvent(headers, event));
+
+        //then
+        assertThat(throwable).isInstanceOf(IllegalStateException.class).hasMessage("commit failed");
+    }
+
+    @Test
+    public void receiveShouldAcknowledgeAsynchronouslyThroughPipelineWhenMessageHasAcknowledgmentCallback() {
+        //given
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        headers.put(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, acknowledgmentCallback);
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        when(pipeline.submit(headers, event)).thenReturn(committed);
+
+        //when
+        handler.receiveCloudRuntimeEvent(headers, event);
+
+        //then
+        verify(acknowledgmentCallback).noAutoAck();
+        verify(acknowledgmentCallback, never()).acknowledge(any());
+        verify(writer, never()).submit(any());
+
+        committed.complete(null);
+        verify(acknowledgmentCallback).acknowledge(AcknowledgmentCallback.Status.ACCEPT);
+    }
+
+    private AuditEventEntity givenConvertedTo(CloudRuntimeEvent event) {
+        when(event.getEventType()).thenReturn(ProcessRuntimeEvent.ProcessEvents.PROCESS_CREATED);
+        EventToEntityConverter converter = mock(EventToEntityConverter.class);
+        when(converters.getConverterByEventTypeName(ProcessRuntimeEvent.ProcessEvents.PROCESS_CREATED.name())).thenReturn(converter);
+        AuditEventEntity entity = mock(ProcessCreatedAuditEventEntity.class);
+        when(converter.convertToEntity(event)).thenReturn(entity);
+        return entity;
+    }
+}
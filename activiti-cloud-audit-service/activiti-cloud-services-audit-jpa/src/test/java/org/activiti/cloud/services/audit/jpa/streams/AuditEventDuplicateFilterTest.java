@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.events.ProcessStartedAuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.repository.EventsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditEventDuplicateFilterTest {
+
+    @Mock
+    private EventsRepository<AuditEventEntity> eventsRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private AuditEventDuplicateFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AuditEventDuplicateFilter(eventsRepository, 2, meterRegistry);
+    }
+
+    @Test
+    public void shouldNotLookUpEventsOutsideTheWindow() {
+        //given
+        List<AuditEventEntity> entities = Arrays.asList(entity("event1"), entity("event2"), entity(null));
+
+        //when
+        List<AuditEventEntity> filtered = filter.filter(entities);
+
+        //then
+        assertThat(filtered).containsExactlyElementsOf(entities);
+        verify(eventsRepository, never()).findStoredEventIds(any());
+    }
+
+    @Test
+    public void shouldDropDuplicatesWithinMessage() {
+        //given
+        AuditEventEntity first = entity("event1");
+
+        //when
+        List<AuditEventEntity> filtered = filter.filter(Arrays.asList(first, entity("event1")));
+
+        //then
+        assertThat(filtered).containsExactly(first);
+        assertThat(meterRegistry.get(AuditEventDuplicateFilter.DUPLICATES_METRIC)
+                                .tag("source", "message")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDropRedeliveredEventsAlreadyStored() {
+        //given
+        filter.filter(Arrays.asList(entity("event1"), entity("event2")));
+        when(eventsRepository.findStoredEventIds(anyCollection())).thenReturn(Collections.singletonList("event1"));
+        AuditEventEntity notStored = entity("event2");
+
+        //when
+        List<AuditEventEntity> filtered = filter.filter(Arrays.asList(entity("event1"), notStored));
+
+        //then
+        assertThat(filtered).containsExactly(notStored);
+        assertThat(meterRegistry.get(AuditEventDuplicateFilter.DUPLICATES_METRIC)
+                                .tag("source", "store")
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditEventDuplicateFilter.LOOKUPS_METRIC)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldForgetEventsOutOfTheWindow() {
+        //given
+        filter.filter(Arrays.asList(entity("event1"), entity("event2"), entity("event3")));
+
+        //when
+        List<AuditEventEntity> filtered = filter.filter(Collections.singletonList(entity("event1")));
+
+        //then
+        assertThat(filtered).hasSize(1);
+        verify(eventsRepository, never()).findStoredEventIds(any());
+    }
+
+    private AuditEventEntity entity(String eventId) {
+        ProcessStartedAuditEventEntity entity = new ProcessStartedAuditEventEntity();
+        entity.setEventId(eventId);
+        return entity;
+    }
+}
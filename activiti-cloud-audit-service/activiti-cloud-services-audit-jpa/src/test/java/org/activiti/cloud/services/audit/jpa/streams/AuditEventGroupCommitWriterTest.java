@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.events.ProcessCreatedAuditEventEntity;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditEventGroupCommitWriterTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Session session;
+
+    private AuditEventGroupCommitWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    public void submitShouldCommitEventsOfSeveralMessagesInOneTransaction() throws Exception {
+        //given
+        writer = new AuditEventGroupCommitWriter(entityManager, transactionManager, 2, Duration.ofSeconds(5));
+        AuditEventEntity blocking = mock(ProcessCreatedAuditEventEntity.class);
+        AuditEventEntity first = mock(ProcessCreatedAuditEventEntity.class);
+        AuditEventEntity second = mock(ProcessCreatedAuditEventEntity.class);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            queued.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(entityManager).persist(blocking);
+
+        //when
+        CompletableFuture<Void> blockingCommitted = writer.submit(Collections.singletonList(blocking));
+        writing.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> firstCommitted = writer.submit(Collections.singletonList(first));
+        CompletableFuture<Void> secondCommitted = writer.submit(Collections.singletonList(second));
+        queued.countDown();
+        CompletableFuture.allOf(blockingCommitted, firstCommitted, secondCommitted).get(5, TimeUnit.SECONDS);
+
+        //then
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(session, times(2)).setJdbcBatchSize(2);
+        verify(entityManager).persist(first);
+        verify(entityManager).persist(second);
+        verify(entityManager, times(2)).flush();
+    }
+
+    @Test
+    public void submitShouldCommitLoneSubmissionWithoutWaitingForMaxLatency() throws Exception {
+        //given
+        writer = new AuditEventGroupCommitWriter(entityManager, transactionManager, 100, Duration.ofSeconds(30));
+        AuditEventEntity entity = mock(ProcessCreatedAuditEventEntity.class);
+
+        //when
+        writer.submit(Collections.singletonList(entity)).get(5, TimeUnit.SECONDS);
+
+        //then
+        verify(entityManager).persist(entity);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void submitShouldRetryMessagesOneByOneWhenGroupFails() throws Exception {
+        //given
+        writer = new AuditEventGroupCommitWriter(entityManager, transactionManager, 2, Duration.ofSeconds(5));
+        AuditEventEntity good = mock(ProcessCreatedAuditEventEntity.class);
+        AuditEventEntity bad = mock(ProcessCreatedAuditEventEntity.class);
+        doThrow(new PersistenceException("bad event")).when(entityManager).persist(bad);
+
+        //when
+        CompletableFuture<Void> goodCommitted = writer.submit(Collections.singletonList(good));
+        CompletableFuture<Void> badCommitted = writer.submit(Collections.singletonList(bad));
+        goodCommitted.get(5, TimeUnit.SECONDS);
+        Throwable throwable = catchThrowable(() -> badCommitted.get(5, TimeUnit.SECONDS));
+
+        //then
+        assertThat(throwable).isInstanceOf(ExecutionException.class)
+                             .hasCauseInstanceOf(PersistenceException.class);
+        verify(good).setId(null);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void submitShouldCompleteImmediatelyWhenThereIsNothingToWrite() {
+        //given
+        writer = new AuditEventGroupCommitWriter(entityManager, transactionManager, 2, Duration.ofSeconds(5));
+
+        //when
+        CompletableFuture<Void> committed = writer.submit(Collections.emptyList());
+
+        //then
+        assertThat(committed).isCompleted();
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.streams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.process.model.events.ProcessRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.impl.events.CloudRuntimeEventImpl;
+import org.activiti.cloud.services.audit.api.converters.APIEventToEntityConverters;
+import org.activiti.cloud.services.audit.api.converters.EventToEntityConverter;
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.events.ProcessCreatedAuditEventEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditIngestionPipelineTest {
+
+    @Mock
+    private AuditEventGroupCommitWriter writer;
+
+    @Mock
+    private APIEventToEntityConverters converters;
+
+    private MeterRegistry meterRegistry;
+
+    private AuditIngestionPipeline pipeline;
+
+    private final Map<String, Object> headers = Collections.singletonMap("id", UUID.randomUUID());
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void submitShouldHandConvertedEventsToWriter() throws Exception {
+        //given
+        pipeline = new AuditIngestionPipeline(new AuditEventsConverter(converters), null, writer, 2, 10, Duration.ofSeconds(1), Duration.ofSeconds(1), meterRegistry);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        AuditEventEntity entity = givenConvertedTo(event);
+        when(writer.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        //when
+        pipeline.submit(headers, event).get(5, TimeUnit.SECONDS);
+
+        //then
+        verify(writer).submit(Collections.singletonList(entity));
+        assertThat(meterRegistry.get(AuditIngestionPipeline.STAGE_LATENCY_METRIC)
+                                .tag("stage", "write")
+                                .timer()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.IN_FLIGHT_METRIC)
+                                .gauge()
+                                .value()).isZero();
+    }
+
+    @Test
+    public void submitShouldRejectMessageWhenPipelineStaysFull() {
+        //given
+        pipeline = new AuditIngestionPipeline(new AuditEventsConverter(converters), null, writer, 1, 1, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        givenConvertedTo(event);
+        when(writer.submit(any())).thenReturn(new CompletableFuture<>());
+        pipeline.submit(headers, event);
+
+        //when
+        Throwable thrown = catchThrowable(() -> pipeline.submit(headers, event));
+
+        //then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.REJECTED_METRIC)
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.BACKPRESSURE_METRIC)
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void submitShouldAcceptMessageOnceWriterCatchesUp() throws Exception {
+        //given
+        pipeline = new AuditIngestionPipeline(new AuditEventsConverter(converters), null, writer, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        givenConvertedTo(event);
+        CompletableFuture<Void> firstCommitted = new CompletableFuture<>();
+        when(writer.submit(any())).thenReturn(firstCommitted,
+                                              CompletableFuture.completedFuture(null));
+        pipeline.submit(headers, event);
+        verify(writer, timeout(5000)).submit(any());
+
+        //when
+        CompletableFuture.runAsync(() -> firstCommitted.complete(null));
+        CompletableFuture<Void> secondCommitted = pipeline.submit(headers, event);
+
+        //then
+        secondCommitted.get(5, TimeUnit.SECONDS);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.REJECTED_METRIC)
+                                .counter()
+                                .count()).isZero();
+    }
+
+    @Test
+    public void submitShouldRetryFailedWriteKeepingItsSlot() throws Exception {
+        //given
+        pipeline = new AuditIngestionPipeline(new AuditEventsConverter(converters), null, writer, 1, 1, Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        AuditEventEntity entity = givenConvertedTo(event);
+        CompletableFuture<Void> failedCommit = new CompletableFuture<>();
+        failedCommit.completeExceptionally(new IllegalStateException("database down"));
+        when(writer.submit(any())).thenReturn(failedCommit,
+                                              CompletableFuture.completedFuture(null));
+
+        //when
+        pipeline.submit(headers, event).get(5, TimeUnit.SECONDS);
+
+        //then
+        verify(writer, times(2)).submit(Collections.singletonList(entity));
+        verify(entity).setId(null);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.RETRIED_METRIC)
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.FAILED_METRIC)
+                                .counter()
+                                .count()).isZero();
+    }
+
+    @Test
+    public void submitShouldFailWriteStillFailingAfterRetryTimeout() {
+        //given
+        pipeline = new AuditIngestionPipeline(new AuditEventsConverter(converters), null, writer, 1, 1, Duration.ofSeconds(1), Duration.ofMillis(50), meterRegistry);
+        CloudRuntimeEvent event = mock(CloudRuntimeEventImpl.class);
+        givenConvertedTo(event);
+        CompletableFuture<Void> failedCommit = new CompletableFuture<>();
+        failedCommit.completeExceptionally(new IllegalStateException("database down"));
+        when(writer.submit(any())).thenReturn(failedCommit);
+
+        //when
+        Throwable thrown = catchThrowable(() -> pipeline.submit(headers, event).get(5, TimeUnit.SECONDS));
+
+        //then
+        assertThat(thrown).hasRootCauseMessage("database down");
+        assertThat(meterRegistry.get(AuditIngestionPipeline.FAILED_METRIC)
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditIngestionPipeline.IN_FLIGHT_METRIC)
+                                .gauge()
+                                .value()).isZero();
+    }
+
+    private AuditEventEntity givenConvertedTo(CloudRuntimeEvent event) {
+        when(event.getEventType()).thenReturn(ProcessRuntimeEvent.ProcessEvents.PROCESS_CREATED);
+        EventToEntityConverter converter = mock(EventToEntityConverter.class);
+        when(converters.getConverterByEventTypeName(ProcessRuntimeEvent.ProcessEvents.PROCESS_CREATED.name())).thenReturn(converter);
+        AuditEventEntity entity = mock(ProcessCreatedAuditEventEntity.class);
+        when(converter.convertToEntity(event)).thenReturn(entity);
+        return entity;
+    }
+}
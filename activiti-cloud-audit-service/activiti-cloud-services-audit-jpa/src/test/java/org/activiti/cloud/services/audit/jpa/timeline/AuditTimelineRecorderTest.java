@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.audit.jpa.timeline;
+
+import org.activiti.cloud.services.audit.jpa.events.AuditEventEntity;
+import org.activiti.cloud.services.audit.jpa.events.ProcessStartedAuditEventEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AuditTimelineRecorderTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AuditTimelineRepository timelineRepository;
+
+    @Captor
+    private ArgumentCaptor<AuditTimelineEntryEntity> entryCaptor;
+
+    private AuditTimelineRecorder recorder;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        recorder = new AuditTimelineRecorder(entityManager, timelineRepository, 10);
+    }
+
+    @Test
+    public void shouldRecordEventsOfRootProcessInstanceUnderItself() {
+        //given
+        AuditEventEntity event = entity(1L, "proc1", null, 100L);
+
+        //when
+        recorder.record(Collections.singletonList(event));
+
+        //then
+        verify(entityManager).persist(entryCaptor.capture());
+        assertThat(entryCaptor.getValue())
+            .extracting(AuditTimelineEntryEntity::getRootProcessInstanceId,
+                        AuditTimelineEntryEntity::getTimestamp,
+                        AuditTimelineEntryEntity::getAuditEventId,
+                        AuditTimelineEntryEntity::getProcessInstanceId)
+            .containsExactly("proc1", 100L, 1L, "proc1");
+        verify(timelineRepository, never()).findRootProcessInstanceId(any());
+    }
+
+    @Test
+    public void shouldRecordEventsOfCalledProcessInstanceUnderRootOfParent() {
+        //given
+        when(timelineRepository.findRootProcessInstanceId("sub1")).thenReturn(Optional.of("proc1"));
+
+        //when
+        recorder.record(Arrays.asList(entity(1L, "sub2", "sub1", 100L),
+                                      entity(2L, "sub2", "sub1", 101L)));
+
+        //then
+        verify(entityManager, times(2)).persist(entryCaptor.capture());
+        assertThat(entryCaptor.getAllValues())
+            .extracting(AuditTimelineEntryEntity::getRootProcessInstanceId,
+                        AuditTimelineEntryEntity::getProcessInstanceId)
+            .containsExactly(tuple("proc1", "sub2"),
+                             tuple("proc1", "sub2"));
+        verify(timelineRepository).findRootProcessInstanceId("sub1");
+    }
+
+    @Test
+    public void shouldWalkUpParentsOfAncestorsThatAreNotRecorded() {
+        //given
+        when(timelineRepository.findRootProcessInstanceId(any())).thenReturn(Optional.empty());
+        when(timelineRepository.findParentProcessInstanceIds(eq("sub1"), any())).thenReturn(Collections.singletonList("proc1"));
+        when(timelineRepository.findParentProcessInstanceIds(eq("proc1"), any())).thenReturn(Collections.singletonList(null));
+
+        //when
+        recorder.record(Arrays.asList(entity(1L, "sub2", "sub1", null),
+                                      entity(2L, "sub2", "sub1", 101L)));
+
+        //then
+        verify(entityManager, times(2)).persist(entryCaptor.capture());
+        assertThat(entryCaptor.getAllValues())
+            .extracting(AuditTimelineEntryEntity::getRootProcessInstanceId,
+                        AuditTimelineEntryEntity::getTimestamp)
+            .containsExactly(tuple("proc1", 0L),
+                             tuple("proc1", 101L));
+        verify(timelineRepository).findParentProcessInstanceIds(eq("sub1"), any());
+        verify(timelineRepository).findParentProcessInstanceIds(eq("proc1"), any());
+    }
+
+    @Test
+    public void shouldNotCacheRootWhenAncestorIsUnknown() {
+        //given
+        when(timelineRepository.findRootProcessInstanceId("sub1")).thenReturn(Optional.empty());
+
+        //when
+        recorder.record(Arrays.asList(entity(1L, "sub2", "sub1", 100L),
+                                      entity(2L, "sub2", "sub1", 101L)));
+
+        //then
+        verify(entityManager, times(2)).persist(entryCaptor.capture());
+        assertThat(entryCaptor.getAllValues())
+            .extracting(AuditTimelineEntryEntity::getRootProcessInstanceId)
+            .containsExactly("sub1", "sub1");
+        verify(timelineRepository, times(2)).findRootProcessInstanceId("sub1");
+    }
+
+    @Test
+    public void shouldSkipEventsWithoutProcessInstance() {
+        //when
+        recorder.record(Collections.singletonList(entity(1L, null, null, 100L)));
+
+        //then
+        verify(entityManager, never()).persist(any());
+    }
+
+    private AuditEventEntity entity(Long id,
+                                    String processInstanceId,
+                                    String parentProcessInstanceId,
+                                    Long timestamp) {
+        ProcessStartedAuditEventEntity entity = new ProcessStartedAuditEventEntity();
+        entity.setId(id);
+        entity.setProcessInstanceId(processInstanceId);
+        entity.setParentProcessInstanceId(parentProcessInstanceId);
+        entity.setTimestamp(timestamp);
+        return entity;
+    }
+}
@@ -0,0 +1,5 @@
+CREATE INDEX audit_event_pi_ts_idx ON audit_event(process_instance_id, timestamp);
+CREATE INDEX audit_event_entity_type_idx ON audit_event(entity_id, event_type);
+CREATE INDEX audit_event_type_ts_idx ON audit_event(event_type, timestamp);
+CREATE INDEX audit_event_pdk_ts_idx ON audit_event(process_definition_key, timestamp);
+CREATE INDEX audit_event_svc_ts_idx ON audit_event(service_name, timestamp);
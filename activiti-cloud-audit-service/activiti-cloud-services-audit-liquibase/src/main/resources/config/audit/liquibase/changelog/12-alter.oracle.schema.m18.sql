@@ -0,0 +1,16 @@
+DECLARE
+    partitioned NUMBER;
+    cutoff NUMBER;
+BEGIN
+    SELECT count(*) INTO partitioned FROM user_part_tables WHERE table_name = 'AUDIT_EVENT';
+    IF partitioned = 0 THEN
+        cutoff := (TRUNC(SYS_EXTRACT_UTC(SYSTIMESTAMP), 'DD') - DATE '1970-01-01') * 86400000;
+        -- range partition keys cannot be null, rows without timestamp are kept in the first partition
+        UPDATE audit_event SET timestamp = 0 WHERE timestamp IS NULL;
+        EXECUTE IMMEDIATE 'ALTER TABLE audit_event MODIFY PARTITION BY RANGE (timestamp) INTERVAL (86400000) '
+            || '(PARTITION audit_event_p_initial VALUES LESS THAN (' || cutoff || ')) ONLINE '
+            || 'UPDATE INDEXES (audit_event_event_id_idx LOCAL, audit_event_pi_ts_idx LOCAL, '
+            || 'audit_event_entity_type_idx LOCAL, audit_event_type_ts_idx LOCAL, '
+            || 'audit_event_pdk_ts_idx LOCAL, audit_event_svc_ts_idx LOCAL)';
+    END IF;
+END;
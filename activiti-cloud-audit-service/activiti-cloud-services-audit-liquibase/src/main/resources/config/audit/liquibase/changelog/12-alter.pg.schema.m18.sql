@@ -0,0 +1,46 @@
+DO $$
+DECLARE
+    idx text;
+    cutoff bigint;
+    next_month bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'audit_event' AND relkind = 'p') THEN
+        RETURN;
+    END IF;
+
+    SELECT coalesce(max(timestamp), 0) + 1 INTO cutoff FROM audit_event;
+    next_month := (extract(epoch FROM date_trunc('month', now() AT TIME ZONE 'UTC') + interval '1 month') * 1000)::bigint;
+
+    ALTER TABLE audit_event RENAME TO audit_event_legacy;
+    FOREACH idx IN ARRAY ARRAY['audit_event_event_id_idx',
+                               'audit_event_event_id_uidx',
+                               'audit_event_pi_ts_idx',
+                               'audit_event_entity_type_idx',
+                               'audit_event_type_ts_idx',
+                               'audit_event_pdk_ts_idx',
+                               'audit_event_svc_ts_idx'] LOOP
+        EXECUTE format('ALTER INDEX IF EXISTS %I RENAME TO %I', idx, replace(idx, 'audit_event_', 'audit_event_legacy_'));
+    END LOOP;
+
+    -- the partition key must be part of any unique constraint, ids stay unique through audit_sequence
+    CREATE TABLE audit_event (LIKE audit_event_legacy INCLUDING DEFAULTS INCLUDING STORAGE) PARTITION BY RANGE (timestamp);
+    CREATE INDEX audit_event_id_idx ON audit_event(id);
+    CREATE INDEX audit_event_event_id_idx ON audit_event(event_id);
+    CREATE INDEX audit_event_pi_ts_idx ON audit_event(process_instance_id, timestamp);
+    CREATE INDEX audit_event_entity_type_idx ON audit_event(entity_id, event_type);
+    CREATE INDEX audit_event_type_ts_idx ON audit_event(event_type, timestamp);
+    CREATE INDEX audit_event_pdk_ts_idx ON audit_event(process_definition_key, timestamp);
+    CREATE INDEX audit_event_svc_ts_idx ON audit_event(service_name, timestamp);
+
+    -- the partitioned table gets the event id unique index whether or not it already existed, attaching the
+    -- existing rows builds it on them, so their duplicates are removed first
+    DELETE FROM audit_event_legacy a USING audit_event_legacy b WHERE a.event_id = b.event_id AND a.timestamp = b.timestamp AND a.id > b.id;
+    CREATE UNIQUE INDEX audit_event_event_id_uidx ON audit_event(event_id, timestamp);
+
+    -- the existing rows are attached in place as default partition, the check constraint lets new
+    -- partitions be created without scanning it
+    EXECUTE format('ALTER TABLE audit_event_legacy ADD CONSTRAINT audit_event_legacy_range CHECK (timestamp IS NULL OR timestamp < %s)', cutoff);
+    ALTER TABLE audit_event ATTACH PARTITION audit_event_legacy DEFAULT;
+    EXECUTE format('CREATE TABLE audit_event_p_initial PARTITION OF audit_event FOR VALUES FROM (%s) TO (%s)', cutoff, greatest(next_month, cutoff + 1));
+END
+$$;
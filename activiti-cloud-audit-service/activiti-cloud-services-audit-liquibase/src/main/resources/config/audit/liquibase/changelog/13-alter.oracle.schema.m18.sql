@@ -0,0 +1,2 @@
+DELETE FROM audit_event WHERE event_id IS NOT NULL AND id NOT IN (SELECT MIN(id) FROM audit_event WHERE event_id IS NOT NULL GROUP BY event_id, timestamp);
+CREATE UNIQUE INDEX audit_event_event_id_uidx ON audit_event(CASE WHEN event_id IS NOT NULL THEN event_id END, CASE WHEN event_id IS NOT NULL THEN timestamp END);
@@ -0,0 +1,2 @@
+DELETE FROM audit_event a USING audit_event b WHERE a.event_id = b.event_id AND a.timestamp = b.timestamp AND a.id > b.id;
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS audit_event_event_id_uidx ON audit_event(event_id, timestamp);
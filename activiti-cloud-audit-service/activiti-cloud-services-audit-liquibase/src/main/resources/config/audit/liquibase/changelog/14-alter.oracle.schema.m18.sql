@@ -0,0 +1,10 @@
+CREATE TABLE audit_event_timeline
+(
+    root_process_instance_id varchar(255) NOT NULL,
+    timestamp                integer      NOT NULL,
+    audit_event_id           integer      NOT NULL,
+    process_instance_id      varchar(255) NOT NULL,
+    CONSTRAINT audit_event_timeline_pkey PRIMARY KEY (root_process_instance_id, timestamp, audit_event_id)
+) ORGANIZATION INDEX;
+CREATE INDEX audit_event_timeline_pi_idx ON audit_event_timeline(process_instance_id);
+CREATE INDEX audit_event_timeline_event_idx ON audit_event_timeline(audit_event_id);
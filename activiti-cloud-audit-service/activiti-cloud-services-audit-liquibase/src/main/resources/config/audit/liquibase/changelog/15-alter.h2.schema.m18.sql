@@ -0,0 +1,14 @@
+INSERT INTO audit_event_timeline (root_process_instance_id, timestamp, audit_event_id, process_instance_id)
+WITH RECURSIVE ancestors (process_instance_id, ancestor_id, parent_id, depth) AS (
+    SELECT DISTINCT process_instance_id, process_instance_id, parent_process_instance_id, 0 FROM audit_event
+    WHERE process_instance_id IS NOT NULL
+    UNION
+    SELECT a.process_instance_id, e.process_instance_id, e.parent_process_instance_id, a.depth + 1
+    FROM ancestors a JOIN audit_event e ON e.process_instance_id = a.parent_id
+    WHERE a.depth < 32
+)
+SELECT (SELECT COALESCE(a.parent_id, a.ancestor_id) FROM ancestors a
+        WHERE a.process_instance_id = e.process_instance_id ORDER BY a.depth DESC LIMIT 1),
+       COALESCE(timestamp, 0), id, process_instance_id FROM audit_event e
+WHERE process_instance_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM audit_event_timeline t WHERE t.audit_event_id = e.id);
@@ -0,0 +1,30 @@
+DECLARE
+    batch_start NUMBER;
+    max_id      NUMBER;
+    batch_size  CONSTANT NUMBER := 50000;
+BEGIN
+    -- resolves the root of every process instance once, walking up the parents recorded on the audit events;
+    -- the walk stops at an ancestor without events of its own, like the timeline recorder does
+    EXECUTE IMMEDIATE 'CREATE TABLE audit_event_timeline_root (process_instance_id varchar2(255) PRIMARY KEY, root_process_instance_id varchar2(255) NOT NULL)';
+    EXECUTE IMMEDIATE 'INSERT INTO audit_event_timeline_root (process_instance_id, root_process_instance_id) '
+        || 'SELECT CONNECT_BY_ROOT process_instance_id, NVL(parent_id, process_instance_id) '
+        || 'FROM (SELECT process_instance_id, MAX(parent_process_instance_id) AS parent_id FROM audit_event '
+        || '      WHERE process_instance_id IS NOT NULL GROUP BY process_instance_id) '
+        || 'WHERE CONNECT_BY_ISLEAF = 1 '
+        || 'START WITH 1 = 1 '
+        || 'CONNECT BY NOCYCLE PRIOR parent_id = process_instance_id AND LEVEL <= 32';
+    COMMIT;
+    -- backfills the timeline by ranges of ids, committing each range to keep transactions and undo short
+    SELECT NVL(MIN(id), 0), NVL(MAX(id), -1) INTO batch_start, max_id FROM audit_event;
+    WHILE batch_start <= max_id LOOP
+        EXECUTE IMMEDIATE 'INSERT INTO audit_event_timeline (root_process_instance_id, timestamp, audit_event_id, process_instance_id) '
+            || 'SELECT r.root_process_instance_id, NVL(e.timestamp, 0), e.id, e.process_instance_id '
+            || 'FROM audit_event e JOIN audit_event_timeline_root r ON r.process_instance_id = e.process_instance_id '
+            || 'WHERE e.id >= :batch_start AND e.id < :batch_end '
+            || 'AND NOT EXISTS (SELECT 1 FROM audit_event_timeline t WHERE t.audit_event_id = e.id)'
+            USING batch_start, batch_start + batch_size;
+        COMMIT;
+        batch_start := batch_start + batch_size;
+    END LOOP;
+    EXECUTE IMMEDIATE 'DROP TABLE audit_event_timeline_root';
+END;
@@ -0,0 +1,37 @@
+-- backfills the timeline by ranges of ids, committing each range to keep transactions and locks short
+DO $$
+DECLARE
+    batch_start int8;
+    max_id      int8;
+    batch_size  CONSTANT int8 := 50000;
+BEGIN
+    -- resolves the root of every process instance once, walking up the parents recorded on the audit events;
+    -- the walk stops at an ancestor without events of its own, like the timeline recorder does
+    CREATE TEMPORARY TABLE audit_event_timeline_root ON COMMIT PRESERVE ROWS AS
+    WITH RECURSIVE parents AS (
+        SELECT process_instance_id, MAX(parent_process_instance_id) AS parent_id FROM audit_event
+        WHERE process_instance_id IS NOT NULL GROUP BY process_instance_id
+    ), ancestors AS (
+        SELECT process_instance_id, process_instance_id AS ancestor_id, parent_id, 0 AS depth FROM parents
+        UNION ALL
+        SELECT a.process_instance_id, p.process_instance_id, p.parent_id, a.depth + 1
+        FROM ancestors a JOIN parents p ON p.process_instance_id = a.parent_id
+        WHERE a.depth < 32
+    )
+    SELECT DISTINCT ON (process_instance_id) process_instance_id, COALESCE(parent_id, ancestor_id) AS root_process_instance_id
+    FROM ancestors ORDER BY process_instance_id, depth DESC;
+    ALTER TABLE audit_event_timeline_root ADD PRIMARY KEY (process_instance_id);
+    ANALYZE audit_event_timeline_root;
+    COMMIT;
+    SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), -1) INTO batch_start, max_id FROM audit_event;
+    WHILE batch_start <= max_id LOOP
+        INSERT INTO audit_event_timeline (root_process_instance_id, timestamp, audit_event_id, process_instance_id)
+        SELECT r.root_process_instance_id, COALESCE(e.timestamp, 0), e.id, e.process_instance_id
+        FROM audit_event e JOIN audit_event_timeline_root r ON r.process_instance_id = e.process_instance_id
+        WHERE e.id >= batch_start AND e.id < batch_start + batch_size
+        ON CONFLICT DO NOTHING;
+        COMMIT;
+        batch_start := batch_start + batch_size;
+    END LOOP;
+    DROP TABLE audit_event_timeline_root;
+END $$;
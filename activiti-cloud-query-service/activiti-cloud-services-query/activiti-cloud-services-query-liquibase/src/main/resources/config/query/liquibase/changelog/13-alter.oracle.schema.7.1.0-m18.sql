@@ -0,0 +1,99 @@
+alter table process_variable add (
+    string_value  varchar(255),
+    long_value    NUMBER(19,0),
+    double_value  double precision,
+    boolean_value NUMBER(1,0),
+    date_value    timestamp
+);
+
+alter table task_variable add (
+    string_value  varchar(255),
+    long_value    NUMBER(19,0),
+    double_value  double precision,
+    boolean_value NUMBER(1,0),
+    date_value    timestamp
+);
+
+update process_variable
+set string_value = json_value(value, '$.value' returning varchar2(255) null on error)
+where type = 'string';
+
+update process_variable
+set long_value = json_value(value, '$.value' returning number null on error)
+where type in ('integer', 'long');
+
+update process_variable
+set double_value = json_value(value, '$.value' returning number null on error)
+where type in ('double', 'float', 'bigdecimal');
+
+update process_variable
+set boolean_value = case json_value(value, '$.value' null on error) when 'true' then 1 when 'false' then 0 end
+where type = 'boolean';
+
+update process_variable
+set date_value = timestamp '1970-01-01 00:00:00'
+    + numtodsinterval(json_value(value, '$.value' returning number null on error) / 1000, 'SECOND')
+where type = 'date';
+
+update process_variable
+set date_value = sys_extract_utc(to_timestamp_tz(regexp_replace(replace(json_value(value, '$.value' null on error), 'Z', '+00:00'),
+                                                                '([+-][0-9]{2})([0-9]{2})$', '\1:\2')
+                                                 default null on conversion error,
+                                                 'YYYY-MM-DD"T"HH24:MI:SS.FFTZH:TZM'))
+where type = 'date'
+  and date_value is null
+  and json_value(value, '$.value' null on error) like '____-__-__%';
+
+update process_variable
+set date_value = to_timestamp(json_value(value, '$.value' null on error) default null on conversion error, 'YYYY-MM-DD')
+where type = 'date'
+  and date_value is null
+  and json_value(value, '$.value' null on error) like '____-__-__';
+
+update task_variable
+set string_value = json_value(value, '$.value' returning varchar2(255) null on error)
+where type = 'string';
+
+update task_variable
+set long_value = json_value(value, '$.value' returning number null on error)
+where type in ('integer', 'long');
+
+update task_variable
+set double_value = json_value(value, '$.value' returning number null on error)
+where type in ('double', 'float', 'bigdecimal');
+
+update task_variable
+set boolean_value = case json_value(value, '$.value' null on error) when 'true' then 1 when 'false' then 0 end
+where type = 'boolean';
+
+update task_variable
+set date_value = timestamp '1970-01-01 00:00:00'
+    + numtodsinterval(json_value(value, '$.value' returning number null on error) / 1000, 'SECOND')
+where type = 'date';
+
+update task_variable
+set date_value = sys_extract_utc(to_timestamp_tz(regexp_replace(replace(json_value(value, '$.value' null on error), 'Z', '+00:00'),
+                                                                '([+-][0-9]{2})([0-9]{2})$', '\1:\2')
+                                                 default null on conversion error,
+                                                 'YYYY-MM-DD"T"HH24:MI:SS.FFTZH:TZM'))
+where type = 'date'
+  and date_value is null
+  and json_value(value, '$.value' null on error) like '____-__-__%';
+
+update task_variable
+set date_value = to_timestamp(json_value(value, '$.value' null on error) default null on conversion error, 'YYYY-MM-DD')
+where type = 'date'
+  and date_value is null
+  and json_value(value, '$.value' null on error) like '____-__-__';
+
+create index proc_var_name_string_idx on process_variable (name, string_value);
+create index proc_var_name_long_idx on process_variable (name, long_value);
+create index proc_var_name_double_idx on process_variable (name, double_value);
+create index proc_var_name_boolean_idx on process_variable (name, boolean_value);
+create index proc_var_name_date_idx on process_variable (name, date_value);
+
+create index task_var_name_string_idx on task_variable (name, string_value);
+create index task_var_name_long_idx on task_variable (name, long_value);
+create index task_var_name_double_idx on task_variable (name, double_value);
+create index task_var_name_boolean_idx on task_variable (name, boolean_value);
+create index task_var_name_date_idx on task_variable (name, date_value);
@@ -0,0 +1,87 @@
+alter table process_variable
+    add column string_value varchar(255),
+    add column long_value bigint,
+    add column double_value double precision,
+    add column boolean_value boolean,
+    add column date_value timestamp;
+
+alter table task_variable
+    add column string_value varchar(255),
+    add column long_value bigint,
+    add column double_value double precision,
+    add column boolean_value boolean,
+    add column date_value timestamp;
+
+update process_variable
+set string_value = value::jsonb ->> 'value'
+where jsonb_typeof(value::jsonb -> 'value') = 'string'
+  and length(value::jsonb ->> 'value') <= 255
+  and type <> 'date';
+
+update process_variable
+set long_value = (value::jsonb ->> 'value')::numeric::bigint
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type in ('integer', 'long');
+
+update process_variable
+set double_value = (value::jsonb ->> 'value')::double precision
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type not in ('integer', 'long', 'date');
+
+update process_variable
+set boolean_value = (value::jsonb ->> 'value')::boolean
+where jsonb_typeof(value::jsonb -> 'value') = 'boolean';
+
+update process_variable
+set date_value = to_timestamp((value::jsonb ->> 'value')::double precision / 1000)
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type = 'date';
+
+update process_variable
+set date_value = (value::jsonb ->> 'value')::timestamptz
+where jsonb_typeof(value::jsonb -> 'value') = 'string'
+  and value::jsonb ->> 'value' ~ '^\d{4}-\d{2}-\d{2}([T ]\d{2}:\d{2}(:\d{2}(\.\d+)?)?)?(Z|[+-]\d{2}(:?\d{2})?)?$'
+  and type = 'date';
+
+update task_variable
+set string_value = value::jsonb ->> 'value'
+where jsonb_typeof(value::jsonb -> 'value') = 'string'
+  and length(value::jsonb ->> 'value') <= 255
+  and type <> 'date';
+
+update task_variable
+set long_value = (value::jsonb ->> 'value')::numeric::bigint
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type in ('integer', 'long');
+
+update task_variable
+set double_value = (value::jsonb ->> 'value')::double precision
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type not in ('integer', 'long', 'date');
+
+update task_variable
+set boolean_value = (value::jsonb ->> 'value')::boolean
+where jsonb_typeof(value::jsonb -> 'value') = 'boolean';
+
+update task_variable
+set date_value = to_timestamp((value::jsonb ->> 'value')::double precision / 1000)
+where jsonb_typeof(value::jsonb -> 'value') = 'number'
+  and type = 'date';
+
+update task_variable
+set date_value = (value::jsonb ->> 'value')::timestamptz
+where jsonb_typeof(value::jsonb -> 'value') = 'string'
+  and value::jsonb ->> 'value' ~ '^\d{4}-\d{2}-\d{2}([T ]\d{2}:\d{2}(:\d{2}(\.\d+)?)?)?(Z|[+-]\d{2}(:?\d{2})?)?$'
+  and type = 'date';
+
+create index proc_var_name_string_idx on process_variable (name, string_value varchar_pattern_ops);
+create index proc_var_name_long_idx on process_variable (name, long_value);
+create index proc_var_name_double_idx on process_variable (name, double_value);
+create index proc_var_name_boolean_idx on process_variable (name, boolean_value);
+create index proc_var_name_date_idx on process_variable (name, date_value);
+
+create index task_var_name_string_idx on task_variable (name, string_value varchar_pattern_ops);
+create index task_var_name_long_idx on task_variable (name, long_value);
+create index task_var_name_double_idx on task_variable (name, double_value);
+create index task_var_name_boolean_idx on task_variable (name, boolean_value);
+create index task_var_name_date_idx on task_variable (name, date_value);
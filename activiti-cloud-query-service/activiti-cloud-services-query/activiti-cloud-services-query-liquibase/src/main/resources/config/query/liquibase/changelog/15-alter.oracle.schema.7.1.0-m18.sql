@@ -0,0 +1,7 @@
+create table query_retention_lock
+(
+    name       varchar2(255) not null,
+    owner      varchar2(255),
+    expires_at timestamp,
+    primary key (name)
+);
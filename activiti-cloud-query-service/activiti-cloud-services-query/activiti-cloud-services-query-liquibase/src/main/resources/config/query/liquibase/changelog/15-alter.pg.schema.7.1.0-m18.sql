@@ -0,0 +1,17 @@
+create table task_visibility
+(
+    task_id        varchar(255) not null,
+    principal_type varchar(255) not null,
+    principal_id   varchar(255) not null,
+    primary key (task_id, principal_type, principal_id)
+);
+
+create index tv_principal_idx on task_visibility (principal_type, principal_id, task_id);
+
+insert into task_visibility (task_id, principal_type, principal_id)
+select task_id, 'USER', user_id
+from task_candidate_user;
+
+insert into task_visibility (task_id, principal_type, principal_id)
+select task_id, 'GROUP', group_id
+from task_candidate_group;
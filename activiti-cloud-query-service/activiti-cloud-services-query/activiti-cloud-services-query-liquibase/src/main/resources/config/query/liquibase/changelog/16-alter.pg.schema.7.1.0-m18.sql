@@ -0,0 +1,7 @@
+create table query_retention_lock
+(
+    name       varchar(255) not null,
+    owner      varchar(255),
+    expires_at timestamp,
+    primary key (name)
+);
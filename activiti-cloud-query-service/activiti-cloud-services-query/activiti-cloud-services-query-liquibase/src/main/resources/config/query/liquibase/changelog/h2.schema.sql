@@ -119,6 +119,11 @@ create table process_variable
     process_instance_id varchar(255),
     type                varchar(255),
     value               text,
+    string_value        varchar(255),
+    long_value          bigint,
+    double_value        double precision,
+    boolean_value       boolean,
+    date_value          timestamp,
     primary key (id)
 );
 create table task
@@ -167,6 +172,20 @@ create table task_candidate_group
     task_id  varchar(255) not null,
     primary key (group_id, task_id)
 );
+create table task_visibility
+(
+    task_id        varchar(255) not null,
+    principal_type varchar(255) not null,
+    principal_id   varchar(255) not null,
+    primary key (task_id, principal_type, principal_id)
+);
+create table query_retention_lock
+(
+    name       varchar(255) not null,
+    owner      varchar(255),
+    expires_at timestamp,
+    primary key (name)
+);
 create table task_candidate_user
 (
     task_id varchar(255) not null,
@@ -190,6 +209,11 @@ create table task_variable
     process_instance_id varchar(255),
     type                varchar(255),
     value               text,
+    string_value        varchar(255),
+    long_value          bigint,
+    double_value        double precision,
+    boolean_value       boolean,
+    date_value          timestamp,
     task_id             varchar(255),
     primary key (id)
 );
@@ -262,16 +286,27 @@ create index pi_processDefinitionKey_idx on process_instance (process_definition
 create index proc_var_processInstanceId_idx on process_variable (process_instance_id);
 create index proc_var_name_idx on process_variable (name);
 create index proc_var_executionId_idx on process_variable (execution_id);
+create index proc_var_name_string_idx on process_variable (name, string_value);
+create index proc_var_name_long_idx on process_variable (name, long_value);
+create index proc_var_name_double_idx on process_variable (name, double_value);
+create index proc_var_name_boolean_idx on process_variable (name, boolean_value);
+create index proc_var_name_date_idx on process_variable (name, date_value);
 create index task_status_idx on task (status);
 create index task_processInstance_idx on task (process_instance_id);
 create index tcg_groupId_idx on task_candidate_group (group_id);
 create index tcg_taskId_idx on task_candidate_group (task_id);
 create index tcu_userId_idx on task_candidate_user (user_id);
 create index tcu_taskId_idx on task_candidate_user (task_id);
+create index tv_principal_idx on task_visibility (principal_type, principal_id, task_id);
 create index task_var_processInstanceId_idx on task_variable (process_instance_id);
 create index task_var_taskId_idx on task_variable (task_id);
 create index task_var_name_idx on task_variable (name);
 create index task_var_executionId_idx on task_variable (execution_id);
+create index task_var_name_string_idx on task_variable (name, string_value);
+create index task_var_name_long_idx on task_variable (name, long_value);
+create index task_var_name_double_idx on task_variable (name, double_value);
+create index task_var_name_boolean_idx on task_variable (name, boolean_value);
+create index task_var_name_date_idx on task_variable (name, date_value);
 create index pi_processDefinitionName_idx on process_instance (process_definition_name);
 create index task_processDefinitionName_idx on task (process_definition_name);
 alter table integration_context
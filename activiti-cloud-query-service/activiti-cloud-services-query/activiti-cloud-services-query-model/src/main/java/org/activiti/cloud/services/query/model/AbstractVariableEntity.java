@@ -16,16 +16,27 @@
 package org.activiti.cloud.services.query.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
 import org.activiti.cloud.api.model.shared.CloudVariableInstance;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.*;
+import java.math.BigInteger;
+import java.text.ParseException;
 import java.util.Date;
 import java.util.Objects;
 
 @MappedSuperclass
 public abstract class AbstractVariableEntity extends ActivitiEntityMetadata implements CloudVariableInstance {
 
+    /**
+     * Longest string value mirrored into the indexed {@code stringValue} column. Longer values
+     * are only available through the JSON {@code value} column.
+     */
+    public static final int MAX_INDEXED_STRING_LENGTH = 255;
+
+    private static final String DATE_TYPE = "date";
+
     private String type;
 
     private String name;
@@ -42,6 +53,22 @@ public abstract class AbstractVariableEntity extends ActivitiEntityMetadata impl
     @Column(columnDefinition = "text")
     private VariableValue<?> value;
 
+    @JsonIgnore
+    @Column(length = MAX_INDEXED_STRING_LENGTH)
+    private String stringValue;
+
+    @JsonIgnore
+    private Long longValue;
+
+    @JsonIgnore
+    private Double doubleValue;
+
+    @JsonIgnore
+    private Boolean booleanValue;
+
+    @JsonIgnore
+    private Date dateValue;
+
     private Boolean markedAsDeleted = false;
 
     private String processInstanceId;
@@ -88,6 +115,9 @@ public abstract class AbstractVariableEntity extends ActivitiEntityMetadata impl
 
     public void setType(String type) {
         this.type = type;
+        if (value != null) {
+            updateTypedValues(value.getValue());
+        }
     }
 
     @Override
@@ -125,6 +155,51 @@ public abstract class AbstractVariableEntity extends ActivitiEntityMetadata impl
 
     public <T> void setValue(T value) {
         this.value = new VariableValue<>(value);
+        updateTypedValues(value);
+    }
+
+    private void updateTypedValues(Object value) {
+        stringValue = null;
+        longValue = null;
+        doubleValue = null;
+        booleanValue = null;
+        dateValue = null;
+
+        if (DATE_TYPE.equals(type)) {
+            // date values are received as ISO-8601 strings or epoch millis, the m18 migrations backfill both forms
+            dateValue = toDate(value);
+        } else if (value instanceof String) {
+            String string = (String) value;
+            if (string.length() <= MAX_INDEXED_STRING_LENGTH) {
+                stringValue = string;
+            }
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+            || value instanceof Byte || value instanceof BigInteger) {
+            longValue = ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            doubleValue = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            booleanValue = (Boolean) value;
+        } else if (value instanceof Date) {
+            dateValue = new Date(((Date) value).getTime());
+        }
+    }
+
+    private static Date toDate(Object value) {
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        }
+        if (value instanceof String) {
+            try {
+                return new StdDateFormat().parse((String) value);
+            } catch (ParseException e) {
+                return null;
+            }
+        }
+        return null;
     }
 
     @Override
@@ -132,6 +207,26 @@ public abstract class AbstractVariableEntity extends ActivitiEntityMetadata impl
         return (T) value.getValue();
     }
 
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    public Long getLongValue() {
+        return longValue;
+    }
+
+    public Double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public Boolean getBooleanValue() {
+        return booleanValue;
+    }
+
+    public Date getDateValue() {
+        return dateValue;
+    }
+
     public Boolean getMarkedAsDeleted() {
         return markedAsDeleted;
     }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.model;
+
+import org.hibernate.annotations.DynamicInsert;
+import org.hibernate.annotations.DynamicUpdate;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+/**
+ * Denormalized view of the candidate users and groups of a task, kept in a single table
+ * so that task visibility can be resolved with one indexed lookup.
+ */
+@Entity(name="TaskVisibility")
+@Table(name="TASK_VISIBILITY", indexes= {
+		@Index(name="tv_principal_idx", columnList="principalType,principalId,taskId", unique=false)
+	}
+)
+@IdClass(TaskVisibilityId.class)
+@DynamicInsert
+@DynamicUpdate
+public class TaskVisibilityEntity {
+
+    public enum PrincipalType {
+        USER,
+        GROUP
+    }
+
+    @Id
+    private String taskId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private PrincipalType principalType;
+
+    @Id
+    private String principalId;
+
+    public TaskVisibilityEntity() {
+
+    }
+
+    public TaskVisibilityEntity(String taskId,
+                                PrincipalType principalType,
+                                String principalId) {
+        this.taskId = taskId;
+        this.principalType = principalType;
+        this.principalId = principalId;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public PrincipalType getPrincipalType() {
+        return principalType;
+    }
+
+    public void setPrincipalType(PrincipalType principalType) {
+        this.principalType = principalType;
+    }
+
+    public String getPrincipalId() {
+        return principalId;
+    }
+
+    public void setPrincipalId(String principalId) {
+        this.principalId = principalId;
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        TaskVisibilityEntity other = (TaskVisibilityEntity) obj;
+        return this.taskId != null &&
+            this.principalId != null &&
+            Objects.equals(taskId, other.taskId) &&
+            principalType == other.principalType &&
+            Objects.equals(principalId, other.principalId);
+    }
+}
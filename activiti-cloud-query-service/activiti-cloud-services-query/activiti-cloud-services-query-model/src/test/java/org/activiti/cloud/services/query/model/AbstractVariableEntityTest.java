@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+public class AbstractVariableEntityTest {
+
+    @Test
+    public void setValueShouldFillStringValueWhenValueIsShortString() {
+        //given
+        TaskVariableEntity variableEntity = new TaskVariableEntity();
+
+        //when
+        variableEntity.setValue("text");
+
+        //then
+        assertThat(variableEntity.getStringValue()).isEqualTo("text");
+        assertThat(variableEntity.getLongValue()).isNull();
+        assertThat(variableEntity.getDoubleValue()).isNull();
+        assertThat(variableEntity.getBooleanValue()).isNull();
+        assertThat(variableEntity.getDateValue()).isNull();
+    }
+
+    @Test
+    public void setValueShouldNotFillStringValueWhenValueIsLongerThanIndexedLength() {
+        //given
+        TaskVariableEntity variableEntity = new TaskVariableEntity();
+        String longText = new String(new char[AbstractVariableEntity.MAX_INDEXED_STRING_LENGTH + 1]).replace('\0', 'a');
+
+        //when
+        variableEntity.setValue(longText);
+
+        //then
+        assertThat(variableEntity.<String>getValue()).isEqualTo(longText);
+        assertThat(variableEntity.getStringValue()).isNull();
+    }
+
+    @Test
+    public void setValueShouldFillTypedValueMatchingValueType() {
+        //given
+        ProcessVariableEntity variableEntity = new ProcessVariableEntity();
+        Date date = new Date();
+
+        //when
+        variableEntity.setValue(10);
+
+        //then
+        assertThat(variableEntity.getLongValue()).isEqualTo(10L);
+
+        //when
+        variableEntity.setValue(2.5);
+
+        //then
+        assertThat(variableEntity.getDoubleValue()).isEqualTo(2.5);
+        assertThat(variableEntity.getLongValue()).isNull();
+
+        //when
+        variableEntity.setValue(true);
+
+        //then
+        assertThat(variableEntity.getBooleanValue()).isTrue();
+        assertThat(variableEntity.getDoubleValue()).isNull();
+
+        //when
+        variableEntity.setValue(date);
+
+        //then
+        assertThat(variableEntity.getDateValue()).isEqualTo(date);
+        assertThat(variableEntity.getBooleanValue()).isNull();
+    }
+
+    @Test
+    public void setValueShouldFillDateValueWhenTypeIsDateAndValueIsString() {
+        //given
+        ProcessVariableEntity variableEntity = new ProcessVariableEntity();
+        variableEntity.setType("date");
+
+        //when
+        variableEntity.setValue("2020-03-04T10:15:30.000+00:00");
+
+        //then
+        assertThat(variableEntity.getDateValue()).isEqualTo(Date.from(Instant.parse("2020-03-04T10:15:30Z")));
+        assertThat(variableEntity.getStringValue()).isNull();
+    }
+
+    @Test
+    public void setValueShouldFillDateValueWhenTypeIsDateAndValueIsEpochMillis() {
+        //given
+        ProcessVariableEntity variableEntity = new ProcessVariableEntity();
+        variableEntity.setType("date");
+
+        //when
+        variableEntity.setValue(1583316930000L);
+
+        //then
+        assertThat(variableEntity.getDateValue()).isEqualTo(new Date(1583316930000L));
+        assertThat(variableEntity.getLongValue()).isNull();
+    }
+
+    @Test
+    public void setTypeShouldUpdateTypedValuesOfCurrentValue() {
+        //given
+        ProcessVariableEntity variableEntity = new ProcessVariableEntity();
+        variableEntity.setValue(1583316930000L);
+
+        //when
+        variableEntity.setType("date");
+
+        //then
+        assertThat(variableEntity.getDateValue()).isEqualTo(new Date(1583316930000L));
+        assertThat(variableEntity.getLongValue()).isNull();
+    }
+}
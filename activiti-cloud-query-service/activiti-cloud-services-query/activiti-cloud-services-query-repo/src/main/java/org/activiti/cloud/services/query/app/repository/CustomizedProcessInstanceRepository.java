@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
+import org.activiti.cloud.services.query.model.VariableValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import com.querydsl.core.types.Predicate;
+
+public interface CustomizedProcessInstanceRepository {
+
+    Page<ProcessInstanceEntity> findByVariableNameAndValue(String name,
+                                                           VariableValue<?> value,
+                                                           VariableSearchOperator operator,
+                                                           Predicate predicate,
+                                                           Pageable pageable);
+
+    /**
+     * Fetches at most {@code limit} rows matching the predicate, ordered by the sort followed by the id,
+     * that come after the given key values (one per sort key plus the id) or from the first row when they are
+     * {@literal null}.
+     */
+    List<ProcessInstanceEntity> findAllAfter(Predicate predicate,
+                                             Sort sort,
+                                             @Nullable List<?> keyValues,
+                                             int limit);
+
+    /**
+     * Returns the ids of at most {@code limit} process instances matching the predicate, in id order.
+     */
+    List<String> findIds(Predicate predicate,
+                         int limit);
+
+    /**
+     * Deletes the given process instances together with their tasks, variables, activities, sequence flows and
+     * integration contexts using set based statements, without loading them.
+     * @return the number of deleted rows per entity name
+     */
+    Map<String, Long> deleteWithRelatedEntities(Collection<String> processInstanceIds);
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.activiti.cloud.services.common.util.KeysetSortUtils;
+import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
+import org.activiti.cloud.services.query.model.QBPMNActivityEntity;
+import org.activiti.cloud.services.query.model.QBPMNSequenceFlowEntity;
+import org.activiti.cloud.services.query.model.QIntegrationContextEntity;
+import org.activiti.cloud.services.query.model.QProcessInstanceEntity;
+import org.activiti.cloud.services.query.model.QProcessVariableEntity;
+import org.activiti.cloud.services.query.model.QTaskCandidateGroupEntity;
+import org.activiti.cloud.services.query.model.QTaskCandidateUserEntity;
+import org.activiti.cloud.services.query.model.QTaskEntity;
+import org.activiti.cloud.services.query.model.QTaskVariableEntity;
+import org.activiti.cloud.services.query.model.QTaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.VariableValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+public class CustomizedProcessInstanceRepositoryImpl extends QuerydslRepositorySupport implements CustomizedProcessInstanceRepository {
+
+    public CustomizedProcessInstanceRepositoryImpl() {
+        super(ProcessInstanceEntity.class);
+    }
+
+    @Override
+    public Page<ProcessInstanceEntity> findByVariableNameAndValue(String name,
+                                                                  VariableValue<?> value,
+                                                                  VariableSearchOperator operator,
+                                                                  Predicate predicate,
+                                                                  Pageable pageable) {
+        Assert.notNull(name, "name must not be null!");
+        Assert.notNull(value, "value must not be null!");
+        Assert.notNull(operator, "operator must not be null!");
+        Assert.notNull(predicate, "Predicate must not be null!");
+        Assert.notNull(pageable, "Pageable must not be null!");
+
+        QProcessInstanceEntity processInstanceEntity = QProcessInstanceEntity.processInstanceEntity;
+        QProcessVariableEntity variableEntity = QProcessVariableEntity.processVariableEntity;
+
+        Predicate condition = VariableValuePredicateBuilder.build(variableEntity._super, name, value, operator);
+
+        // the same variable name can exist in several executions of a process instance
+        JPQLQuery<ProcessInstanceEntity> from = from(processInstanceEntity).innerJoin(processInstanceEntity.variables, variableEntity)
+                                                                           .on(condition)
+                                                                           .where(predicate)
+                                                                           .distinct();
+
+        final JPQLQuery<?> countQuery = from.select(processInstanceEntity.countDistinct());
+
+        JPQLQuery<ProcessInstanceEntity> processInstances = getQuerydsl().applyPagination(pageable, from.select(processInstanceEntity));
+
+        return PageableExecutionUtils.getPage(processInstances.fetch(), pageable, countQuery::fetchCount);
+    }
+
+    @Override
+    public List<ProcessInstanceEntity> findAllAfter(Predicate predicate,
+                                                    Sort sort,
+                                                    @Nullable List<?> keyValues,
+                                                    int limit) {
+        Assert.notNull(sort, "Sort must not be null!");
+
+        QProcessInstanceEntity processInstanceEntity = QProcessInstanceEntity.processInstanceEntity;
+        PathBuilder<ProcessInstanceEntity> root = new PathBuilder<>(ProcessInstanceEntity.class, processInstanceEntity.getMetadata());
+        Sort keysetSort = KeysetSortUtils.keysetSort(sort);
+
+        BooleanBuilder condition = new BooleanBuilder().and(predicate);
+        if (keyValues != null) {
+            condition.and(KeysetPredicateBuilder.after(root, keysetSort, keyValues));
+        }
+
+        return from(processInstanceEntity).where(condition)
+                                          .orderBy(KeysetPredicateBuilder.orderSpecifiers(root, keysetSort))
+                                          .limit(limit)
+                                          .fetch();
+    }
+
+    @Override
+    public List<String> findIds(Predicate predicate,
+                                int limit) {
+        QProcessInstanceEntity processInstanceEntity = QProcessInstanceEntity.processInstanceEntity;
+
+        return from(processInstanceEntity).where(predicate)
+                                          .select(processInstanceEntity.id)
+                                          .orderBy(processInstanceEntity.id.asc())
+                                          .limit(limit)
+                                          .fetch();
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> deleteWithRelatedEntities(Collection<String> processInstanceIds) {
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        if (processInstanceIds.isEmpty()) {
+            return deleted;
+        }
+
+        QTaskEntity task = QTaskEntity.taskEntity;
+        JPQLQuery<String> taskIds = JPAExpressions.select(task.id)
+                                                  .from(task)
+                                                  .where(task.processInstanceId.in(processInstanceIds));
+
+        QTaskVariableEntity taskVariable = QTaskVariableEntity.taskVariableEntity;
+        deleted.put("TaskVariable", delete(taskVariable).where(taskVariable.taskId.in(taskIds)).execute());
+        QTaskCandidateUserEntity taskCandidateUser = QTaskCandidateUserEntity.taskCandidateUserEntity;
+        deleted.put("TaskCandidateUser", delete(taskCandidateUser).where(taskCandidateUser.taskId.in(taskIds)).execute());
+        QTaskCandidateGroupEntity taskCandidateGroup = QTaskCandidateGroupEntity.taskCandidateGroupEntity;
+        deleted.put("TaskCandidateGroup", delete(taskCandidateGroup).where(taskCandidateGroup.taskId.in(taskIds)).execute());
+        QTaskVisibilityEntity taskVisibility = QTaskVisibilityEntity.taskVisibilityEntity;
+        deleted.put("TaskVisibility", delete(taskVisibility).where(taskVisibility.taskId.in(taskIds)).execute());
+        deleted.put("Task", delete(task).where(task.processInstanceId.in(processInstanceIds)).execute());
+
+        QProcessVariableEntity processVariable = QProcessVariableEntity.processVariableEntity;
+        deleted.put("ProcessVariable", delete(processVariable).where(processVariable.processInstanceId.in(processInstanceIds)).execute());
+        QIntegrationContextEntity integrationContext = QIntegrationContextEntity.integrationContextEntity;
+        deleted.put("IntegrationContext", delete(integrationContext).where(integrationContext.processInstanceId.in(processInstanceIds)).execute());
+        // service tasks share the BPMN_ACTIVITY table, so they are deleted together with the other activities
+        QBPMNActivityEntity activity = QBPMNActivityEntity.bPMNActivityEntity;
+        deleted.put("BPMNActivity", delete(activity).where(activity.processInstanceId.in(processInstanceIds)).execute());
+        QBPMNSequenceFlowEntity sequenceFlow = QBPMNSequenceFlowEntity.bPMNSequenceFlowEntity;
+        deleted.put("BPMNSequenceFlow", delete(sequenceFlow).where(sequenceFlow.processInstanceId.in(processInstanceIds)).execute());
+
+        QProcessInstanceEntity processInstance = QProcessInstanceEntity.processInstanceEntity;
+        deleted.put("ProcessInstance", delete(processInstance).where(processInstance.id.in(processInstanceIds)).execute());
+
+        return deleted;
+    }
+
+}
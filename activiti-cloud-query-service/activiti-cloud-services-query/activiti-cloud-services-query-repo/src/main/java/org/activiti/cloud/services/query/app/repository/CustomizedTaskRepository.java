@@ -15,10 +15,14 @@
  */
 package org.activiti.cloud.services.query.app.repository;
 
+import java.util.List;
+
 import org.activiti.cloud.services.query.model.TaskEntity;
 import org.activiti.cloud.services.query.model.VariableValue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 
 import com.querydsl.core.types.Predicate;
 
@@ -28,4 +32,20 @@ public interface CustomizedTaskRepository {
                                                 VariableValue<?> value,
                                                 Predicate predicate,
                                                 Pageable pageable);
+
+    Page<TaskEntity> findByVariableNameAndValue(String name,
+                                                VariableValue<?> value,
+                                                VariableSearchOperator operator,
+                                                Predicate predicate,
+                                                Pageable pageable);
+
+    /**
+     * Fetches at most {@code limit} rows matching the predicate, ordered by the sort followed by the id,
+     * that come after the given key values (one per sort key plus the id) or from the first row when they are
+     * {@literal null}.
+     */
+    List<TaskEntity> findAllAfter(Predicate predicate,
+                                  Sort sort,
+                                  @Nullable List<?> keyValues,
+                                  int limit);
 }
@@ -15,17 +15,22 @@
  */
 package org.activiti.cloud.services.query.app.repository;
 
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.JPQLQuery;
+import java.util.List;
+import org.activiti.cloud.services.common.util.KeysetSortUtils;
 import org.activiti.cloud.services.query.model.QTaskEntity;
 import org.activiti.cloud.services.query.model.QTaskVariableEntity;
 import org.activiti.cloud.services.query.model.TaskEntity;
 import org.activiti.cloud.services.query.model.VariableValue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 public class CustomizedTaskRepositoryImpl extends QuerydslRepositorySupport implements CustomizedTaskRepository {
@@ -39,25 +44,56 @@ public class CustomizedTaskRepositoryImpl extends QuerydslRepositorySupport impl
                                                        VariableValue<?> value,
                                                        Predicate predicate,
                                                        Pageable pageable) {
+        return findByVariableNameAndValue(name, value, VariableSearchOperator.EQUALS, predicate, pageable);
+    }
+
+    @Override
+    public Page<TaskEntity> findByVariableNameAndValue(String name,
+                                                       VariableValue<?> value,
+                                                       VariableSearchOperator operator,
+                                                       Predicate predicate,
+                                                       Pageable pageable) {
         Assert.notNull(name, "name must not be null!");
         Assert.notNull(value, "value must not be null!");
+        Assert.notNull(operator, "operator must not be null!");
         Assert.notNull(predicate, "Predicate must not be null!");
         Assert.notNull(pageable, "Pageable must not be null!");
 
         QTaskEntity taskEntity = QTaskEntity.taskEntity;
         QTaskVariableEntity variableEntity = QTaskVariableEntity.taskVariableEntity;
 
-        Predicate condition = variableEntity.name.eq(name)
-                .and(Expressions.booleanTemplate("{0} like {1}", variableEntity.value, value));
+        Predicate condition = VariableValuePredicateBuilder.build(variableEntity._super, name, value, operator);
 
         JPQLQuery<TaskEntity> from = from(taskEntity).innerJoin(taskEntity.variables, variableEntity).on(condition)
                                                      .where(predicate);
 
         final JPQLQuery<?> countQuery = from.select(taskEntity.count());
 
-        JPQLQuery<TaskEntity> tasks = from.select(taskEntity);
+        JPQLQuery<TaskEntity> tasks = getQuerydsl().applyPagination(pageable, from.select(taskEntity));
 
         return PageableExecutionUtils.getPage(tasks.fetch(), pageable, countQuery::fetchCount);
-   }
+    }
+
+    @Override
+    public List<TaskEntity> findAllAfter(Predicate predicate,
+                                         Sort sort,
+                                         @Nullable List<?> keyValues,
+                                         int limit) {
+        Assert.notNull(sort, "Sort must not be null!");
+
+        QTaskEntity taskEntity = QTaskEntity.taskEntity;
+        PathBuilder<TaskEntity> root = new PathBuilder<>(TaskEntity.class, taskEntity.getMetadata());
+        Sort keysetSort = KeysetSortUtils.keysetSort(sort);
+
+        BooleanBuilder condition = new BooleanBuilder().and(predicate);
+        if (keyValues != null) {
+            condition.and(KeysetPredicateBuilder.after(root, keysetSort, keyValues));
+        }
+
+        return from(taskEntity).where(condition)
+                               .orderBy(KeysetPredicateBuilder.orderSpecifiers(root, keysetSort))
+                               .limit(limit)
+                               .fetch();
+    }
 
 }
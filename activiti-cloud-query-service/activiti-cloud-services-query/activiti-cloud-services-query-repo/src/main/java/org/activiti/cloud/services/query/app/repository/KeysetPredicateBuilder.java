@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Builds the conditions used by keyset (seek) pagination: rows are ordered by the requested sort keys,
+ * with nulls last, followed by the id as tie breaker, and a page starts strictly after the key values
+ * of the last row of the previous page. The sort including the tie breaker is built with
+ * {@link org.activiti.cloud.services.common.util.KeysetSortUtils#keysetSort(Sort)}.
+ */
+public final class KeysetPredicateBuilder {
+
+    private KeysetPredicateBuilder() {
+    }
+
+    public static OrderSpecifier<?>[] orderSpecifiers(PathBuilder<?> root,
+                                                      Sort keysetSort) {
+        List<OrderSpecifier<?>> orderSpecifiers = new ArrayList<>();
+        for (Sort.Order order : keysetSort) {
+            orderSpecifiers.add(new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC,
+                                                     comparable(root, order.getProperty()),
+                                                     OrderSpecifier.NullHandling.NullsLast));
+        }
+        return orderSpecifiers.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    /**
+     * Builds {@code (k0 > v0) or (k0 = v0 and k1 > v1) or ...}, where "greater" follows the direction
+     * of each key and nulls sort after any value.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Predicate after(PathBuilder<?> root,
+                                  Sort keysetSort,
+                                  List<?> keyValues) {
+        List<Sort.Order> orders = keysetSort.toList();
+        if (orders.size() != keyValues.size()) {
+            throw new IllegalStateException("The continuation token does not match the requested sort");
+        }
+
+        BooleanBuilder after = new BooleanBuilder();
+        BooleanBuilder previousKeysEqual = new BooleanBuilder();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            ComparableExpression key = comparable(root, order.getProperty());
+            Comparable value = (Comparable) keyValues.get(i);
+
+            if (value != null) {
+                BooleanExpression greater = order.isAscending() ? key.gt(value) : key.lt(value);
+                after.or(new BooleanBuilder(previousKeysEqual).and(greater.or(key.isNull())));
+                previousKeysEqual.and(key.eq(value));
+            } else {
+                previousKeysEqual.and(key.isNull());
+            }
+        }
+        return after;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static ComparableExpression<Comparable> comparable(PathBuilder<?> root,
+                                                               String property) {
+        return root.getComparable(property, Comparable.class);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityId;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@RepositoryRestResource(exported = false)
+public interface TaskVisibilityRepository extends PagingAndSortingRepository<TaskVisibilityEntity, TaskVisibilityId> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from TaskVisibility v where v.taskId in :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<String> taskIds);
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import java.math.BigInteger;
+import java.util.Date;
+import org.activiti.cloud.services.query.model.AbstractVariableEntity;
+import org.activiti.cloud.services.query.model.QAbstractVariableEntity;
+import org.activiti.cloud.services.query.model.VariableValue;
+
+/**
+ * Builds variable value conditions against the typed shadow columns of {@link AbstractVariableEntity},
+ * so that they can be served by the (name, typed value) indexes. Values that have no typed column,
+ * such as json or strings longer than {@link AbstractVariableEntity#MAX_INDEXED_STRING_LENGTH},
+ * fall back to matching the serialized value.
+ */
+public final class VariableValuePredicateBuilder {
+
+    private VariableValuePredicateBuilder() {
+    }
+
+    public static BooleanExpression build(QAbstractVariableEntity variable,
+                                          String name,
+                                          VariableValue<?> value,
+                                          VariableSearchOperator operator) {
+        return variable.name.eq(name).and(valueCondition(variable, value, operator));
+    }
+
+    private static BooleanExpression valueCondition(QAbstractVariableEntity variable,
+                                                    VariableValue<?> value,
+                                                    VariableSearchOperator operator) {
+        Object operand = value.getValue();
+
+        if (operand instanceof String && ((String) operand).length() <= AbstractVariableEntity.MAX_INDEXED_STRING_LENGTH) {
+            String string = (String) operand;
+            if (operator == VariableSearchOperator.STARTS_WITH) {
+                return variable.stringValue.startsWith(string);
+            }
+            return compare(variable.stringValue, string, operator);
+        }
+        if (operand instanceof Integer || operand instanceof Long || operand instanceof Short
+            || operand instanceof Byte || operand instanceof BigInteger) {
+            return compare(variable.longValue, ((Number) operand).longValue(), operator);
+        }
+        if (operand instanceof Number) {
+            return compare(variable.doubleValue, ((Number) operand).doubleValue(), operator);
+        }
+        if (operand instanceof Boolean && operator == VariableSearchOperator.EQUALS) {
+            return variable.booleanValue.eq((Boolean) operand);
+        }
+        if (operand instanceof Date) {
+            return compare(variable.dateValue, (Date) operand, operator);
+        }
+        if (operator == VariableSearchOperator.EQUALS) {
+            return Expressions.booleanTemplate("{0} like {1}", variable.value, value);
+        }
+        throw unsupported(operator, operand);
+    }
+
+    private static <N extends Number & Comparable<?>> BooleanExpression compare(NumberExpression<N> path,
+                                                                                N operand,
+                                                                                VariableSearchOperator operator) {
+        switch (operator) {
+            case EQUALS:
+                return path.eq(operand);
+            case GREATER_THAN:
+                return path.gt(operand);
+            case GREATER_THAN_OR_EQUAL:
+                return path.goe(operand);
+            case LESS_THAN:
+                return path.lt(operand);
+            case LESS_THAN_OR_EQUAL:
+                return path.loe(operand);
+            default:
+                throw unsupported(operator, operand);
+        }
+    }
+
+    private static <T extends Comparable<?>> BooleanExpression compare(ComparableExpression<T> path,
+                                                                       T operand,
+                                                                       VariableSearchOperator operator) {
+        switch (operator) {
+            case EQUALS:
+                return path.eq(operand);
+            case GREATER_THAN:
+                return path.gt(operand);
+            case GREATER_THAN_OR_EQUAL:
+                return path.goe(operand);
+            case LESS_THAN:
+                return path.lt(operand);
+            case LESS_THAN_OR_EQUAL:
+                return path.loe(operand);
+            default:
+                throw unsupported(operator, operand);
+        }
+    }
+
+    private static IllegalStateException unsupported(VariableSearchOperator operator, Object operand) {
+        return new IllegalStateException("Operator " + operator + " is not supported for variable value " + operand);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import java.util.Arrays;
+import java.util.Collections;
+import org.activiti.cloud.services.query.model.QTaskEntity;
+import org.activiti.cloud.services.query.model.TaskEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+public class KeysetPredicateBuilderTest {
+
+    private final QTaskEntity task = QTaskEntity.taskEntity;
+
+    private final PathBuilder<TaskEntity> root = new PathBuilder<>(TaskEntity.class, task.getMetadata());
+
+    @SuppressWarnings("rawtypes")
+    private final ComparablePath<Comparable> name = root.getComparable("name", Comparable.class);
+
+    @SuppressWarnings("rawtypes")
+    private final ComparablePath<Comparable> id = root.getComparable("id", Comparable.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void afterShouldSeekPastTheLastRow() {
+        //when
+        Predicate predicate = KeysetPredicateBuilder.after(root,
+                                                           Sort.by(Sort.Direction.DESC, "name").and(Sort.by("id")),
+                                                           Arrays.asList("task", "id-1"));
+
+        //then
+        assertThat(predicate).isEqualTo(new BooleanBuilder(
+            ExpressionUtils.or(name.lt("task").or(name.isNull()),
+                               ExpressionUtils.and(name.eq("task"),
+                                                   id.gt("id-1").or(id.isNull())))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void afterShouldOnlyMatchNullsWhenTheLastRowHasANullKey() {
+        //when
+        Predicate predicate = KeysetPredicateBuilder.after(root,
+                                                           Sort.by("name").and(Sort.by("id")),
+                                                           Arrays.asList(null, "id-1"));
+
+        //then
+        assertThat(predicate).isEqualTo(new BooleanBuilder(
+            ExpressionUtils.and(name.isNull(),
+                                id.gt("id-1").or(id.isNull()))));
+    }
+
+    @Test
+    public void afterShouldThrowWhenKeyValuesDoNotMatchTheSort() {
+        //when
+        Throwable throwable = catchThrowable(() -> KeysetPredicateBuilder.after(root,
+                                                                                Sort.by("name").and(Sort.by("id")),
+                                                                                Collections.singletonList("id-1")));
+
+        //then
+        assertThat(throwable).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.querydsl.core.types.Predicate;
+import java.util.Collections;
+import java.util.Date;
+import org.activiti.cloud.services.query.model.AbstractVariableEntity;
+import org.activiti.cloud.services.query.model.QAbstractVariableEntity;
+import org.activiti.cloud.services.query.model.QTaskVariableEntity;
+import org.activiti.cloud.services.query.model.VariableValue;
+import org.junit.jupiter.api.Test;
+
+public class VariableValuePredicateBuilderTest {
+
+    private final QAbstractVariableEntity variable = QTaskVariableEntity.taskVariableEntity._super;
+
+    @Test
+    public void buildShouldUseStringValueWhenValueIsString() {
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>("text"),
+            VariableSearchOperator.EQUALS);
+
+        //then
+        assertThat(predicate).isEqualTo(variable.name.eq("var").and(variable.stringValue.eq("text")));
+    }
+
+    @Test
+    public void buildShouldUsePrefixMatchWhenOperatorIsStartsWith() {
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>("te"),
+            VariableSearchOperator.STARTS_WITH);
+
+        //then
+        assertThat(predicate).isEqualTo(variable.name.eq("var").and(variable.stringValue.startsWith("te")));
+    }
+
+    @Test
+    public void buildShouldUseLongValueWhenValueIsIntegral() {
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>(10),
+            VariableSearchOperator.GREATER_THAN);
+
+        //then
+        assertThat(predicate).isEqualTo(variable.name.eq("var").and(variable.longValue.gt(10L)));
+    }
+
+    @Test
+    public void buildShouldUseDoubleValueWhenValueIsDecimal() {
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>(2.5),
+            VariableSearchOperator.LESS_THAN_OR_EQUAL);
+
+        //then
+        assertThat(predicate).isEqualTo(variable.name.eq("var").and(variable.doubleValue.loe(2.5)));
+    }
+
+    @Test
+    public void buildShouldUseDateValueWhenValueIsDate() {
+        //given
+        Date date = new Date();
+
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>(date),
+            VariableSearchOperator.GREATER_THAN_OR_EQUAL);
+
+        //then
+        assertThat(predicate).isEqualTo(variable.name.eq("var").and(variable.dateValue.goe(date)));
+    }
+
+    @Test
+    public void buildShouldFallBackToSerializedValueWhenStringIsLongerThanIndexedLength() {
+        //given
+        String longText = new String(new char[AbstractVariableEntity.MAX_INDEXED_STRING_LENGTH + 1]).replace('\0', 'a');
+
+        //when
+        Predicate predicate = VariableValuePredicateBuilder.build(variable, "var", new VariableValue<>(longText),
+            VariableSearchOperator.EQUALS);
+
+        //then
+        assertThat(predicate.toString()).contains("like");
+    }
+
+    @Test
+    public void buildShouldThrowIllegalStateExceptionWhenOperatorIsNotSupportedForValue() {
+        //when
+        Throwable throwable = catchThrowable(() -> VariableValuePredicateBuilder.build(variable, "var",
+            new VariableValue<>(Collections.singletonMap("key", "value")),
+            VariableSearchOperator.GREATER_THAN));
+
+        //then
+        assertThat(throwable).isInstanceOf(IllegalStateException.class);
+    }
+}
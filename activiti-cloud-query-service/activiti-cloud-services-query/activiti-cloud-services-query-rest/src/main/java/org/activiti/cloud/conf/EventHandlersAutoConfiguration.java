@@ -15,31 +15,53 @@
  */
 package org.activiti.cloud.conf;
 
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.app.QueryConsumerChannelHandler;
 import org.activiti.cloud.services.query.app.QueryConsumerChannels;
+import org.activiti.cloud.services.query.app.QueryConsumerProperties;
+import org.activiti.cloud.services.query.app.QueryConsumerShardedChannelHandler;
 import org.activiti.cloud.services.query.events.handlers.QueryEventHandlerContextOptimizer;
 import org.activiti.cloud.services.query.app.repository.ApplicationRepository;
 import org.activiti.cloud.services.query.events.handlers.*;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.persistence.EntityManager;
 import java.util.Set;
 
 @Configuration
 @EnableBinding(QueryConsumerChannels.class)
+@EnableConfigurationProperties(QueryConsumerProperties.class)
 public class EventHandlersAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.query.consumer.sharding-enabled", havingValue = "false", matchIfMissing = true)
     public QueryConsumerChannelHandler queryConsumerChannelHandler(QueryEventHandlerContext eventHandlerContext,
                                                                    QueryEventHandlerContextOptimizer fetchingOptimizer) {
         return new QueryConsumerChannelHandler(eventHandlerContext,
                                                fetchingOptimizer);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.query.consumer.sharding-enabled", havingValue = "true")
+    public QueryConsumerShardedChannelHandler queryConsumerShardedChannelHandler(QueryEventHandlerContext eventHandlerContext,
+                                                                                 QueryEventHandlerContextOptimizer fetchingOptimizer,
+                                                                                 PlatformTransactionManager transactionManager,
+                                                                                 QueryConsumerProperties queryConsumerProperties) {
+        return new QueryConsumerShardedChannelHandler(eventHandlerContext,
+                                                      fetchingOptimizer,
+                                                      transactionManager,
+                                                      queryConsumerProperties.getShardCount());
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public QueryEventHandlerContextOptimizer queryEntityGraphFetchingOptimizer(EntityManager entityManager) {
@@ -52,6 +74,12 @@ public class EventHandlersAutoConfiguration {
         return new EntityManagerFinder(entityManager);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public TaskVisibilityUpdater taskVisibilityUpdater(EntityManager entityManager) {
+        return new TaskVisibilityUpdater(entityManager);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public ProcessDeployedEventHandler processDeployedEventHandler(EntityManager entityManager) {
@@ -120,30 +148,38 @@ public class EventHandlersAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public TaskCandidateGroupAddedEventHandler taskCandidateGroupAddedEventHandler(EntityManager entityManager) {
-        return new TaskCandidateGroupAddedEventHandler(entityManager);
+    public TaskCandidateGroupAddedEventHandler taskCandidateGroupAddedEventHandler(EntityManager entityManager,
+                                                                                   TaskVisibilityUpdater taskVisibilityUpdater) {
+        return new TaskCandidateGroupAddedEventHandler(entityManager,
+                                                       taskVisibilityUpdater);
     }
 
     @Bean
     @ConditionalOnMissingBean
     public TaskCandidateGroupRemovedEventHandler taskCandidateGroupRemovedEventHandler(EntityManager entityManager,
-                                                                                       EntityManagerFinder entityManagerFinder) {
+                                                                                       EntityManagerFinder entityManagerFinder,
+                                                                                       TaskVisibilityUpdater taskVisibilityUpdater) {
         return new TaskCandidateGroupRemovedEventHandler(entityManager,
-                                                         entityManagerFinder);
+                                                         entityManagerFinder,
+                                                         taskVisibilityUpdater);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public TaskCandidateUserAddedEventHandler taskCandidateUserAddedEventHandler(EntityManager entityManager) {
-        return new TaskCandidateUserAddedEventHandler(entityManager);
+    public TaskCandidateUserAddedEventHandler taskCandidateUserAddedEventHandler(EntityManager entityManager,
+                                                                                 TaskVisibilityUpdater taskVisibilityUpdater) {
+        return new TaskCandidateUserAddedEventHandler(entityManager,
+                                                      taskVisibilityUpdater);
     }
 
     @Bean
     @ConditionalOnMissingBean
     public TaskCandidateUserRemovedEventHandler taskCandidateUserRemovedEventHandler(EntityManager entityManager,
-                                                                                     EntityManagerFinder entityManagerFinder) {
+                                                                                     EntityManagerFinder entityManagerFinder,
+                                                                                     TaskVisibilityUpdater taskVisibilityUpdater) {
         return new TaskCandidateUserRemovedEventHandler(entityManager,
-                                                        entityManagerFinder);
+                                                        entityManagerFinder,
+                                                        taskVisibilityUpdater);
     }
 
     @Bean
@@ -196,26 +232,34 @@ public class EventHandlersAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public BPMNActivityStartedEventHandler bpmnActivityStartedEventHandler(EntityManager entityManager) {
-        return new BPMNActivityStartedEventHandler(entityManager);
+    public BPMNActivityStartedEventHandler bpmnActivityStartedEventHandler(EntityManager entityManager,
+                                                                           ObjectProvider<ProcessDiagramCache> processDiagramCache) {
+        return new BPMNActivityStartedEventHandler(entityManager,
+                                                   processDiagramCache.getIfAvailable());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public BPMNActivityCompletedEventHandler bpmnActivityCompletedEventHandler(EntityManager entityManager) {
-        return new BPMNActivityCompletedEventHandler(entityManager);
+    public BPMNActivityCompletedEventHandler bpmnActivityCompletedEventHandler(EntityManager entityManager,
+                                                                               ObjectProvider<ProcessDiagramCache> processDiagramCache) {
+        return new BPMNActivityCompletedEventHandler(entityManager,
+                                                     processDiagramCache.getIfAvailable());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public BPMNActivityCancelledEventHandler bpmnActivityCancelledEventHandler(EntityManager entityManager) {
-        return new BPMNActivityCancelledEventHandler(entityManager);
+    public BPMNActivityCancelledEventHandler bpmnActivityCancelledEventHandler(EntityManager entityManager,
+                                                                               ObjectProvider<ProcessDiagramCache> processDiagramCache) {
+        return new BPMNActivityCancelledEventHandler(entityManager,
+                                                     processDiagramCache.getIfAvailable());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public BPMNSequenceFlowTakenEventHandler bpmnSequenceFlowTakenEventHandler(EntityManager entityManager) {
-        return new BPMNSequenceFlowTakenEventHandler(entityManager);
+    public BPMNSequenceFlowTakenEventHandler bpmnSequenceFlowTakenEventHandler(EntityManager entityManager,
+                                                                               ObjectProvider<ProcessDiagramCache> processDiagramCache) {
+        return new BPMNSequenceFlowTakenEventHandler(entityManager,
+                                                     processDiagramCache.getIfAvailable());
     }
 
     @Bean
@@ -232,13 +276,21 @@ public class EventHandlersAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public IntegrationErrorReceivedEventHandler integrationErrorReceivedEventHandler(EntityManager entityManager) {
-        return new IntegrationErrorReceivedEventHandler(entityManager);
+    public IntegrationErrorReceivedEventHandler integrationErrorReceivedEventHandler(EntityManager entityManager,
+                                                                                     ObjectProvider<ProcessDiagramCache> processDiagramCache) {
+        return new IntegrationErrorReceivedEventHandler(entityManager,
+                                                        processDiagramCache.getIfAvailable());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public QueryEventHandlerContext queryEventHandlerContext(Set<QueryEventHandler> handlers) {
+    public QueryEventHandlerContext queryEventHandlerContext(Set<QueryEventHandler> handlers,
+                                                             EntityManager entityManager,
+                                                             QueryConsumerProperties queryConsumerProperties) {
+        if (queryConsumerProperties.isWriteBehindEnabled()) {
+            return new QueryEventHandlerContext(handlers,
+                                                entityManager);
+        }
         return new QueryEventHandlerContext(handlers);
     }
 
@@ -15,6 +15,7 @@
  */
 package org.activiti.cloud.conf;
 
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.ProcessDiagramGeneratorWrapper;
 import org.activiti.cloud.services.query.rest.ApplicationAdminController;
 import org.activiti.cloud.services.query.rest.ApplicationController;
@@ -41,11 +42,15 @@ import org.activiti.cloud.services.query.rest.TaskVariableAdminController;
 import org.activiti.cloud.services.query.rest.TaskVariableController;
 import org.activiti.image.ProcessDiagramGenerator;
 import org.activiti.image.impl.DefaultProcessDiagramGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import java.time.Duration;
+
 @Configuration
 @Import({
     CommonExceptionHandlerQuery.class,
@@ -86,4 +91,15 @@ public class QueryRestControllersAutoConfiguration {
         return new ProcessDiagramGeneratorWrapper(processDiagramGenerator);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.query.diagram.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public ProcessDiagramCache processDiagramCache(@Value("${activiti.cloud.query.diagram.cache.max-models:200}") int maxModels,
+                                                   @Value("${activiti.cloud.query.diagram.cache.max-diagrams:2000}") int maxDiagrams,
+                                                   @Value("${activiti.cloud.query.diagram.cache.running-ttl:10s}") Duration runningTtl) {
+        return new ProcessDiagramCache(maxModels,
+                                       maxDiagrams,
+                                       runningTtl);
+    }
+
 }
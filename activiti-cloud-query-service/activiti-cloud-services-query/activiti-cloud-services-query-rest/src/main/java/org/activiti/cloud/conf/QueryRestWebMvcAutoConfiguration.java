@@ -15,6 +15,8 @@
  */
 package org.activiti.cloud.conf;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.activiti.api.runtime.shared.security.SecurityManager;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
@@ -39,13 +41,19 @@ import org.activiti.cloud.services.security.ProcessInstanceVariableFilter;
 import org.activiti.cloud.services.security.ProcessVariableLookupRestrictionService;
 import org.activiti.cloud.services.security.ProcessVariableRestrictionService;
 import org.activiti.cloud.services.security.TaskLookupRestrictionService;
+import org.activiti.cloud.services.security.TaskRestrictionCache;
 import org.activiti.cloud.services.security.TaskVariableLookupRestrictionService;
 import org.activiti.core.common.spring.security.policies.SecurityPoliciesManager;
 import org.activiti.core.common.spring.security.policies.conf.SecurityPoliciesProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class QueryRestWebMvcAutoConfiguration  {
 
@@ -98,8 +106,23 @@ public class QueryRestWebMvcAutoConfiguration  {
 
     @Bean
     @ConditionalOnMissingBean
-    public TaskLookupRestrictionService taskLookupRestrictionService(SecurityManager securityManager) {
-        return new TaskLookupRestrictionService(securityManager);
+    public TaskLookupRestrictionService taskLookupRestrictionService(SecurityManager securityManager,
+                                                                     ObjectProvider<TaskRestrictionCache> taskRestrictionCache,
+                                                                     @Value("${activiti.cloud.security.task.restrictions.visibility-table.enabled:false}") boolean visibilityTableEnabled) {
+        return new TaskLookupRestrictionService(securityManager,
+                                                taskRestrictionCache.getIfAvailable(),
+                                                visibilityTableEnabled);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.security.task.restrictions.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public TaskRestrictionCache taskRestrictionCache(@Value("${activiti.cloud.security.task.restrictions.cache.ttl:60s}") Duration ttl,
+                                                     @Value("${activiti.cloud.security.task.restrictions.cache.max-size:10000}") int maxSize,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TaskRestrictionCache(ttl,
+                                        maxSize,
+                                        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     @Bean
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.conf;
+
+import java.time.Clock;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
+import org.activiti.cloud.services.query.retention.GzipProcessInstanceArchiver;
+import org.activiti.cloud.services.query.retention.ProcessInstanceArchiver;
+import org.activiti.cloud.services.query.retention.QueryRetentionEngine;
+import org.activiti.cloud.services.query.retention.QueryRetentionLock;
+import org.activiti.cloud.services.query.retention.QueryRetentionProperties;
+import org.activiti.cloud.services.query.retention.QueryRetentionScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+@Configuration
+@ConditionalOnProperty(name = "activiti.cloud.query.retention.enabled", havingValue = "true")
+@EnableConfigurationProperties(QueryRetentionProperties.class)
+public class QueryRetentionAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.query.retention.archive-enabled", havingValue = "true", matchIfMissing = true)
+    public ProcessInstanceArchiver processInstanceArchiver(EntityManager entityManager,
+                                                           ObjectMapper objectMapper,
+                                                           QueryRetentionProperties queryRetentionProperties) {
+        if (!StringUtils.hasText(queryRetentionProperties.getArchiveDirectory())) {
+            throw new IllegalStateException("activiti.cloud.query.retention.archive-directory must be set when archiving is enabled");
+        }
+        return new GzipProcessInstanceArchiver(entityManager,
+                                               objectMapper,
+                                               queryRetentionProperties.getArchiveDirectory(),
+                                               Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryRetentionEngine queryRetentionEngine(ProcessInstanceRepository processInstanceRepository,
+                                                     ObjectProvider<ProcessInstanceArchiver> processInstanceArchiver,
+                                                     QueryRetentionProperties queryRetentionProperties,
+                                                     PlatformTransactionManager transactionManager) {
+        return new QueryRetentionEngine(processInstanceRepository,
+                                        processInstanceArchiver.getIfAvailable(),
+                                        queryRetentionProperties,
+                                        transactionManager,
+                                        Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryRetentionLock queryRetentionLock(JdbcTemplate jdbcTemplate,
+                                                 @Value("${spring.application.name:query}") String applicationName,
+                                                 QueryRetentionProperties queryRetentionProperties) {
+        return new QueryRetentionLock(jdbcTemplate,
+                                      applicationName + "-" + UUID.randomUUID(),
+                                      queryRetentionProperties.getLockTimeToLive(),
+                                      Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryRetentionScheduler queryRetentionScheduler(QueryRetentionEngine queryRetentionEngine,
+                                                           QueryRetentionLock queryRetentionLock,
+                                                           QueryRetentionProperties queryRetentionProperties) {
+        return new QueryRetentionScheduler(queryRetentionEngine,
+                                           queryRetentionLock,
+                                           queryRetentionProperties);
+    }
+}
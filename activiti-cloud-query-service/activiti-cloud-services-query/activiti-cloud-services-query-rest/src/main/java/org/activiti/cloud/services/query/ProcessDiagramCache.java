@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.activiti.bpmn.model.BpmnModel;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Two level cache for process diagrams. Parsed (and auto laid out) BPMN models are kept per process
+ * definition id, as a deployed definition never changes. Rendered SVGs are kept per process instance id
+ * together with the version stamp they were rendered from; the BPMN activity and sequence flow handlers
+ * bump the stamp through {@link #invalidate(String)} so that the next request renders again.
+ * <p>
+ * Diagrams of finished instances stay cached until evicted by size. Diagrams of running instances also
+ * expire after the configured ttl, because events may have been consumed by another query replica.
+ */
+public class ProcessDiagramCache {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, BpmnModel> models;
+
+    private final Map<String, Diagram> diagrams;
+
+    private final Map<String, Long> versions;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final long runningTtlMillis;
+
+    private final Clock clock;
+
+    public ProcessDiagramCache(int maxModels,
+                               int maxDiagrams,
+                               Duration runningTtl) {
+        this(maxModels, maxDiagrams, runningTtl, Clock.systemUTC());
+    }
+
+    ProcessDiagramCache(int maxModels,
+                        int maxDiagrams,
+                        Duration runningTtl,
+                        Clock clock) {
+        this.models = lruMap(maxModels);
+        this.diagrams = lruMap(maxDiagrams);
+        this.versions = lruMap(maxDiagrams * 2);
+        this.runningTtlMillis = runningTtl.toMillis();
+        this.clock = clock;
+    }
+
+    public BpmnModel getModel(String processDefinitionId,
+                              Supplier<BpmnModel> loader) {
+        synchronized (models) {
+            BpmnModel model = models.get(processDefinitionId);
+            if (model != null) {
+                return model;
+            }
+        }
+        BpmnModel model = loader.get();
+        synchronized (models) {
+            models.putIfAbsent(processDefinitionId, model);
+        }
+        return model;
+    }
+
+    public String getDiagram(String processInstanceId,
+                             boolean finished,
+                             Supplier<String> renderer) {
+        long now = clock.millis();
+        long version;
+        synchronized (diagrams) {
+            version = versions.computeIfAbsent(processInstanceId, id -> sequence.incrementAndGet());
+            Diagram diagram = diagrams.get(processInstanceId);
+            if (diagram != null && diagram.version == version && (diagram.finished || diagram.expiresAt > now)) {
+                hits.incrementAndGet();
+                return diagram.svg;
+            }
+        }
+
+        misses.incrementAndGet();
+        String svg = renderer.get();
+        synchronized (diagrams) {
+            // a handler may have bumped the stamp while rendering, in which case the result is already stale
+            if (Long.valueOf(version).equals(versions.get(processInstanceId))) {
+                diagrams.put(processInstanceId, new Diagram(svg, version, finished, now + runningTtlMillis));
+            }
+        }
+        return svg;
+    }
+
+    /**
+     * Bumps the version stamp of the given process instance. When called inside a transaction the stamp
+     * is bumped again after commit, so that a render reading the previous state in between is not kept.
+     */
+    public void invalidate(String processInstanceId) {
+        if (processInstanceId == null) {
+            return;
+        }
+        bump(processInstanceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(processInstanceId);
+                }
+            });
+        }
+    }
+
+    private void bump(String processInstanceId) {
+        synchronized (diagrams) {
+            versions.put(processInstanceId, sequence.incrementAndGet());
+            diagrams.remove(processInstanceId);
+        }
+    }
+
+    public void clear() {
+        synchronized (models) {
+            models.clear();
+        }
+        synchronized (diagrams) {
+            diagrams.clear();
+            versions.clear();
+        }
+    }
+
+    public int modelCount() {
+        synchronized (models) {
+            return models.size();
+        }
+    }
+
+    public int diagramCount() {
+        synchronized (diagrams) {
+            return diagrams.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static <V> Map<String, V> lruMap(int maxSize) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static class Diagram {
+
+        private final String svg;
+
+        private final long version;
+
+        private final boolean finished;
+
+        private final long expiresAt;
+
+        private Diagram(String svg,
+                        long version,
+                        boolean finished,
+                        long expiresAt) {
+            this.svg = svg;
+            this.version = version;
+            this.finished = finished;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = QueryConsumerProperties.QUERY_CONSUMER_PREFIX)
+public class QueryConsumerProperties {
+
+    public static final String QUERY_CONSUMER_PREFIX = "activiti.cloud.query.consumer";
+
+    /**
+     * Enable sharded ingestion of query events by root process instance id. Default is false
+     */
+    private boolean shardingEnabled = false;
+
+    /**
+     * Set number of ordered shard workers used for sharded ingestion. Default is number of available processors
+     */
+    private int shardCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Enable write-behind handling of query event batches with single flush per batch. Default is false.
+     * Handlers look entities up by id, which sees the pending mutations of the batch, and flush before the
+     * few query lookups they make
+     */
+    private boolean writeBehindEnabled = false;
+
+    public boolean isShardingEnabled() {
+        return shardingEnabled;
+    }
+
+    public void setShardingEnabled(boolean shardingEnabled) {
+        this.shardingEnabled = shardingEnabled;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.query.events.handlers.QueryEventHandlerContext;
+import org.activiti.cloud.services.query.events.handlers.QueryEventHandlerContextOptimizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Dispatches query event batches to ordered shard workers keyed by root process instance id,
+ * so that unrelated process instances are projected in parallel in separate transactions.
+ */
+public class QueryConsumerShardedChannelHandler {
+
+    public static final String ROOT_PROCESS_INSTANCE_ID = "rootProcessInstanceId";
+
+    private static Logger LOGGER = LoggerFactory.getLogger(QueryConsumerShardedChannelHandler.class);
+
+    private final QueryEventHandlerContext eventHandlerContext;
+    private final QueryEventHandlerContextOptimizer optimizer;
+    private final TransactionTemplate transactionTemplate;
+    private final List<ExecutorService> shards;
+
+    public QueryConsumerShardedChannelHandler(QueryEventHandlerContext eventHandlerContext,
+                                              QueryEventHandlerContextOptimizer optimizer,
+                                              PlatformTransactionManager transactionManager,
+                                              int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.eventHandlerContext = eventHandlerContext;
+        this.optimizer = optimizer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = IntStream.range(0, shardCount)
+                               .mapToObj(index -> Executors.newSingleThreadExecutor(new CustomizableThreadFactory("query-consumer-shard-" + index + "-")))
+                               .collect(Collectors.toList());
+    }
+
+    @StreamListener(QueryConsumerChannels.QUERY_CONSUMER)
+    public void receive(@Payload List<CloudRuntimeEvent<?, ?>> events,
+                        @Header(name = ROOT_PROCESS_INSTANCE_ID, required = false) String rootProcessInstanceId) {
+        int shard = resolveShard(resolveShardKey(events, rootProcessInstanceId));
+
+        LOGGER.debug("Dispatching {} events for root process instance {} to shard {}",
+                     events.size(),
+                     rootProcessInstanceId,
+                     shard);
+
+        Future<?> result = shards.get(shard)
+                                 .submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                                     eventHandlerContext.handle(optimizer.optimize(events)
+                                                                         .toArray(new CloudRuntimeEvent[]{}));
+                                 }));
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for query shard " + shard, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to handle events in query shard " + shard, e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        shards.forEach(ExecutorService::shutdown);
+    }
+
+    String resolveShardKey(List<CloudRuntimeEvent<?, ?>> events,
+                           String rootProcessInstanceId) {
+        return Optional.ofNullable(rootProcessInstanceId)
+                       .orElseGet(() -> events.stream()
+                                              .map(CloudRuntimeEvent::getProcessInstanceId)
+                                              .filter(Objects::nonNull)
+                                              .findFirst()
+                                              .orElse(null));
+    }
+
+    int resolveShard(String shardKey) {
+        return shardKey != null ? Math.floorMod(shardKey.hashCode(), shards.size()) : 0;
+    }
+
+    int getShardCount() {
+        return shards.size();
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 
 public class ApplicationDeployedEventHandler implements QueryEventHandler {
 
@@ -50,6 +51,10 @@ public class ApplicationDeployedEventHandler implements QueryEventHandler {
                 deployment.getVersion().toString()
         );
 
+        if (entityManager.getFlushMode() == FlushModeType.COMMIT) {
+            // write-behind batches only flush at the end, the query lookup must see applications deployed earlier in the batch
+            entityManager.flush();
+        }
         if(applicationRepository.existsByNameAndVersion(application.getName(),
                                                         application.getVersion())) {
             LOGGER.debug("Application {} with version {} already exists!",
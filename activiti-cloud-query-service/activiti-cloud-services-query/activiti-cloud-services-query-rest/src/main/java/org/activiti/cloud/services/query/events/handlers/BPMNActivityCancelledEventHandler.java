@@ -19,6 +19,7 @@ import org.activiti.api.process.model.events.BPMNActivityEvent;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity;
 import org.activiti.cloud.api.process.model.events.CloudBPMNActivityCancelledEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.BaseBPMNActivityEntity;
 
 import javax.persistence.EntityManager;
@@ -30,6 +31,11 @@ public class BPMNActivityCancelledEventHandler extends BaseBPMNActivityEventHand
         super(entityManager);
     }
 
+    public BPMNActivityCancelledEventHandler(EntityManager entityManager,
+                                              ProcessDiagramCache processDiagramCache) {
+        super(entityManager, processDiagramCache);
+    }
+
     @Override
     public void handle(CloudRuntimeEvent<?, ?> event) {
         CloudBPMNActivityCancelledEvent activityEvent = CloudBPMNActivityCancelledEvent.class.cast(event);
@@ -40,6 +46,7 @@ public class BPMNActivityCancelledEventHandler extends BaseBPMNActivityEventHand
         bpmnActivityEntity.setStatus(CloudBPMNActivity.BPMNActivityStatus.CANCELLED);
 
         entityManager.persist(bpmnActivityEntity);
+        invalidateDiagram(bpmnActivityEntity);
     }
 
     @Override
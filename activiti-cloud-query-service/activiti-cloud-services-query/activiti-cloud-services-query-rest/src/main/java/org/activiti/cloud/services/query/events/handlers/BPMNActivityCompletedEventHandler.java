@@ -19,6 +19,7 @@ import org.activiti.api.process.model.events.BPMNActivityEvent;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity;
 import org.activiti.cloud.api.process.model.events.CloudBPMNActivityCompletedEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.BaseBPMNActivityEntity;
 
 import javax.persistence.EntityManager;
@@ -30,6 +31,11 @@ public class BPMNActivityCompletedEventHandler extends BaseBPMNActivityEventHand
         super(entityManager);
     }
 
+    public BPMNActivityCompletedEventHandler(EntityManager entityManager,
+                                              ProcessDiagramCache processDiagramCache) {
+        super(entityManager, processDiagramCache);
+    }
+
     @Override
     public void handle(CloudRuntimeEvent<?, ?> event) {
         CloudBPMNActivityCompletedEvent activityEvent = CloudBPMNActivityCompletedEvent.class.cast(event);
@@ -40,6 +46,7 @@ public class BPMNActivityCompletedEventHandler extends BaseBPMNActivityEventHand
         bpmnActivityEntity.setStatus(CloudBPMNActivity.BPMNActivityStatus.COMPLETED);
 
         entityManager.persist(bpmnActivityEntity);
+        invalidateDiagram(bpmnActivityEntity);
     }
 
     @Override
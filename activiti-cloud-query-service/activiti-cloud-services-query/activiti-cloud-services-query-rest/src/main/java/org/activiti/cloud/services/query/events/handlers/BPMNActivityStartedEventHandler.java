@@ -19,6 +19,7 @@ import org.activiti.api.process.model.events.BPMNActivityEvent;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity;
 import org.activiti.cloud.api.process.model.events.CloudBPMNActivityStartedEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.BaseBPMNActivityEntity;
 
 import javax.persistence.EntityManager;
@@ -30,6 +31,11 @@ public class BPMNActivityStartedEventHandler extends BaseBPMNActivityEventHandle
         super(entityManager);
     }
 
+    public BPMNActivityStartedEventHandler(EntityManager entityManager,
+                                            ProcessDiagramCache processDiagramCache) {
+        super(entityManager, processDiagramCache);
+    }
+
     @Override
     public void handle(CloudRuntimeEvent<?, ?> event) {
         CloudBPMNActivityStartedEvent activityEvent = CloudBPMNActivityStartedEvent.class.cast(event);
@@ -41,6 +47,7 @@ public class BPMNActivityStartedEventHandler extends BaseBPMNActivityEventHandle
         bpmnActivityEntity.setStatus(CloudBPMNActivity.BPMNActivityStatus.STARTED);
 
         entityManager.persist(bpmnActivityEntity);
+        invalidateDiagram(bpmnActivityEntity);
     }
 
     @Override
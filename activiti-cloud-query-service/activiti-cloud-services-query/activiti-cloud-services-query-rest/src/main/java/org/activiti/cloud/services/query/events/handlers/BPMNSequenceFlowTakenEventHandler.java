@@ -19,6 +19,7 @@ import org.activiti.api.process.model.BPMNSequenceFlow;
 import org.activiti.api.process.model.events.SequenceFlowEvent;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.events.CloudSequenceFlowTakenEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.BPMNSequenceFlowEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,8 +34,16 @@ public class BPMNSequenceFlowTakenEventHandler implements QueryEventHandler {
 
     private final EntityManager entityManager;
 
+    private final ProcessDiagramCache processDiagramCache;
+
     public BPMNSequenceFlowTakenEventHandler(EntityManager entityManager) {
+        this(entityManager, null);
+    }
+
+    public BPMNSequenceFlowTakenEventHandler(EntityManager entityManager,
+                                             ProcessDiagramCache processDiagramCache) {
         this.entityManager = entityManager;
+        this.processDiagramCache = processDiagramCache;
     }
 
     @Override
@@ -65,6 +74,10 @@ public class BPMNSequenceFlowTakenEventHandler implements QueryEventHandler {
         bpmnSequenceFlowEntity.setEventId(event.getId());
 
         entityManager.persist(bpmnSequenceFlowEntity);
+
+        if (processDiagramCache != null) {
+            processDiagramCache.invalidate(bpmnSequenceFlowEntity.getProcessInstanceId());
+        }
     }
 
     @Override
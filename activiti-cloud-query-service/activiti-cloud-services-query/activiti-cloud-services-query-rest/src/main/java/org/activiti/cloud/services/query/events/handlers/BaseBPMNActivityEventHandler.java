@@ -18,6 +18,7 @@ package org.activiti.cloud.services.query.events.handlers;
 import org.activiti.api.process.model.BPMNActivity;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.events.CloudBPMNActivityEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.BPMNActivityEntity;
 import org.activiti.cloud.services.query.model.BaseBPMNActivityEntity;
 import org.activiti.cloud.services.query.model.ServiceTaskEntity;
@@ -28,8 +29,22 @@ public abstract class BaseBPMNActivityEventHandler {
 
     protected final EntityManager entityManager;
 
+    protected final ProcessDiagramCache processDiagramCache;
+
     public BaseBPMNActivityEventHandler(EntityManager entityManager) {
+        this(entityManager, null);
+    }
+
+    public BaseBPMNActivityEventHandler(EntityManager entityManager,
+                                        ProcessDiagramCache processDiagramCache) {
         this.entityManager = entityManager;
+        this.processDiagramCache = processDiagramCache;
+    }
+
+    protected void invalidateDiagram(BaseBPMNActivityEntity bpmnActivityEntity) {
+        if (processDiagramCache != null) {
+            processDiagramCache.invalidate(bpmnActivityEntity.getProcessInstanceId());
+        }
     }
 
     protected BaseBPMNActivityEntity findOrCreateBPMNActivityEntity(CloudRuntimeEvent<?, ?> event) {
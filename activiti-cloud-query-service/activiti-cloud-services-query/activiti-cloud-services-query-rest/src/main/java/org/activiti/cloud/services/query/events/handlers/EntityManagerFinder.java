@@ -26,9 +26,9 @@ import java.util.Optional;
 
 public class EntityManagerFinder {
 
-    private static final String VARIABLES = "variables";
-    private static final String TASK_CANDIDATE_USERS = "taskCandidateUsers";
-    private static final String TASK_CANDIDATE_GROUPS = "taskCandidateGroups";
+    public static final String VARIABLES = "variables";
+    public static final String TASK_CANDIDATE_USERS = "taskCandidateUsers";
+    public static final String TASK_CANDIDATE_GROUPS = "taskCandidateGroups";
     private final EntityManager entityManager;
 
     public EntityManagerFinder(EntityManager entityManager) {
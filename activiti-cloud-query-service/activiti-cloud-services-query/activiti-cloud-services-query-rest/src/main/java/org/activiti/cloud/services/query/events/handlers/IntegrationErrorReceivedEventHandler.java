@@ -20,6 +20,7 @@ import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity;
 import org.activiti.cloud.api.process.model.CloudIntegrationContext.IntegrationContextStatus;
 import org.activiti.cloud.api.process.model.events.CloudIntegrationErrorReceivedEvent;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.model.IntegrationContextEntity;
 import org.activiti.cloud.services.query.model.ServiceTaskEntity;
 
@@ -29,8 +30,16 @@ import java.util.Optional;
 
 public class IntegrationErrorReceivedEventHandler extends BaseIntegrationEventHandler implements QueryEventHandler {
 
+    private final ProcessDiagramCache processDiagramCache;
+
     public IntegrationErrorReceivedEventHandler(EntityManager entityManager) {
+        this(entityManager, null);
+    }
+
+    public IntegrationErrorReceivedEventHandler(EntityManager entityManager,
+                                                ProcessDiagramCache processDiagramCache) {
         super(entityManager);
+        this.processDiagramCache = processDiagramCache;
     }
 
     @Override
@@ -55,6 +64,10 @@ public class IntegrationErrorReceivedEventHandler extends BaseIntegrationEventHa
             serviceTaskEntity.setStatus(CloudBPMNActivity.BPMNActivityStatus.ERROR);
 
             entityManager.persist(serviceTaskEntity);
+
+            if (processDiagramCache != null) {
+                processDiagramCache.invalidate(serviceTaskEntity.getProcessInstanceId());
+            }
         });
     }
 
@@ -41,6 +41,8 @@ public class ProcessDeployedEventHandler implements QueryEventHandler {
         CloudProcessDeployedEvent processDeployedEvent = CloudProcessDeployedEvent.class.cast(event);
         ProcessDefinition processDefinition = processDeployedEvent.getEntity();
         LOGGER.debug("Handling process deployed event for " + processDefinition.getKey());
+        boolean reference = processDeployedEvent.getProcessModelContent() == null
+            && processDeployedEvent.getProcessModelContentHash() != null;
         ProcessDefinitionEntity processDefinitionEntity = new ProcessDefinitionEntity(processDeployedEvent.getServiceName(),
                                                                                       processDeployedEvent.getServiceFullName(),
                                                                                       processDeployedEvent.getServiceVersion(),
@@ -56,6 +58,18 @@ public class ProcessDeployedEventHandler implements QueryEventHandler {
         processDefinitionEntity.setServiceType(processDeployedEvent.getServiceType());
         entityManager.merge(processDefinitionEntity);
 
+        if (reference) {
+            // The metadata of the definition may have changed, but its content has not: the stored model is kept
+            if (entityManager.find(ProcessModelEntity.class, processDefinition.getId()) != null) {
+                LOGGER.debug("Keeping the stored process model of process definition " + processDefinition.getId());
+                return;
+            }
+            // The content comes with the next full announcement of the definition by the runtime bundle
+            LOGGER.warn("Process definition " + processDefinition.getId() + " was announced without its process model content, " +
+                            "which is missing and will be stored once the runtime bundle announces it in full again");
+            return;
+        }
+
         ProcessModelEntity processModelEntity = new ProcessModelEntity(processDefinitionEntity,
                                                                        processDeployedEvent.getProcessModelContent());
         processModelEntity.setId(processDefinitionEntity.getId());
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import org.activiti.api.model.shared.event.VariableEvent;
+import org.activiti.api.model.shared.model.VariableInstance;
+import org.activiti.api.task.model.events.TaskRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudVariableEvent;
+import org.activiti.cloud.api.task.model.events.CloudTaskRuntimeEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Collapses redundant event chains inside a batch before any handler runs:
+ * <ul>
+ *     <li>repeated VARIABLE_UPDATED events for the same variable keep only the last one</li>
+ *     <li>variables created and then deleted in the same batch become no-ops</li>
+ *     <li>successive TASK_UPDATED and TASK_ASSIGNED events for the same task keep only the last event of each type</li>
+ * </ul>
+ * Every event carries a full snapshot of its entity, so the remaining events produce the same final state.
+ */
+public class QueryEventCoalescer {
+
+    public List<CloudRuntimeEvent<?, ?>> coalesce(List<CloudRuntimeEvent<?, ?>> events) {
+        Set<CloudRuntimeEvent<?, ?>> eliminated = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<List<Object>, VariableChain> variableChains = new HashMap<>();
+        Map<String, Map<TaskRuntimeEvent.TaskEvents, CloudRuntimeEvent<?, ?>>> taskChains = new HashMap<>();
+
+        for (CloudRuntimeEvent<?, ?> event : events) {
+            if (event.getEntity() == null) {
+                continue;
+            }
+            if (event instanceof CloudVariableEvent) {
+                coalesceVariableEvent((CloudVariableEvent) event,
+                                      variableChains,
+                                      eliminated);
+            } else if (event instanceof CloudTaskRuntimeEvent) {
+                coalesceTaskEvent((CloudTaskRuntimeEvent) event,
+                                  taskChains,
+                                  eliminated);
+            }
+        }
+
+        if (eliminated.isEmpty()) {
+            return events;
+        }
+
+        return events.stream()
+                     .filter(event -> !eliminated.contains(event))
+                     .collect(Collectors.toList());
+    }
+
+    private void coalesceVariableEvent(CloudVariableEvent event,
+                                       Map<List<Object>, VariableChain> variableChains,
+                                       Set<CloudRuntimeEvent<?, ?>> eliminated) {
+        List<Object> variableKey = variableKey(event.getEntity());
+
+        switch (event.getEventType()) {
+            case VARIABLE_CREATED:
+                variableChains.put(variableKey,
+                                   new VariableChain(event));
+                break;
+            case VARIABLE_UPDATED:
+                VariableChain chain = variableChains.computeIfAbsent(variableKey,
+                                                                     key -> new VariableChain(null));
+                if (chain.lastUpdated != null) {
+                    eliminated.add(chain.lastUpdated);
+                }
+                chain.lastUpdated = event;
+                break;
+            case VARIABLE_DELETED:
+                VariableChain deletedChain = variableChains.remove(variableKey);
+                if (deletedChain != null && deletedChain.created != null) {
+                    eliminated.add(deletedChain.created);
+                    if (deletedChain.lastUpdated != null) {
+                        eliminated.add(deletedChain.lastUpdated);
+                    }
+                    eliminated.add(event);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void coalesceTaskEvent(CloudTaskRuntimeEvent event,
+                                   Map<String, Map<TaskRuntimeEvent.TaskEvents, CloudRuntimeEvent<?, ?>>> taskChains,
+                                   Set<CloudRuntimeEvent<?, ?>> eliminated) {
+        String taskId = event.getEntity()
+                             .getId();
+
+        if (event.getEventType() == TaskRuntimeEvent.TaskEvents.TASK_UPDATED
+            || event.getEventType() == TaskRuntimeEvent.TaskEvents.TASK_ASSIGNED) {
+            CloudRuntimeEvent<?, ?> previous = taskChains.computeIfAbsent(taskId,
+                                                                          key -> new EnumMap<>(TaskRuntimeEvent.TaskEvents.class))
+                                                         .put(event.getEventType(),
+                                                              event);
+            if (previous != null) {
+                eliminated.add(previous);
+            }
+        } else {
+            // any other task event breaks the chain of successive updates
+            taskChains.remove(taskId);
+        }
+    }
+
+    private List<Object> variableKey(VariableInstance variable) {
+        return Arrays.asList(variable.isTaskVariable(),
+                             variable.isTaskVariable() ? variable.getTaskId() : variable.getProcessInstanceId(),
+                             variable.getName());
+    }
+
+    private static class VariableChain {
+
+        private final CloudVariableEvent created;
+        private CloudVariableEvent lastUpdated;
+
+        private VariableChain(CloudVariableEvent created) {
+            this.created = created;
+        }
+    }
+}
@@ -16,9 +16,12 @@
 package org.activiti.cloud.services.query.events.handlers;
 
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.query.model.QueryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -30,29 +33,71 @@ public class QueryEventHandlerContext {
     private static Logger LOGGER = LoggerFactory.getLogger(QueryEventHandlerContext.class);
 
     private final Map<String, QueryEventHandler> handlers;
+    private final EntityManager entityManager;
 
     public QueryEventHandlerContext(Set<QueryEventHandler> handlers) {
+        this(handlers,
+             null);
+    }
+
+    /**
+     * Creates context that handles each batch of events as a write-behind unit of work: entity mutations
+     * are collected in the persistence context, so repeated updates to the same row are coalesced,
+     * and flushed once at the end of the batch as ordered JDBC batches.
+     */
+    public QueryEventHandlerContext(Set<QueryEventHandler> handlers,
+                                    EntityManager entityManager) {
         this.handlers = handlers.stream().collect(Collectors.toMap(QueryEventHandler::getHandledEvent,
                                                                    Function.identity()));
+        this.entityManager = entityManager;
     }
 
     public void handle(CloudRuntimeEvent<?, ?>... events) {
         if (events != null) {
-            Stream.of(events)
-                  .forEach(event -> {
-                      QueryEventHandler handler = handlers.get(event.getEventType()
-                                                                    .name());
-                      if (handler != null) {
-                          LOGGER.debug("Handling event: " + handler.getHandledEvent());
-                          handler.handle(event);
-                      } else {
-                          LOGGER.debug("No handler found for event: " + event.getEventType()
-                                                                             .name() + ". Ignoring event");
-                      }
-                  });
+            if (entityManager != null) {
+                handleWriteBehind(events);
+            } else {
+                doHandle(events);
+            }
+        }
+    }
+
+    private void handleWriteBehind(CloudRuntimeEvent<?, ?>... events) {
+        FlushModeType flushMode = entityManager.getFlushMode();
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+        try {
+            doHandle(events);
+            flush(events);
+        } finally {
+            entityManager.setFlushMode(flushMode);
         }
     }
 
+    private void flush(CloudRuntimeEvent<?, ?>... events) {
+        LOGGER.debug("Flushing entity mutations for {} events", events.length);
+        try {
+            entityManager.flush();
+        } catch (Exception cause) {
+            throw new QueryException("Error flushing entity mutations for " + events.length + " events",
+                                     cause);
+        }
+    }
+
+    private void doHandle(CloudRuntimeEvent<?, ?>... events) {
+        Stream.of(events)
+              .forEach(event -> {
+                  QueryEventHandler handler = handlers.get(event.getEventType()
+                                                                .name());
+                  if (handler != null) {
+                      LOGGER.debug("Handling event: " + handler.getHandledEvent());
+                      handler.handle(event);
+                  } else {
+                      LOGGER.debug("No handler found for event: " + event.getEventType()
+                                                                         .name() + ". Ignoring event");
+                  }
+              });
+    }
+
     protected Map<String, QueryEventHandler> getHandlers() {
         return handlers;
     }
@@ -16,12 +16,9 @@
 package org.activiti.cloud.services.query.events.handlers;
 
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
-import org.activiti.cloud.api.model.shared.events.CloudVariableEvent;
 import org.activiti.cloud.api.model.shared.impl.events.CloudVariableCreatedEventImpl;
 import org.activiti.cloud.api.model.shared.impl.events.CloudVariableDeletedEventImpl;
 import org.activiti.cloud.api.model.shared.impl.events.CloudVariableUpdatedEventImpl;
-import org.activiti.cloud.api.process.model.events.CloudBPMNActivityEvent;
-import org.activiti.cloud.api.process.model.events.CloudProcessCreatedEvent;
 import org.activiti.cloud.api.process.model.impl.events.CloudBPMNActivityCancelledEventImpl;
 import org.activiti.cloud.api.process.model.impl.events.CloudBPMNActivityCompletedEventImpl;
 import org.activiti.cloud.api.process.model.impl.events.CloudBPMNActivityStartedEventImpl;
@@ -34,7 +31,6 @@ import org.activiti.cloud.api.process.model.impl.events.CloudProcessCreatedEvent
 import org.activiti.cloud.api.process.model.impl.events.CloudProcessStartedEventImpl;
 import org.activiti.cloud.api.process.model.impl.events.CloudProcessUpdatedEventImpl;
 import org.activiti.cloud.api.process.model.impl.events.CloudSequenceFlowTakenEventImpl;
-import org.activiti.cloud.api.task.model.events.CloudTaskRuntimeEvent;
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskActivatedEventImpl;
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskAssignedEventImpl;
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskCancelledEventImpl;
@@ -46,20 +42,15 @@ import org.activiti.cloud.api.task.model.impl.events.CloudTaskCompletedEventImpl
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskCreatedEventImpl;
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskSuspendedEventImpl;
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskUpdatedEventImpl;
-import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
-import org.hibernate.jpa.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.persistence.AttributeNode;
-import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class QueryEventHandlerContextOptimizer {
@@ -97,41 +88,28 @@ public class QueryEventHandlerContextOptimizer {
                        Map.entry(CloudProcessCompletedEventImpl.class, 8),
                        Map.entry(CloudProcessCancelledEventImpl.class, 8));
 
-    private final EntityManager entityManager;
+    private final QueryEventPrefetchPlanner prefetchPlanner;
+    private final QueryEventCoalescer coalescer = new QueryEventCoalescer();
+    private final AtomicLong eliminatedEventsCount = new AtomicLong();
 
     public QueryEventHandlerContextOptimizer(EntityManager entityManager) {
-        this.entityManager = entityManager;
+        this(new QueryEventPrefetchPlanner(entityManager));
     }
 
-    public List<CloudRuntimeEvent<?,?>> optimize(List<CloudRuntimeEvent<?, ?>> events) {
-        resolveProcessInstanceId(events)
-            .ifPresent(processInstanceId -> {
-                LOGGER.debug("Building entity fetch graph for root process instance: {}",
-                             processInstanceId);
-                EntityGraph<ProcessInstanceEntity> entityGraph = entityManager.createEntityGraph(ProcessInstanceEntity.class);
+    public QueryEventHandlerContextOptimizer(QueryEventPrefetchPlanner prefetchPlanner) {
+        this.prefetchPlanner = prefetchPlanner;
+    }
+
+    public List<CloudRuntimeEvent<?,?>> optimize(List<CloudRuntimeEvent<?, ?>> receivedEvents) {
+        List<CloudRuntimeEvent<?, ?>> events = coalescer.coalesce(receivedEvents);
 
-                findRuntimeEvent(events,
-                                 CloudVariableEvent.class)
-                    .ifPresent(e -> entityGraph.addAttributeNodes(VARIABLES));
-                findRuntimeEvent(events,
-                                 CloudTaskRuntimeEvent.class)
-                    .ifPresent(e -> entityGraph.addAttributeNodes(TASKS));
-                findRuntimeEvent(events,
-                                 CloudBPMNActivityEvent.class)
-                    .ifPresent(e -> entityGraph.addAttributeNodes(ACTIVITIES));
+        int eliminated = receivedEvents.size() - events.size();
+        if (eliminated > 0) {
+            eliminatedEventsCount.addAndGet(eliminated);
+            LOGGER.debug("Coalesced {} received events into {} events", receivedEvents.size(), events.size());
+        }
 
-                Optional.ofNullable(entityManager.find(ProcessInstanceEntity.class,
-                                                       processInstanceId,
-                                                       Map.of(QueryHints.HINT_LOADGRAPH,
-                                                              entityGraph)))
-                        .ifPresent(rootProcessInstance -> {
-                            if (LOGGER.isDebugEnabled()) {
-                                LOGGER.debug("Fetched entity graph attributes {} for process instance: {}",
-                                             entityGraph.getAttributeNodes().stream().map(AttributeNode::getAttributeName).collect(Collectors.toList()),
-                                             processInstanceId);
-                            }
-                        });
-            });
+        prefetchPlanner.prefetch(events);
 
         return events.stream()
                      .sorted(Comparator.comparing(event -> Optional.ofNullable(order.get(event.getClass()))
@@ -139,33 +117,7 @@ public class QueryEventHandlerContextOptimizer {
                      .collect(Collectors.toList());
     }
 
-    protected Optional<String> resolveProcessInstanceId(List<CloudRuntimeEvent<?, ?>> events) {
-        if (events.stream()
-                  .anyMatch(CloudProcessCreatedEvent.class::isInstance)) {
-            return Optional.empty();
-        }
-
-        return events.stream()
-                     .map(CloudRuntimeEvent::getProcessInstanceId)
-                     .filter(Objects::nonNull)
-                     .findFirst();
-    }
-
-    protected Optional<CloudRuntimeEvent<?, ?>> findRuntimeEvent(List<CloudRuntimeEvent<?, ?>> events,
-                                                                 Class<? extends CloudRuntimeEvent<?, ?>> runtimeEventClass) {
-        return events.stream()
-                     .filter(runtimeEventClass::isInstance)
-                     .findFirst();
-    }
-
-    protected <T> Optional<T> findRuntimeEvent(List<CloudRuntimeEvent<?, ?>> events,
-                                               Class<? extends CloudRuntimeEvent<T, ?>> runtimeEventClass,
-                                               Predicate<T> predicate) {
-        return events.stream()
-                     .filter(runtimeEventClass::isInstance)
-                     .map(runtimeEventClass::cast)
-                     .map(CloudRuntimeEvent::getEntity)
-                     .filter(predicate)
-                     .findFirst();
+    public long getEliminatedEventsCount() {
+        return eliminatedEventsCount.get();
     }
 }
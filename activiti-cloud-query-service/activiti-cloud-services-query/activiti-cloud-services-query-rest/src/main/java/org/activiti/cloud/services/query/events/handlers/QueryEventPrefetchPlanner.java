@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import org.activiti.api.task.model.events.TaskRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.events.CloudVariableEvent;
+import org.activiti.cloud.api.process.model.events.CloudBPMNActivityEvent;
+import org.activiti.cloud.api.process.model.events.CloudProcessCreatedEvent;
+import org.activiti.cloud.api.task.model.events.CloudTaskCandidateGroupEvent;
+import org.activiti.cloud.api.task.model.events.CloudTaskCandidateUserEvent;
+import org.activiti.cloud.api.task.model.events.CloudTaskRuntimeEvent;
+import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
+import org.activiti.cloud.services.query.model.TaskEntity;
+import org.hibernate.jpa.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plans and executes prefetch of the entity graphs touched by a batch of events, i.e. process instances and tasks
+ * with their variables, tasks, candidates and activities, using a few IN-list queries per association
+ * instead of lazy loading them one by one in the event handlers.
+ */
+public class QueryEventPrefetchPlanner {
+
+    public static final int DEFAULT_IN_LIST_SIZE = 500;
+    private static Logger LOGGER = LoggerFactory.getLogger(QueryEventPrefetchPlanner.class);
+
+    private final EntityManager entityManager;
+    private final int inListSize;
+
+    public QueryEventPrefetchPlanner(EntityManager entityManager) {
+        this(entityManager,
+             DEFAULT_IN_LIST_SIZE);
+    }
+
+    public QueryEventPrefetchPlanner(EntityManager entityManager,
+                                     int inListSize) {
+        this.entityManager = entityManager;
+        this.inListSize = inListSize;
+    }
+
+    public void prefetch(List<CloudRuntimeEvent<?, ?>> events) {
+        PrefetchPlan plan = plan(events);
+
+        if (plan.isEmpty()) {
+            return;
+        }
+
+        LOGGER.debug("Prefetching entity graphs for {} process instances and {} tasks",
+                     plan.getProcessInstanceIds().size(),
+                     plan.getTaskIds().size());
+
+        fetch(ProcessInstanceEntity.class,
+              plan.getProcessInstanceIds(),
+              plan.getProcessInstanceAttributes());
+        fetch(TaskEntity.class,
+              plan.getTaskIds(),
+              plan.getTaskAttributes());
+    }
+
+    public PrefetchPlan plan(List<CloudRuntimeEvent<?, ?>> events) {
+        PrefetchPlan plan = new PrefetchPlan();
+        Set<String> createdProcessInstanceIds = new LinkedHashSet<>();
+        Set<String> createdTaskIds = new LinkedHashSet<>();
+
+        for (CloudRuntimeEvent<?, ?> event : events) {
+            if (event.getProcessInstanceId() != null) {
+                plan.processInstanceIds.add(event.getProcessInstanceId());
+            }
+            if (event.getEntity() == null) {
+                continue;
+            }
+            if (event instanceof CloudProcessCreatedEvent) {
+                createdProcessInstanceIds.add(((CloudProcessCreatedEvent) event).getEntity().getId());
+            } else if (event instanceof CloudTaskRuntimeEvent) {
+                String taskId = ((CloudTaskRuntimeEvent) event).getEntity().getId();
+                if (event.getEventType() == TaskRuntimeEvent.TaskEvents.TASK_CREATED) {
+                    createdTaskIds.add(taskId);
+                } else {
+                    plan.taskIds.add(taskId);
+                }
+                plan.processInstanceAttributes.add(QueryEventHandlerContextOptimizer.TASKS);
+            } else if (event instanceof CloudTaskCandidateUserEvent) {
+                plan.taskIds.add(((CloudTaskCandidateUserEvent) event).getEntity().getTaskId());
+                plan.taskAttributes.add(EntityManagerFinder.TASK_CANDIDATE_USERS);
+            } else if (event instanceof CloudTaskCandidateGroupEvent) {
+                plan.taskIds.add(((CloudTaskCandidateGroupEvent) event).getEntity().getTaskId());
+                plan.taskAttributes.add(EntityManagerFinder.TASK_CANDIDATE_GROUPS);
+            } else if (event instanceof CloudVariableEvent) {
+                CloudVariableEvent variableEvent = (CloudVariableEvent) event;
+                if (variableEvent.getEntity().isTaskVariable()) {
+                    plan.taskIds.add(variableEvent.getEntity().getTaskId());
+                    plan.taskAttributes.add(EntityManagerFinder.VARIABLES);
+                } else {
+                    plan.processInstanceIds.add(variableEvent.getEntity().getProcessInstanceId());
+                    plan.processInstanceAttributes.add(EntityManagerFinder.VARIABLES);
+                }
+            } else if (event instanceof CloudBPMNActivityEvent) {
+                plan.processInstanceAttributes.add(QueryEventHandlerContextOptimizer.ACTIVITIES);
+            }
+        }
+
+        // entities created within the batch do not exist yet
+        plan.processInstanceIds.removeAll(createdProcessInstanceIds);
+        plan.taskIds.removeAll(createdTaskIds);
+        plan.processInstanceIds.remove(null);
+        plan.taskIds.remove(null);
+
+        return plan;
+    }
+
+    protected <T> void fetch(Class<T> entityClass,
+                             Set<String> ids,
+                             Set<String> attributes) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        for (List<String> chunk : chunks(ids)) {
+            if (attributes.isEmpty()) {
+                entityManager.createQuery("select e from " + entityClass.getSimpleName() + " e where e.id in :ids",
+                                          entityClass)
+                             .setParameter("ids", chunk)
+                             .getResultList();
+            }
+            // fetch each association with a separate query to avoid cartesian products
+            for (String attribute : attributes) {
+                entityManager.createQuery("select distinct e from " + entityClass.getSimpleName() + " e"
+                                              + " left join fetch e." + attribute
+                                              + " where e.id in :ids",
+                                          entityClass)
+                             .setParameter("ids", chunk)
+                             .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                             .getResultList();
+            }
+        }
+    }
+
+    private List<List<String>> chunks(Collection<String> ids) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(inListSize);
+        for (String id : ids) {
+            chunk.add(id);
+            if (chunk.size() == inListSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(inListSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    public static class PrefetchPlan {
+
+        private final Set<String> processInstanceIds = new LinkedHashSet<>();
+        private final Set<String> processInstanceAttributes = new LinkedHashSet<>();
+        private final Set<String> taskIds = new LinkedHashSet<>();
+        private final Set<String> taskAttributes = new LinkedHashSet<>();
+
+        public Set<String> getProcessInstanceIds() {
+            return processInstanceIds;
+        }
+
+        public Set<String> getProcessInstanceAttributes() {
+            return processInstanceAttributes;
+        }
+
+        public Set<String> getTaskIds() {
+            return taskIds;
+        }
+
+        public Set<String> getTaskAttributes() {
+            return taskAttributes;
+        }
+
+        public boolean isEmpty() {
+            return processInstanceIds.isEmpty() && taskIds.isEmpty();
+        }
+    }
+}
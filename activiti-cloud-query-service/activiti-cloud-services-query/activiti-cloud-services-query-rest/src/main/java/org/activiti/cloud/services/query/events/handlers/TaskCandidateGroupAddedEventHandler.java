@@ -27,9 +27,12 @@ import javax.persistence.EntityManager;
 public class TaskCandidateGroupAddedEventHandler implements QueryEventHandler {
 
     private final EntityManager entityManager;
+    private final TaskVisibilityUpdater taskVisibilityUpdater;
 
-    public TaskCandidateGroupAddedEventHandler(EntityManager entityManager) {
+    public TaskCandidateGroupAddedEventHandler(EntityManager entityManager,
+                                               TaskVisibilityUpdater taskVisibilityUpdater) {
         this.entityManager = entityManager;
+        this.taskVisibilityUpdater = taskVisibilityUpdater;
     }
 
     @Override
@@ -43,6 +46,8 @@ public class TaskCandidateGroupAddedEventHandler implements QueryEventHandler {
         // Persist into database
         try {
             entityManager.persist(taskCandidateGroupEntity);
+            taskVisibilityUpdater.addCandidateGroup(taskCandidateGroup.getTaskId(),
+                                                    taskCandidateGroup.getGroupId());
         } catch (Exception cause) {
             throw new QueryException("Error handling TaskCandidateGroupAddedEvent[" + event + "]",
                                      cause);
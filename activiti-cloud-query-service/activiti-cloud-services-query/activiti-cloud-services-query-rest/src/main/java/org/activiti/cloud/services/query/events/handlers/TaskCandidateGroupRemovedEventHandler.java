@@ -33,11 +33,14 @@ public class TaskCandidateGroupRemovedEventHandler implements QueryEventHandler
     private static Logger LOGGER = LoggerFactory.getLogger(TaskCandidateGroupRemovedEventHandler.class);
     private final EntityManager entityManager;
     private final EntityManagerFinder entityManagerFinder;
+    private final TaskVisibilityUpdater taskVisibilityUpdater;
 
     public TaskCandidateGroupRemovedEventHandler(EntityManager entityManager,
-                                                 EntityManagerFinder entityManagerFinder) {
+                                                 EntityManagerFinder entityManagerFinder,
+                                                 TaskVisibilityUpdater taskVisibilityUpdater) {
         this.entityManager = entityManager;
         this.entityManagerFinder = entityManagerFinder;
+        this.taskVisibilityUpdater = taskVisibilityUpdater;
     }
 
     @Override
@@ -55,6 +58,8 @@ public class TaskCandidateGroupRemovedEventHandler implements QueryEventHandler
                                                                    taskCandidateGroup.getGroupId());
                 Optional.ofNullable(entityManager.find(TaskCandidateGroupEntity.class, id))
                         .ifPresent(entityManager::remove);
+                taskVisibilityUpdater.removeCandidateGroup(taskCandidateGroup.getTaskId(),
+                                                           taskCandidateGroup.getGroupId());
             } catch (Exception cause) {
                 LOGGER.debug("Error handling TaskCandidateGroupRemovedEvent[" + event + "]",
                              cause);
@@ -26,9 +26,12 @@ import javax.persistence.EntityManager;
 public class TaskCandidateUserAddedEventHandler implements QueryEventHandler {
 
     private final EntityManager entityManager;
+    private final TaskVisibilityUpdater taskVisibilityUpdater;
 
-    public TaskCandidateUserAddedEventHandler(EntityManager entityManager) {
+    public TaskCandidateUserAddedEventHandler(EntityManager entityManager,
+                                              TaskVisibilityUpdater taskVisibilityUpdater) {
         this.entityManager = entityManager;
+        this.taskVisibilityUpdater = taskVisibilityUpdater;
     }
 
     @Override
@@ -40,6 +43,8 @@ public class TaskCandidateUserAddedEventHandler implements QueryEventHandler {
             TaskCandidateUserEntity entity = new TaskCandidateUserEntity(taskCandidateUser.getTaskId(),
                                                                          taskCandidateUser.getUserId());
             entityManager.persist(entity);
+            taskVisibilityUpdater.addCandidateUser(taskCandidateUser.getTaskId(),
+                                                   taskCandidateUser.getUserId());
         } catch (Exception cause) {
             throw new QueryException("Error handling TaskCandidateUserAddedEvent[" + event + "]",
                                      cause);
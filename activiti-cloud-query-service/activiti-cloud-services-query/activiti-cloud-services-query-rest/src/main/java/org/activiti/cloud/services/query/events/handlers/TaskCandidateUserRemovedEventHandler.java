@@ -33,11 +33,14 @@ public class TaskCandidateUserRemovedEventHandler implements QueryEventHandler {
     private static Logger LOGGER = LoggerFactory.getLogger(TaskCandidateUserRemovedEventHandler.class);
     private final EntityManager entityManager;
     private final EntityManagerFinder entityManagerFinder;
+    private final TaskVisibilityUpdater taskVisibilityUpdater;
 
     public TaskCandidateUserRemovedEventHandler(EntityManager entityManager,
-                                                EntityManagerFinder entityManagerFinder) {
+                                                EntityManagerFinder entityManagerFinder,
+                                                TaskVisibilityUpdater taskVisibilityUpdater) {
         this.entityManager = entityManager;
         this.entityManagerFinder = entityManagerFinder;
+        this.taskVisibilityUpdater = taskVisibilityUpdater;
     }
 
     @Override
@@ -53,6 +56,8 @@ public class TaskCandidateUserRemovedEventHandler implements QueryEventHandler {
                                                                  taskCandidateUser.getUserId());
                 Optional.ofNullable(entityManager.find(TaskCandidateUserEntity.class, id))
                         .ifPresent(entityManager::remove);
+                taskVisibilityUpdater.removeCandidateUser(taskCandidateUser.getTaskId(),
+                                                          taskCandidateUser.getUserId());
             } catch (Exception cause) {
                 LOGGER.debug("Error handling TaskCandidateUserRemovedEvent[" + event + "]",
                              cause);
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity.PrincipalType;
+import org.activiti.cloud.services.query.model.TaskVisibilityId;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+/**
+ * Keeps the denormalized task visibility table in line with the task candidate users and groups.
+ */
+public class TaskVisibilityUpdater {
+
+    private final EntityManager entityManager;
+
+    public TaskVisibilityUpdater(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public void addCandidateUser(String taskId, String userId) {
+        add(taskId, PrincipalType.USER, userId);
+    }
+
+    public void removeCandidateUser(String taskId, String userId) {
+        remove(taskId, PrincipalType.USER, userId);
+    }
+
+    public void addCandidateGroup(String taskId, String groupId) {
+        add(taskId, PrincipalType.GROUP, groupId);
+    }
+
+    public void removeCandidateGroup(String taskId, String groupId) {
+        remove(taskId, PrincipalType.GROUP, groupId);
+    }
+
+    private void add(String taskId, PrincipalType principalType, String principalId) {
+        // candidate events can be redelivered, so the row may already exist
+        if (entityManager.find(TaskVisibilityEntity.class,
+                               new TaskVisibilityId(taskId, principalType, principalId)) == null) {
+            entityManager.persist(new TaskVisibilityEntity(taskId, principalType, principalId));
+        }
+    }
+
+    private void remove(String taskId, PrincipalType principalType, String principalId) {
+        Optional.ofNullable(entityManager.find(TaskVisibilityEntity.class,
+                                               new TaskVisibilityId(taskId, principalType, principalId)))
+                .ifPresent(entityManager::remove);
+    }
+}
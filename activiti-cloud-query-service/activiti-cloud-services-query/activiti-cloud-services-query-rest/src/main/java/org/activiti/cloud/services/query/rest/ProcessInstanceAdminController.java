@@ -17,13 +17,16 @@ package org.activiti.cloud.services.query.rest;
 
 import java.util.Optional;
 
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.alfresco.data.domain.KeysetPageExecutor;
 import org.activiti.cloud.api.process.model.CloudProcessInstance;
 import org.activiti.cloud.services.query.app.repository.EntityFinder;
 import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
 import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
 import org.activiti.cloud.services.query.rest.assembler.ProcessInstanceRepresentationModelAssembler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
 import org.springframework.hateoas.MediaTypes;
@@ -68,17 +71,43 @@ public class ProcessInstanceAdminController {
 
     @RequestMapping(method = RequestMethod.GET)
     public PagedModel<EntityModel<CloudProcessInstance>> findAll(@QuerydslPredicate(root = ProcessInstanceEntity.class) Predicate predicate,
+                                                                  VariableSearch variableSearch,
                                                                   Pageable pageable) {
 
         predicate = Optional.ofNullable(predicate)
                             .orElseGet(BooleanBuilder::new);
 
+        Page<ProcessInstanceEntity> page;
+        if (variableSearch.isSet()) {
+            page = processInstanceRepository.findByVariableNameAndValue(variableSearch.getName(),
+                                                                        variableSearch.getValue(),
+                                                                        variableSearch.getOperator(),
+                                                                        predicate,
+                                                                        pageable);
+        } else if (pageable instanceof AlfrescoKeysetPageRequest) {
+            page = findAllAfter(predicate,
+                                (AlfrescoKeysetPageRequest) pageable);
+        } else {
+            page = processInstanceRepository.findAll(predicate,
+                                                     pageable);
+        }
+
         return pagedCollectionModelAssembler.toModel(pageable,
-                                                  processInstanceRepository.findAll(predicate,
-                                                                                    pageable),
+                                                  page,
                                                   processInstanceRepresentationModelAssembler);
     }
 
+    private Page<ProcessInstanceEntity> findAllAfter(Predicate predicate,
+                                                     AlfrescoKeysetPageRequest pageable) {
+        return KeysetPageExecutor.getPage(ProcessInstanceEntity.class,
+                                          pageable,
+                                          (sort, keyValues, limit) -> processInstanceRepository.findAllAfter(predicate,
+                                                                                                             sort,
+                                                                                                             keyValues,
+                                                                                                             limit),
+                                          () -> processInstanceRepository.count(predicate));
+    }
+
     @RequestMapping(value = "/{processInstanceId}", method = RequestMethod.GET)
     public EntityModel<CloudProcessInstance> findById(@PathVariable String processInstanceId) {
 
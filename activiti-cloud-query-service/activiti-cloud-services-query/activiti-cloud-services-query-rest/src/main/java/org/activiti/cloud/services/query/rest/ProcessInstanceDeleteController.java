@@ -15,12 +15,16 @@
  */
 package org.activiti.cloud.services.query.rest;
 
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import org.activiti.cloud.api.process.model.CloudProcessInstance;
 import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
 import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
 import org.activiti.cloud.services.query.rest.assembler.ProcessInstanceRepresentationModelAssembler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
 import org.springframework.hateoas.MediaTypes;
@@ -33,6 +37,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @ConditionalOnProperty(name = "activiti.rest.enable-deletion", matchIfMissing = true)
 @RestController
@@ -44,15 +52,21 @@ import java.util.Collection;
         })
 public class ProcessInstanceDeleteController {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessInstanceDeleteController.class);
+
     private final ProcessInstanceRepository processInstanceRepository;
 
     private ProcessInstanceRepresentationModelAssembler processInstanceRepresentationModelAssembler;
 
+    private final int purgeChunkSize;
+
     @Autowired
     public ProcessInstanceDeleteController(ProcessInstanceRepository processInstanceRepository,
-                                           ProcessInstanceRepresentationModelAssembler processInstanceRepresentationModelAssembler) {
+                                           ProcessInstanceRepresentationModelAssembler processInstanceRepresentationModelAssembler,
+                                           @Value("${activiti.rest.deletion.chunk-size:500}") int purgeChunkSize) {
         this.processInstanceRepository = processInstanceRepository;
         this.processInstanceRepresentationModelAssembler = processInstanceRepresentationModelAssembler;
+        this.purgeChunkSize = purgeChunkSize;
     }
 
     @RequestMapping(method = RequestMethod.DELETE)
@@ -70,10 +84,25 @@ public class ProcessInstanceDeleteController {
         return CollectionModel.of(result);
     }
 
-
-
-
-
-
+    /**
+     * Deletes the matching process instances and their related entities in chunks, without loading them,
+     * and returns the number of deleted rows per entity.
+     */
+    @RequestMapping(method = RequestMethod.DELETE, params = "purge=true")
+    public Map<String, Long> purgeProcessInstances(@QuerydslPredicate(root = ProcessInstanceEntity.class) Predicate predicate) {
+        Predicate purgePredicate = Optional.ofNullable(predicate).orElseGet(BooleanBuilder::new);
+
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        List<String> processInstanceIds;
+        do {
+            processInstanceIds = processInstanceRepository.findIds(purgePredicate,
+                                                                   purgeChunkSize);
+            processInstanceRepository.deleteWithRelatedEntities(processInstanceIds)
+                .forEach((entity, count) -> deleted.merge(entity, count, Long::sum));
+            LOGGER.info("Purged {} process instances so far", deleted.getOrDefault("ProcessInstance", 0L));
+        } while (processInstanceIds.size() == purgeChunkSize);
+
+        return deleted;
+    }
 
 }
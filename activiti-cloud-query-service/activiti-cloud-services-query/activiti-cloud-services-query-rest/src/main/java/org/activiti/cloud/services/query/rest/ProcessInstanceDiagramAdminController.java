@@ -15,6 +15,7 @@
  */
 package org.activiti.cloud.services.query.rest;
 
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.ProcessDiagramGeneratorWrapper;
 import org.activiti.cloud.services.query.app.repository.BPMNActivityRepository;
 import org.activiti.cloud.services.query.app.repository.BPMNSequenceFlowRepository;
@@ -22,6 +23,7 @@ import org.activiti.cloud.services.query.app.repository.EntityFinder;
 import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
 import org.activiti.cloud.services.query.app.repository.ProcessModelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -32,19 +34,36 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/admin/v1/process-instances/{processInstanceId}/diagram")
 public class ProcessInstanceDiagramAdminController extends ProcessInstanceDiagramControllerBase {
 
-    @Autowired
     public ProcessInstanceDiagramAdminController(ProcessModelRepository processModelRepository,
                                             BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
                                             ProcessDiagramGeneratorWrapper processDiagramGenerator,
                                             ProcessInstanceRepository processInstanceRepository,
                                             BPMNActivityRepository bpmnActivityRepository,
                                             EntityFinder entityFinder) {
+        this(processModelRepository,
+             bpmnSequenceFlowRepository,
+             processDiagramGenerator,
+             processInstanceRepository,
+             bpmnActivityRepository,
+             entityFinder,
+             null);
+    }
+
+    @Autowired
+    public ProcessInstanceDiagramAdminController(ProcessModelRepository processModelRepository,
+                                            BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
+                                            ProcessDiagramGeneratorWrapper processDiagramGenerator,
+                                            ProcessInstanceRepository processInstanceRepository,
+                                            BPMNActivityRepository bpmnActivityRepository,
+                                            EntityFinder entityFinder,
+                                            @Nullable ProcessDiagramCache processDiagramCache) {
         super(processModelRepository,
               bpmnSequenceFlowRepository,
               processDiagramGenerator,
               processInstanceRepository,
               bpmnActivityRepository,
-              entityFinder);
+              entityFinder,
+              processDiagramCache);
     }
 
     @GetMapping(produces = IMAGE_SVG_XML)
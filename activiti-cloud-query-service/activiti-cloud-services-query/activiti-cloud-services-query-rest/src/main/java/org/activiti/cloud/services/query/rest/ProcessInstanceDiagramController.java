@@ -16,6 +16,7 @@
 package org.activiti.cloud.services.query.rest;
 
 import org.activiti.api.runtime.shared.security.SecurityManager;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.ProcessDiagramGeneratorWrapper;
 import org.activiti.cloud.services.query.app.repository.BPMNActivityRepository;
 import org.activiti.cloud.services.query.app.repository.BPMNSequenceFlowRepository;
@@ -28,6 +29,7 @@ import org.activiti.core.common.spring.security.policies.SecurityPoliciesManager
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -44,7 +46,6 @@ public class ProcessInstanceDiagramController extends ProcessInstanceDiagramCont
     
     private final SecurityManager securityManager;
     
-    @Autowired
     public ProcessInstanceDiagramController(ProcessModelRepository processModelRepository,
                                             BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
                                             ProcessDiagramGeneratorWrapper processDiagramGenerator,
@@ -53,12 +54,34 @@ public class ProcessInstanceDiagramController extends ProcessInstanceDiagramCont
                                             EntityFinder entityFinder,
                                             SecurityPoliciesManager securityPoliciesManager,
                                             SecurityManager securityManager) {
+        this(processModelRepository,
+             bpmnSequenceFlowRepository,
+             processDiagramGenerator,
+             processInstanceRepository,
+             bpmnActivityRepository,
+             entityFinder,
+             securityPoliciesManager,
+             securityManager,
+             null);
+    }
+
+    @Autowired
+    public ProcessInstanceDiagramController(ProcessModelRepository processModelRepository,
+                                            BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
+                                            ProcessDiagramGeneratorWrapper processDiagramGenerator,
+                                            ProcessInstanceRepository processInstanceRepository,
+                                            BPMNActivityRepository bpmnActivityRepository,
+                                            EntityFinder entityFinder,
+                                            SecurityPoliciesManager securityPoliciesManager,
+                                            SecurityManager securityManager,
+                                            @Nullable ProcessDiagramCache processDiagramCache) {
         super(processModelRepository,
               bpmnSequenceFlowRepository,
               processDiagramGenerator,
               processInstanceRepository,
               bpmnActivityRepository,
-              entityFinder);
+              entityFinder,
+              processDiagramCache);
         
         this.securityPoliciesManager = securityPoliciesManager;
         this.securityManager = securityManager;
@@ -78,7 +101,7 @@ public class ProcessInstanceDiagramController extends ProcessInstanceDiagramCont
             throw new ActivitiForbiddenException("Operation not permitted for " + processInstanceEntity.getProcessDefinitionKey());
         }
 
-        return generateDiagram(processInstanceId);
+        return generateDiagram(processInstanceEntity);
     }
 
 }
@@ -20,10 +20,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.activiti.api.process.model.ProcessInstance.ProcessInstanceStatus;
 import org.activiti.bpmn.BpmnAutoLayout;
 import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity;
 import org.activiti.cloud.api.process.model.CloudBPMNActivity.BPMNActivityStatus;
+import org.activiti.cloud.services.query.ProcessDiagramCache;
 import org.activiti.cloud.services.query.ProcessDiagramGeneratorWrapper;
 import org.activiti.cloud.services.query.app.repository.BPMNActivityRepository;
 import org.activiti.cloud.services.query.app.repository.BPMNSequenceFlowRepository;
@@ -35,6 +37,7 @@ import org.activiti.cloud.services.query.model.BPMNSequenceFlowEntity;
 import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
 import org.activiti.cloud.services.query.model.ProcessModelEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 
 public abstract class ProcessInstanceDiagramControllerBase {
 
@@ -52,13 +55,31 @@ public abstract class ProcessInstanceDiagramControllerBase {
 
     protected final ProcessDiagramGeneratorWrapper processDiagramGenerator;
 
-    @Autowired
+    protected final ProcessDiagramCache processDiagramCache;
+
     public ProcessInstanceDiagramControllerBase(ProcessModelRepository processModelRepository,
                                             BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
                                             ProcessDiagramGeneratorWrapper processDiagramGenerator,
                                             ProcessInstanceRepository processInstanceRepository,
                                             BPMNActivityRepository bpmnActivityRepository,
                                             EntityFinder entityFinder) {
+        this(processModelRepository,
+             bpmnSequenceFlowRepository,
+             processDiagramGenerator,
+             processInstanceRepository,
+             bpmnActivityRepository,
+             entityFinder,
+             null);
+    }
+
+    @Autowired
+    public ProcessInstanceDiagramControllerBase(ProcessModelRepository processModelRepository,
+                                            BPMNSequenceFlowRepository bpmnSequenceFlowRepository,
+                                            ProcessDiagramGeneratorWrapper processDiagramGenerator,
+                                            ProcessInstanceRepository processInstanceRepository,
+                                            BPMNActivityRepository bpmnActivityRepository,
+                                            EntityFinder entityFinder,
+                                            @Nullable ProcessDiagramCache processDiagramCache) {
 
         this.processInstanceRepository = processInstanceRepository;
         this.processModelRepository = processModelRepository;
@@ -66,16 +87,44 @@ public abstract class ProcessInstanceDiagramControllerBase {
         this.processDiagramGenerator = processDiagramGenerator;
         this.bpmnActivityRepository = bpmnActivityRepository;
         this.bpmnSequenceFlowRepository = bpmnSequenceFlowRepository;
+        this.processDiagramCache = processDiagramCache;
 
     }
 
     public String generateDiagram(String processInstanceId) {
-        String processDefinitionId = resolveProcessDefinitionId(processInstanceId);
+        return generateDiagram(findProcessInstance(processInstanceId));
+    }
+
+    protected String generateDiagram(ProcessInstanceEntity processInstanceEntity) {
+        String processInstanceId = processInstanceEntity.getId();
+        String processDefinitionId = processInstanceEntity.getProcessDefinitionId();
+
+        if (processDiagramCache == null) {
+            return renderDiagram(getLaidOutBpmnModel(processDefinitionId), processInstanceId);
+        }
+
+        return processDiagramCache.getDiagram(processInstanceId,
+                                              isFinished(processInstanceEntity),
+                                              () -> renderDiagram(processDiagramCache.getModel(processDefinitionId,
+                                                                                               () -> getLaidOutBpmnModel(processDefinitionId)),
+                                                                  processInstanceId));
+    }
+
+    protected boolean isFinished(ProcessInstanceEntity processInstanceEntity) {
+        return ProcessInstanceStatus.COMPLETED.equals(processInstanceEntity.getStatus())
+            || ProcessInstanceStatus.CANCELLED.equals(processInstanceEntity.getStatus());
+    }
+
+    protected BpmnModel getLaidOutBpmnModel(String processDefinitionId) {
         BpmnModel bpmnModel = getBpmnModel(processDefinitionId);
 
         if(!bpmnModel.hasDiagramInterchangeInfo())
             new BpmnAutoLayout(bpmnModel).execute();
 
+        return bpmnModel;
+    }
+
+    protected String renderDiagram(BpmnModel bpmnModel, String processInstanceId) {
         List<String> highLightedActivities = resolveCompletedActivitiesIds(processInstanceId);
         List<String> highLightedFlows = resolveCompletedFlows(bpmnModel, processInstanceId);
         List<String> currentActivities = resolveStartedActivitiesIds(processInstanceId);
@@ -123,12 +172,13 @@ public abstract class ProcessInstanceDiagramControllerBase {
     }
 
     protected String resolveProcessDefinitionId(String processInstanceId) {
+        return findProcessInstance(processInstanceId).getProcessDefinitionId();
+    }
 
-        ProcessInstanceEntity processInstanceEntity = entityFinder.findById(processInstanceRepository,
-                                                                            processInstanceId,
-                                                                            "Unable to find process instance for the given id:'" + processInstanceId + "'");
-
-        return processInstanceEntity.getProcessDefinitionId();
+    protected ProcessInstanceEntity findProcessInstance(String processInstanceId) {
+        return entityFinder.findById(processInstanceRepository,
+                                     processInstanceId,
+                                     "Unable to find process instance for the given id:'" + processInstanceId + "'");
     }
 
     protected BpmnModel getBpmnModel(String processDefinitionId) {
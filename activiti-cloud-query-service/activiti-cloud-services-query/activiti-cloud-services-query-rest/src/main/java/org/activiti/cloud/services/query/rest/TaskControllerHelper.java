@@ -18,7 +18,9 @@ package org.activiti.cloud.services.query.rest;
 
 import com.querydsl.core.types.Predicate;
 import java.util.List;
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
+import org.activiti.cloud.alfresco.data.domain.KeysetPageExecutor;
 import org.activiti.cloud.api.task.model.QueryCloudTask;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
 import org.activiti.cloud.services.query.model.TaskEntity;
@@ -56,8 +58,14 @@ public class TaskControllerHelper {
         if (variableSearch.isSet()) {
             page = taskRepository
                 .findByVariableNameAndValue(variableSearch.getName(), variableSearch.getValue(),
+                    variableSearch.getOperator(),
                     extendedPredicate,
                     pageable);
+        } else if (pageable instanceof AlfrescoKeysetPageRequest) {
+            page = KeysetPageExecutor.getPage(TaskEntity.class,
+                (AlfrescoKeysetPageRequest) pageable,
+                (sort, keyValues, limit) -> taskRepository.findAllAfter(extendedPredicate, sort, keyValues, limit),
+                () -> taskRepository.count(extendedPredicate));
         } else {
             page = taskRepository.findAll(extendedPredicate, pageable);
         }
@@ -18,6 +18,7 @@ package org.activiti.cloud.services.query.rest;
 import com.querydsl.core.types.Predicate;
 import org.activiti.cloud.api.task.model.QueryCloudTask;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
+import org.activiti.cloud.services.query.app.repository.TaskVisibilityRepository;
 import org.activiti.cloud.services.query.model.TaskEntity;
 import org.activiti.cloud.services.query.rest.assembler.TaskRepresentationModelAssembler;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,12 +47,16 @@ public class TaskDeleteController {
 
     private final TaskRepository taskRepository;
 
+    private final TaskVisibilityRepository taskVisibilityRepository;
+
     private TaskRepresentationModelAssembler taskRepresentationModelAssembler;
 
     @Autowired
     public TaskDeleteController(TaskRepository taskRepository,
+                                TaskVisibilityRepository taskVisibilityRepository,
                                 TaskRepresentationModelAssembler taskRepresentationModelAssembler) {
         this.taskRepository = taskRepository;
+        this.taskVisibilityRepository = taskVisibilityRepository;
         this.taskRepresentationModelAssembler = taskRepresentationModelAssembler;
     }
 
@@ -59,12 +64,17 @@ public class TaskDeleteController {
     public CollectionModel<EntityModel<QueryCloudTask>> deleteTasks (@QuerydslPredicate(root = TaskEntity.class) Predicate predicate) {
 
         Collection <EntityModel<QueryCloudTask>> result = new ArrayList<>();
+        Collection <String> taskIds = new ArrayList<>();
         Iterable <TaskEntity> iterable = taskRepository.findAll(predicate);
 
         for(TaskEntity entity : iterable){
             result.add(taskRepresentationModelAssembler.toModel(entity));
+            taskIds.add(entity.getId());
         }
 
+        if (!taskIds.isEmpty()) {
+            taskVisibilityRepository.deleteByTaskIds(taskIds);
+        }
         taskRepository.deleteAll(iterable);
 
         return CollectionModel.of(result);
@@ -16,6 +16,7 @@
 
 package org.activiti.cloud.services.query.rest;
 
+import org.activiti.cloud.services.query.app.repository.VariableSearchOperator;
 import org.activiti.cloud.services.query.model.VariableValue;
 
 public class VariableSearch {
@@ -26,6 +27,8 @@ public class VariableSearch {
 
     private String type;
 
+    private VariableSearchOperator operator = VariableSearchOperator.EQUALS;
+
     public VariableSearch(String name, VariableValue<?> value, String type) {
         this.name = name;
         this.value = value;
@@ -44,6 +47,14 @@ public class VariableSearch {
         return type;
     }
 
+    public VariableSearchOperator getOperator() {
+        return operator;
+    }
+
+    public void setOperator(VariableSearchOperator operator) {
+        this.operator = operator;
+    }
+
     public boolean isSet() {
         return name != null && value != null && value.getValue() != null;
     }
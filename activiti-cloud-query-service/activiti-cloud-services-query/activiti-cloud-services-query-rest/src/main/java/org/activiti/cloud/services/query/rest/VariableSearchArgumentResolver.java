@@ -17,6 +17,7 @@
 package org.activiti.cloud.services.query.rest;
 
 import org.activiti.api.runtime.model.impl.ProcessVariablesMapTypeRegistry;
+import org.activiti.cloud.services.query.app.repository.VariableSearchOperator;
 import org.activiti.cloud.services.query.model.VariableValue;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
@@ -30,6 +31,7 @@ public class VariableSearchArgumentResolver implements HandlerMethodArgumentReso
     private static final String VARIABLE_NAME_KEY = "variables.name";
     private static final String VARIABLE_VALUE_KEY = "variables.value";
     private static final String VARIABLE_TYPE_KEY = "variables.type";
+    private static final String VARIABLE_OPERATOR_KEY = "variables.operator";
 
     private ConversionService conversionService;
 
@@ -57,6 +59,8 @@ public class VariableSearchArgumentResolver implements HandlerMethodArgumentReso
         }
 
         String variableName = webRequest.getParameter(VARIABLE_NAME_KEY);
-        return new VariableSearch(variableName, new VariableValue<>(variableValueParameter), variableType);
+        VariableSearch variableSearch = new VariableSearch(variableName, new VariableValue<>(variableValueParameter), variableType);
+        variableSearch.setOperator(VariableSearchOperator.fromParameter(webRequest.getParameter(VARIABLE_OPERATOR_KEY)));
+        return variableSearch;
     }
 }
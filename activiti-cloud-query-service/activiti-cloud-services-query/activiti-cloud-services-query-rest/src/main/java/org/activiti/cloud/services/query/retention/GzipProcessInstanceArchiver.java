@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.cloud.services.query.model.QueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes each archived chunk to its own gzip file of newline delimited json records, one record per
+ * table row: {@code {"type":"Task","row":{"id":"...",...}}}. Rows are read as plain column values rather
+ * than entities, so that the archive does not depend on lazy associations or on the entity json views.
+ * <p>
+ * The file is written under a {@code .part} name and only renamed to its final name once the surrounding
+ * transaction commits; it is removed when the transaction rolls back.
+ */
+public class GzipProcessInstanceArchiver implements ProcessInstanceArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GzipProcessInstanceArchiver.class);
+
+    private static final String PART_SUFFIX = ".part";
+
+    private static final Map<String, String> ROWS_BY_TYPE = new LinkedHashMap<>();
+
+    static {
+        ROWS_BY_TYPE.put("ProcessInstance", "select * from process_instance where id in (:ids)");
+        ROWS_BY_TYPE.put("ProcessVariable", "select * from process_variable where process_instance_id in (:ids)");
+        ROWS_BY_TYPE.put("Task", "select * from task where process_instance_id in (:ids)");
+        ROWS_BY_TYPE.put("TaskVariable", "select * from task_variable where task_id in (select id from task where process_instance_id in (:ids))");
+        ROWS_BY_TYPE.put("TaskCandidateUser", "select * from task_candidate_user where task_id in (select id from task where process_instance_id in (:ids))");
+        ROWS_BY_TYPE.put("TaskCandidateGroup", "select * from task_candidate_group where task_id in (select id from task where process_instance_id in (:ids))");
+        ROWS_BY_TYPE.put("BPMNActivity", "select * from bpmn_activity where process_instance_id in (:ids)");
+        ROWS_BY_TYPE.put("BPMNSequenceFlow", "select * from bpmn_sequence_flow where process_instance_id in (:ids)");
+        ROWS_BY_TYPE.put("IntegrationContext", "select * from integration_context where process_instance_id in (:ids)");
+    }
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Clock clock;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public GzipProcessInstanceArchiver(EntityManager entityManager,
+                                       ObjectMapper objectMapper,
+                                       String directory,
+                                       Clock clock) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.clock = clock;
+    }
+
+    @Override
+    public void archive(Collection<String> processInstanceIds) {
+        if (processInstanceIds.isEmpty()) {
+            return;
+        }
+        Path file = directory.resolve("process-instances-" + clock.millis() + "-" + sequence.incrementAndGet() + ".ndjson.gz");
+        Path partFile = file.resolveSibling(file.getFileName() + PART_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(partFile));
+                 Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> rows : ROWS_BY_TYPE.entrySet()) {
+                    write(writer, rows.getKey(), findRows(rows.getValue(), processInstanceIds));
+                }
+            }
+        } catch (IOException e) {
+            deleteQuietly(partFile);
+            throw new QueryException("Unable to archive process instances " + processInstanceIds, e);
+        }
+        publish(partFile, file);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Tuple> findRows(String sql,
+                                 Collection<String> processInstanceIds) {
+        return entityManager.createNativeQuery(sql, Tuple.class)
+                            .setParameter("ids", processInstanceIds)
+                            .getResultList();
+    }
+
+    private void write(Writer writer,
+                       String type,
+                       List<Tuple> rows) throws IOException {
+        for (Tuple row : rows) {
+            Map<String, Object> columns = new LinkedHashMap<>();
+            for (TupleElement<?> column : row.getElements()) {
+                columns.put(column.getAlias().toLowerCase(Locale.ROOT), toJsonValue(row.get(column)));
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("type", type);
+            record.put("row", columns);
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.write('\n');
+        }
+    }
+
+    private static Object toJsonValue(Object value) throws IOException {
+        try {
+            if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                return clob.getSubString(1, (int) clob.length());
+            }
+            if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                return blob.getBytes(1, (int) blob.length());
+            }
+            return value;
+        } catch (SQLException e) {
+            throw new IOException("Unable to read column value", e);
+        }
+    }
+
+    private void publish(Path partFile,
+                         Path file) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            move(partFile, file);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    move(partFile, file);
+                } else {
+                    deleteQuietly(partFile);
+                }
+            }
+        });
+    }
+
+    private static void move(Path partFile,
+                             Path file) {
+        try {
+            Files.move(partFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the rows are gone at this point, the archive is kept under its part name
+            LOGGER.error("Unable to rename archive {} to {}", partFile, file, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete archive {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.util.Collection;
+
+/**
+ * Keeps a copy of process instances, and everything that belongs to them, before they are purged
+ * from the query tables. When called within a transaction, the copy is only kept if that transaction,
+ * which also deletes the rows, commits.
+ */
+public interface ProcessInstanceArchiver {
+
+    void archive(Collection<String> processInstanceIds);
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import com.querydsl.core.types.Predicate;
+import org.activiti.api.process.model.ProcessInstance.ProcessInstanceStatus;
+import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
+import org.activiti.cloud.services.query.model.QProcessInstanceEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Purges the process instance trees, i.e. a root process instance and all its sub processes, that reached
+ * a status with a configured max age. Trees are handled in chunks of whole trees: each chunk is archived,
+ * when an archiver is configured, and deleted in one transaction, so that rows are only removed together with
+ * their archive and a tree is never left without its root. A chunk holds as many trees as fit in the chunk size,
+ * a tree bigger than the chunk size is handled in a transaction of its own.
+ * <p>
+ * The age of an instance is taken from its last modification date, or from its completion or start date when
+ * it has none.
+ */
+public class QueryRetentionEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryRetentionEngine.class);
+
+    private static final String PROCESS_INSTANCE = "ProcessInstance";
+
+    private final ProcessInstanceRepository processInstanceRepository;
+    private final ProcessInstanceArchiver processInstanceArchiver;
+    private final QueryRetentionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public QueryRetentionEngine(ProcessInstanceRepository processInstanceRepository,
+                                @Nullable ProcessInstanceArchiver processInstanceArchiver,
+                                QueryRetentionProperties properties,
+                                PlatformTransactionManager transactionManager,
+                                Clock clock) {
+        this.processInstanceRepository = processInstanceRepository;
+        this.processInstanceArchiver = processInstanceArchiver;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * @return the number of deleted rows per entity name
+     */
+    public Map<String, Long> purgeExpired() {
+        return purgeExpired(() -> true);
+    }
+
+    /**
+     * @param lease checked before each chunk, the run stops as soon as it is no longer held
+     * @return the number of deleted rows per entity name
+     */
+    public Map<String, Long> purgeExpired(BooleanSupplier lease) {
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        for (Map.Entry<ProcessInstanceStatus, Duration> maxAge : properties.getMaxAge().entrySet()) {
+            Date cutoff = new Date(clock.millis() - maxAge.getValue().toMillis());
+            if (!purge(maxAge.getKey(), cutoff, deleted, lease)) {
+                LOGGER.warn("Retention lease lost, stopping the run");
+                break;
+            }
+        }
+        LOGGER.info("Retention run purged {}", deleted);
+        return deleted;
+    }
+
+    private boolean purge(ProcessInstanceStatus status,
+                          Date cutoff,
+                          Map<String, Long> deleted,
+                          BooleanSupplier lease) {
+        QProcessInstanceEntity processInstance = QProcessInstanceEntity.processInstanceEntity;
+        Predicate expiredRoots = processInstance.status.eq(status)
+                                                       .and(processInstance.parentId.isNull())
+                                                       .and(modifiedBefore(cutoff));
+        int chunkSize = properties.getChunkSize();
+        List<String> rootIds;
+        do {
+            rootIds = processInstanceRepository.findIds(expiredRoots, chunkSize);
+            for (List<String> treeIds : chunksOfTrees(rootIds, chunkSize)) {
+                if (!lease.getAsBoolean()) {
+                    return false;
+                }
+                transactionTemplate.execute(transactionStatus -> archiveAndDelete(treeIds))
+                                   .forEach((entity, count) -> deleted.merge(entity, count, Long::sum));
+            }
+            LOGGER.debug("Purged {} {} process instances so far", deleted.getOrDefault(PROCESS_INSTANCE, 0L), status);
+        } while (rootIds.size() == chunkSize);
+        return true;
+    }
+
+    private static Predicate modifiedBefore(Date cutoff) {
+        QProcessInstanceEntity processInstance = QProcessInstanceEntity.processInstanceEntity;
+        return processInstance.lastModified.before(cutoff)
+                                           .or(processInstance.lastModified.isNull()
+                                                                           .and(processInstance.completedDate.before(cutoff)))
+                                           .or(processInstance.lastModified.isNull()
+                                                                           .and(processInstance.completedDate.isNull())
+                                                                           .and(processInstance.startDate.before(cutoff)));
+    }
+
+    private List<List<String>> chunksOfTrees(List<String> rootIds,
+                                             int chunkSize) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        for (String rootId : rootIds) {
+            List<String> treeIds = withDescendants(rootId);
+            if (!chunk.isEmpty() && chunk.size() + treeIds.size() > chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.addAll(treeIds);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private Map<String, Long> archiveAndDelete(List<String> treeIds) {
+        if (processInstanceArchiver != null) {
+            processInstanceArchiver.archive(treeIds);
+        }
+        return processInstanceRepository.deleteWithRelatedEntities(treeIds);
+    }
+
+    private List<String> withDescendants(String rootId) {
+        QProcessInstanceEntity processInstance = QProcessInstanceEntity.processInstanceEntity;
+        List<String> level = Collections.singletonList(rootId);
+        List<String> treeIds = new ArrayList<>(level);
+        while (!level.isEmpty()) {
+            List<String> children = new ArrayList<>();
+            for (List<String> parentIds : partition(level, properties.getChunkSize())) {
+                children.addAll(processInstanceRepository.findIds(processInstance.parentId.in(parentIds),
+                                                                  Integer.MAX_VALUE));
+            }
+            treeIds.addAll(children);
+            level = children;
+        }
+        return treeIds;
+    }
+
+    private static List<List<String>> partition(List<String> ids,
+                                                int size) {
+        List<List<String>> partitions = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += size) {
+            partitions.add(ids.subList(i, Math.min(ids.size(), i + size)));
+        }
+        return partitions;
+    }
+}
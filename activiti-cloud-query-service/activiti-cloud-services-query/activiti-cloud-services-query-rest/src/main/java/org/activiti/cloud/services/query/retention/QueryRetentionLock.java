@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Lease on the {@code query_retention_lock} table, so that only one query instance runs the retention at a
+ * time. The lease expires after its time to live, which lets another instance take over when the holder
+ * dies; the holder renews it by acquiring it again.
+ */
+public class QueryRetentionLock {
+
+    static final String LOCK_NAME = "retention";
+
+    private static final String ACQUIRE = "update query_retention_lock set owner = ?, expires_at = ? " +
+        "where name = ? and (owner = ? or expires_at < ?)";
+
+    private static final String INSERT = "insert into query_retention_lock (name, owner, expires_at) values (?, ?, ?)";
+
+    private static final String RELEASE = "update query_retention_lock set expires_at = ? where name = ? and owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    public QueryRetentionLock(JdbcTemplate jdbcTemplate,
+                              String owner,
+                              Duration timeToLive,
+                              Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Acquires the lock, or renews it when already held by this owner.
+     *
+     * @return false when another owner holds an unexpired lease
+     */
+    public boolean tryAcquire() {
+        Timestamp now = new Timestamp(clock.millis());
+        Timestamp expiresAt = new Timestamp(clock.millis() + timeToLive.toMillis());
+        if (jdbcTemplate.update(ACQUIRE, owner, expiresAt, LOCK_NAME, owner, now) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT, LOCK_NAME, owner, expiresAt) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void release() {
+        jdbcTemplate.update(RELEASE, new Timestamp(clock.millis()), LOCK_NAME, owner);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.activiti.api.process.model.ProcessInstance.ProcessInstanceStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = QueryRetentionProperties.QUERY_RETENTION_PREFIX)
+public class QueryRetentionProperties {
+
+    public static final String QUERY_RETENTION_PREFIX = "activiti.cloud.query.retention";
+
+    /**
+     * Enable the scheduled purge of finished process instance trees. Default is false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Set the delay between two retention runs. Default is 1 hour
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Set the number of root process instances handled per transaction. Default is 100
+     */
+    private int chunkSize = 100;
+
+    /**
+     * Set the maximum age, since last modification, per process instance status, e.g. COMPLETED=30d.
+     * Statuses without max age are never purged
+     */
+    private Map<ProcessInstanceStatus, Duration> maxAge = new EnumMap<>(ProcessInstanceStatus.class);
+
+    /**
+     * Enable writing purged process instance trees to compressed archive files before deleting them. Default is true
+     */
+    private boolean archiveEnabled = true;
+
+    /**
+     * Set the directory of the archive files. Required when archiving is enabled
+     */
+    private String archiveDirectory;
+
+    /**
+     * Set how long a retention run holds the cluster wide lock without renewing it. Default is 5 minutes
+     */
+    private Duration lockTimeToLive = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Map<ProcessInstanceStatus, Duration> getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Map<ProcessInstanceStatus, Duration> maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public boolean isArchiveEnabled() {
+        return archiveEnabled;
+    }
+
+    public void setArchiveEnabled(boolean archiveEnabled) {
+        this.archiveEnabled = archiveEnabled;
+    }
+
+    public String getArchiveDirectory() {
+        return archiveDirectory;
+    }
+
+    public void setArchiveDirectory(String archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    public Duration getLockTimeToLive() {
+        return lockTimeToLive;
+    }
+
+    public void setLockTimeToLive(Duration lockTimeToLive) {
+        this.lockTimeToLive = lockTimeToLive;
+    }
+}
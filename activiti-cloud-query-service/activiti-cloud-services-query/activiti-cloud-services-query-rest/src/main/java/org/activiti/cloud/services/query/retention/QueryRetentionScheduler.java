@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+public class QueryRetentionScheduler implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryRetentionScheduler.class);
+
+    private final QueryRetentionEngine queryRetentionEngine;
+    private final QueryRetentionLock queryRetentionLock;
+    private final QueryRetentionProperties properties;
+
+    private ScheduledExecutorService executorService;
+
+    public QueryRetentionScheduler(QueryRetentionEngine queryRetentionEngine,
+                                   QueryRetentionLock queryRetentionLock,
+                                   QueryRetentionProperties properties) {
+        this.queryRetentionEngine = queryRetentionEngine;
+        this.queryRetentionLock = queryRetentionLock;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getInterval().toMillis();
+        executorService.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void run() {
+        try {
+            if (!queryRetentionLock.tryAcquire()) {
+                LOGGER.debug("Retention lock held by another instance, skipping the run");
+                return;
+            }
+            try {
+                queryRetentionEngine.purgeExpired(queryRetentionLock::tryAcquire);
+            } finally {
+                queryRetentionLock.release();
+            }
+        } catch (Exception e) {
+            // keep the schedule alive, the next run will retry what was left
+            LOGGER.error("Retention run failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executorService != null;
+    }
+}
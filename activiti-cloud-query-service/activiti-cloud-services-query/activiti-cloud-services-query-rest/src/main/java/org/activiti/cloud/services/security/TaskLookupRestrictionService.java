@@ -17,11 +17,14 @@ package org.activiti.cloud.services.security;
 
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import java.util.List;
 import javax.validation.constraints.NotNull;
 import org.activiti.api.runtime.shared.security.SecurityManager;
 import org.activiti.cloud.services.query.model.QTaskEntity;
 import org.activiti.cloud.services.query.model.QTaskVariableEntity;
+import org.activiti.cloud.services.query.model.QTaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity.PrincipalType;
 import org.activiti.cloud.services.query.rest.predicate.QueryDslPredicateFilter;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -33,11 +36,23 @@ public class TaskLookupRestrictionService implements QueryDslPredicateFilter {
 
     private final SecurityManager securityManager;
 
+    private final TaskRestrictionCache restrictionCache;
+
+    private final boolean visibilityTableEnabled;
+
     @Value("${activiti.cloud.security.task.restrictions.enabled:true}")
     private boolean restrictionsEnabled;
 
     public TaskLookupRestrictionService(SecurityManager securityManager) {
+        this(securityManager, null, false);
+    }
+
+    public TaskLookupRestrictionService(SecurityManager securityManager,
+                                        TaskRestrictionCache restrictionCache,
+                                        boolean visibilityTableEnabled) {
         this.securityManager = securityManager;
+        this.restrictionCache = restrictionCache;
+        this.visibilityTableEnabled = visibilityTableEnabled;
     }
 
     public Predicate restrictTaskQuery(Predicate predicate){
@@ -72,31 +87,77 @@ public class TaskLookupRestrictionService implements QueryDslPredicateFilter {
 
         if(userId!=null) {
 
-            BooleanExpression isNotAssigned = task.assignee.isNull();
-            restriction = task.assignee.eq(userId) //user is assignee
-                    .or(task.owner.eq(userId)) //user is owner
-                    .or(task.taskCandidateUsers.any().userId.eq(userId) //is candidate user and task is not assigned
-                                .and(isNotAssigned));
-
-
             List<String> groups = null;
             if (securityManager != null) {
                 groups = securityManager.getAuthenticatedUserGroups();
             }
-            if(groups!=null && groups.size()>0) {
-                //belongs to candidate group and task is not assigned
-                restriction = restriction.or(task.taskCandidateGroups.any().groupId.in(groups)
-                                                     .and(isNotAssigned));
+
+            if (restrictionCache != null) {
+                List<String> userGroups = groups;
+                restriction = restrictionCache.get(task,
+                                                   userId,
+                                                   groups,
+                                                   () -> buildRestriction(task, userId, userGroups));
+            } else {
+                restriction = buildRestriction(task, userId, groups);
             }
+        }
+
+        return addAndConditionToPredicate(predicate,restriction);
+    }
+
+    private BooleanExpression buildRestriction(QTaskEntity task, String userId, List<String> groups) {
+        if (visibilityTableEnabled) {
+            return buildVisibilityTableRestriction(task, userId, groups);
+        }
 
-            //or there are no candidates set and task is not assigned
-            restriction = restriction.or(task.taskCandidateUsers.isEmpty()
-                                                 .and(task.taskCandidateGroups.isEmpty())
+        BooleanExpression isNotAssigned = task.assignee.isNull();
+        BooleanExpression restriction = task.assignee.eq(userId) //user is assignee
+                .or(task.owner.eq(userId)) //user is owner
+                .or(task.taskCandidateUsers.any().userId.eq(userId) //is candidate user and task is not assigned
+                            .and(isNotAssigned));
+
+        if(groups!=null && groups.size()>0) {
+            //belongs to candidate group and task is not assigned
+            restriction = restriction.or(task.taskCandidateGroups.any().groupId.in(groups)
                                                  .and(isNotAssigned));
+        }
 
+        //or there are no candidates set and task is not assigned
+        return restriction.or(task.taskCandidateUsers.isEmpty()
+                                      .and(task.taskCandidateGroups.isEmpty())
+                                      .and(isNotAssigned));
+    }
+
+    /*
+     * Same semantics as the candidate based restriction, but candidate users and groups are read from the single
+     * task_visibility table, so both the candidate lookup and the "no candidates" check use its indexes.
+     */
+    private BooleanExpression buildVisibilityTableRestriction(QTaskEntity task, String userId, List<String> groups) {
+        QTaskVisibilityEntity visibility = QTaskVisibilityEntity.taskVisibilityEntity;
+
+        BooleanExpression isCandidate = visibility.principalType.eq(PrincipalType.USER)
+                .and(visibility.principalId.eq(userId));
+        if (groups != null && groups.size() > 0) {
+            isCandidate = isCandidate.or(visibility.principalType.eq(PrincipalType.GROUP)
+                                                 .and(visibility.principalId.in(groups)));
         }
 
-        return addAndConditionToPredicate(predicate,restriction);
+        BooleanExpression hasCandidates = JPAExpressions.selectOne()
+                .from(visibility)
+                .where(visibility.taskId.eq(task.id))
+                .exists();
+
+        BooleanExpression isVisibleCandidate = JPAExpressions.selectOne()
+                .from(visibility)
+                .where(visibility.taskId.eq(task.id)
+                               .and(isCandidate))
+                .exists();
+
+        return task.assignee.eq(userId) //user is assignee
+                .or(task.owner.eq(userId)) //user is owner
+                .or(task.assignee.isNull() //task is not assigned and user is a candidate or there are no candidates
+                            .and(isVisibleCandidate.or(hasCandidates.not())));
     }
 
     private Predicate addAndConditionToPredicate(Predicate predicate, BooleanExpression expression){
@@ -116,4 +177,8 @@ public class TaskLookupRestrictionService implements QueryDslPredicateFilter {
     public boolean isRestrictionsEnabled() {
         return restrictionsEnabled;
     }
+
+    public boolean isVisibilityTableEnabled() {
+        return visibilityTableEnabled;
+    }
 }
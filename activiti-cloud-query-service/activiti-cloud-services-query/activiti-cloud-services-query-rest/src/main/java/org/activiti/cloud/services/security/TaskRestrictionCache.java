@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.security;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the task restriction expression built for a user and group set. QueryDSL expressions
+ * are immutable, so the same instance can be shared across requests until the entry expires.
+ */
+public class TaskRestrictionCache {
+
+    public static final String GETS_METRIC = "activiti.query.task.restrictions.cache.gets";
+
+    public static final String SIZE_METRIC = "activiti.query.task.restrictions.cache.size";
+
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final long ttlMillis;
+
+    private final int maxSize;
+
+    private final Clock clock;
+
+    public TaskRestrictionCache(Duration ttl,
+                                int maxSize) {
+        this(ttl, maxSize, Clock.systemUTC());
+    }
+
+    public TaskRestrictionCache(Duration ttl,
+                                int maxSize,
+                                MeterRegistry meterRegistry) {
+        this(ttl, maxSize, Clock.systemUTC());
+        FunctionCounter.builder(GETS_METRIC, hits, AtomicLong::get)
+                       .description("Task restriction cache lookups")
+                       .tag("result", "hit")
+                       .register(meterRegistry);
+        FunctionCounter.builder(GETS_METRIC, misses, AtomicLong::get)
+                       .description("Task restriction cache lookups")
+                       .tag("result", "miss")
+                       .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, entries, Map::size)
+             .description("Task restriction cache entries")
+             .register(meterRegistry);
+    }
+
+    TaskRestrictionCache(Duration ttl,
+                         int maxSize,
+                         Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public BooleanExpression get(Object scope,
+                                 String userId,
+                                 Collection<String> groups,
+                                 Supplier<BooleanExpression> loader) {
+        List<Object> key = Arrays.asList(scope,
+                                         userId,
+                                         groups != null ? new TreeSet<>(groups) : new TreeSet<>());
+        long now = clock.millis();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            hits.incrementAndGet();
+            return entry.expression;
+        }
+
+        misses.incrementAndGet();
+        BooleanExpression expression = loader.get();
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, new Entry(expression, now + ttlMillis));
+        return expression;
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static class Entry {
+
+        private final BooleanExpression expression;
+
+        private final long expiresAt;
+
+        private Entry(BooleanExpression expression,
+                      long expiresAt) {
+            this.expression = Objects.requireNonNull(expression);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
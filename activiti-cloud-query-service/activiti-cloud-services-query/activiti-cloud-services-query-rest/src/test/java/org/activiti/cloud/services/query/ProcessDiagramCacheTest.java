@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.activiti.bpmn.model.BpmnModel;
+import org.junit.jupiter.api.Test;
+
+public class ProcessDiagramCacheTest {
+
+    @Test
+    public void getModelShouldParseModelOncePerProcessDefinition() {
+        //given
+        ProcessDiagramCache cache = new ProcessDiagramCache(10, 10, Duration.ofSeconds(10));
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        BpmnModel first = cache.getModel("def:1", () -> {
+            loads.incrementAndGet();
+            return new BpmnModel();
+        });
+        BpmnModel second = cache.getModel("def:1", () -> {
+            loads.incrementAndGet();
+            return new BpmnModel();
+        });
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.modelCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getDiagramShouldReuseRenderedDiagramUntilInvalidated() {
+        //given
+        ProcessDiagramCache cache = new ProcessDiagramCache(10, 10, Duration.ofSeconds(10));
+        AtomicInteger renders = new AtomicInteger();
+
+        //when
+        cache.getDiagram("proc1", false, () -> "svg" + renders.incrementAndGet());
+        String cached = cache.getDiagram("proc1", false, () -> "svg" + renders.incrementAndGet());
+        cache.invalidate("proc1");
+        String rendered = cache.getDiagram("proc1", false, () -> "svg" + renders.incrementAndGet());
+
+        //then
+        assertThat(cached).isEqualTo("svg1");
+        assertThat(rendered).isEqualTo("svg2");
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void getDiagramShouldNotKeepDiagramWhenInvalidatedWhileRendering() {
+        //given
+        ProcessDiagramCache cache = new ProcessDiagramCache(10, 10, Duration.ofSeconds(10));
+
+        //when
+        cache.getDiagram("proc1", false, () -> {
+            cache.invalidate("proc1");
+            return "stale";
+        });
+        String rendered = cache.getDiagram("proc1", false, () -> "fresh");
+
+        //then
+        assertThat(rendered).isEqualTo("fresh");
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    public void getDiagramShouldExpireRunningInstancesButKeepFinishedOnes() {
+        //given
+        MutableClock clock = new MutableClock();
+        ProcessDiagramCache cache = new ProcessDiagramCache(10, 10, Duration.ofSeconds(10), clock);
+        cache.getDiagram("running", false, () -> "running1");
+        cache.getDiagram("finished", true, () -> "finished1");
+
+        //when
+        clock.advance(Duration.ofDays(1));
+        String running = cache.getDiagram("running", false, () -> "running2");
+        String finished = cache.getDiagram("finished", true, () -> "finished2");
+
+        //then
+        assertThat(running).isEqualTo("running2");
+        assertThat(finished).isEqualTo("finished1");
+    }
+
+    @Test
+    public void getDiagramShouldEvictLeastRecentlyUsedDiagrams() {
+        //given
+        ProcessDiagramCache cache = new ProcessDiagramCache(10, 2, Duration.ofSeconds(10));
+
+        //when
+        cache.getDiagram("proc1", true, () -> "svg1");
+        cache.getDiagram("proc2", true, () -> "svg2");
+        cache.getDiagram("proc1", true, () -> "svg1");
+        cache.getDiagram("proc3", true, () -> "svg3");
+        String evicted = cache.getDiagram("proc2", true, () -> "svg2-again");
+
+        //then
+        assertThat(evicted).isEqualTo("svg2-again");
+        assertThat(cache.diagramCount()).isEqualTo(2);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.app;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskCreatedEventImpl;
+import org.activiti.cloud.services.query.events.handlers.QueryEventHandlerContext;
+import org.activiti.cloud.services.query.events.handlers.QueryEventHandlerContextOptimizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class QueryConsumerShardedChannelHandlerTest {
+
+    private QueryConsumerShardedChannelHandler subject;
+
+    @Mock
+    private QueryEventHandlerContext eventHandlerContext;
+
+    @Mock
+    private QueryEventHandlerContextOptimizer optimizer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        subject = new QueryConsumerShardedChannelHandler(eventHandlerContext,
+                                                         optimizer,
+                                                         transactionManager,
+                                                         4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    void receiveShouldHandleOptimizedEventsInNewTransaction() {
+        //given
+        CloudTaskCreatedEventImpl event = new CloudTaskCreatedEventImpl();
+        List<CloudRuntimeEvent<?, ?>> events = List.of(event);
+        given(optimizer.optimize(events)).willReturn(events);
+
+        //when
+        subject.receive(events, "rootProcessInstanceId");
+
+        //then
+        verify(transactionManager).getTransaction(argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(eventHandlerContext).handle(event);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void receiveShouldPropagateHandlerFailureAndRollback() {
+        //given
+        CloudTaskCreatedEventImpl event = new CloudTaskCreatedEventImpl();
+        List<CloudRuntimeEvent<?, ?>> events = List.of(event);
+        given(optimizer.optimize(events)).willReturn(events);
+        doThrow(new IllegalStateException("boom")).when(eventHandlerContext).handle(event);
+
+        //then
+        assertThatThrownBy(() -> subject.receive(events, "rootProcessInstanceId"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("boom");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void resolveShardShouldUseSameShardForSameRootProcessInstance() {
+        //when
+        int shard = subject.resolveShard(subject.resolveShardKey(List.of(), "rootProcessInstanceId"));
+
+        //then
+        assertThat(subject.resolveShard("rootProcessInstanceId")).isEqualTo(shard);
+        assertThat(shard).isBetween(0, subject.getShardCount() - 1);
+    }
+
+    @Test
+    void resolveShardKeyShouldFallbackToEventProcessInstanceId() {
+        //given
+        CloudTaskCreatedEventImpl event = new CloudTaskCreatedEventImpl();
+        event.setProcessInstanceId("processInstanceId");
+
+        //when
+        String shardKey = subject.resolveShardKey(List.of(event), null);
+
+        //then
+        assertThat(shardKey).isEqualTo("processInstanceId");
+    }
+
+    @Test
+    void resolveShardShouldUseFirstShardWithoutKey() {
+        //then
+        assertThat(subject.resolveShard(null)).isZero();
+    }
+}
@@ -94,6 +94,74 @@ public class ProcessDeployedEventHandlerTest {
         assertThat(processModel).hasProcessModelContent("<model/>");
     }
 
+    @Test
+    public void handleShouldUpdateMetadataButKeepModelOfKnownProcessDefinitionAnnouncedWithoutContent() {
+        //given
+        ProcessDefinitionImpl eventProcess = new ProcessDefinitionImpl();
+        eventProcess.setId(UUID.randomUUID().toString());
+        eventProcess.setKey("myProcess");
+        eventProcess.setDescription("Updated description");
+        eventProcess.setCategory("updated category");
+        CloudProcessDeployedEventImpl processDeployedEvent = new CloudProcessDeployedEventImpl(eventProcess);
+        processDeployedEvent.setAppVersion("3.0");
+        processDeployedEvent.setServiceFullName("my.new.full.service.name");
+        processDeployedEvent.setServiceVersion("2.0");
+        processDeployedEvent.setProcessModelContentHash("hash");
+        when(entityManager.find(ProcessModelEntity.class, eventProcess.getId())).thenReturn(new ProcessModelEntity());
+
+        //when
+        handler.handle(processDeployedEvent);
+
+        //then
+        ArgumentCaptor<Object> argumentsCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager).merge(argumentsCaptor.capture());
+        assertThat((ProcessDefinitionEntity) argumentsCaptor.getValue())
+                .hasId(eventProcess.getId())
+                .hasDescription("Updated description")
+                .hasCategory("updated category")
+                .hasAppVersion("3.0")
+                .hasServiceFullName("my.new.full.service.name")
+                .hasServiceVersion("2.0");
+        verify(entityManager, never()).merge(any(ProcessModelEntity.class));
+    }
+
+    @Test
+    public void handleShouldStoreProcessDefinitionWhenKnownDefinitionWithoutModelIsAnnouncedWithoutContent() {
+        //given
+        ProcessDefinitionImpl eventProcess = new ProcessDefinitionImpl();
+        eventProcess.setId(UUID.randomUUID().toString());
+        CloudProcessDeployedEventImpl processDeployedEvent = new CloudProcessDeployedEventImpl(eventProcess);
+        processDeployedEvent.setProcessModelContentHash("hash");
+        when(entityManager.find(ProcessDefinitionEntity.class, eventProcess.getId())).thenReturn(new ProcessDefinitionEntity());
+
+        //when
+        handler.handle(processDeployedEvent);
+
+        //then
+        verify(entityManager).merge(any(ProcessDefinitionEntity.class));
+        verify(entityManager, never()).merge(any(ProcessModelEntity.class));
+    }
+
+    @Test
+    public void handleShouldStoreOnlyProcessDefinitionWhenUnknownDefinitionIsAnnouncedWithoutContent() {
+        //given
+        ProcessDefinitionImpl eventProcess = new ProcessDefinitionImpl();
+        eventProcess.setId(UUID.randomUUID().toString());
+        eventProcess.setKey("myProcess");
+        CloudProcessDeployedEventImpl processDeployedEvent = new CloudProcessDeployedEventImpl(eventProcess);
+        processDeployedEvent.setProcessModelContentHash("hash");
+
+        //when
+        handler.handle(processDeployedEvent);
+
+        //then
+        ArgumentCaptor<Object> argumentsCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager).merge(argumentsCaptor.capture());
+        assertThat((ProcessDefinitionEntity) argumentsCaptor.getValue())
+                .hasId(eventProcess.getId())
+                .hasKey(eventProcess.getKey());
+    }
+
     @Test
     public void getHandledEventShouldReturnProcessDeployedEvent() {
         //when
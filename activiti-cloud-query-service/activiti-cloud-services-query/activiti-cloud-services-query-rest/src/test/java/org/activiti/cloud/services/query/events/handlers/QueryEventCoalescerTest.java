@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import org.activiti.api.runtime.model.impl.VariableInstanceImpl;
+import org.activiti.api.task.model.Task;
+import org.activiti.api.task.model.impl.TaskImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.impl.events.CloudVariableCreatedEventImpl;
+import org.activiti.cloud.api.model.shared.impl.events.CloudVariableDeletedEventImpl;
+import org.activiti.cloud.api.model.shared.impl.events.CloudVariableUpdatedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskAssignedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskCompletedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskUpdatedEventImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryEventCoalescerTest {
+
+    private QueryEventCoalescer subject = new QueryEventCoalescer();
+
+    @Test
+    void shouldKeepOnlyLastVariableUpdate() {
+        //given
+        CloudVariableUpdatedEventImpl<String> firstUpdate = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v1"), "v0");
+        CloudVariableUpdatedEventImpl<String> otherVariableUpdate = new CloudVariableUpdatedEventImpl<>(processVariable("other", "v1"), "v0");
+        CloudVariableUpdatedEventImpl<String> secondUpdate = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v2"), "v0");
+        CloudVariableUpdatedEventImpl<String> lastUpdate = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v3"), "v0");
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(firstUpdate,
+                                                             otherVariableUpdate,
+                                                             secondUpdate,
+                                                             lastUpdate);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(otherVariableUpdate,
+                                           lastUpdate);
+    }
+
+    @Test
+    void shouldNotMixProcessAndTaskVariablesWithSameName() {
+        //given
+        CloudVariableUpdatedEventImpl<String> processVariableUpdate = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v1"), "v0");
+        CloudVariableUpdatedEventImpl<String> taskVariableUpdate = new CloudVariableUpdatedEventImpl<>(new VariableInstanceImpl<>("var", "string", "v2", "procInstId", "taskId"), "v0");
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(processVariableUpdate,
+                                                             taskVariableUpdate);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(processVariableUpdate,
+                                           taskVariableUpdate);
+    }
+
+    @Test
+    void shouldEliminateVariableCreatedThenDeleted() {
+        //given
+        CloudVariableCreatedEventImpl created = new CloudVariableCreatedEventImpl(processVariable("var", "v1"));
+        CloudVariableUpdatedEventImpl<String> updated = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v2"), "v0");
+        CloudVariableDeletedEventImpl deleted = new CloudVariableDeletedEventImpl(processVariable("var", "v2"));
+        CloudVariableCreatedEventImpl otherCreated = new CloudVariableCreatedEventImpl(processVariable("other", "v1"));
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(created,
+                                                             otherCreated,
+                                                             updated,
+                                                             deleted);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(otherCreated);
+    }
+
+    @Test
+    void shouldKeepDeleteOfExistingVariable() {
+        //given
+        CloudVariableUpdatedEventImpl<String> updated = new CloudVariableUpdatedEventImpl<>(processVariable("var", "v2"), "v0");
+        CloudVariableDeletedEventImpl deleted = new CloudVariableDeletedEventImpl(processVariable("var", "v2"));
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(updated,
+                                                             deleted);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(updated,
+                                           deleted);
+    }
+
+    @Test
+    void shouldKeepLastTaskUpdatedAndAssignedEvents() {
+        //given
+        CloudTaskUpdatedEventImpl firstUpdated = new CloudTaskUpdatedEventImpl(task("taskId"));
+        CloudTaskAssignedEventImpl firstAssigned = new CloudTaskAssignedEventImpl(task("taskId"));
+        CloudTaskUpdatedEventImpl otherTaskUpdated = new CloudTaskUpdatedEventImpl(task("otherTaskId"));
+        CloudTaskAssignedEventImpl lastAssigned = new CloudTaskAssignedEventImpl(task("taskId"));
+        CloudTaskUpdatedEventImpl lastUpdated = new CloudTaskUpdatedEventImpl(task("taskId"));
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(firstUpdated,
+                                                             firstAssigned,
+                                                             otherTaskUpdated,
+                                                             lastAssigned,
+                                                             lastUpdated);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(otherTaskUpdated,
+                                           lastAssigned,
+                                           lastUpdated);
+    }
+
+    @Test
+    void shouldNotMergeTaskUpdatesAcrossOtherTaskEvents() {
+        //given
+        CloudTaskUpdatedEventImpl firstUpdated = new CloudTaskUpdatedEventImpl(task("taskId"));
+        CloudTaskCompletedEventImpl completed = new CloudTaskCompletedEventImpl(task("taskId"));
+        CloudTaskUpdatedEventImpl lastUpdated = new CloudTaskUpdatedEventImpl(task("taskId"));
+
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(firstUpdated,
+                                                             completed,
+                                                             lastUpdated);
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).containsExactly(firstUpdated,
+                                           completed,
+                                           lastUpdated);
+    }
+
+    @Test
+    void shouldIgnoreEventsWithoutEntity() {
+        //given
+        List<CloudRuntimeEvent<?, ?>> events = Arrays.asList(new CloudVariableUpdatedEventImpl(),
+                                                             new CloudVariableUpdatedEventImpl());
+
+        //when
+        List<CloudRuntimeEvent<?, ?>> result = subject.coalesce(events);
+
+        //then
+        assertThat(result).isEqualTo(events);
+    }
+
+    private VariableInstanceImpl<String> processVariable(String name,
+                                                         String value) {
+        return new VariableInstanceImpl<>(name,
+                                          "string",
+                                          value,
+                                          "procInstId",
+                                          null);
+    }
+
+    private TaskImpl task(String taskId) {
+        return new TaskImpl(taskId,
+                            "task",
+                            Task.TaskStatus.ASSIGNED);
+    }
+}
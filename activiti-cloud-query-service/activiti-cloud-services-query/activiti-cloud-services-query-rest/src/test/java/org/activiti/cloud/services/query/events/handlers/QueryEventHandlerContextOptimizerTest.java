@@ -16,6 +16,7 @@
 
 package org.activiti.cloud.services.query.events.handlers;
 
+import org.activiti.api.runtime.model.impl.VariableInstanceImpl;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.model.shared.impl.events.CloudVariableCreatedEventImpl;
 import org.activiti.cloud.api.model.shared.impl.events.CloudVariableDeletedEventImpl;
@@ -32,27 +33,26 @@ import org.activiti.cloud.api.task.model.impl.events.CloudTaskUpdatedEventImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import javax.persistence.EntityManager;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class QueryEventHandlerContextOptimizerTest {
 
-    @InjectMocks
     private QueryEventHandlerContextOptimizer subject;
 
     @Mock
-    private EntityManager entityManager;
+    private QueryEventPrefetchPlanner prefetchPlanner;
 
     @BeforeEach
     void setUp() {
+        subject = new QueryEventHandlerContextOptimizer(prefetchPlanner);
     }
 
     @Test
@@ -119,4 +119,24 @@ class QueryEventHandlerContextOptimizerTest {
                                            cloudTaskCandidateUserRemovedEvent,
                                            cloudTaskCandidateGroupRemovedEvent);
     }
+
+    @Test
+    void optimizeShouldCoalesceRepeatedVariableUpdates() {
+        //given
+        CloudVariableUpdatedEventImpl<String> firstUpdate = new CloudVariableUpdatedEventImpl<>(new VariableInstanceImpl<>("var", "string", "v1", "procInstId", null), "v0");
+        CloudVariableUpdatedEventImpl<String> lastUpdate = new CloudVariableUpdatedEventImpl<>(new VariableInstanceImpl<>("var", "string", "v2", "procInstId", null), "v1");
+
+        List<CloudRuntimeEvent<?,?>> events = Arrays.asList(
+            firstUpdate,
+            lastUpdate
+        );
+
+        //when
+        List<CloudRuntimeEvent<?,?>> result = subject.optimize(events);
+
+        //then
+        assertThat(result).containsExactly(lastUpdate);
+        assertThat(subject.getEliminatedEventsCount()).isEqualTo(1);
+        verify(prefetchPlanner).prefetch(List.of(lastUpdate));
+    }
 }
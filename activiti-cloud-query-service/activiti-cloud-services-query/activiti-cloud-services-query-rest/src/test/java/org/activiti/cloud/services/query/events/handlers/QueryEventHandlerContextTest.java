@@ -22,10 +22,16 @@ import org.activiti.cloud.api.task.model.impl.events.CloudTaskCompletedEventImpl
 import org.activiti.cloud.api.task.model.impl.events.CloudTaskCreatedEventImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.activiti.cloud.services.query.model.QueryException;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceException;
 import java.util.Collections;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -37,6 +43,9 @@ public class QueryEventHandlerContextTest {
     @Mock
     private QueryEventHandler handler;
 
+    @Mock
+    private EntityManager entityManager;
+
     @BeforeEach
     public void setUp() {
         initMocks(this);
@@ -67,4 +76,40 @@ public class QueryEventHandlerContextTest {
         //then
         verify(handler, never()).handle(any());
     }
+
+    @Test
+    public void handleShouldFlushEntityMutationsOnceWhenWriteBehindIsEnabled() {
+        //given
+        QueryEventHandlerContext writeBehindContext = new QueryEventHandlerContext(Collections.singleton(handler),
+                                                                                   entityManager);
+        doReturn(FlushModeType.AUTO).when(entityManager).getFlushMode();
+        CloudTaskCreatedEvent firstEvent = new CloudTaskCreatedEventImpl();
+        CloudTaskCreatedEvent secondEvent = new CloudTaskCreatedEventImpl();
+
+        //when
+        writeBehindContext.handle(firstEvent, secondEvent);
+
+        //then
+        InOrder inOrder = inOrder(entityManager, handler);
+        inOrder.verify(entityManager).setFlushMode(FlushModeType.COMMIT);
+        inOrder.verify(handler).handle(firstEvent);
+        inOrder.verify(handler).handle(secondEvent);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).setFlushMode(FlushModeType.AUTO);
+    }
+
+    @Test
+    public void handleShouldWrapFlushFailureWhenWriteBehindIsEnabled() {
+        //given
+        QueryEventHandlerContext writeBehindContext = new QueryEventHandlerContext(Collections.singleton(handler),
+                                                                                   entityManager);
+        doReturn(FlushModeType.AUTO).when(entityManager).getFlushMode();
+        doThrow(new PersistenceException("error")).when(entityManager).flush();
+
+        //then
+        assertThatThrownBy(() -> writeBehindContext.handle(new CloudTaskCreatedEventImpl()))
+            .isInstanceOf(QueryException.class)
+            .hasCauseInstanceOf(PersistenceException.class);
+        verify(entityManager).setFlushMode(FlushModeType.AUTO);
+    }
 }
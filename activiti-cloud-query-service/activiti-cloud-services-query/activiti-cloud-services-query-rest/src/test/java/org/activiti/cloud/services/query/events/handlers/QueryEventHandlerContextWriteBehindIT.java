@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.activiti.api.runtime.model.impl.DeploymentImpl;
+import org.activiti.api.task.model.Task;
+import org.activiti.api.task.model.impl.TaskImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudApplicationDeployedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskCreatedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskUpdatedEventImpl;
+import org.activiti.cloud.services.query.app.repository.ApplicationRepository;
+import org.activiti.cloud.services.query.app.repository.TaskRepository;
+import org.activiti.cloud.services.query.model.ApplicationEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "activiti.cloud.query.consumer.write-behind-enabled=true")
+public class QueryEventHandlerContextWriteBehindIT {
+
+    @Autowired
+    private QueryEventHandlerContext context;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @AfterEach
+    public void tearDown() {
+        taskRepository.deleteAll();
+        applicationRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldSeeEntitiesCreatedEarlierInTheSameBatch() {
+        //given
+        String taskId = UUID.randomUUID().toString();
+        CloudTaskCreatedEventImpl taskCreated = new CloudTaskCreatedEventImpl(new TaskImpl(taskId,
+                                                                                           "created",
+                                                                                           Task.TaskStatus.CREATED));
+        CloudTaskUpdatedEventImpl taskUpdated = new CloudTaskUpdatedEventImpl(new TaskImpl(taskId,
+                                                                                           "updated",
+                                                                                           Task.TaskStatus.ASSIGNED));
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> context.handle(taskCreated,
+                                                                                                  taskUpdated,
+                                                                                                  applicationDeployed("first"),
+                                                                                                  applicationDeployed("second")));
+
+        //then
+        assertThat(taskRepository.findById(taskId)).hasValueSatisfying(task -> {
+            assertThat(task.getName()).isEqualTo("updated");
+            assertThat(task.getStatus()).isEqualTo(Task.TaskStatus.ASSIGNED);
+        });
+        assertThat(applicationRepository.findAll()).extracting(ApplicationEntity::getName)
+                                                   .containsExactly("write-behind-app");
+    }
+
+    private CloudApplicationDeployedEventImpl applicationDeployed(String deploymentId) {
+        DeploymentImpl deployment = new DeploymentImpl();
+        deployment.setId(deploymentId);
+        deployment.setName("SpringAutoDeployment");
+        deployment.setVersion(1);
+        CloudApplicationDeployedEventImpl event = new CloudApplicationDeployedEventImpl(deployment);
+        event.setAppName("write-behind-app");
+        return event;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import org.activiti.api.runtime.model.impl.BPMNActivityImpl;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.api.runtime.model.impl.VariableInstanceImpl;
+import org.activiti.api.task.model.Task;
+import org.activiti.api.task.model.impl.TaskCandidateUserImpl;
+import org.activiti.api.task.model.impl.TaskImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.impl.events.CloudVariableCreatedEventImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudBPMNActivityStartedEventImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessCreatedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskCandidateUserRemovedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskCreatedEventImpl;
+import org.activiti.cloud.api.task.model.impl.events.CloudTaskUpdatedEventImpl;
+import org.activiti.cloud.services.query.model.ProcessInstanceEntity;
+import org.activiti.cloud.services.query.model.TaskEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class QueryEventPrefetchPlannerTest {
+
+    private QueryEventPrefetchPlanner subject;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<ProcessInstanceEntity> processInstanceQuery;
+
+    @BeforeEach
+    void setUp() {
+        subject = new QueryEventPrefetchPlanner(entityManager,
+                                                2);
+    }
+
+    @Test
+    void planShouldCollectAllDistinctProcessInstancesAndTasks() {
+        //given
+        CloudTaskUpdatedEventImpl firstTaskUpdated = new CloudTaskUpdatedEventImpl(new TaskImpl("task1", "task", Task.TaskStatus.ASSIGNED));
+        firstTaskUpdated.setProcessInstanceId("procInst1");
+        CloudTaskUpdatedEventImpl secondTaskUpdated = new CloudTaskUpdatedEventImpl(new TaskImpl("task2", "task", Task.TaskStatus.ASSIGNED));
+        secondTaskUpdated.setProcessInstanceId("procInst2");
+        CloudTaskCandidateUserRemovedEventImpl candidateUserRemoved = new CloudTaskCandidateUserRemovedEventImpl(new TaskCandidateUserImpl("user", "task3"));
+        CloudVariableCreatedEventImpl processVariableCreated = new CloudVariableCreatedEventImpl(new VariableInstanceImpl<>("var", "string", "v1", "procInst3", null));
+        CloudVariableCreatedEventImpl taskVariableCreated = new CloudVariableCreatedEventImpl(new VariableInstanceImpl<>("var", "string", "v1", "procInst1", "task1"));
+
+        List<CloudRuntimeEvent<?, ?>> events = List.of(firstTaskUpdated,
+                                                       secondTaskUpdated,
+                                                       candidateUserRemoved,
+                                                       processVariableCreated,
+                                                       taskVariableCreated);
+
+        //when
+        QueryEventPrefetchPlanner.PrefetchPlan plan = subject.plan(events);
+
+        //then
+        assertThat(plan.getProcessInstanceIds()).containsExactlyInAnyOrder("procInst1", "procInst2", "procInst3");
+        assertThat(plan.getProcessInstanceAttributes()).containsExactlyInAnyOrder(QueryEventHandlerContextOptimizer.TASKS,
+                                                                                  EntityManagerFinder.VARIABLES);
+        assertThat(plan.getTaskIds()).containsExactlyInAnyOrder("task1", "task2", "task3");
+        assertThat(plan.getTaskAttributes()).containsExactlyInAnyOrder(EntityManagerFinder.TASK_CANDIDATE_USERS,
+                                                                       EntityManagerFinder.VARIABLES);
+    }
+
+    @Test
+    void planShouldSkipEntitiesCreatedInTheSameBatch() {
+        //given
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("procInst1");
+        CloudProcessCreatedEventImpl processCreated = new CloudProcessCreatedEventImpl(processInstance);
+        processCreated.setProcessInstanceId("procInst1");
+        CloudTaskCreatedEventImpl taskCreated = new CloudTaskCreatedEventImpl(new TaskImpl("task1", "task", Task.TaskStatus.CREATED));
+        taskCreated.setProcessInstanceId("procInst1");
+        CloudTaskUpdatedEventImpl otherTaskUpdated = new CloudTaskUpdatedEventImpl(new TaskImpl("task2", "task", Task.TaskStatus.ASSIGNED));
+        otherTaskUpdated.setProcessInstanceId("procInst2");
+
+        //when
+        QueryEventPrefetchPlanner.PrefetchPlan plan = subject.plan(List.of(processCreated,
+                                                                           taskCreated,
+                                                                           otherTaskUpdated));
+
+        //then
+        assertThat(plan.getProcessInstanceIds()).containsExactly("procInst2");
+        assertThat(plan.getTaskIds()).containsExactly("task2");
+    }
+
+    @Test
+    void prefetchShouldFetchEachAssociationWithInListQueriesInChunks() {
+        //given
+        List<CloudRuntimeEvent<?, ?>> events = List.of(activityStarted("procInst1"),
+                                                       activityStarted("procInst2"),
+                                                       activityStarted("procInst3"));
+        given(entityManager.createQuery(anyString(), eq(ProcessInstanceEntity.class))).willReturn(processInstanceQuery);
+        given(processInstanceQuery.setParameter(eq("ids"), any())).willReturn(processInstanceQuery);
+        given(processInstanceQuery.setHint(anyString(), anyBoolean())).willReturn(processInstanceQuery);
+
+        //when
+        subject.prefetch(events);
+
+        //then
+        verify(entityManager, times(2)).createQuery("select distinct e from ProcessInstanceEntity e left join fetch e.activities where e.id in :ids",
+                                                    ProcessInstanceEntity.class);
+        verify(processInstanceQuery).setParameter("ids", List.of("procInst1", "procInst2"));
+        verify(processInstanceQuery).setParameter("ids", List.of("procInst3"));
+        verify(entityManager, times(0)).createQuery(anyString(), eq(TaskEntity.class));
+    }
+
+    @Test
+    void prefetchShouldDoNothingWithoutEntitiesToFetch() {
+        //when
+        subject.prefetch(List.of(new CloudTaskCreatedEventImpl()));
+
+        //then
+        verifyNoInteractions(entityManager);
+    }
+
+    private CloudBPMNActivityStartedEventImpl activityStarted(String processInstanceId) {
+        BPMNActivityImpl activity = new BPMNActivityImpl("elementId", "name", "userTask");
+        CloudBPMNActivityStartedEventImpl event = new CloudBPMNActivityStartedEventImpl(activity,
+                                                                                        "procDefId",
+                                                                                        processInstanceId);
+        event.setProcessInstanceId(processInstanceId);
+        return event;
+    }
+}
@@ -49,6 +49,9 @@ public class TaskEntityCandidateGroupAddedEventHandlerTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private TaskVisibilityUpdater taskVisibilityUpdater;
+
     @BeforeEach
     public void setUp() {
         initMocks(this);
@@ -66,6 +69,8 @@ public class TaskEntityCandidateGroupAddedEventHandlerTest {
         verify(entityManager).persist(captor.capture());
         assertThat(captor.getValue().getTaskId()).isEqualTo(event.getEntity().getTaskId());
         assertThat(captor.getValue().getGroupId()).isEqualTo(event.getEntity().getGroupId());
+        verify(taskVisibilityUpdater).addCandidateGroup(event.getEntity().getTaskId(),
+                                                        event.getEntity().getGroupId());
     }
 
     @Test
@@ -40,6 +40,9 @@ public class TaskEntityCandidateUserAddedEventHandlerTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private TaskVisibilityUpdater taskVisibilityUpdater;
+
     @BeforeEach
     public void setUp() {
         initMocks(this);
@@ -60,6 +63,8 @@ public class TaskEntityCandidateUserAddedEventHandlerTest {
         verify(entityManager).persist(captor.capture());
         assertThat(captor.getValue().getTaskId()).isEqualTo(event.getEntity().getTaskId());
         assertThat(captor.getValue().getUserId()).isEqualTo(event.getEntity().getUserId());
+        verify(taskVisibilityUpdater).addCandidateUser(event.getEntity().getTaskId(),
+                                                       event.getEntity().getUserId());
     }
 
     @Test
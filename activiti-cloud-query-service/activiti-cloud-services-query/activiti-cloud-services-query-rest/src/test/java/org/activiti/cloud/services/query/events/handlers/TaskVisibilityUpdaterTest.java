@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.events.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import javax.persistence.EntityManager;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity.PrincipalType;
+import org.activiti.cloud.services.query.model.TaskVisibilityId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskVisibilityUpdaterTest {
+
+    @InjectMocks
+    private TaskVisibilityUpdater taskVisibilityUpdater;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Test
+    public void addCandidateUserShouldPersistVisibilityRow() {
+        //when
+        taskVisibilityUpdater.addCandidateUser("taskId", "user");
+
+        //then
+        ArgumentCaptor<TaskVisibilityEntity> captor = ArgumentCaptor.forClass(TaskVisibilityEntity.class);
+        verify(entityManager).persist(captor.capture());
+        assertThat(captor.getValue().getTaskId()).isEqualTo("taskId");
+        assertThat(captor.getValue().getPrincipalType()).isEqualTo(PrincipalType.USER);
+        assertThat(captor.getValue().getPrincipalId()).isEqualTo("user");
+    }
+
+    @Test
+    public void addCandidateGroupShouldIgnoreRedeliveredEvent() {
+        //given
+        given(entityManager.find(TaskVisibilityEntity.class,
+                                 new TaskVisibilityId("taskId", PrincipalType.GROUP, "group")))
+            .willReturn(new TaskVisibilityEntity("taskId", PrincipalType.GROUP, "group"));
+
+        //when
+        taskVisibilityUpdater.addCandidateGroup("taskId", "group");
+
+        //then
+        verify(entityManager, never()).persist(any());
+    }
+}
@@ -30,6 +30,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Date;
 import java.util.Optional;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -83,6 +85,25 @@ public class VariableEntityCreatedEventHandlerTest {
                 .hasProcessInstance(processInstanceEntity);
     }
 
+    @Test
+    public void handleShouldFillDateValueWhenDateVariableValueIsReceivedAsString() {
+        //given
+        CloudVariableCreatedEventImpl event = new CloudVariableCreatedEventImpl(
+            new VariableInstanceImpl<>("var", "date", "2020-03-04T10:15:30.000+00:00", "procInstId", null));
+
+        when(entityManagerFinder.findProcessInstanceWithVariables(event.getEntity().getProcessInstanceId()))
+                                .thenReturn(Optional.of(new ProcessInstanceEntity()));
+
+        //when
+        processVariableCreatedEventHandler.handle(event);
+
+        //then
+        ArgumentCaptor<ProcessVariableEntity> captor = ArgumentCaptor.forClass(ProcessVariableEntity.class);
+        verify(entityManager).persist(captor.capture());
+
+        assertThat(captor.getValue().getDateValue()).isEqualTo(Date.from(Instant.parse("2020-03-04T10:15:30Z")));
+    }
+
     private static VariableInstanceImpl<String> buildVariable() {
         return new VariableInstanceImpl<>("var", "string", "v1", "procInstId", null);
     }
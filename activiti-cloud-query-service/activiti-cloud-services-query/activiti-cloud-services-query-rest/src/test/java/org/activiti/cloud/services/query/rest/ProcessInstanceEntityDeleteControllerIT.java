@@ -17,17 +17,22 @@ package org.activiti.cloud.services.query.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.querydsl.core.types.Predicate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.activiti.api.process.model.ProcessInstance;
 import org.activiti.api.runtime.conf.impl.CommonModelAutoConfiguration;
@@ -55,7 +60,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
-@TestPropertySource(properties = "activiti.rest.enable-deletion=true")
+@TestPropertySource(properties = {"activiti.rest.enable-deletion=true", "activiti.rest.deletion.chunk-size=2"})
 @TestPropertySource("classpath:application-test.properties")
 @WebMvcTest(ProcessInstanceDeleteController.class)
 @Import({
@@ -125,6 +130,31 @@ public class ProcessInstanceEntityDeleteControllerIT {
 
     }
 
+    @Test
+    public void purgeProcessInstancesShouldDeleteInChunksAndReturnTheDeletedCounts() throws Exception {
+
+        //given
+        List<String> firstChunk = Arrays.asList("1", "2");
+        List<String> lastChunk = Collections.singletonList("3");
+        given(processInstanceRepository.findIds(any(Predicate.class), eq(2)))
+                .willReturn(firstChunk, lastChunk);
+        given(processInstanceRepository.deleteWithRelatedEntities(firstChunk))
+                .willReturn(Map.of("ProcessInstance", 2L, "Task", 5L));
+        given(processInstanceRepository.deleteWithRelatedEntities(lastChunk))
+                .willReturn(Map.of("ProcessInstance", 1L, "Task", 1L));
+
+        //when
+        mockMvc.perform(delete("/admin/v1/process-instances?purge=true")
+                .with(csrf())
+                .accept(MediaType.APPLICATION_JSON))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ProcessInstance").value(3))
+                .andExpect(jsonPath("$.Task").value(6));
+
+        verify(processInstanceRepository, never()).findAll(any(Predicate.class));
+    }
+
     private ProcessInstanceEntity buildDefaultProcessInstance() {
         return new ProcessInstanceEntity("My-app", "My-app", "1", null, null,
                 UUID.randomUUID().toString(),
@@ -25,10 +25,13 @@ import org.activiti.api.runtime.shared.security.SecurityManager;
 import org.activiti.cloud.services.query.app.repository.TaskCandidateGroupRepository;
 import org.activiti.cloud.services.query.app.repository.TaskCandidateUserRepository;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
+import org.activiti.cloud.services.query.app.repository.TaskVisibilityRepository;
 import org.activiti.cloud.services.query.model.QTaskEntity;
 import org.activiti.cloud.services.query.model.TaskCandidateGroupEntity;
 import org.activiti.cloud.services.query.model.TaskCandidateUserEntity;
 import org.activiti.cloud.services.query.model.TaskEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity;
+import org.activiti.cloud.services.query.model.TaskVisibilityEntity.PrincipalType;
 import org.activiti.cloud.services.security.TaskLookupRestrictionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +56,9 @@ public class RestrictTaskEntityQueryIT {
     @Autowired
     private TaskCandidateGroupRepository taskCandidateGroupRepository;
 
+    @Autowired
+    private TaskVisibilityRepository taskVisibilityRepository;
+
     @Autowired
     private TaskLookupRestrictionService taskLookupRestrictionService;
 
@@ -67,6 +73,7 @@ public class RestrictTaskEntityQueryIT {
         initMocks(this);
         taskCandidateUserRepository.deleteAll();
         taskCandidateGroupRepository.deleteAll();
+        taskVisibilityRepository.deleteAll();
         taskRepository.deleteAll();
     }
 
@@ -326,4 +333,68 @@ public class RestrictTaskEntityQueryIT {
         assertThat(iterable.iterator().hasNext()).isFalse();
     }
 
+    @Test
+    public void shouldGetTasksWhenCandidateGroupInVisibilityTable() {
+        //given
+        TaskLookupRestrictionService visibilityRestrictionService = buildVisibilityTableRestrictionService();
+
+        TaskEntity taskEntity = new TaskEntity();
+        taskEntity.setId("3");
+        taskRepository.save(taskEntity);
+        taskVisibilityRepository.save(new TaskVisibilityEntity("3", PrincipalType.GROUP, "testgroup"));
+
+        when(securityManager.getAuthenticatedUserId()).thenReturn("testuser");
+        when(securityManager.getAuthenticatedUserGroups()).thenReturn(Arrays.asList("testgroup"));
+
+        //when
+        Iterable<TaskEntity> iterable = taskRepository.findAll(visibilityRestrictionService.restrictTaskQuery(null));
+
+        //then
+        assertThat(iterable).extracting(TaskEntity::getId).containsExactly("3");
+    }
+
+    @Test
+    public void shouldNotGetTasksWhenNotCandidateInVisibilityTable() {
+        //given
+        TaskLookupRestrictionService visibilityRestrictionService = buildVisibilityTableRestrictionService();
+
+        TaskEntity taskEntity = new TaskEntity();
+        taskEntity.setId("3");
+        taskRepository.save(taskEntity);
+        taskVisibilityRepository.save(new TaskVisibilityEntity("3", PrincipalType.USER, "testuser"));
+
+        when(securityManager.getAuthenticatedUserId()).thenReturn("fred");
+
+        //when
+        Iterable<TaskEntity> iterable = taskRepository.findAll(visibilityRestrictionService.restrictTaskQuery(null));
+
+        //then
+        assertThat(iterable).isEmpty();
+    }
+
+    @Test
+    public void shouldGetTasksWithoutCandidatesWhenUsingVisibilityTable() {
+        //given
+        TaskLookupRestrictionService visibilityRestrictionService = buildVisibilityTableRestrictionService();
+
+        TaskEntity taskEntity = new TaskEntity();
+        taskEntity.setId("3");
+        taskRepository.save(taskEntity);
+
+        when(securityManager.getAuthenticatedUserId()).thenReturn("fred");
+
+        //when
+        Iterable<TaskEntity> iterable = taskRepository.findAll(visibilityRestrictionService.restrictTaskQuery(null));
+
+        //then
+        assertThat(iterable).extracting(TaskEntity::getId).containsExactly("3");
+    }
+
+    private TaskLookupRestrictionService buildVisibilityTableRestrictionService() {
+        TaskLookupRestrictionService visibilityRestrictionService = new TaskLookupRestrictionService(securityManager,
+                                                                                                     null,
+                                                                                                     true);
+        visibilityRestrictionService.setRestrictionsEnabled(true);
+        return visibilityRestrictionService;
+    }
 }
@@ -27,6 +27,7 @@ import java.util.List;
 import org.activiti.cloud.alfresco.data.domain.AlfrescoPagedModelAssembler;
 import org.activiti.cloud.api.task.model.QueryCloudTask;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
+import org.activiti.cloud.services.query.app.repository.VariableSearchOperator;
 import org.activiti.cloud.services.query.model.TaskEntity;
 import org.activiti.cloud.services.query.model.VariableValue;
 import org.activiti.cloud.services.query.rest.assembler.TaskRepresentationModelAssembler;
@@ -79,7 +80,7 @@ public class TaskControllerHelperTest {
         PageRequest pageable = PageRequest.of(0, 10);
         PageImpl<TaskEntity> pageResult = new PageImpl<>(Collections.singletonList(new TaskEntity()));
         given(taskRepository.findByVariableNameAndValue(variableSearch.getName(), variableSearch.getValue(),
-            extendedPredicate, pageable)).willReturn(
+            VariableSearchOperator.EQUALS, extendedPredicate, pageable)).willReturn(
             pageResult);
 
         given(pagedCollectionModelAssembler.toModel(pageable, pageResult, taskRepresentationModelAssembler))
@@ -33,6 +33,7 @@ import org.activiti.cloud.conf.QueryRestWebMvcAutoConfiguration;
 import org.activiti.cloud.services.query.app.repository.EntityFinder;
 import org.activiti.cloud.services.query.app.repository.ProcessDefinitionRepository;
 import org.activiti.cloud.services.query.app.repository.TaskRepository;
+import org.activiti.cloud.services.query.app.repository.TaskVisibilityRepository;
 import org.activiti.cloud.services.query.model.TaskEntity;
 import org.activiti.cloud.services.security.TaskLookupRestrictionService;
 import org.activiti.core.common.spring.security.policies.SecurityPoliciesManager;
@@ -69,6 +70,9 @@ public class TaskEntityDeleteControllerIT {
     @MockBean
     private TaskRepository taskRepository;
 
+    @MockBean
+    private TaskVisibilityRepository taskVisibilityRepository;
+
     @MockBean
     private SecurityManager securityManager;
 
@@ -103,5 +107,6 @@ public class TaskEntityDeleteControllerIT {
                 .andExpect(status().isOk());
 
         verify(taskRepository).deleteAll(taskEntities);
+        verify(taskVisibilityRepository).deleteByTaskIds(Collections.singletonList(taskEntities.get(0).getId()));
     }
 }
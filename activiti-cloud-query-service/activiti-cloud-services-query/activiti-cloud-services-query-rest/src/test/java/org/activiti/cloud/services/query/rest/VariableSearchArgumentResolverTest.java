@@ -17,12 +17,14 @@
 package org.activiti.cloud.services.query.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import org.activiti.cloud.services.query.app.repository.VariableSearchOperator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -36,6 +38,7 @@ public class VariableSearchArgumentResolverTest {
     private static final String VARIABLES_NAME_KEY = "variables.name";
     private static final String VARIABLES_VALUE_KEY = "variables.value";
     private static final String VARIABLES_TYPE_KEY = "variables.type";
+    private static final String VARIABLES_OPERATOR_KEY = "variables.operator";
 
     @InjectMocks
     private VariableSearchArgumentResolver argumentResolver;
@@ -98,6 +101,39 @@ public class VariableSearchArgumentResolverTest {
         assertThat(variableSearch.getName()).isEqualTo(variableName);
         assertThat(variableSearch.getValue().getValue()).isEqualTo(10);
         assertThat(variableSearch.getType()).isEqualTo(variableType);
+        assertThat(variableSearch.getOperator()).isEqualTo(VariableSearchOperator.EQUALS);
+    }
+
+    @Test
+    public void resolveArgument_should_setOperator_when_operatorParameterIsPresent() {
+        //given
+        String variableValue = "10";
+        NativeWebRequest webRequest = buildWebRequest("myVar", variableValue, "integer");
+        given(webRequest.getParameter(VARIABLES_OPERATOR_KEY)).willReturn("greater_than_or_equal");
+        given(conversionService.convert(variableValue, Integer.class)).willReturn(10);
+
+        //when
+        VariableSearch variableSearch = (VariableSearch) argumentResolver
+            .resolveArgument(mock(MethodParameter.class), null, webRequest, null);
+
+        //then
+        assertThat(variableSearch.getOperator()).isEqualTo(VariableSearchOperator.GREATER_THAN_OR_EQUAL);
+    }
+
+    @Test
+    public void resolveArgument_should_throwIllegalStateException_when_operatorIsUnknown() {
+        //given
+        NativeWebRequest webRequest = buildWebRequest("myVar", "text", "string");
+        given(webRequest.getParameter(VARIABLES_OPERATOR_KEY)).willReturn("between");
+
+        //when
+        Throwable throwable = catchThrowable(() -> argumentResolver
+            .resolveArgument(mock(MethodParameter.class), null, webRequest, null));
+
+        //then
+        assertThat(throwable)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("between");
     }
 
     @Test
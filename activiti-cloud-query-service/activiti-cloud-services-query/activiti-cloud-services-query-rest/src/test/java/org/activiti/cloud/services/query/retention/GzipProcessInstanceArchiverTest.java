@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class GzipProcessInstanceArchiverTest {
+
+    private static final List<String> IDS = Collections.singletonList("root-1");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query emptyQuery;
+
+    @Mock
+    private Query processInstanceQuery;
+
+    private GzipProcessInstanceArchiver archiver;
+
+    @BeforeEach
+    public void setUp() {
+        given(entityManager.createNativeQuery(anyString(), eq(Tuple.class))).willReturn(emptyQuery);
+        given(emptyQuery.setParameter("ids", IDS)).willReturn(emptyQuery);
+        given(emptyQuery.getResultList()).willReturn(Collections.emptyList());
+
+        Tuple row = row("ID", "root-1", "STATUS", "COMPLETED");
+        given(entityManager.createNativeQuery(startsWith("select * from process_instance "), eq(Tuple.class)))
+            .willReturn(processInstanceQuery);
+        given(processInstanceQuery.setParameter("ids", IDS)).willReturn(processInstanceQuery);
+        given(processInstanceQuery.getResultList()).willReturn(Collections.singletonList(row));
+
+        archiver = new GzipProcessInstanceArchiver(entityManager,
+                                                   new ObjectMapper(),
+                                                   directory.toString(),
+                                                   Clock.fixed(Instant.parse("2021-06-30T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void archiveShouldWriteRowsAsColumnValues() throws IOException {
+        //when
+        archiver.archive(IDS);
+
+        //then
+        List<Path> files = files();
+        assertThat(files).hasSize(1);
+        assertThat(files.get(0).getFileName().toString()).endsWith(".ndjson.gz");
+        assertThat(read(files.get(0)))
+            .containsExactly("{\"type\":\"ProcessInstance\",\"row\":{\"id\":\"root-1\",\"status\":\"COMPLETED\"}}");
+    }
+
+    @Test
+    public void archiveShouldOnlyPublishFileWhenTransactionCommits() throws IOException {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        archiver.archive(IDS);
+
+        //then
+        assertThat(files()).singleElement()
+                           .satisfies(file -> assertThat(file.getFileName().toString()).endsWith(".part"));
+
+        //when
+        afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        assertThat(files()).singleElement()
+                           .satisfies(file -> assertThat(file.getFileName().toString()).endsWith(".ndjson.gz"));
+    }
+
+    @Test
+    public void archiveShouldDeleteFileWhenTransactionRollsBack() throws IOException {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        archiver.archive(IDS);
+
+        //when
+        afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        //then
+        assertThat(files()).isEmpty();
+    }
+
+    private void afterCompletion(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private List<String> read(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tuple row(String firstColumn,
+                      Object firstValue,
+                      String secondColumn,
+                      Object secondValue) {
+        TupleElement<Object> first = mock(TupleElement.class);
+        given(first.getAlias()).willReturn(firstColumn);
+        TupleElement<Object> second = mock(TupleElement.class);
+        given(second.getAlias()).willReturn(secondColumn);
+        Tuple row = mock(Tuple.class);
+        given(row.getElements()).willReturn(List.<TupleElement<?>>of(first, second));
+        given(row.get(first)).willReturn(firstValue);
+        given(row.get(second)).willReturn(secondValue);
+        return row;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.querydsl.core.types.Predicate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.activiti.api.process.model.ProcessInstance.ProcessInstanceStatus;
+import org.activiti.cloud.services.query.app.repository.ProcessInstanceRepository;
+import org.activiti.cloud.services.query.model.QProcessInstanceEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class QueryRetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2021-06-30T00:00:00Z");
+
+    @Mock
+    private ProcessInstanceRepository processInstanceRepository;
+
+    @Mock
+    private ProcessInstanceArchiver processInstanceArchiver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final QProcessInstanceEntity processInstance = QProcessInstanceEntity.processInstanceEntity;
+
+    private QueryRetentionProperties properties;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new QueryRetentionProperties();
+        properties.setChunkSize(2);
+        properties.getMaxAge().put(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+    }
+
+    @Test
+    public void purgeExpiredShouldArchiveThenDeleteExpiredTreesInChunksOfWholeTrees() {
+        //given
+        Predicate expiredRoots = expiredRoots(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+        given(processInstanceRepository.findIds(expiredRoots, 2))
+            .willReturn(Arrays.asList("root-1", "root-2"), Collections.singletonList("root-3"));
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Collections.singletonList("root-1")), Integer.MAX_VALUE))
+            .willReturn(Collections.singletonList("child-1"));
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Collections.singletonList("child-1")), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Collections.singletonList("root-2")), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Collections.singletonList("root-3")), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        given(processInstanceRepository.deleteWithRelatedEntities(any()))
+            .willReturn(Map.of("ProcessInstance", 1L));
+
+        //when
+        Map<String, Long> deleted = engine(processInstanceArchiver).purgeExpired();
+
+        //then
+        InOrder inOrder = inOrder(processInstanceArchiver, processInstanceRepository);
+        inOrder.verify(processInstanceArchiver).archive(Arrays.asList("root-1", "child-1"));
+        inOrder.verify(processInstanceRepository).deleteWithRelatedEntities(Arrays.asList("root-1", "child-1"));
+        inOrder.verify(processInstanceArchiver).archive(Collections.singletonList("root-2"));
+        inOrder.verify(processInstanceRepository).deleteWithRelatedEntities(Collections.singletonList("root-2"));
+        inOrder.verify(processInstanceArchiver).archive(Collections.singletonList("root-3"));
+        inOrder.verify(processInstanceRepository).deleteWithRelatedEntities(Collections.singletonList("root-3"));
+        assertThat(deleted).containsEntry("ProcessInstance", 3L);
+    }
+
+    @Test
+    public void purgeExpiredShouldDeleteTreeBiggerThanChunkSizeInOneTransaction() {
+        //given
+        Predicate expiredRoots = expiredRoots(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+        given(processInstanceRepository.findIds(expiredRoots, 2))
+            .willReturn(Collections.singletonList("root-1"));
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Collections.singletonList("root-1")), Integer.MAX_VALUE))
+            .willReturn(Arrays.asList("child-1", "child-2"));
+        given(processInstanceRepository.findIds(processInstance.parentId.in(Arrays.asList("child-1", "child-2")), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        List<String> treeIds = Arrays.asList("root-1", "child-1", "child-2");
+        given(processInstanceRepository.deleteWithRelatedEntities(treeIds))
+            .willReturn(Map.of("ProcessInstance", 3L));
+
+        //when
+        Map<String, Long> deleted = engine(processInstanceArchiver).purgeExpired();
+
+        //then
+        verify(processInstanceArchiver).archive(treeIds);
+        verify(transactionManager).commit(any());
+        assertThat(deleted).containsEntry("ProcessInstance", 3L);
+    }
+
+    @Test
+    public void purgeExpiredShouldOnlyDeleteWhenArchiveIsDisabled() {
+        //given
+        Predicate expiredRoots = expiredRoots(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+        List<String> rootIds = Collections.singletonList("root-1");
+        given(processInstanceRepository.findIds(expiredRoots, 2)).willReturn(rootIds);
+        given(processInstanceRepository.findIds(processInstance.parentId.in(rootIds), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        given(processInstanceRepository.deleteWithRelatedEntities(rootIds))
+            .willReturn(Map.of("ProcessInstance", 1L));
+
+        //when
+        Map<String, Long> deleted = engine(null).purgeExpired();
+
+        //then
+        assertThat(deleted).containsEntry("ProcessInstance", 1L);
+        verify(processInstanceArchiver, never()).archive(any());
+    }
+
+    @Test
+    public void purgeExpiredShouldNotDeleteWhenArchiveFails() {
+        //given
+        Predicate expiredRoots = expiredRoots(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+        List<String> rootIds = Collections.singletonList("root-1");
+        given(processInstanceRepository.findIds(expiredRoots, 2)).willReturn(rootIds);
+        given(processInstanceRepository.findIds(processInstance.parentId.in(rootIds), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+        willThrow(new IllegalStateException("disk full")).given(processInstanceArchiver).archive(rootIds);
+
+        //when
+        Throwable thrown = catchThrowable(() -> engine(processInstanceArchiver).purgeExpired());
+
+        //then
+        assertThat(thrown).hasMessage("disk full");
+        verify(processInstanceRepository, never()).deleteWithRelatedEntities(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void purgeExpiredShouldStopWhenLeaseIsLost() {
+        //given
+        Predicate expiredRoots = expiredRoots(ProcessInstanceStatus.COMPLETED, Duration.ofDays(30));
+        List<String> rootIds = Collections.singletonList("root-1");
+        given(processInstanceRepository.findIds(expiredRoots, 2)).willReturn(rootIds);
+        given(processInstanceRepository.findIds(processInstance.parentId.in(rootIds), Integer.MAX_VALUE))
+            .willReturn(Collections.emptyList());
+
+        //when
+        Map<String, Long> deleted = engine(processInstanceArchiver).purgeExpired(() -> false);
+
+        //then
+        assertThat(deleted).isEmpty();
+        verify(processInstanceArchiver, never()).archive(any());
+        verify(processInstanceRepository, never()).deleteWithRelatedEntities(any());
+    }
+
+    @Test
+    public void purgeExpiredShouldNotPurgeStatusesWithoutMaxAge() {
+        //given
+        properties.getMaxAge().clear();
+
+        //when
+        Map<String, Long> deleted = engine(processInstanceArchiver).purgeExpired();
+
+        //then
+        assertThat(deleted).isEmpty();
+        verify(processInstanceRepository, never()).findIds(any(), anyInt());
+        verify(processInstanceRepository, never()).deleteWithRelatedEntities(any());
+    }
+
+    private QueryRetentionEngine engine(ProcessInstanceArchiver archiver) {
+        return new QueryRetentionEngine(processInstanceRepository,
+                                        archiver,
+                                        properties,
+                                        transactionManager,
+                                        Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private Predicate expiredRoots(ProcessInstanceStatus status,
+                                   Duration maxAge) {
+        Date cutoff = Date.from(NOW.minus(maxAge));
+        return processInstance.status.eq(status)
+                                     .and(processInstance.parentId.isNull())
+                                     .and(processInstance.lastModified.before(cutoff)
+                                                                      .or(processInstance.lastModified.isNull()
+                                                                                                      .and(processInstance.completedDate.before(cutoff)))
+                                                                      .or(processInstance.lastModified.isNull()
+                                                                                                      .and(processInstance.completedDate.isNull())
+                                                                                                      .and(processInstance.startDate.before(cutoff))));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class QueryRetentionLockTest {
+
+    private static final Instant NOW = Instant.parse("2021-06-30T00:00:00Z");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table query_retention_lock (name varchar(255) not null, owner varchar(255), " +
+                                 "expires_at timestamp, primary key (name))");
+    }
+
+    @Test
+    public void tryAcquireShouldGrantLockToOneOwnerOnly() {
+        //given
+        QueryRetentionLock first = lock("first", NOW);
+        QueryRetentionLock second = lock("second", NOW);
+
+        //when
+        boolean firstAcquired = first.tryAcquire();
+        boolean secondAcquired = second.tryAcquire();
+
+        //then
+        assertThat(firstAcquired).isTrue();
+        assertThat(secondAcquired).isFalse();
+        assertThat(first.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void tryAcquireShouldTakeOverExpiredLock() {
+        //given
+        lock("first", NOW).tryAcquire();
+
+        //when
+        boolean acquired = lock("second", NOW.plus(Duration.ofMinutes(6))).tryAcquire();
+
+        //then
+        assertThat(acquired).isTrue();
+        assertThat(lock("first", NOW.plus(Duration.ofMinutes(6))).tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void releaseShouldLetAnotherOwnerAcquireLock() {
+        //given
+        QueryRetentionLock first = lock("first", NOW);
+        first.tryAcquire();
+
+        //when
+        first.release();
+
+        //then
+        assertThat(lock("second", NOW.plusMillis(1)).tryAcquire()).isTrue();
+    }
+
+    private QueryRetentionLock lock(String owner,
+                                    Instant now) {
+        return new QueryRetentionLock(jdbcTemplate,
+                                      owner,
+                                      Duration.ofMinutes(5),
+                                      Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.query.retention;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class QueryRetentionSchedulerTest {
+
+    @InjectMocks
+    private QueryRetentionScheduler scheduler;
+
+    @Mock
+    private QueryRetentionEngine queryRetentionEngine;
+
+    @Mock
+    private QueryRetentionLock queryRetentionLock;
+
+    @Mock
+    private QueryRetentionProperties properties;
+
+    @Test
+    public void runShouldSkipWhenLockIsHeldElsewhere() {
+        //given
+        given(queryRetentionLock.tryAcquire()).willReturn(false);
+
+        //when
+        scheduler.run();
+
+        //then
+        verify(queryRetentionEngine, never()).purgeExpired(any(BooleanSupplier.class));
+        verify(queryRetentionLock, never()).release();
+    }
+
+    @Test
+    public void runShouldPurgeAndReleaseLockWhenAcquired() {
+        //given
+        given(queryRetentionLock.tryAcquire()).willReturn(true);
+
+        //when
+        scheduler.run();
+
+        //then
+        verify(queryRetentionEngine).purgeExpired(any(BooleanSupplier.class));
+        verify(queryRetentionLock).release();
+    }
+
+    @Test
+    public void runShouldReleaseLockWhenPurgeFails() {
+        //given
+        given(queryRetentionLock.tryAcquire()).willReturn(true);
+        willThrow(new IllegalStateException("failed")).given(queryRetentionEngine).purgeExpired(any(BooleanSupplier.class));
+
+        //when
+        scheduler.run();
+
+        //then
+        verify(queryRetentionLock).release();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.activiti.cloud.services.query.model.QTaskEntity;
+import org.junit.jupiter.api.Test;
+
+public class TaskRestrictionCacheTest {
+
+    private final QTaskEntity task = QTaskEntity.taskEntity;
+
+    @Test
+    public void getShouldReuseExpressionForSameUserAndGroupSetInAnyOrder() {
+        //given
+        TaskRestrictionCache cache = new TaskRestrictionCache(Duration.ofMinutes(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        BooleanExpression first = cache.get(task, "user", Arrays.asList("b", "a"), () -> {
+            loads.incrementAndGet();
+            return task.assignee.eq("user");
+        });
+        BooleanExpression second = cache.get(task, "user", Arrays.asList("a", "b"), () -> {
+            loads.incrementAndGet();
+            return task.assignee.eq("user");
+        });
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getShouldRebuildExpressionWhenGroupsDiffer() {
+        //given
+        TaskRestrictionCache cache = new TaskRestrictionCache(Duration.ofMinutes(1), 100);
+
+        //when
+        cache.get(task, "user", Arrays.asList("a"), () -> task.assignee.eq("user"));
+        cache.get(task, "user", Arrays.asList("a", "b"), () -> task.assignee.eq("user"));
+
+        //then
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void getShouldRebuildExpressionWhenEntryExpired() {
+        //given
+        MutableClock clock = new MutableClock();
+        TaskRestrictionCache cache = new TaskRestrictionCache(Duration.ofSeconds(10), 100, clock);
+        BooleanExpression first = cache.get(task, "user", null, () -> task.assignee.eq("user"));
+
+        //when
+        clock.advance(Duration.ofSeconds(11));
+        BooleanExpression second = cache.get(task, "user", null, () -> task.assignee.eq("user"));
+
+        //then
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    public void getShouldEvictEntriesWhenMaxSizeIsReached() {
+        //given
+        TaskRestrictionCache cache = new TaskRestrictionCache(Duration.ofMinutes(1), 2);
+
+        //when
+        cache.get(task, "user1", null, () -> task.assignee.eq("user1"));
+        cache.get(task, "user2", null, () -> task.assignee.eq("user2"));
+        cache.get(task, "user3", null, () -> task.assignee.eq("user3"));
+
+        //then
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    public void shouldRegisterHitMissAndSizeMetrics() {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TaskRestrictionCache cache = new TaskRestrictionCache(Duration.ofMinutes(1), 100, meterRegistry);
+
+        //when
+        cache.get(task, "user", Arrays.asList("a"), () -> task.assignee.eq("user"));
+        cache.get(task, "user", Arrays.asList("a"), () -> task.assignee.eq("user"));
+
+        //then
+        assertThat(meterRegistry.get(TaskRestrictionCache.GETS_METRIC).tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(TaskRestrictionCache.GETS_METRIC).tag("result", "miss").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(TaskRestrictionCache.SIZE_METRIC).gauge().value()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors.channel;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.activiti.api.process.model.IntegrationContext;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntity;
+
+/**
+ * Handles a batch of integration results inside a single command context, so that all the
+ * triggered executions share one transaction and their events are sent as one message.
+ * The integration contexts and executions of the batch are loaded up front with one query each;
+ * the loaded entities are cached in the command context, so triggering the executions does not
+ * load them again.
+ */
+class HandleIntegrationResultsCmd implements Command<Void> {
+
+    static final String SELECT_INTEGRATION_CONTEXTS_BY_IDS = "selectIntegrationContextsByIdsForResultBatch";
+    static final String SELECT_EXECUTIONS_BY_IDS = "selectExecutionsByIdsForResultBatch";
+
+    // Keeps the IN list within the limits of every supported database
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final List<IntegrationResult> integrationResults;
+    private final ServiceTaskIntegrationResultEventHandler integrationResultEventHandler;
+
+    HandleIntegrationResultsCmd(List<IntegrationResult> integrationResults,
+        ServiceTaskIntegrationResultEventHandler integrationResultEventHandler) {
+        this.integrationResults = integrationResults;
+        this.integrationResultEventHandler = integrationResultEventHandler;
+    }
+
+    @Override
+    public Void execute(CommandContext commandContext) {
+        Map<String, IntegrationContextEntity> integrationContexts = selectByIds(commandContext,
+            SELECT_INTEGRATION_CONTEXTS_BY_IDS,
+            IntegrationContext::getId,
+            IntegrationContextEntity::getId);
+        Map<String, ExecutionEntity> executions = selectByIds(commandContext,
+            SELECT_EXECUTIONS_BY_IDS,
+            IntegrationContext::getExecutionId,
+            ExecutionEntity::getId);
+        // the services used by the handler reuse the current command context
+        for (IntegrationResult integrationResult : integrationResults) {
+            IntegrationContext integrationContext = integrationResult.getIntegrationContext();
+            integrationResultEventHandler.receive(integrationResult,
+                integrationContexts.get(integrationContext.getId()),
+                executions.get(integrationContext.getExecutionId()));
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Map<String, T> selectByIds(CommandContext commandContext,
+        String statement,
+        Function<IntegrationContext, String> idOfResult,
+        Function<T, String> idOfEntity) {
+        List<String> ids = integrationResults.stream()
+                                             .map(IntegrationResult::getIntegrationContext)
+                                             .map(idOfResult)
+                                             .filter(Objects::nonNull)
+                                             .distinct()
+                                             .collect(Collectors.toList());
+        Map<String, T> entities = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE_SIZE) {
+            List<T> selected = commandContext.getDbSqlSession()
+                                             .selectList(statement,
+                                                 ids.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, ids.size())));
+            selected.forEach(entity -> entities.put(idOfEntity.apply(entity), entity));
+        }
+        return entities;
+    }
+
+    public List<IntegrationResult> getIntegrationResults() {
+        return Collections.unmodifiableList(integrationResults);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors.channel;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.activiti.engine.cfg.ProcessEngineConfigurator;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * Registers the MyBatis mapping used by {@link HandleIntegrationResultsCmd} to load the integration contexts
+ * and executions of a batch of integration results with one query each.
+ */
+public class IntegrationResultBatchMapperConfigurator implements ProcessEngineConfigurator {
+
+    static final String INTEGRATION_RESULT_BATCH_MAPPER = "org/activiti/services/connectors/channel/IntegrationResultBatch.xml";
+
+    @Override
+    public void beforeInit(ProcessEngineConfigurationImpl configuration) {
+        Set<String> mappers = new HashSet<>();
+        if (configuration.getCustomMybatisXMLMappers() != null) {
+            mappers.addAll(configuration.getCustomMybatisXMLMappers());
+        }
+        mappers.add(INTEGRATION_RESULT_BATCH_MAPPER);
+        configuration.setCustomMybatisXMLMappers(mappers);
+    }
+
+    @Override
+    public void configure(ProcessEngineConfigurationImpl configuration) {
+        // Mappers must be registered before the engine builds its session factory
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+}
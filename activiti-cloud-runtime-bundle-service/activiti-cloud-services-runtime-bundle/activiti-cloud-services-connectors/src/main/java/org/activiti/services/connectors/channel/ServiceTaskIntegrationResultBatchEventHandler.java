@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors.channel;
+
+import static java.util.stream.Collectors.toList;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.engine.ManagementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.annotation.StreamListener;
+
+/**
+ * Consumes integration results delivered in batches by the binder (consumer batch mode). The whole
+ * batch is handled in a single engine transaction; if that fails each result is retried in its own
+ * transaction so that one faulty result does not prevent the others from being processed.
+ */
+public class ServiceTaskIntegrationResultBatchEventHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceTaskIntegrationResultBatchEventHandler.class);
+
+    private final ServiceTaskIntegrationResultEventHandler integrationResultEventHandler;
+    private final ManagementService managementService;
+    private final ObjectMapper objectMapper;
+
+    public ServiceTaskIntegrationResultBatchEventHandler(ServiceTaskIntegrationResultEventHandler integrationResultEventHandler,
+        ManagementService managementService,
+        ObjectMapper objectMapper) {
+        this.integrationResultEventHandler = integrationResultEventHandler;
+        this.managementService = managementService;
+        this.objectMapper = objectMapper;
+    }
+
+    @StreamListener(ProcessEngineIntegrationChannels.INTEGRATION_RESULTS_CONSUMER)
+    public void receive(List<?> payload) {
+        List<IntegrationResult> integrationResults = payload.stream()
+                                                            .map(this::toIntegrationResult)
+                                                            .collect(toList());
+        if (integrationResults.isEmpty()) {
+            return;
+        }
+        try {
+            managementService.executeCommand(new HandleIntegrationResultsCmd(integrationResults,
+                integrationResultEventHandler));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to handle {} integration results in a single transaction, handling them one by one",
+                integrationResults.size(), e);
+            receiveOneByOne(integrationResults);
+        }
+    }
+
+    private void receiveOneByOne(List<IntegrationResult> integrationResults) {
+        RuntimeException failure = null;
+        for (IntegrationResult integrationResult : integrationResults) {
+            try {
+                integrationResultEventHandler.receive(integrationResult);
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to handle integration result for integration context '{}'",
+                    integrationResult.getIntegrationContext().getId(), e);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        // the integration contexts of the handled results are gone, so they are ignored on redelivery
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private IntegrationResult toIntegrationResult(Object element) {
+        if (element instanceof IntegrationResult) {
+            return (IntegrationResult) element;
+        }
+        if (element instanceof byte[]) {
+            try {
+                return objectMapper.readValue((byte[]) element, IntegrationResult.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read integration result", e);
+            }
+        }
+        return objectMapper.convertValue(element, IntegrationResult.class);
+    }
+}
@@ -66,12 +66,24 @@ public class ServiceTaskIntegrationResultEventHandler {
         List<Execution> executions = runtimeService.createExecutionQuery()
                                                    .executionId(executionId)
                                                    .list();
+        receive(integrationResult,
+                integrationContextEntity,
+                executions.isEmpty() ? null : executions.get(0));
+    }
+
+    /**
+     * Handles an integration result whose integration context and execution have already been looked up,
+     * {@literal null} standing for the ones that do not exist.
+     */
+    void receive(IntegrationResult integrationResult,
+                 IntegrationContextEntity integrationContextEntity,
+                 Execution execution) {
+        IntegrationContext integrationContext = integrationResult.getIntegrationContext();
+        String executionId = integrationContext.getExecutionId();
         if (integrationContextEntity != null) {
             integrationContextService.deleteIntegrationContext(integrationContextEntity);
 
-            if (executions.size() > 0) {
-                Execution execution = executions.get(0);
-
+            if (execution != null) {
                 if (execution.getActivityId()
                              .equals(integrationContext.getClientId())) {
                     triggerIntegrationContextExecution(integrationContext);
@@ -16,6 +16,7 @@
 
 package org.activiti.services.connectors.conf;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
@@ -30,12 +31,15 @@ import org.activiti.runtime.api.connector.DefaultServiceTaskBehavior;
 import org.activiti.runtime.api.connector.IntegrationContextBuilder;
 import org.activiti.services.connectors.IntegrationRequestSender;
 import org.activiti.services.connectors.behavior.MQServiceTaskBehavior;
+import org.activiti.services.connectors.channel.IntegrationResultBatchMapperConfigurator;
 import org.activiti.services.connectors.channel.ProcessEngineIntegrationChannels;
 import org.activiti.services.connectors.channel.ServiceTaskIntegrationErrorEventHandler;
+import org.activiti.services.connectors.channel.ServiceTaskIntegrationResultBatchEventHandler;
 import org.activiti.services.connectors.channel.ServiceTaskIntegrationResultEventHandler;
 import org.activiti.services.connectors.message.IntegrationContextMessageBuilderFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.cloud.stream.config.BindingServiceProperties;
@@ -52,9 +56,11 @@ import org.springframework.context.annotation.PropertySource;
 public class CloudConnectorsAutoConfiguration {
 
     private static final String LOCAL_SERVICE_TASK_BEHAVIOUR_BEAN_NAME = "localServiceTaskBehaviour";
+    private static final String INTEGRATION_RESULTS_BATCH_ENABLED = "activiti.cloud.runtime-bundle.integration-results.batch.enabled";
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = INTEGRATION_RESULTS_BATCH_ENABLED, havingValue = "false", matchIfMissing = true)
     public ServiceTaskIntegrationResultEventHandler serviceTaskIntegrationResultEventHandler(
         RuntimeService runtimeService,
         IntegrationContextService integrationContextService,
@@ -66,6 +72,33 @@ public class CloudConnectorsAutoConfiguration {
             runtimeBundleProperties, managementService, processEngineEventsAggregator, variablesPropagator);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = INTEGRATION_RESULTS_BATCH_ENABLED, havingValue = "true")
+    public ServiceTaskIntegrationResultBatchEventHandler serviceTaskIntegrationResultBatchEventHandler(
+        RuntimeService runtimeService,
+        IntegrationContextService integrationContextService,
+        RuntimeBundleProperties runtimeBundleProperties,
+        ManagementService managementService,
+        ProcessEngineEventsAggregator processEngineEventsAggregator,
+        VariablesPropagator variablesPropagator,
+        ObjectMapper objectMapper) {
+        // the single result handler is not exposed as a bean here: its stream listener would
+        // compete with the batch one on the same binding
+        return new ServiceTaskIntegrationResultBatchEventHandler(
+            new ServiceTaskIntegrationResultEventHandler(runtimeService, integrationContextService,
+                runtimeBundleProperties, managementService, processEngineEventsAggregator, variablesPropagator),
+            managementService,
+            objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = INTEGRATION_RESULTS_BATCH_ENABLED, havingValue = "true")
+    public IntegrationResultBatchMapperConfigurator integrationResultBatchMapperConfigurator() {
+        return new IntegrationResultBatchMapperConfigurator();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public ServiceTaskIntegrationErrorEventHandler serviceTaskIntegrationErrorEventHandler(RuntimeService runtimeService,
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.Collections;
+import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.api.process.model.impl.IntegrationRequestImpl;
+import org.activiti.cloud.api.process.model.impl.IntegrationResultImpl;
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ManagementService;
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityImpl;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntity;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntityImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ServiceTaskIntegrationResultBatchEventHandlerTest {
+
+    @InjectMocks
+    private ServiceTaskIntegrationResultBatchEventHandler handler;
+
+    @Mock
+    private ServiceTaskIntegrationResultEventHandler integrationResultEventHandler;
+
+    @Mock
+    private ManagementService managementService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void should_handleAllResultsInOneCommand() {
+        //given
+        IntegrationResult first = buildIntegrationResult("first");
+        IntegrationResult second = buildIntegrationResult("second");
+
+        //when
+        handler.receive(Arrays.asList(first, second));
+
+        //then
+        ArgumentCaptor<HandleIntegrationResultsCmd> captor = ArgumentCaptor.forClass(HandleIntegrationResultsCmd.class);
+        verify(managementService).executeCommand(captor.capture());
+        assertThat(captor.getValue().getIntegrationResults()).containsExactly(first, second);
+        verifyNoInteractions(integrationResultEventHandler);
+    }
+
+    @Test
+    public void should_delegateEachResultWithPreloadedEntities_when_commandIsExecuted() {
+        //given
+        IntegrationResult first = buildIntegrationResult("first");
+        IntegrationResult second = buildIntegrationResult("second");
+        IntegrationContextEntity firstContext = buildIntegrationContextEntity("first");
+        ExecutionEntity firstExecution = buildExecutionEntity("first-execution");
+        CommandContext commandContext = mock(CommandContext.class);
+        DbSqlSession dbSqlSession = mock(DbSqlSession.class);
+        given(commandContext.getDbSqlSession()).willReturn(dbSqlSession);
+        given(dbSqlSession.selectList(HandleIntegrationResultsCmd.SELECT_INTEGRATION_CONTEXTS_BY_IDS,
+            Arrays.asList("first", "second")))
+            .willReturn(Collections.singletonList(firstContext));
+        given(dbSqlSession.selectList(HandleIntegrationResultsCmd.SELECT_EXECUTIONS_BY_IDS,
+            Arrays.asList("first-execution", "second-execution")))
+            .willReturn(Collections.singletonList(firstExecution));
+
+        //when
+        new HandleIntegrationResultsCmd(Arrays.asList(first, second), integrationResultEventHandler).execute(commandContext);
+
+        //then
+        verify(integrationResultEventHandler).receive(first, firstContext, firstExecution);
+        verify(integrationResultEventHandler).receive(second, null, null);
+        verify(integrationResultEventHandler, never()).receive(any(IntegrationResult.class));
+    }
+
+    @Test
+    public void should_readResultsDeliveredAsRawPayload() throws Exception {
+        //given
+        byte[] payload = "{}".getBytes();
+        IntegrationResult integrationResult = buildIntegrationResult("raw");
+        given(objectMapper.readValue(payload, IntegrationResult.class)).willReturn(integrationResult);
+
+        //when
+        handler.receive(Collections.singletonList(payload));
+
+        //then
+        ArgumentCaptor<HandleIntegrationResultsCmd> captor = ArgumentCaptor.forClass(HandleIntegrationResultsCmd.class);
+        verify(managementService).executeCommand(captor.capture());
+        assertThat(captor.getValue().getIntegrationResults()).containsExactly(integrationResult);
+    }
+
+    @Test
+    public void should_handleResultsOneByOne_when_batchFails() {
+        //given
+        IntegrationResult first = buildIntegrationResult("first");
+        IntegrationResult second = buildIntegrationResult("second");
+        given(managementService.executeCommand(any(HandleIntegrationResultsCmd.class)))
+            .willThrow(new ActivitiException("batch failure"));
+
+        //when
+        handler.receive(Arrays.asList(first, second));
+
+        //then
+        verify(integrationResultEventHandler).receive(first);
+        verify(integrationResultEventHandler).receive(second);
+    }
+
+    @Test
+    public void should_rethrowFailure_after_handlingRemainingResults() {
+        //given
+        IntegrationResult first = buildIntegrationResult("first");
+        IntegrationResult second = buildIntegrationResult("second");
+        given(managementService.executeCommand(any(HandleIntegrationResultsCmd.class)))
+            .willThrow(new ActivitiException("batch failure"));
+        ActivitiException failure = new ActivitiException("first failure");
+        doThrow(failure).when(integrationResultEventHandler).receive(first);
+
+        //when
+        assertThatThrownBy(() -> handler.receive(Arrays.asList(first, second)))
+            .isSameAs(failure);
+
+        //then
+        verify(integrationResultEventHandler).receive(second);
+    }
+
+    @Test
+    public void should_doNothing_when_batchIsEmpty() {
+        //when
+        handler.receive(Collections.emptyList());
+
+        //then
+        verify(managementService, never()).executeCommand(any());
+    }
+
+    private IntegrationResult buildIntegrationResult(String integrationContextId) {
+        IntegrationContextImpl integrationContext = new IntegrationContextImpl();
+        integrationContext.setId(integrationContextId);
+        integrationContext.setExecutionId(integrationContextId + "-execution");
+        return new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext);
+    }
+
+    private IntegrationContextEntity buildIntegrationContextEntity(String id) {
+        IntegrationContextEntityImpl integrationContextEntity = new IntegrationContextEntityImpl();
+        integrationContextEntity.setId(id);
+        return integrationContextEntity;
+    }
+
+    private ExecutionEntity buildExecutionEntity(String id) {
+        ExecutionEntityImpl execution = new ExecutionEntityImpl();
+        execution.setId(id);
+        return execution;
+    }
+}
@@ -20,6 +20,7 @@ import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
 import org.activiti.cloud.services.events.converter.ToCloudTaskRuntimeEventConverter;
 import org.activiti.cloud.services.events.converter.ToCloudVariableEventConverter;
+import org.activiti.cloud.services.events.listeners.AnnouncedProcessDefinitions;
 import org.activiti.cloud.services.events.listeners.CloudActivityCancelledProducer;
 import org.activiti.cloud.services.events.listeners.CloudActivityCompletedProducer;
 import org.activiti.cloud.services.events.listeners.CloudActivityStartedProducer;
@@ -64,7 +65,11 @@ import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregato
 import org.activiti.cloud.services.events.message.CloudRuntimeEventMessageBuilderFactory;
 import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
+import org.activiti.cloud.services.events.outbox.EventOutbox;
+import org.activiti.engine.ManagementService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -111,10 +116,12 @@ public class CloudEventsAutoConfiguration {
     @ConditionalOnMissingBean
     public MessageProducerCommandContextCloseListener apiMessageProducerCommandContextCloseListener(ProcessEngineChannels processEngineChannels,
                                                                                                     ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory,
-                                                                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender) {
+                                                                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                                                    ObjectProvider<EventOutbox> eventOutbox) {
         return new MessageProducerCommandContextCloseListener(processEngineChannels,
                                                               executionContextMessageBuilderFactory,
-                                                              runtimeBundleInfoAppender);
+                                                              runtimeBundleInfoAppender,
+                                                              eventOutbox.getIfAvailable());
     }
 
     @Bean
@@ -390,11 +397,22 @@ public class CloudEventsAutoConfiguration {
     public CloudProcessDeployedProducer cloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                                                      ProcessEngineChannels processEngineChannels,
                                                                      RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory,
-                                                                     RuntimeBundleProperties properties) {
+                                                                     RuntimeBundleProperties properties,
+                                                                     ObjectProvider<AnnouncedProcessDefinitions> announcedProcessDefinitions) {
         return new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
                                                 processEngineChannels,
                                                 runtimeBundleMessageBuilderFactory,
-                                                properties);
+                                                properties,
+                                                announcedProcessDefinitions.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.deployment-announcement-mode", havingValue = "delta")
+    public AnnouncedProcessDefinitions announcedProcessDefinitions(ManagementService managementService,
+                                                                   RuntimeBundleProperties properties) {
+        return new AnnouncedProcessDefinitions(managementService,
+                                               properties.getEventsProperties().getFullAnnouncementInterval());
     }
 
     @Bean
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.configuration;
+
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.outbox.EventOutbox;
+import org.activiti.cloud.services.events.outbox.EventOutboxRelay;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.enabled", havingValue = "true")
+public class CloudEventsOutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventOutbox eventOutbox(DataSource dataSource,
+                                   ObjectMapper objectMapper,
+                                   RuntimeBundleProperties properties) {
+        return new EventOutbox(dataSource,
+                               objectMapper,
+                               properties.getServiceName() + "-" + UUID.randomUUID());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventOutboxRelay eventOutboxRelay(EventOutbox eventOutbox,
+                                             ProcessEngineChannels processEngineChannels,
+                                             RuntimeBundleProperties properties) {
+        return new EventOutboxRelay(eventOutbox,
+                                    processEngineChannels,
+                                    properties.getOutbox());
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 
@@ -43,6 +44,9 @@ public class RuntimeBundleProperties {
     @Valid
     private RuntimeBundleEventsProperties eventsProperties = new RuntimeBundleEventsProperties();
 
+    @Valid
+    private RuntimeBundleOutboxProperties outbox = new RuntimeBundleOutboxProperties();
+
     public String getRbSpringAppName() {
         return rbSpringAppName;
     }
@@ -93,6 +97,14 @@ public class RuntimeBundleProperties {
         this.eventsProperties = eventsProperties;
     }
 
+    public RuntimeBundleOutboxProperties getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(RuntimeBundleOutboxProperties outbox) {
+        this.outbox = outbox;
+    }
+
     public static class RuntimeBundleEventsProperties {
 
 
@@ -101,6 +113,18 @@ public class RuntimeBundleProperties {
         @Positive
         private int chunkSize = 100;
 
+        /**
+         * With DELTA, process definitions already announced with the same content hash are sent at startup
+         * without their process model content.
+         */
+        private DeploymentAnnouncementMode deploymentAnnouncementMode = DeploymentAnnouncementMode.FULL;
+
+        /**
+         * With DELTA, process definitions are announced with their content again once their last announcement
+         * with content is older than this, so that consumers that lost it recover their process model.
+         */
+        private Duration fullAnnouncementInterval = Duration.ofDays(1);
+
         public boolean isIntegrationAuditEventsEnabled() {
             return integrationAuditEventsEnabled;
         }
@@ -117,5 +141,100 @@ public class RuntimeBundleProperties {
             this.chunkSize = chunkSize;
         }
 
+        public DeploymentAnnouncementMode getDeploymentAnnouncementMode() {
+            return deploymentAnnouncementMode;
+        }
+
+        public void setDeploymentAnnouncementMode(DeploymentAnnouncementMode deploymentAnnouncementMode) {
+            this.deploymentAnnouncementMode = deploymentAnnouncementMode;
+        }
+
+        public Duration getFullAnnouncementInterval() {
+            return fullAnnouncementInterval;
+        }
+
+        public void setFullAnnouncementInterval(Duration fullAnnouncementInterval) {
+            this.fullAnnouncementInterval = fullAnnouncementInterval;
+        }
+
+        public enum DeploymentAnnouncementMode {
+            FULL,
+            DELTA
+        }
+
+    }
+
+    public static class RuntimeBundleOutboxProperties {
+
+        /**
+         * When enabled, engine events are written to the outbox table within the
+         * engine transaction and published to the broker by the outbox relay.
+         */
+        private boolean enabled = false;
+
+        private boolean createSchema = true;
+
+        private Duration pollInterval = Duration.ofMillis(200);
+
+        @Positive
+        private int batchSize = 500;
+
+        @Positive
+        private int maxRecordsPerMessage = 50;
+
+        /**
+         * Rows of an instance whose heartbeat is older than this are taken over and relayed by another one.
+         * Heartbeats are recorded three times within this period.
+         */
+        private Duration takeOverAfter = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isCreateSchema() {
+            return createSchema;
+        }
+
+        public void setCreateSchema(boolean createSchema) {
+            this.createSchema = createSchema;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxRecordsPerMessage() {
+            return maxRecordsPerMessage;
+        }
+
+        public void setMaxRecordsPerMessage(int maxRecordsPerMessage) {
+            this.maxRecordsPerMessage = maxRecordsPerMessage;
+        }
+
+        public Duration getTakeOverAfter() {
+            return takeOverAfter;
+        }
+
+        public void setTakeOverAfter(Duration takeOverAfter) {
+            this.takeOverAfter = takeOverAfter;
+        }
+
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.activiti.engine.ManagementService;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Keeps track of the process model content hash last announced for each process definition,
+ * using engine properties so that every runtime bundle replica sharing the engine database sees them.
+ * An announcement is only trusted for the full announcement interval: afterwards the definition is
+ * announced with its content again, so that consumers which lost it, e.g. with a reset database or
+ * a lost message, recover its process model.
+ */
+public class AnnouncedProcessDefinitions {
+
+    static final String PROPERTY_PREFIX = "cloud.announced.";
+
+    private static final String TIME_SEPARATOR = "@";
+
+    private final ManagementService managementService;
+
+    private final Duration fullAnnouncementInterval;
+
+    private final Clock clock;
+
+    public AnnouncedProcessDefinitions(ManagementService managementService,
+                                       Duration fullAnnouncementInterval) {
+        this(managementService,
+             fullAnnouncementInterval,
+             Clock.systemUTC());
+    }
+
+    AnnouncedProcessDefinitions(ManagementService managementService,
+                                Duration fullAnnouncementInterval,
+                                Clock clock) {
+        this.managementService = managementService;
+        this.fullAnnouncementInterval = fullAnnouncementInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * @return recorded announcements of content hashes keyed by {@link #toPropertyName(String)}
+     */
+    public Map<String, String> findContentHashes() {
+        return managementService.getProperties()
+                                .entrySet()
+                                .stream()
+                                .filter(property -> property.getKey().startsWith(PROPERTY_PREFIX))
+                                .collect(Collectors.toMap(Map.Entry::getKey,
+                                                          Map.Entry::getValue));
+    }
+
+    /**
+     * Tells whether the content with the given hash was announced with its content recently enough
+     * to be announced without it.
+     *
+     * @param announcement the recorded announcement, as returned by {@link #findContentHashes()}
+     */
+    public boolean isAnnounced(@Nullable String announcement,
+                               String contentHash) {
+        if (announcement == null) {
+            return false;
+        }
+        int separator = announcement.lastIndexOf(TIME_SEPARATOR);
+        if (separator < 0 || !contentHash.equals(announcement.substring(0, separator))) {
+            return false;
+        }
+        try {
+            long announcedAt = Long.parseLong(announcement.substring(separator + 1));
+            return clock.millis() - announcedAt < fullAnnouncementInterval.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the announcement to record for content with the given hash announced now
+     */
+    public String toAnnouncement(String contentHash) {
+        return contentHash + TIME_SEPARATOR + clock.millis();
+    }
+
+    /**
+     * Replaces the announced content hashes with the given announcements, keyed by process definition id.
+     */
+    public void update(Map<String, String> contentHashesByProcessDefinitionId) {
+        Map<String, String> contentHashes = contentHashesByProcessDefinitionId.entrySet()
+                                                                              .stream()
+                                                                              .collect(Collectors.toMap(entry -> toPropertyName(entry.getKey()),
+                                                                                                        Map.Entry::getValue));
+        managementService.executeCommand(new UpdateAnnouncedProcessDefinitionsCmd(PROPERTY_PREFIX,
+                                                                                  contentHashes));
+    }
+
+    public String toPropertyName(String processDefinitionId) {
+        // Process definition ids may be longer than the property name column
+        return PROPERTY_PREFIX + DigestUtils.md5DigestAsHex(processDefinitionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String contentHash(String processModelContent) {
+        return processModelContent != null
+            ? DigestUtils.md5DigestAsHex(processModelContent.getBytes(StandardCharsets.UTF_8))
+            : null;
+    }
+}
@@ -22,35 +22,62 @@ import org.activiti.cloud.api.process.model.events.CloudProcessDeployedEvent;
 import org.activiti.cloud.api.process.model.impl.events.CloudProcessDeployedEventImpl;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties.RuntimeBundleEventsProperties.DeploymentAnnouncementMode;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class CloudProcessDeployedProducer {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CloudProcessDeployedProducer.class);
+
     private RuntimeBundleInfoAppender runtimeBundleInfoAppender;
     private ProcessEngineChannels producer;
     private RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory;
     private int chunkSize;
+    private AnnouncedProcessDefinitions announcedProcessDefinitions;
 
     public CloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                         ProcessEngineChannels producer,
                                         RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory,
                                         RuntimeBundleProperties properties) {
+        this(runtimeBundleInfoAppender,
+             producer,
+             runtimeBundleMessageBuilderFactory,
+             properties,
+             null);
+    }
+
+    public CloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                        ProcessEngineChannels producer,
+                                        RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory,
+                                        RuntimeBundleProperties properties,
+                                        @Nullable AnnouncedProcessDefinitions announcedProcessDefinitions) {
         this.runtimeBundleInfoAppender = runtimeBundleInfoAppender;
         this.producer = producer;
         this.runtimeBundleMessageBuilderFactory = runtimeBundleMessageBuilderFactory;
         this.chunkSize = properties.getEventsProperties()
                                    .getChunkSize();
+        if (properties.getEventsProperties().getDeploymentAnnouncementMode() == DeploymentAnnouncementMode.DELTA) {
+            this.announcedProcessDefinitions = announcedProcessDefinitions;
+        }
     }
 
     @EventListener
     public void sendProcessDeployedEvents(ProcessDeployedEvents processDeployedEvents) {
+        Map<String, String> announcedContentHashes = findAnnouncedContentHashes();
+        Map<String, String> contentHashes = new HashMap<>();
         final AtomicInteger counter = new AtomicInteger();
 
         processDeployedEvents.getProcessDeployedEvents()
@@ -59,7 +86,60 @@ public class CloudProcessDeployedProducer {
                              .values()
                              .stream()
                              .map(this::toCloudProcessDeployedEvents)
+                             .map(events -> toReferencesIfAnnounced(events,
+                                                                    announcedContentHashes,
+                                                                    contentHashes))
                              .forEach(this::sendCloudProcessDeployedEvent);
+
+        updateAnnouncedContentHashes(contentHashes);
+    }
+
+    private Map<String, String> findAnnouncedContentHashes() {
+        if (announcedProcessDefinitions == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return announcedProcessDefinitions.findContentHashes();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to read announced process definitions, announcing all of them with their content", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private List<CloudProcessDeployedEvent> toReferencesIfAnnounced(List<CloudProcessDeployedEvent> events,
+                                                                    Map<String, String> announcedContentHashes,
+                                                                    Map<String, String> contentHashes) {
+        if (announcedProcessDefinitions == null) {
+            return events;
+        }
+        for (CloudProcessDeployedEvent event : events) {
+            String contentHash = event.getProcessModelContentHash();
+            if (contentHash == null || !(event instanceof CloudProcessDeployedEventImpl)) {
+                continue;
+            }
+            String processDefinitionId = event.getEntity().getId();
+            String announcement = announcedContentHashes.get(announcedProcessDefinitions.toPropertyName(processDefinitionId));
+            if (announcedProcessDefinitions.isAnnounced(announcement, contentHash)) {
+                // Unchanged since last announcement, consumers already have the content
+                ((CloudProcessDeployedEventImpl) event).setProcessModelContent(null);
+                contentHashes.put(processDefinitionId, announcement);
+            } else {
+                contentHashes.put(processDefinitionId, announcedProcessDefinitions.toAnnouncement(contentHash));
+            }
+        }
+        return events;
+    }
+
+    private void updateAnnouncedContentHashes(Map<String, String> contentHashes) {
+        if (announcedProcessDefinitions == null) {
+            return;
+        }
+        try {
+            announcedProcessDefinitions.update(contentHashes);
+        } catch (RuntimeException e) {
+            // Most likely another replica announcing at the same time, definitions will be announced again with their content
+            LOGGER.warn("Unable to record announced process definitions", e);
+        }
     }
 
     protected void sendCloudProcessDeployedEvent(List<CloudProcessDeployedEvent> cloudProcessDeployedEvents) {
@@ -81,6 +161,7 @@ public class CloudProcessDeployedProducer {
     protected CloudProcessDeployedEvent toCloudProcessDeployedEvent(ProcessDeployedEvent processDeployedEvent) {
         CloudProcessDeployedEventImpl cloudProcessDeployedEvent = new CloudProcessDeployedEventImpl(processDeployedEvent.getEntity());
         cloudProcessDeployedEvent.setProcessModelContent(processDeployedEvent.getProcessModelContent());
+        cloudProcessDeployedEvent.setProcessModelContentHash(AnnouncedProcessDefinitions.contentHash(processDeployedEvent.getProcessModelContent()));
         runtimeBundleInfoAppender.appendRuntimeBundleInfoTo(cloudProcessDeployedEvent);
 
         return cloudProcessDeployedEvent;
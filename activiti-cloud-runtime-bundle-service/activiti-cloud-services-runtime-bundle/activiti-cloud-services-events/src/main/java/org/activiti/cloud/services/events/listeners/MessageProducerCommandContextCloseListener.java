@@ -22,9 +22,11 @@ import org.activiti.cloud.api.model.shared.impl.events.CloudRuntimeEventImpl;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.message.MessageBuilderChainFactory;
+import org.activiti.cloud.services.events.outbox.EventOutbox;
 import org.activiti.engine.impl.context.ExecutionContext;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandContextCloseListener;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -38,10 +40,21 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
     private final ProcessEngineChannels producer;
     private final MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory;
     private final RuntimeBundleInfoAppender runtimeBundleInfoAppender;
+    private final EventOutbox eventOutbox;
 
     public MessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
             MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
             RuntimeBundleInfoAppender runtimeBundleInfoAppender ) {
+        this(producer,
+             messageBuilderChainFactory,
+             runtimeBundleInfoAppender,
+             null);
+    }
+
+    public MessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
+            MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
+            RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+            @Nullable EventOutbox eventOutbox) {
         Assert.notNull(producer,
                        "producer must not be null");
         Assert.notNull(messageBuilderChainFactory,
@@ -52,10 +65,23 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
         this.producer = producer;
         this.messageBuilderChainFactory = messageBuilderChainFactory;
         this.runtimeBundleInfoAppender = runtimeBundleInfoAppender;
+        this.eventOutbox = eventOutbox;
     }
 
     @Override
     public void closed(CommandContext commandContext) {
+        if (eventOutbox != null) {
+            // Already stored in the outbox, the relay publishes it
+            return;
+        }
+        Message<CloudRuntimeEvent<?, ?>[]> message = buildMessage(commandContext);
+        if (message != null) {
+            // Send message to audit producer channel
+            producer.auditProducer().send(message);
+        }
+    }
+
+    private Message<CloudRuntimeEvent<?, ?>[]> buildMessage(CommandContext commandContext) {
         List<CloudRuntimeEvent<?, ?>> events = commandContext.getGenericAttribute(PROCESS_ENGINE_EVENTS);
 
         if (events != null && !events.isEmpty()) {
@@ -69,12 +95,11 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
                                                       .toArray(CloudRuntimeEvent<?, ?>[]::new);
 
             // Inject message headers with null execution context as there may be events from several process instances
-            Message<CloudRuntimeEvent<?, ?>[]> message = messageBuilderChainFactory.create(rootExecutionContext)
-                                                                                   .withPayload(payload)
-                                                                                   .build();
-            // Send message to audit producer channel
-            producer.auditProducer().send(message);
+            return messageBuilderChainFactory.create(rootExecutionContext)
+                                             .withPayload(payload)
+                                             .build();
         }
+        return null;
     }
 
     @Override
@@ -84,7 +109,16 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
 
     @Override
     public void afterSessionsFlush(CommandContext commandContext) {
-        // No need to implement this method in this class
+        if (eventOutbox != null) {
+            Message<CloudRuntimeEvent<?, ?>[]> message = buildMessage(commandContext);
+            if (message != null) {
+                // Store the message within the engine transaction, so that it is only published once committed
+                eventOutbox.store(commandContext.getDbSqlSession()
+                                                .getSqlSession()
+                                                .getConnection(),
+                                  message);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.PropertyEntity;
+import org.activiti.engine.impl.persistence.entity.PropertyEntityManager;
+
+class UpdateAnnouncedProcessDefinitionsCmd implements Command<Void> {
+
+    private final String propertyPrefix;
+    private final Map<String, String> contentHashes;
+
+    UpdateAnnouncedProcessDefinitionsCmd(String propertyPrefix,
+                                         Map<String, String> contentHashes) {
+        this.propertyPrefix = propertyPrefix;
+        this.contentHashes = contentHashes;
+    }
+
+    @Override
+    public Void execute(CommandContext commandContext) {
+        PropertyEntityManager propertyEntityManager = commandContext.getPropertyEntityManager();
+
+        Map<String, String> remaining = new HashMap<>(contentHashes);
+        for (PropertyEntity property : propertyEntityManager.findAll()) {
+            if (!property.getName().startsWith(propertyPrefix)) {
+                continue;
+            }
+            String contentHash = remaining.remove(property.getName());
+            if (contentHash == null) {
+                // The process definition is no longer deployed
+                propertyEntityManager.delete(property);
+            } else if (!contentHash.equals(property.getValue())) {
+                property.setValue(contentHash);
+                propertyEntityManager.update(property);
+            }
+        }
+
+        remaining.forEach((name, contentHash) -> {
+            PropertyEntity property = propertyEntityManager.create();
+            property.setName(name);
+            property.setValue(contentHash);
+            propertyEntityManager.insert(property);
+        });
+
+        return null;
+    }
+}
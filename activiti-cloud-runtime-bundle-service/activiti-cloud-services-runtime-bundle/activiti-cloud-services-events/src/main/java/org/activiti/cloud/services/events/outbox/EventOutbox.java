@@ -0,0 +1,270 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.outbox;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Stores serialized engine event messages in the ACT_RB_OUTBOX table. Messages are written through
+ * the engine connection, so they commit or roll back together with the command that produced them,
+ * and are read back by the {@link EventOutboxRelay} of the instance that owns them. Owners record a heartbeat
+ * in the ACT_RB_OUTBOX_OWNER table, and the rows of an owner whose heartbeat expired are taken over.
+ */
+public class EventOutbox {
+
+    public static final String TABLE_NAME = "ACT_RB_OUTBOX";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventOutbox.class);
+
+    private static final String INSERT = "insert into ACT_RB_OUTBOX (ID_, SEQ_, OWNER_, ROOT_PROC_INST_ID_, CREATE_TIME_, HEADERS_, PAYLOAD_) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_OWNED = "select ID_, SEQ_, ROOT_PROC_INST_ID_, HEADERS_, PAYLOAD_ from ACT_RB_OUTBOX where OWNER_ = ? order by SEQ_";
+    private static final String DELETE = "delete from ACT_RB_OUTBOX where ID_ = ?";
+    private static final String UPDATE_HEARTBEAT = "update ACT_RB_OUTBOX_OWNER set HEARTBEAT_TIME_ = ? where OWNER_ = ?";
+    private static final String INSERT_HEARTBEAT = "insert into ACT_RB_OUTBOX_OWNER (OWNER_, HEARTBEAT_TIME_) values (?, ?)";
+    private static final String SELECT_STALE_OWNERS = "select OWNER_ from ACT_RB_OUTBOX_OWNER where OWNER_ <> ? and HEARTBEAT_TIME_ < ?";
+    private static final String CLAIM_OWNER = "delete from ACT_RB_OUTBOX_OWNER where OWNER_ = ? and HEARTBEAT_TIME_ < ?";
+    private static final String TAKE_OVER = "update ACT_RB_OUTBOX set OWNER_ = ? where OWNER_ = ?";
+    private static final String TAKE_OVER_ORPHANS = "update ACT_RB_OUTBOX set OWNER_ = ? where OWNER_ <> ? and CREATE_TIME_ < ? "
+        + "and not exists (select 1 from ACT_RB_OUTBOX_OWNER w where w.OWNER_ = ACT_RB_OUTBOX.OWNER_)";
+    private static final String CHECK_TABLE = "select count(*) from ACT_RB_OUTBOX o, ACT_RB_OUTBOX_OWNER w where o.ID_ is null";
+
+    private static final String CREATE_SCRIPT = "org/activiti/cloud/services/events/outbox/activiti.%s.create.outbox.sql";
+
+    private static final TypeReference<Map<String, Object>> HEADERS_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String owner;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public EventOutbox(DataSource dataSource,
+                       ObjectMapper objectMapper,
+                       String owner) {
+        this(dataSource,
+             objectMapper,
+             owner,
+             Clock.systemUTC());
+    }
+
+    EventOutbox(DataSource dataSource,
+                ObjectMapper objectMapper,
+                String owner,
+                Clock clock) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.owner = owner;
+        this.clock = clock;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Inserts the message using the given connection, which must be the one of the current engine
+     * transaction. The connection is left open.
+     */
+    public void store(Connection connection,
+                      Message<?> message) {
+        Map<String, Object> headers = new LinkedHashMap<>(message.getHeaders());
+        headers.remove(MessageHeaders.ID);
+        headers.remove(MessageHeaders.TIMESTAMP);
+
+        Object rootProcessInstanceId = headers.get(ExecutionContextMessageHeaders.ROOT_PROCESS_INSTANCE_ID);
+
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setString(1, UUID.randomUUID().toString());
+            statement.setLong(2, nextSequence());
+            statement.setString(3, owner);
+            statement.setString(4, rootProcessInstanceId != null ? rootProcessInstanceId.toString() : null);
+            statement.setTimestamp(5, new Timestamp(clock.millis()));
+            statement.setBytes(6, objectMapper.writeValueAsBytes(headers));
+            statement.setBytes(7, objectMapper.writeValueAsBytes(message.getPayload()));
+            statement.executeUpdate();
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Unable to store message in the event outbox", e);
+        }
+    }
+
+    public List<EventOutboxRecord> findOwned(int maxRecords) {
+        return jdbcTemplate.query(connection -> {
+                                      PreparedStatement statement = connection.prepareStatement(SELECT_OWNED);
+                                      statement.setMaxRows(maxRecords);
+                                      statement.setString(1, owner);
+                                      return statement;
+                                  },
+                                  (rs, rowNum) -> new EventOutboxRecord(rs.getString("ID_"),
+                                                                        rs.getLong("SEQ_"),
+                                                                        rs.getString("ROOT_PROC_INST_ID_"),
+                                                                        rs.getBytes("HEADERS_"),
+                                                                        rs.getBytes("PAYLOAD_")));
+    }
+
+    public void delete(List<EventOutboxRecord> records) {
+        jdbcTemplate.batchUpdate(DELETE,
+                                 records.stream()
+                                        .map(record -> new Object[]{record.getId()})
+                                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Records that this instance is alive and relaying its rows.
+     */
+    public void heartbeat() {
+        Timestamp now = new Timestamp(clock.millis());
+        if (jdbcTemplate.update(UPDATE_HEARTBEAT, now, owner) == 0) {
+            jdbcTemplate.update(INSERT_HEARTBEAT, owner, now);
+        }
+    }
+
+    /**
+     * Marks this instance as gone, so that the rows it leaves are taken over by the next instance that
+     * looks for stale owners instead of waiting for its heartbeat to expire.
+     */
+    public void release() {
+        jdbcTemplate.update(UPDATE_HEARTBEAT, new Timestamp(0), owner);
+    }
+
+    /**
+     * Assigns to this instance the rows of the instances whose heartbeat is older than the given threshold,
+     * e.g. because they stopped before relaying them. The rows of an owner are moved all at once by the
+     * single instance that claims its heartbeat, so that the rows of a root process instance are never
+     * relayed by two live instances. Rows older than the threshold whose owner never recorded a heartbeat
+     * are taken over as well.
+     */
+    public int takeOver(Duration staleAfter) {
+        Timestamp staleBefore = new Timestamp(clock.millis() - staleAfter.toMillis());
+        int taken = 0;
+        for (String staleOwner : jdbcTemplate.queryForList(SELECT_STALE_OWNERS, String.class, owner, staleBefore)) {
+            Integer moved = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(CLAIM_OWNER, staleOwner, staleBefore) == 0) {
+                    // claimed by another instance, or alive again
+                    return 0;
+                }
+                return jdbcTemplate.update(TAKE_OVER, owner, staleOwner);
+            });
+            taken += moved != null ? moved : 0;
+        }
+        return taken + jdbcTemplate.update(TAKE_OVER_ORPHANS, owner, owner, staleBefore);
+    }
+
+    /**
+     * Builds a single message out of records sharing the same headers, concatenating their event arrays
+     * in sequence order.
+     */
+    public Message<byte[]> toMessage(List<EventOutboxRecord> records) {
+        try {
+            Map<String, Object> headers = objectMapper.readValue(records.get(0).getHeaders(), HEADERS_TYPE);
+
+            byte[] payload;
+            if (records.size() == 1) {
+                payload = records.get(0).getPayload();
+            } else {
+                ArrayNode events = objectMapper.createArrayNode();
+                for (EventOutboxRecord record : records) {
+                    events.addAll((ArrayNode) objectMapper.readTree(record.getPayload()));
+                }
+                payload = objectMapper.writeValueAsBytes(events);
+            }
+
+            return MessageBuilder.withPayload(payload)
+                                 .copyHeaders(headers)
+                                 .setHeaderIfAbsent(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                                 .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read message from the event outbox", e);
+        }
+    }
+
+    public void createTableIfMissing() {
+        try {
+            jdbcTemplate.queryForObject(CHECK_TABLE, Integer.class);
+            return;
+        } catch (DataAccessException e) {
+            LOGGER.info("Event outbox table {} not found, creating it", TABLE_NAME);
+        }
+
+        String databaseType = resolveDatabaseType();
+        ClassPathResource script = new ClassPathResource(String.format(CREATE_SCRIPT, databaseType));
+        if (!script.exists()) {
+            throw new IllegalStateException("No event outbox schema available for database type '" + databaseType
+                + "', the " + TABLE_NAME + " table must be created manually");
+        }
+        new ResourceDatabasePopulator(script).execute(dataSource);
+    }
+
+    private String resolveDatabaseType() {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            if ("PostgreSQL".equals(productName)) {
+                return "postgres";
+            } else if ("MySQL".equals(productName) || "MariaDB".equals(productName)) {
+                return "mysql";
+            } else if ("Oracle".equals(productName)) {
+                return "oracle";
+            } else if ("Microsoft SQL Server".equals(productName)) {
+                return "mssql";
+            }
+            return productName.toLowerCase();
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Unable to resolve the database type for the event outbox", e);
+        }
+    }
+
+    private long nextSequence() {
+        // Roughly time ordered across instances, strictly increasing within this one
+        long now = clock.millis() * 1000;
+        return sequence.updateAndGet(last -> Math.max(last + 1, now));
+    }
+}
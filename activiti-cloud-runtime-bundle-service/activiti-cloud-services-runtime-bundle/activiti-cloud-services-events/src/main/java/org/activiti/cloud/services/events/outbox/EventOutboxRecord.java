@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.outbox;
+
+public class EventOutboxRecord {
+
+    private final String id;
+    private final long sequence;
+    private final String rootProcessInstanceId;
+    private final byte[] headers;
+    private final byte[] payload;
+
+    public EventOutboxRecord(String id,
+                             long sequence,
+                             String rootProcessInstanceId,
+                             byte[] headers,
+                             byte[] payload) {
+        this.id = id;
+        this.sequence = sequence;
+        this.rootProcessInstanceId = rootProcessInstanceId;
+        this.headers = headers;
+        this.payload = payload;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    public byte[] getHeaders() {
+        return headers;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.outbox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties.RuntimeBundleOutboxProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Drains the {@link EventOutbox} rows owned by this instance to the audit producer channel.
+ * Rows of the same root process instance are relayed in the order they were stored, merged
+ * into as few messages as their headers allow, and deleted once sent. Delivery is at-least-once:
+ * a failure between sending and deleting makes the rows being relayed again on the next poll.
+ * The relay keeps the heartbeat of its instance up to date while running, releases it when stopped,
+ * and takes over the rows of instances whose heartbeat expired.
+ */
+public class EventOutboxRelay implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventOutboxRelay.class);
+
+    private final EventOutbox outbox;
+    private final ProcessEngineChannels producer;
+    private final RuntimeBundleOutboxProperties properties;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+    private long lastHeartbeat;
+    private long lastTakeOver;
+
+    public EventOutboxRelay(EventOutbox outbox,
+                            ProcessEngineChannels producer,
+                            RuntimeBundleOutboxProperties properties) {
+        this.outbox = outbox;
+        this.producer = producer;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (properties.isCreateSchema()) {
+            outbox.createTableIfMissing();
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.scheduleWithFixedDelay(this::relay,
+                                        0,
+                                        properties.getPollInterval().toMillis(),
+                                        TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Event outbox relay did not stop in time, remaining rows will be relayed on restart");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            outbox.release();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to release event outbox rows of {}, they will be taken over once its heartbeat expires",
+                        outbox.getOwner(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop before the message channels are unbound
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    void relay() {
+        try {
+            takeOverIfDue();
+            int relayed;
+            do {
+                heartbeatIfDue();
+                relayed = relayBatch();
+            } while (running && relayed == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to relay event outbox messages, will retry in {}", properties.getPollInterval(), e);
+        }
+    }
+
+    int relayBatch() {
+        List<EventOutboxRecord> records = outbox.findOwned(properties.getBatchSize());
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<EventOutboxRecord> sent = new ArrayList<>(records.size());
+        try {
+            for (List<EventOutboxRecord> rootRecords : groupByRootProcessInstance(records).values()) {
+                for (List<EventOutboxRecord> chunk : chunk(rootRecords)) {
+                    producer.auditProducer().send(outbox.toMessage(chunk));
+                    sent.addAll(chunk);
+                }
+            }
+        } finally {
+            if (!sent.isEmpty()) {
+                outbox.delete(sent);
+            }
+        }
+        return records.size();
+    }
+
+    private void heartbeatIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= heartbeatInterval()) {
+            lastHeartbeat = now;
+            outbox.heartbeat();
+        }
+    }
+
+    private void takeOverIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastTakeOver >= heartbeatInterval()) {
+            lastTakeOver = now;
+            int taken = outbox.takeOver(properties.getTakeOverAfter());
+            if (taken > 0) {
+                LOGGER.info("Event outbox relay {} took over {} stale rows", outbox.getOwner(), taken);
+            }
+        }
+    }
+
+    private long heartbeatInterval() {
+        // several heartbeats fit in the take over threshold, so that a live owner never looks stale
+        return properties.getTakeOverAfter().toMillis() / 3;
+    }
+
+    private Map<String, List<EventOutboxRecord>> groupByRootProcessInstance(List<EventOutboxRecord> records) {
+        Map<String, List<EventOutboxRecord>> groups = new LinkedHashMap<>();
+        for (EventOutboxRecord record : records) {
+            groups.computeIfAbsent(record.getRootProcessInstanceId(), key -> new ArrayList<>())
+                  .add(record);
+        }
+        return groups;
+    }
+
+    private List<List<EventOutboxRecord>> chunk(List<EventOutboxRecord> records) {
+        List<List<EventOutboxRecord>> chunks = new ArrayList<>();
+        List<EventOutboxRecord> current = new ArrayList<>();
+        for (EventOutboxRecord record : records) {
+            if (!current.isEmpty()
+                && (current.size() >= properties.getMaxRecordsPerMessage()
+                    || !Arrays.equals(current.get(0).getHeaders(), record.getHeaders()))) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(record);
+        }
+        chunks.add(current);
+        return chunks;
+    }
+}
@@ -0,0 +1,18 @@
+create table ACT_RB_OUTBOX (
+    ID_ nvarchar(64) not null,
+    SEQ_ numeric(19,0) not null,
+    OWNER_ nvarchar(255) not null,
+    ROOT_PROC_INST_ID_ nvarchar(64),
+    CREATE_TIME_ datetime not null,
+    HEADERS_ varbinary(max) not null,
+    PAYLOAD_ varbinary(max) not null,
+    primary key (ID_)
+);
+
+create index ACT_IDX_RB_OUTBOX_OWNER on ACT_RB_OUTBOX(OWNER_, SEQ_);
+
+create table ACT_RB_OUTBOX_OWNER (
+    OWNER_ nvarchar(255) not null,
+    HEARTBEAT_TIME_ datetime not null,
+    primary key (OWNER_)
+);
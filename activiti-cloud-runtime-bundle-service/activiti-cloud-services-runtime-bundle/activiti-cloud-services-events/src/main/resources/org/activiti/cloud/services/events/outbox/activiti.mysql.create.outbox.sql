@@ -0,0 +1,18 @@
+create table ACT_RB_OUTBOX (
+    ID_ varchar(64) not null,
+    SEQ_ bigint not null,
+    OWNER_ varchar(255) not null,
+    ROOT_PROC_INST_ID_ varchar(64),
+    CREATE_TIME_ datetime(3) not null,
+    HEADERS_ LONGBLOB not null,
+    PAYLOAD_ LONGBLOB not null,
+    primary key (ID_)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE utf8_bin;
+
+create index ACT_IDX_RB_OUTBOX_OWNER on ACT_RB_OUTBOX(OWNER_, SEQ_);
+
+create table ACT_RB_OUTBOX_OWNER (
+    OWNER_ varchar(255) not null,
+    HEARTBEAT_TIME_ datetime(3) not null,
+    primary key (OWNER_)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE utf8_bin;
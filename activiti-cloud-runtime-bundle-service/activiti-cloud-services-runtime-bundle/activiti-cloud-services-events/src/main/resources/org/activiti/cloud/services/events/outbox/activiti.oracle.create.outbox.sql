@@ -0,0 +1,18 @@
+create table ACT_RB_OUTBOX (
+    ID_ NVARCHAR2(64) not null,
+    SEQ_ NUMBER(19,0) not null,
+    OWNER_ NVARCHAR2(255) not null,
+    ROOT_PROC_INST_ID_ NVARCHAR2(64),
+    CREATE_TIME_ TIMESTAMP(6) not null,
+    HEADERS_ BLOB not null,
+    PAYLOAD_ BLOB not null,
+    primary key (ID_)
+);
+
+create index ACT_IDX_RB_OUTBOX_OWNER on ACT_RB_OUTBOX(OWNER_, SEQ_);
+
+create table ACT_RB_OUTBOX_OWNER (
+    OWNER_ NVARCHAR2(255) not null,
+    HEARTBEAT_TIME_ TIMESTAMP(6) not null,
+    primary key (OWNER_)
+);
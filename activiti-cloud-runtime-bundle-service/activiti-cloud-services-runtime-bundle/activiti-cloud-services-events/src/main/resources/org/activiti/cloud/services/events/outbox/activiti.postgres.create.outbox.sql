@@ -0,0 +1,18 @@
+create table ACT_RB_OUTBOX (
+    ID_ varchar(64) not null,
+    SEQ_ bigint not null,
+    OWNER_ varchar(255) not null,
+    ROOT_PROC_INST_ID_ varchar(64),
+    CREATE_TIME_ timestamp not null,
+    HEADERS_ bytea not null,
+    PAYLOAD_ bytea not null,
+    primary key (ID_)
+);
+
+create index ACT_IDX_RB_OUTBOX_OWNER on ACT_RB_OUTBOX(OWNER_, SEQ_);
+
+create table ACT_RB_OUTBOX_OWNER (
+    OWNER_ varchar(255) not null,
+    HEARTBEAT_TIME_ timestamp not null,
+    primary key (OWNER_)
+);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.activiti.engine.ManagementService;
+import org.junit.jupiter.api.Test;
+
+public class AnnouncedProcessDefinitionsTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2020-01-02T10:00:00Z"), ZoneOffset.UTC);
+
+    private final AnnouncedProcessDefinitions announcedProcessDefinitions =
+        new AnnouncedProcessDefinitions(mock(ManagementService.class), Duration.ofDays(1), clock);
+
+    @Test
+    public void should_trustRecentAnnouncementOfSameContent() {
+        String announcement = announcedProcessDefinitions.toAnnouncement("hash");
+
+        assertThat(announcedProcessDefinitions.isAnnounced(announcement, "hash")).isTrue();
+        assertThat(announcedProcessDefinitions.isAnnounced(announcement, "other")).isFalse();
+    }
+
+    @Test
+    public void should_announceContentAgain_when_announcementIsOlderThanFullAnnouncementInterval() {
+        String announcement = new AnnouncedProcessDefinitions(mock(ManagementService.class),
+                                                              Duration.ofDays(1),
+                                                              Clock.offset(clock, Duration.ofDays(-2)))
+            .toAnnouncement("hash");
+
+        assertThat(announcedProcessDefinitions.isAnnounced(announcement, "hash")).isFalse();
+    }
+
+    @Test
+    public void should_notTrustMissingOrUnreadableAnnouncements() {
+        assertThat(announcedProcessDefinitions.isAnnounced(null, "hash")).isFalse();
+        assertThat(announcedProcessDefinitions.isAnnounced("hash", "hash")).isFalse();
+        assertThat(announcedProcessDefinitions.isAnnounced("hash@later", "hash")).isFalse();
+    }
+}
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.activiti.api.process.model.ProcessDefinition;
 import org.activiti.api.process.model.events.ProcessDeployedEvent;
@@ -37,6 +38,7 @@ import org.activiti.cloud.api.process.model.events.CloudProcessDeployedEvent;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties.RuntimeBundleEventsProperties;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties.RuntimeBundleEventsProperties.DeploymentAnnouncementMode;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.message.MessageBuilderAppenderChain;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
@@ -130,4 +132,50 @@ public class CloudProcessDeployedProducerTest {
             .containsOnly(tuple(def3,
                 "content3"));
     }
+
+    @Test
+    public void should_sendUnchangedProcessDefinitionsWithoutContent_when_deltaAnnouncementIsEnabled() {
+        //given
+        properties.getEventsProperties().setDeploymentAnnouncementMode(DeploymentAnnouncementMode.DELTA);
+        AnnouncedProcessDefinitions announcedProcessDefinitions = mock(AnnouncedProcessDefinitions.class);
+        processDeployedProducer = new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
+                                                                   producer,
+                                                                   runtimeBundleMessageBuilderFactory,
+                                                                   properties,
+                                                                   announcedProcessDefinitions);
+        ProcessDefinition unchanged = mock(ProcessDefinition.class);
+        given(unchanged.getId()).willReturn("unchanged");
+        ProcessDefinition changed = mock(ProcessDefinition.class);
+        given(changed.getId()).willReturn("changed");
+        given(announcedProcessDefinitions.toPropertyName(any())).will(invocation -> "property." + invocation.getArgument(0));
+        given(announcedProcessDefinitions.findContentHashes())
+            .willReturn(Map.of("property.unchanged", "announcement1",
+                               "property.changed", "announcement2"));
+        given(announcedProcessDefinitions.isAnnounced(any(), any())).willReturn(false);
+        given(announcedProcessDefinitions.isAnnounced("announcement1", AnnouncedProcessDefinitions.contentHash("content1"))).willReturn(true);
+        given(announcedProcessDefinitions.toAnnouncement(any())).will(invocation -> "announced " + invocation.getArgument(0));
+        given(messageBuilderAppenderChain.withPayload(any())).willReturn(MessageBuilder.withPayload(new CloudRuntimeEvent<?, ?>[2]));
+
+        //when
+        processDeployedProducer.sendProcessDeployedEvents(new ProcessDeployedEvents(Arrays.asList(
+            new ProcessDeployedEventImpl(unchanged, "content1"),
+            new ProcessDeployedEventImpl(changed, "content2"))));
+
+        //then
+        verify(messageBuilderAppenderChain).withPayload(messagePayloadCaptor.capture());
+        assertThat(Arrays.stream(messagePayloadCaptor.getValue())
+                         .map(CloudProcessDeployedEvent.class::cast)
+                         .collect(Collectors.toList()))
+            .extracting(CloudProcessDeployedEvent::getEntity,
+                        CloudProcessDeployedEvent::getProcessModelContent,
+                        CloudProcessDeployedEvent::getProcessModelContentHash)
+            .containsExactly(tuple(unchanged,
+                                   null,
+                                   AnnouncedProcessDefinitions.contentHash("content1")),
+                             tuple(changed,
+                                   "content2",
+                                   AnnouncedProcessDefinitions.contentHash("content2")));
+        verify(announcedProcessDefinitions).update(Map.of("unchanged", "announcement1",
+                                                          "changed", "announced " + AnnouncedProcessDefinitions.contentHash("content2")));
+    }
 }
@@ -17,6 +17,7 @@ package org.activiti.cloud.services.events.listeners;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -25,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.sql.Connection;
 import java.util.Collections;
 
 import org.activiti.api.process.model.ProcessInstance;
@@ -36,11 +38,14 @@ import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.outbox.EventOutbox;
 import org.activiti.engine.impl.context.ExecutionContext;
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.entity.DeploymentEntity;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.repository.ProcessDefinition;
+import org.apache.ibatis.session.SqlSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -210,6 +215,36 @@ public class MessageProducerCommandContextCloseListenerTest {
 
     }
 
+    @Test
+    public void shouldStoreEventsInOutboxAfterSessionsFlushInsteadOfSending() throws Exception {
+        // given
+        EventOutbox eventOutbox = mock(EventOutbox.class);
+        MessageProducerCommandContextCloseListener outboxCloseListener =
+                new MessageProducerCommandContextCloseListener(producer,
+                                                               messageBuilderChainFactory,
+                                                               runtimeBundleInfoAppender,
+                                                               eventOutbox);
+        Connection connection = mock(Connection.class);
+        DbSqlSession dbSqlSession = mock(DbSqlSession.class);
+        SqlSession sqlSession = mock(SqlSession.class);
+        given(commandContext.getDbSqlSession()).willReturn(dbSqlSession);
+        given(dbSqlSession.getSqlSession()).willReturn(sqlSession);
+        given(sqlSession.getConnection()).willReturn(connection);
+        given(commandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS))
+                .willReturn(Collections.singletonList(event));
+
+        // when
+        outboxCloseListener.afterSessionsFlush(commandContext);
+        outboxCloseListener.closed(commandContext);
+
+        // then
+        verify(eventOutbox).store(eq(connection),
+                                  messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getValue().getPayload()).containsExactly(event);
+        verify(auditChannel,
+               never()).send(any());
+    }
+
     private ExecutionContext mockExecutionContext() {
         ExecutionContext context = mock(ExecutionContext.class);
         ExecutionEntity processInstance = mock(ExecutionEntity.class);
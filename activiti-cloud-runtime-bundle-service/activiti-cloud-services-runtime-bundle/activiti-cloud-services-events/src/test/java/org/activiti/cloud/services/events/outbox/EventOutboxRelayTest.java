@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties.RuntimeBundleOutboxProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class EventOutboxRelayTest {
+
+    private static final byte[] HEADERS = "{}".getBytes();
+
+    @Mock
+    private EventOutbox outbox;
+
+    @Mock
+    private ProcessEngineChannels producer;
+
+    @Mock
+    private MessageChannel auditChannel;
+
+    @Captor
+    private ArgumentCaptor<List<EventOutboxRecord>> recordsCaptor;
+
+    private RuntimeBundleOutboxProperties properties = new RuntimeBundleOutboxProperties();
+
+    private EventOutboxRelay relay;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        given(producer.auditProducer()).willReturn(auditChannel);
+        given(outbox.toMessage(anyList())).willReturn(MessageBuilder.withPayload(new byte[0]).build());
+        relay = new EventOutboxRelay(outbox, producer, properties);
+    }
+
+    @Test
+    public void should_sendOneMessagePerRootProcessInstanceInOrder() {
+        //given
+        EventOutboxRecord first = record("1", "root-1", HEADERS);
+        EventOutboxRecord second = record("2", "root-2", HEADERS);
+        EventOutboxRecord third = record("3", "root-1", HEADERS);
+        given(outbox.findOwned(properties.getBatchSize())).willReturn(Arrays.asList(first, second, third));
+
+        //when
+        int relayed = relay.relayBatch();
+
+        //then
+        assertThat(relayed).isEqualTo(3);
+        verify(outbox, times(2)).toMessage(recordsCaptor.capture());
+        assertThat(recordsCaptor.getAllValues()).containsExactly(Arrays.asList(first, third),
+                                                                 Collections.singletonList(second));
+        verify(auditChannel, times(2)).send(any());
+        verify(outbox).delete(Arrays.asList(first, third, second));
+    }
+
+    @Test
+    public void should_splitMessagesWhenHeadersDifferOrChunkIsFull() {
+        //given
+        properties.setMaxRecordsPerMessage(2);
+        EventOutboxRecord first = record("1", "root-1", HEADERS);
+        EventOutboxRecord second = record("2", "root-1", "{\"a\":1}".getBytes());
+        EventOutboxRecord third = record("3", "root-1", "{\"a\":1}".getBytes());
+        EventOutboxRecord fourth = record("4", "root-1", "{\"a\":1}".getBytes());
+        given(outbox.findOwned(properties.getBatchSize())).willReturn(Arrays.asList(first, second, third, fourth));
+
+        //when
+        relay.relayBatch();
+
+        //then
+        verify(outbox, times(3)).toMessage(recordsCaptor.capture());
+        assertThat(recordsCaptor.getAllValues()).containsExactly(Collections.singletonList(first),
+                                                                 Arrays.asList(second, third),
+                                                                 Collections.singletonList(fourth));
+    }
+
+    @Test
+    public void should_deleteOnlySentRecordsWhenSendFails() {
+        //given
+        EventOutboxRecord first = record("1", "root-1", HEADERS);
+        EventOutboxRecord second = record("2", "root-2", HEADERS);
+        given(outbox.findOwned(properties.getBatchSize())).willReturn(Arrays.asList(first, second));
+        given(auditChannel.send(any(Message.class))).willReturn(true)
+                                                    .willThrow(new IllegalStateException("broker down"));
+
+        //when
+        Throwable throwable = catchThrowable(() -> relay.relayBatch());
+
+        //then
+        assertThat(throwable).isInstanceOf(IllegalStateException.class);
+        verify(outbox).delete(Collections.singletonList(first));
+    }
+
+    @Test
+    public void should_doNothingWhenOutboxIsEmpty() {
+        //given
+        given(outbox.findOwned(properties.getBatchSize())).willReturn(Collections.emptyList());
+
+        //when
+        int relayed = relay.relayBatch();
+
+        //then
+        assertThat(relayed).isZero();
+        verify(auditChannel, never()).send(any());
+        verify(outbox, never()).delete(anyList());
+    }
+
+    @Test
+    public void should_heartbeatAndTakeOverBeforeRelaying() {
+        //given
+        given(outbox.findOwned(properties.getBatchSize())).willReturn(Collections.emptyList());
+
+        //when
+        relay.relay();
+
+        //then
+        InOrder inOrder = inOrder(outbox);
+        inOrder.verify(outbox).takeOver(properties.getTakeOverAfter());
+        inOrder.verify(outbox).heartbeat();
+        inOrder.verify(outbox).findOwned(properties.getBatchSize());
+    }
+
+    @Test
+    public void should_releaseOwnershipWhenStopped() {
+        //given
+        properties.setCreateSchema(false);
+        relay.start();
+
+        //when
+        relay.stop();
+
+        //then
+        verify(outbox).release();
+        assertThat(relay.isRunning()).isFalse();
+    }
+
+    private EventOutboxRecord record(String id, String rootProcessInstanceId, byte[] headers) {
+        return new EventOutboxRecord(id, Long.parseLong(id), rootProcessInstanceId, headers, "[]".getBytes());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class EventOutboxTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Clock clock = Clock.fixed(Instant.parse("2020-01-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private DriverManagerDataSource dataSource;
+
+    private EventOutbox outbox;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        outbox = new EventOutbox(dataSource, objectMapper, "owner", clock);
+        outbox.createTableIfMissing();
+    }
+
+    @Test
+    public void should_readStoredMessagesInOrder() throws Exception {
+        //given
+        store(outbox, message("root-1", "a"));
+        store(outbox, message("root-2", "b"));
+        store(outbox, message("root-1", "c"));
+
+        //when
+        List<EventOutboxRecord> records = outbox.findOwned(10);
+
+        //then
+        assertThat(records).extracting(EventOutboxRecord::getRootProcessInstanceId)
+                           .containsExactly("root-1", "root-2", "root-1");
+        assertThat(records).extracting(EventOutboxRecord::getSequence)
+                           .isSorted()
+                           .doesNotHaveDuplicates();
+        assertThat(outbox.findOwned(2)).hasSize(2);
+    }
+
+    @Test
+    public void should_mergeRecordsIntoSingleMessage() throws Exception {
+        //given
+        store(outbox, message("root-1", "a"));
+        store(outbox, message("root-1", "b"));
+
+        //when
+        Message<byte[]> message = outbox.toMessage(outbox.findOwned(10));
+
+        //then
+        JsonNode events = objectMapper.readTree(message.getPayload());
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).get("id").asText()).isEqualTo("a");
+        assertThat(events.get(1).get("id").asText()).isEqualTo("b");
+        assertThat(message.getHeaders().get(ExecutionContextMessageHeaders.ROOT_PROCESS_INSTANCE_ID)).isEqualTo("root-1");
+        assertThat(message.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo("application/json");
+    }
+
+    @Test
+    public void should_deleteRecords() throws Exception {
+        //given
+        store(outbox, message("root-1", "a"));
+        store(outbox, message("root-1", "b"));
+        List<EventOutboxRecord> records = outbox.findOwned(10);
+
+        //when
+        outbox.delete(records.subList(0, 1));
+
+        //then
+        assertThat(outbox.findOwned(10)).extracting(EventOutboxRecord::getId)
+                                        .containsExactly(records.get(1).getId());
+    }
+
+    @Test
+    public void should_takeOverRecordsOfOwnersWithExpiredHeartbeat() throws Exception {
+        //given
+        EventOutbox deadOutbox = new EventOutbox(dataSource, objectMapper, "dead", Clock.offset(clock, Duration.ofMinutes(-10)));
+        EventOutbox liveOutbox = new EventOutbox(dataSource, objectMapper, "live", clock);
+        store(deadOutbox, message("root-1", "a"));
+        deadOutbox.heartbeat();
+        store(new EventOutbox(dataSource, objectMapper, "live", Clock.offset(clock, Duration.ofMinutes(-10))), message("root-2", "b"));
+        liveOutbox.heartbeat();
+
+        //when
+        int taken = outbox.takeOver(Duration.ofMinutes(5));
+
+        //then
+        assertThat(taken).isEqualTo(1);
+        assertThat(outbox.findOwned(10)).extracting(EventOutboxRecord::getRootProcessInstanceId)
+                                        .containsExactly("root-1");
+        assertThat(liveOutbox.findOwned(10)).extracting(EventOutboxRecord::getRootProcessInstanceId)
+                                            .containsExactly("root-2");
+        assertThat(outbox.takeOver(Duration.ofMinutes(5))).isZero();
+    }
+
+    @Test
+    public void should_takeOverRecordsOfReleasedOwnerRightAway() throws Exception {
+        //given
+        EventOutbox stoppedOutbox = new EventOutbox(dataSource, objectMapper, "stopped", clock);
+        stoppedOutbox.heartbeat();
+        store(stoppedOutbox, message("root-1", "a"));
+        stoppedOutbox.release();
+
+        //when
+        int taken = outbox.takeOver(Duration.ofMinutes(5));
+
+        //then
+        assertThat(taken).isEqualTo(1);
+        assertThat(stoppedOutbox.findOwned(10)).isEmpty();
+    }
+
+    @Test
+    public void should_takeOverOnlyStaleRecordsOfOwnersWithoutHeartbeat() throws Exception {
+        //given
+        store(new EventOutbox(dataSource, objectMapper, "stale", Clock.offset(clock, Duration.ofMinutes(-10))), message("root-1", "a"));
+        store(new EventOutbox(dataSource, objectMapper, "recent", clock), message("root-2", "b"));
+
+        //when
+        int taken = outbox.takeOver(Duration.ofMinutes(5));
+
+        //then
+        assertThat(taken).isEqualTo(1);
+        assertThat(outbox.findOwned(10)).extracting(EventOutboxRecord::getRootProcessInstanceId)
+                                        .containsExactly("root-1");
+    }
+
+    @Test
+    public void should_notRecreateExistingTable() throws Exception {
+        //given
+        store(outbox, message("root-1", "a"));
+
+        //when
+        outbox.createTableIfMissing();
+
+        //then
+        assertThat(outbox.findOwned(10)).hasSize(1);
+    }
+
+    private void store(EventOutbox eventOutbox, Message<?> message) throws Exception {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            eventOutbox.store(connection, message);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private Message<?> message(String rootProcessInstanceId, String eventId) {
+        return MessageBuilder.withPayload(new Object[]{objectMapper.createObjectNode().put("id", eventId)})
+                             .setHeader(ExecutionContextMessageHeaders.ROOT_PROCESS_INSTANCE_ID, rootProcessInstanceId)
+                             .build();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Handles job messages sent by {@link BatchingJobMessageProducer}. All jobs of a message are loaded with a single query,
+ * then executed on the given worker pool: jobs of the same process instance one after the other, different process
+ * instances in parallel. A failing job does not prevent the others from running; its retries are handled by the engine
+ * as for single job messages. Messages without batch header are handled as single job messages.
+ */
+public class BatchJobMessageHandler extends JobMessageHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchJobMessageHandler.class);
+
+    static final String SELECT_JOBS_BY_IDS = "selectJobsByIdsForBatchDispatch";
+
+    private final ProcessEngineConfigurationImpl processEngineConfiguration;
+    private final ExecutorService workers;
+    private final int maxBatchSize;
+
+    public BatchJobMessageHandler(ProcessEngineConfigurationImpl processEngineConfiguration,
+                                  ExecutorService workers,
+                                  int maxBatchSize) {
+        super(processEngineConfiguration);
+        this.processEngineConfiguration = processEngineConfiguration;
+        this.workers = workers;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void handleMessage(Message<?> message) throws MessagingException {
+        if (!message.getHeaders().containsKey(JobMessageHeaders.JOB_BATCH_SIZE)) {
+            super.handleMessage(message);
+            return;
+        }
+
+        logger.debug("Handling job batch message: {} ", message);
+
+        try {
+            List<String> jobIds = Arrays.asList(new String((byte[]) message.getPayload()).split(BatchingJobMessageProducer.JOB_ID_SEPARATOR));
+
+            logger.info("Received job batch message with {} jobs", jobIds.size());
+
+            List<JobEntity> jobs = findJobsByIds(jobIds);
+
+            if (jobs.size() < jobIds.size()) {
+                logger.info("{} of {} jobs do not exist anymore and have been dropped", jobIds.size() - jobs.size(), jobIds.size());
+            }
+
+            CompletableFuture.allOf(groupByProcessInstance(jobs).values()
+                                                                .stream()
+                                                                .map(processInstanceJobs -> CompletableFuture.runAsync(() -> executeJobs(processInstanceJobs),
+                                                                                                                       workers))
+                                                                .toArray(CompletableFuture[]::new))
+                             .join();
+
+        } catch (Exception cause) {
+            logger.error("Exception '{}' when handling job batch message {}", cause.getMessage(), message);
+
+            throw new ActivitiException("Exception when handling batch message from job queue", cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<JobEntity> findJobsByIds(List<String> jobIds) {
+        return processEngineConfiguration.getCommandExecutor()
+                                         .execute(commandContext -> {
+                                             List<JobEntity> jobs = new ArrayList<>(jobIds.size());
+                                             // Keeps the IN list within the limits of every supported database
+                                             for (int from = 0; from < jobIds.size(); from += maxBatchSize) {
+                                                 jobs.addAll(commandContext.getDbSqlSession()
+                                                                           .selectList(SELECT_JOBS_BY_IDS,
+                                                                                       jobIds.subList(from, Math.min(from + maxBatchSize, jobIds.size()))));
+                                             }
+                                             return jobs;
+                                         });
+    }
+
+    protected void executeJobs(List<JobEntity> jobs) {
+        for (JobEntity job : jobs) {
+            try {
+                executeJob(job);
+
+                logger.debug("Job executed: {}", job);
+            } catch (Exception cause) {
+                logger.error("Exception '{}' when executing job {} of a batch", cause.getMessage(), job.getId(), cause);
+            }
+        }
+    }
+
+    private Map<String, List<JobEntity>> groupByProcessInstance(List<JobEntity> jobs) {
+        return jobs.stream()
+                   .collect(Collectors.groupingBy(job -> String.valueOf(job.getProcessInstanceId()),
+                                                  LinkedHashMap::new,
+                                                  Collectors.toList()));
+    }
+}
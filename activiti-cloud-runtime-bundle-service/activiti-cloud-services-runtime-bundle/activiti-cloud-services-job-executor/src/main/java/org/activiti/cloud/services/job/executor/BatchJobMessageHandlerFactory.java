@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.MessageHandler;
+
+public class BatchJobMessageHandlerFactory implements JobMessageHandlerFactory, DisposableBean {
+
+    private final JobMessageBatchProperties batchProperties;
+    private final ExecutorService workers;
+
+    public BatchJobMessageHandlerFactory(JobMessageBatchProperties batchProperties) {
+        this.batchProperties = batchProperties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(batchProperties.getWorkers(),
+                                                    runnable -> {
+                                                        Thread thread = new Thread(runnable, "job-batch-worker-" + threadCount.incrementAndGet());
+                                                        thread.setDaemon(true);
+                                                        return thread;
+                                                    });
+    }
+
+    @Override
+    public MessageHandler create(ProcessEngineConfigurationImpl configuration) {
+        return new BatchJobMessageHandler(configuration,
+                                          workers,
+                                          batchProperties.getMaxSize());
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.activiti.engine.runtime.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.MessageDispatchingException;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Collects the jobs created within a transaction and, once it has committed, sends their ids in
+ * comma separated batches of at most {@link JobMessageBatchProperties#getMaxSize()} per destination.
+ * Jobs of the same process instance are kept next to each other so that they usually end up in the same batch.
+ * A batch of a single job is sent as a regular job message.
+ */
+public class BatchingJobMessageProducer implements JobMessageProducer {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingJobMessageProducer.class);
+
+    private static final String ROUTING_KEY = "routingKey";
+
+    static final String JOB_ID_SEPARATOR = ",";
+
+    private final BinderAwareChannelResolver resolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobMessageBuilderFactory jobMessageBuilderFactory;
+    private final int maxBatchSize;
+
+    public BatchingJobMessageProducer(BinderAwareChannelResolver resolver,
+                                      ApplicationEventPublisher eventPublisher,
+                                      JobMessageBuilderFactory jobMessageBuilderFactory,
+                                      JobMessageBatchProperties batchProperties) {
+        this.resolver = resolver;
+        this.eventPublisher = eventPublisher;
+        this.jobMessageBuilderFactory = jobMessageBuilderFactory;
+        this.maxBatchSize = batchProperties.getMaxSize();
+    }
+
+    @Override
+    public void sendMessage(@NonNull String destination, @NonNull Job job) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("requires active transaction synchronization");
+        }
+
+        Assert.hasLength(job.getId(), "job id must not be empty");
+        Assert.hasLength(destination, "destination must not be empty");
+
+        JobBatchTransactionSynchronization synchronization = (JobBatchTransactionSynchronization) TransactionSynchronizationManager.getResource(this);
+        if (synchronization == null) {
+            synchronization = new JobBatchTransactionSynchronization();
+            TransactionSynchronizationManager.bindResource(this, synchronization);
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        }
+
+        synchronization.add(destination, job);
+    }
+
+    protected Message<String> buildMessage(String destination, List<Job> jobs) {
+        if (jobs.size() == 1) {
+            return jobMessageBuilderFactory.create(jobs.get(0))
+                                           .withPayload(jobs.get(0).getId())
+                                           .setHeader(ROUTING_KEY, destination)
+                                           .build();
+        }
+        return jobMessageBuilderFactory.create(jobs)
+                                       .withPayload(jobs.stream()
+                                                        .map(Job::getId)
+                                                        .collect(Collectors.joining(JOB_ID_SEPARATOR)))
+                                       .setHeader(ROUTING_KEY, destination)
+                                       .build();
+    }
+
+    class JobBatchTransactionSynchronization implements TransactionSynchronization {
+
+        private final Map<String, MessageChannel> messageChannels = new LinkedHashMap<>();
+        private final Map<String, Map<String, List<Job>>> jobsByDestination = new LinkedHashMap<>();
+
+        void add(String destination, Job job) {
+            // Let's try to resolve message channel while inside main Activiti transaction to minimize infrastructure errors
+            messageChannels.computeIfAbsent(destination, resolver::resolveDestination);
+
+            jobsByDestination.computeIfAbsent(destination, key -> new LinkedHashMap<>())
+                             .computeIfAbsent(job.getProcessInstanceId(), key -> new ArrayList<>())
+                             .add(job);
+        }
+
+        @Override
+        public void afterCommit() {
+            jobsByDestination.forEach((destination, jobsByProcessInstance) -> {
+                List<Job> jobs = new ArrayList<>();
+                jobsByProcessInstance.values()
+                                     .forEach(jobs::addAll);
+
+                for (int from = 0; from < jobs.size(); from += maxBatchSize) {
+                    send(buildMessage(destination,
+                                      jobs.subList(from, Math.min(from + maxBatchSize, jobs.size()))),
+                         messageChannels.get(destination));
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BatchingJobMessageProducer.this);
+        }
+
+        private void send(Message<String> message, MessageChannel messageChannel) {
+            logger.debug("Sending job batch message '{}' via message channel: {}", message, messageChannel);
+
+            try {
+                boolean sent = messageChannel.send(message);
+
+                if(!sent) {
+                    throw new MessageDispatchingException(message);
+                }
+
+                eventPublisher.publishEvent(new JobMessageSentEvent(message, messageChannel));
+
+            } catch(Exception cause) {
+                logger.error("Sending job batch message {} failed due to error: {}", message, cause.getMessage());
+
+                eventPublisher.publishEvent(new JobMessageFailedEvent(message, cause, messageChannel));
+            }
+        }
+    }
+}
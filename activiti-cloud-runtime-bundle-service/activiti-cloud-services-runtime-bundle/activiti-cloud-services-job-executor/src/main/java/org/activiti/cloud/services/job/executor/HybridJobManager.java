@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.interceptor.CommandConfig;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.runtime.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Executes async jobs on the node that created them when the local executor has spare capacity, and sends them
+ * to the job message broker otherwise. The choice is made once per job, before the creating transaction commits,
+ * so a job is either executed locally or sent as a message, never both. Jobs that fail with an optimistic locking
+ * error are unacquired and sent to the broker as usual.
+ * <p>
+ * Jobs picked for local execution are stored locked by this node, so that the async executor resets and sends them
+ * to the broker once their lock expires if this node stops before executing them. Jobs that cannot be handed over
+ * to or loaded by the local executor are sent to the broker straight away. A job that waited in the local queue for
+ * more than half of its lock time is sent to the broker rather than started, and one whose lock has expired is left
+ * to the expired job reset, so that a local execution never overlaps with the reset sending the job to the broker.
+ */
+public class HybridJobManager extends MessageBasedJobManager {
+    private static final Logger logger = LoggerFactory.getLogger(HybridJobManager.class);
+
+    private final ExecutorService localExecutor;
+    private final Semaphore capacity;
+    private final JobMessageHandler localJobHandler;
+
+    public HybridJobManager(ProcessEngineConfigurationImpl processEngineConfiguration,
+                            BindingServiceProperties bindingServiceProperties,
+                            JobMessageProducer jobMessageProducer,
+                            ExecutorService localExecutor,
+                            int capacity) {
+        this(processEngineConfiguration,
+             bindingServiceProperties,
+             jobMessageProducer,
+             new JobMessageHandler(processEngineConfiguration),
+             localExecutor,
+             capacity);
+    }
+
+    public HybridJobManager(ProcessEngineConfigurationImpl processEngineConfiguration,
+                            BindingServiceProperties bindingServiceProperties,
+                            JobMessageProducer jobMessageProducer,
+                            JobMessageHandler localJobHandler,
+                            ExecutorService localExecutor,
+                            int capacity) {
+        super(processEngineConfiguration,
+              bindingServiceProperties,
+              jobMessageProducer);
+        this.localJobHandler = localJobHandler;
+        this.localExecutor = localExecutor;
+        this.capacity = new Semaphore(capacity);
+    }
+
+    @Override
+    protected void triggerExecutorIfNeeded(final JobEntity jobEntity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && capacity.tryAcquire()) {
+            logger.debug("Executing job {} locally after commit", jobEntity);
+
+            lock(jobEntity);
+            TransactionSynchronizationManager.registerSynchronization(new LocalJobExecutionSynchronization(jobEntity.getId()));
+        } else {
+            super.triggerExecutorIfNeeded(jobEntity);
+        }
+    }
+
+    protected void lock(JobEntity jobEntity) {
+        // The job is not sent to the broker, so it is only recovered through its lock expiration if this node stops
+        AsyncExecutor asyncExecutor = processEngineConfiguration.getAsyncExecutor();
+
+        jobEntity.setLockOwner(asyncExecutor.getLockOwner());
+        jobEntity.setLockExpirationTime(new Date(processEngineConfiguration.getClock()
+                                                                           .getCurrentTime()
+                                                                           .getTime() + asyncExecutor.getAsyncJobLockTimeInMillis()));
+    }
+
+    public int getAvailableCapacity() {
+        return capacity.availablePermits();
+    }
+
+    protected void executeLocally(String jobId) {
+        try {
+            JobEntity job;
+            try {
+                job = localJobHandler.findJobById(jobId);
+            } catch (Exception cause) {
+                logger.error("Exception '{}' when loading job {} for local execution, sending it to the job message broker",
+                             cause.getMessage(), jobId, cause);
+                sendToBroker(jobId);
+                return;
+            }
+
+            if (job == null) {
+                logger.debug("Job {} does not exist anymore, local execution skipped", jobId);
+                return;
+            }
+
+            if (job.getLockExpirationTime() != null) {
+                long remainingLockTime = job.getLockExpirationTime().getTime() - processEngineConfiguration.getClock()
+                                                                                                             .getCurrentTime()
+                                                                                                             .getTime();
+                if (remainingLockTime <= 0) {
+                    logger.warn("Lock of job {} expired while it was queued for local execution, leaving it to the expired job reset", jobId);
+                    return;
+                }
+                if (remainingLockTime < processEngineConfiguration.getAsyncExecutor().getAsyncJobLockTimeInMillis() / 2) {
+                    logger.warn("Job {} was queued for local execution for more than half of its lock time, sending it to the job message broker", jobId);
+                    sendToBroker(jobId);
+                    return;
+                }
+            }
+
+            try {
+                localJobHandler.executeJob(job);
+            } catch (ActivitiException cause) {
+                // Failures of the job itself are handled by the engine, e.g. through the job retries
+                logger.error("Exception '{}' when executing job {} locally", cause.getMessage(), jobId, cause);
+            } catch (Exception cause) {
+                logger.error("Exception '{}' when executing job {} locally, sending it to the job message broker",
+                             cause.getMessage(), jobId, cause);
+                sendToBroker(jobId);
+            }
+        } finally {
+            capacity.release();
+        }
+    }
+
+    protected void sendToBroker(String jobId) {
+        try {
+            // The creating transaction is already committed, so the message is sent from a new one
+            processEngineConfiguration.getCommandExecutor()
+                                      .execute(new CommandConfig().transactionRequiresNew(),
+                                               commandContext -> {
+                                                   Job job = commandContext.getJobEntityManager().findById(jobId);
+                                                   if (job != null) {
+                                                       sendMessage(job);
+                                                   }
+                                                   return null;
+                                               });
+        } catch (Exception cause) {
+            logger.error("Exception '{}' when sending job {} to the job message broker, it will be sent once its lock expires",
+                         cause.getMessage(), jobId, cause);
+        }
+    }
+
+    class LocalJobExecutionSynchronization implements TransactionSynchronization {
+
+        private final String jobId;
+
+        LocalJobExecutionSynchronization(String jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                capacity.release();
+                return;
+            }
+
+            try {
+                localExecutor.execute(() -> executeLocally(jobId));
+            } catch (RejectedExecutionException cause) {
+                capacity.release();
+
+                logger.warn("Local job executor rejected job {}, sending it to the job message broker", jobId);
+                sendToBroker(jobId);
+            }
+        }
+    }
+}
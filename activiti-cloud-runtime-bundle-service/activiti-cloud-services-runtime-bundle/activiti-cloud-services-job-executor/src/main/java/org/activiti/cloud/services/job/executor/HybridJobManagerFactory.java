@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+
+public class HybridJobManagerFactory implements MessageBasedJobManagerFactory, DisposableBean {
+
+    private final BindingServiceProperties bindingServiceProperties;
+    private final JobMessageProducer jobMessageProducer;
+    private final LocalJobExecutionProperties localProperties;
+    private final ExecutorService localExecutor;
+
+    public HybridJobManagerFactory(BindingServiceProperties bindingServiceProperties,
+                                   JobMessageProducer jobMessageProducer,
+                                   LocalJobExecutionProperties localProperties) {
+        this.bindingServiceProperties = bindingServiceProperties;
+        this.jobMessageProducer = jobMessageProducer;
+        this.localProperties = localProperties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.localExecutor = new ThreadPoolExecutor(localProperties.getThreads(),
+                                                    localProperties.getThreads(),
+                                                    0L,
+                                                    TimeUnit.MILLISECONDS,
+                                                    // Never full, capacity is bounded by the job manager before jobs are submitted
+                                                    new LinkedBlockingQueue<>(),
+                                                    runnable -> {
+                                                        Thread thread = new Thread(runnable, "local-job-executor-" + threadCount.incrementAndGet());
+                                                        thread.setDaemon(true);
+                                                        return thread;
+                                                    });
+    }
+
+    @Override
+    public MessageBasedJobManager create(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        return new HybridJobManager(processEngineConfiguration,
+                                    bindingServiceProperties,
+                                    jobMessageProducer,
+                                    localExecutor,
+                                    localProperties.getThreads() + localProperties.getQueueCapacity());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Let already accepted jobs complete, they would otherwise only be picked up once their lock expires
+        localExecutor.shutdown();
+        localExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
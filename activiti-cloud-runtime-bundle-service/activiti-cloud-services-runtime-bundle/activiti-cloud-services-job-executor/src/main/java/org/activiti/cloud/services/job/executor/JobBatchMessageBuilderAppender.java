@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.activiti.cloud.services.events.message.MessageBuilderAppender;
+import org.activiti.engine.runtime.Job;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+
+/**
+ * Sets the headers of a job batch message: the number of jobs, and the job attributes shared by all of them.
+ */
+public class JobBatchMessageBuilderAppender implements MessageBuilderAppender {
+
+    private final List<? extends Job> jobs;
+
+    public JobBatchMessageBuilderAppender(List<? extends Job> jobs) {
+        Assert.notEmpty(jobs, "jobs must not be empty");
+
+        this.jobs = jobs;
+    }
+
+    @Override
+    public <P> MessageBuilder<P> apply(MessageBuilder<P> request) {
+        Assert.notNull(request, "request must not be null");
+
+        return request.setHeader(JobMessageHeaders.JOB_BATCH_SIZE, jobs.size())
+                      .setHeader(JobMessageHeaders.JOB_TYPE, shared(Job::getJobType))
+                      .setHeader(JobMessageHeaders.JOB_PROCESS_DEFINITION_ID, shared(Job::getProcessDefinitionId))
+                      .setHeader(JobMessageHeaders.JOB_PROCESS_INSTANCE_ID, shared(Job::getProcessInstanceId))
+                      .setHeader(JobMessageHeaders.JOB_HANDLER_TYPE, shared(Job::getJobHandlerType));
+    }
+
+    private Object shared(Function<Job, Object> attribute) {
+        Object value = attribute.apply(jobs.get(0));
+        for (Job job : jobs) {
+            if (!Objects.equals(value, attribute.apply(job))) {
+                return null;
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import javax.validation.constraints.Positive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "activiti.cloud.runtime-bundle.job-executor.batch")
+@Validated
+public class JobMessageBatchProperties {
+
+    /**
+     * When enabled, the ids of the jobs created in one transaction are sent in as few job messages as possible.
+     * Batch messages are handled by a pool of workers on the receiving side, which every node of this version
+     * does whether or not sending them is enabled. Nodes of earlier versions cannot handle batch messages and
+     * drop their jobs, so this must only be enabled once all the nodes consuming the job destination are upgraded.
+     */
+    private boolean enabled = false;
+
+    @Positive
+    private int maxSize = 500;
+
+    /**
+     * Number of threads executing the jobs of the batch messages received by this node.
+     */
+    @Positive
+    private int workers = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+}
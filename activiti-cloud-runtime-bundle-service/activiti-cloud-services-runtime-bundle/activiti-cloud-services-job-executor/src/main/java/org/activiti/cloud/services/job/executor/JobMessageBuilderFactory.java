@@ -15,6 +15,8 @@
  */
 package org.activiti.cloud.services.job.executor;
 
+import java.util.List;
+
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.message.MessageBuilderAppenderChain;
 import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilderAppender;
@@ -32,4 +34,9 @@ public class JobMessageBuilderFactory {
         return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
                                                 .chain(new JobMessageBuilderAppender(job));
     }
+
+    public MessageBuilderAppenderChain create(List<? extends Job> jobs) {
+        return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+                                                .chain(new JobBatchMessageBuilderAppender(jobs));
+    }
 }
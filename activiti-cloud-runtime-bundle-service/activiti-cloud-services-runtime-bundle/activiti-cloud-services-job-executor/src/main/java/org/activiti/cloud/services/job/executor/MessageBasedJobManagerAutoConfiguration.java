@@ -21,6 +21,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.cloud.stream.binding.BindingService;
 import org.springframework.cloud.stream.binding.SubscribableChannelBindingTargetFactory;
@@ -32,6 +33,7 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ConditionalOnProperty(name = "spring.activiti.asyncExecutorActivate", havingValue = "true", matchIfMissing = true)
 @AutoConfigureAfter(ActivitiMessagingDestinationsAutoConfiguration.class)
+@EnableConfigurationProperties({JobMessageBatchProperties.class, LocalJobExecutionProperties.class})
 public class MessageBasedJobManagerAutoConfiguration {
 
     @Bean
@@ -51,7 +53,11 @@ public class MessageBasedJobManagerAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public MessageBasedJobManagerFactory messageBasedJobManagerFactory(BindingServiceProperties bindingServiceProperties,
-                                                                       JobMessageProducer jobMessageProducer) {
+                                                                       JobMessageProducer jobMessageProducer,
+                                                                       LocalJobExecutionProperties localJobExecutionProperties) {
+        if (localJobExecutionProperties.isEnabled()) {
+            return new HybridJobManagerFactory(bindingServiceProperties, jobMessageProducer, localJobExecutionProperties);
+        }
         return new DefaultMessageBasedJobManagerFactory(bindingServiceProperties, jobMessageProducer);
     }
 
@@ -59,7 +65,14 @@ public class MessageBasedJobManagerAutoConfiguration {
     @ConditionalOnMissingBean
     public JobMessageProducer jobMessageProducer(BinderAwareChannelResolver resolver,
                                                  ApplicationEventPublisher eventPublisher,
-                                                 JobMessageBuilderFactory jobMessageBuilderFactory) {
+                                                 JobMessageBuilderFactory jobMessageBuilderFactory,
+                                                 JobMessageBatchProperties batchProperties) {
+        if (batchProperties.isEnabled()) {
+            return new BatchingJobMessageProducer(resolver,
+                                                  eventPublisher,
+                                                  jobMessageBuilderFactory,
+                                                  batchProperties);
+        }
         return new DefaultJobMessageProducer(resolver,
                                              eventPublisher,
                                              jobMessageBuilderFactory);
@@ -67,8 +80,15 @@ public class MessageBasedJobManagerAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public JobMessageHandlerFactory jobMessageHandlerFactory() {
-        return new DefaultJobMessageHandlerFactory();
+    public JobMessageHandlerFactory jobMessageHandlerFactory(JobMessageBatchProperties batchProperties) {
+        // Every node handles batch messages, so that sending them can be enabled once all nodes are upgraded
+        return new BatchJobMessageHandlerFactory(batchProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BatchJobMessageMapperConfigurator batchJobMessageMapperConfigurator() {
+        return new BatchJobMessageMapperConfigurator();
     }
 
     @Bean
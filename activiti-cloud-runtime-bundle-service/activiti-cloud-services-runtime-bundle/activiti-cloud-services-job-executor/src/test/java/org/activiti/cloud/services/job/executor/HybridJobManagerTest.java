@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntityImpl;
+import org.activiti.engine.runtime.Clock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class HybridJobManagerTest {
+
+    private HybridJobManager jobManager;
+
+    @Mock
+    private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+    @Mock
+    private AsyncExecutor asyncExecutor;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private BindingServiceProperties bindingServiceProperties;
+
+    @Mock
+    private JobMessageProducer jobMessageProducer;
+
+    @Mock
+    private JobMessageHandler localJobHandler;
+
+    @Mock
+    private ExecutorService localExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+
+        given(processEngineConfiguration.getAsyncExecutor()).willReturn(asyncExecutor);
+        given(processEngineConfiguration.getClock()).willReturn(clock);
+        given(asyncExecutor.getLockOwner()).willReturn("node");
+        given(asyncExecutor.getAsyncJobLockTimeInMillis()).willReturn(300000);
+        given(clock.getCurrentTime()).willReturn(new Date(1000));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(localExecutor).execute(any());
+
+        jobManager = spy(new HybridJobManager(processEngineConfiguration,
+                                              bindingServiceProperties,
+                                              jobMessageProducer,
+                                              localJobHandler,
+                                              localExecutor,
+                                              1));
+        doNothing().when(jobManager).sendToBroker(anyString());
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void shouldLockJobAndExecuteItLocallyAfterCommit() {
+        //given
+        JobEntity job = job("job");
+        given(localJobHandler.findJobById("job")).willReturn(job);
+
+        //when
+        jobManager.triggerExecutorIfNeeded(job);
+
+        //then
+        assertThat(job.getLockOwner()).isEqualTo("node");
+        assertThat(job.getLockExpirationTime()).isEqualTo(new Date(301000));
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(0);
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(localJobHandler).executeJob(job);
+        verify(jobMessageProducer, never()).sendMessage(anyString(), any());
+        verify(jobManager, never()).sendToBroker(anyString());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReleaseCapacityWithoutExecutingJobOnRollback() {
+        //given
+        jobManager.triggerExecutorIfNeeded(job("job"));
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        //then
+        verify(localExecutor, never()).execute(any());
+        verify(jobManager, never()).sendToBroker(anyString());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerWhenLocalExecutorRejectsIt() {
+        //given
+        doThrow(new RejectedExecutionException()).when(localExecutor).execute(any());
+        jobManager.triggerExecutorIfNeeded(job("job"));
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(jobManager).sendToBroker("job");
+        verify(localJobHandler, never()).executeJob(any());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerWhenLocalCapacityIsExhausted() {
+        //given
+        jobManager.triggerExecutorIfNeeded(job("local"));
+        JobEntity job = job("remote");
+
+        //when
+        jobManager.triggerExecutorIfNeeded(job);
+
+        //then
+        verify(jobMessageProducer).sendMessage(MessageBasedJobManagerChannelsConstants.OUTPUT, job);
+        assertThat(job.getLockOwner()).isNull();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerWhenItCannotBeLoadedForLocalExecution() {
+        //given
+        given(localJobHandler.findJobById("job")).willThrow(new IllegalStateException("connection lost"));
+        jobManager.triggerExecutorIfNeeded(job("job"));
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(jobManager).sendToBroker("job");
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerWhenLocalExecutionFailsOutsideTheEngine() {
+        //given
+        JobEntity job = job("job");
+        given(localJobHandler.findJobById("job")).willReturn(job);
+        doThrow(new IllegalStateException("interrupted")).when(localJobHandler).executeJob(job);
+        jobManager.triggerExecutorIfNeeded(job);
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(jobManager).sendToBroker("job");
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotSendJobToBrokerWhenEngineFailsIt() {
+        //given
+        JobEntity job = job("job");
+        given(localJobHandler.findJobById("job")).willReturn(job);
+        doThrow(new ActivitiException("failed")).when(localJobHandler).executeJob(job);
+        jobManager.triggerExecutorIfNeeded(job);
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(jobManager, never()).sendToBroker(anyString());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerWhenItWaitedLocallyForMoreThanHalfOfItsLockTime() {
+        //given
+        JobEntity job = job("job");
+        given(localJobHandler.findJobById("job")).willReturn(job);
+        jobManager.triggerExecutorIfNeeded(job);
+        given(clock.getCurrentTime()).willReturn(new Date(200000));
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(jobManager).sendToBroker("job");
+        verify(localJobHandler, never()).executeJob(any());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLeaveJobToExpiredJobResetWhenItsLockExpiredWhileQueued() {
+        //given
+        JobEntity job = job("job");
+        given(localJobHandler.findJobById("job")).willReturn(job);
+        jobManager.triggerExecutorIfNeeded(job);
+        given(clock.getCurrentTime()).willReturn(new Date(301000));
+
+        //when
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        verify(localJobHandler, never()).executeJob(any());
+        verify(jobManager, never()).sendToBroker(anyString());
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendJobToBrokerOutsideOfTransaction() {
+        //given
+        TransactionSynchronizationManager.clearSynchronization();
+        JobEntity job = job("job");
+
+        //when
+        jobManager.triggerExecutorIfNeeded(job);
+
+        //then
+        verify(jobMessageProducer).sendMessage(MessageBasedJobManagerChannelsConstants.OUTPUT, job);
+        assertThat(jobManager.getAvailableCapacity()).isEqualTo(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private JobEntity job(String id) {
+        JobEntity job = new JobEntityImpl();
+        job.setId(id);
+        return job;
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
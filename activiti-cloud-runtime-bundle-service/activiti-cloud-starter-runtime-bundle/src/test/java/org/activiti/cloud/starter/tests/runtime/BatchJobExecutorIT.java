@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.starter.tests.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.activiti.cloud.services.job.executor.BatchJobMessageHandler;
+import org.activiti.cloud.services.job.executor.JobMessageHeaders;
+import org.activiti.cloud.services.job.executor.JobMessageSentEvent;
+import org.activiti.cloud.services.test.containers.KeycloakContainerApplicationInitializer;
+import org.activiti.cloud.services.test.containers.RabbitMQContainerApplicationInitializer;
+import org.activiti.engine.ManagementService;
+import org.activiti.engine.RepositoryService;
+import org.activiti.engine.RuntimeService;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.runtime.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@TestPropertySource("classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.activiti.asyncExecutorActivate=true",
+    "activiti.cloud.runtime-bundle.job-executor.batch.enabled=true",
+    "activiti.cloud.runtime-bundle.job-executor.batch.max-size=3"
+})
+@DirtiesContext
+@ContextConfiguration(classes = RuntimeITConfiguration.class,
+    initializers = {RabbitMQContainerApplicationInitializer.class, KeycloakContainerApplicationInitializer.class})
+public class BatchJobExecutorIT {
+
+    private static final String ASYNC_TASK = "asyncTask";
+    private static final String FAILED_JOB_RETRY = "failedJobRetry";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private MessageHandler jobMessageHandler;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Message<?>> sentMessages = Collections.synchronizedList(new ArrayList<>());
+
+    private final ApplicationListener<JobMessageSentEvent> sentMessagesListener = event -> sentMessages.add(event.getMessage());
+
+    private final List<ActivitiEventListener> activitiEventListeners = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        applicationContext.addApplicationListener(sentMessagesListener);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        applicationContext.getApplicationListeners().remove(sentMessagesListener);
+        activitiEventListeners.forEach(runtimeService::removeEventListener);
+        JobExecutorIT.RetryFailingDelegate.shallThrow = false;
+    }
+
+    @Test
+    public void shouldSendJobsCreatedInOneTransactionInBatchesOfMaxSize() {
+        //given
+        String processDefinitionId = processDefinitionId(ASYNC_TASK);
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 7; i++) {
+                runtimeService.createProcessInstanceBuilder()
+                              .processDefinitionId(processDefinitionId)
+                              .start();
+            }
+        });
+
+        //then
+        await("the async executions should complete and no more jobs should exist")
+            .untilAsserted(() -> {
+                assertThat(runtimeService.createExecutionQuery()
+                                         .processDefinitionKey(ASYNC_TASK)
+                                         .count()).isEqualTo(0);
+
+                assertThat(managementService.createJobQuery()
+                                            .processDefinitionId(processDefinitionId)
+                                            .count()).isEqualTo(0);
+            });
+
+        List<Message<?>> messages = sentMessagesOf(processDefinitionId);
+        assertThat(messages).extracting(message -> message.getHeaders().get(JobMessageHeaders.JOB_BATCH_SIZE))
+                            .as("should chunk 7 jobs in batches of at most 3, the remaining job as a regular job message")
+                            .containsExactly(3, 3, null);
+        assertThat(messages).flatExtracting(message -> Arrays.asList(String.valueOf(message.getPayload()).split(",")))
+                            .hasSize(7)
+                            .doesNotHaveDuplicates();
+        assertThat(messages.get(2).getHeaders()).containsKey(JobMessageHeaders.JOB_ID);
+    }
+
+    @Test
+    public void shouldExecuteOtherJobsOfBatchWhenOneFails() throws InterruptedException {
+        //given
+        JobExecutorIT.RetryFailingDelegate.shallThrow = true;
+        CountDownLatch jobFailed = new CountDownLatch(1);
+        CountDownLatch jobsSucceeded = new CountDownLatch(2);
+        addEventListener(jobFailed, ActivitiEventType.JOB_EXECUTION_FAILURE);
+        addEventListener(jobsSucceeded, ActivitiEventType.JOB_EXECUTION_SUCCESS);
+
+        String failingProcessDefinitionId = processDefinitionId(FAILED_JOB_RETRY);
+        String processDefinitionId = processDefinitionId(ASYNC_TASK);
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            runtimeService.createProcessInstanceBuilder()
+                          .processDefinitionId(failingProcessDefinitionId)
+                          .start();
+            runtimeService.createProcessInstanceBuilder()
+                          .processDefinitionId(processDefinitionId)
+                          .start();
+            runtimeService.createProcessInstanceBuilder()
+                          .processDefinitionId(processDefinitionId)
+                          .start();
+        });
+
+        //then
+        assertThat(jobFailed.await(1, TimeUnit.MINUTES)).as("should fail the failing job").isTrue();
+        assertThat(jobsSucceeded.await(1, TimeUnit.MINUTES)).as("should execute the other jobs of the batch").isTrue();
+        assertThat(sentMessages).anySatisfy(message -> assertThat(message.getHeaders())
+            .containsEntry(JobMessageHeaders.JOB_BATCH_SIZE, 3));
+
+        await("the async executions should complete")
+            .untilAsserted(() -> assertThat(runtimeService.createExecutionQuery()
+                                                          .processDefinitionId(processDefinitionId)
+                                                          .count()).isEqualTo(0));
+    }
+
+    @Test
+    public void shouldLoadJobsOfBatchWithSingleQuery() {
+        //given
+        assertThat(jobMessageHandler).isInstanceOf(BatchJobMessageHandler.class);
+        String processDefinitionId = processDefinitionId(ASYNC_TASK);
+
+        //when
+        List<JobEntity> jobs = new TransactionTemplate(transactionManager).execute(status -> {
+            List<String> jobIds = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String processInstanceId = runtimeService.createProcessInstanceBuilder()
+                                                         .processDefinitionId(processDefinitionId)
+                                                         .start()
+                                                         .getId();
+                managementService.createJobQuery()
+                                 .processInstanceId(processInstanceId)
+                                 .list()
+                                 .forEach(job -> jobIds.add(job.getId()));
+            }
+            jobIds.add("unknown");
+            return ((BatchJobMessageHandler) jobMessageHandler).findJobsByIds(jobIds);
+        });
+
+        //then
+        assertThat(jobs).hasSize(2)
+                        .extracting(Job::getProcessDefinitionId)
+                        .containsOnly(processDefinitionId);
+    }
+
+    private String processDefinitionId(String processDefinitionKey) {
+        return repositoryService.createProcessDefinitionQuery()
+                                .processDefinitionKey(processDefinitionKey)
+                                .singleResult()
+                                .getId();
+    }
+
+    private List<Message<?>> sentMessagesOf(String processDefinitionId) {
+        synchronized (sentMessages) {
+            return sentMessages.stream()
+                               .filter(message -> processDefinitionId.equals(message.getHeaders().get(JobMessageHeaders.JOB_PROCESS_DEFINITION_ID)))
+                               .collect(Collectors.toList());
+        }
+    }
+
+    private void addEventListener(CountDownLatch countDownLatch, ActivitiEventType eventType) {
+        ActivitiEventListener listener = new ActivitiEventListener() {
+
+            @Override
+            public void onEvent(ActivitiEvent event) {
+                countDownLatch.countDown();
+            }
+
+            @Override
+            public boolean isFailOnException() {
+                return false;
+            }
+        };
+        activitiEventListeners.add(listener);
+        runtimeService.addEventListener(listener, eventType);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.common.util;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Utils for keyset (seek) pagination
+ */
+public final class KeysetSortUtils {
+
+    public static final String ID = "id";
+
+    private KeysetSortUtils() {
+    }
+
+    /**
+     * Returns the given sort with the id appended, unless already present, so that the order is total.
+     */
+    public static Sort keysetSort(Sort sort) {
+        if (sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(ID));
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+public class KeysetSortUtilsTest {
+
+    @Test
+    public void keysetSortShouldAppendIdAsTieBreaker() {
+        //when
+        Sort sort = KeysetSortUtils.keysetSort(Sort.by(Sort.Direction.DESC, "name"));
+
+        //then
+        assertThat(sort).isEqualTo(Sort.by(Sort.Direction.DESC, "name").and(Sort.by("id")));
+    }
+
+    @Test
+    public void keysetSortShouldKeepIdWhenAlreadySorted() {
+        //given
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+
+        //then
+        assertThat(KeysetSortUtils.keysetSort(sort)).isEqualTo(sort);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.argument.resolver;
+
+import java.util.Objects;
+
+import org.activiti.cloud.alfresco.data.domain.KeysetCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+
+/**
+ * Page request positioned after the row described by a continuation token instead of by an offset,
+ * so that the database can seek straight to the page regardless of its depth.
+ * A {@literal null} cursor means the first page.
+ */
+public class AlfrescoKeysetPageRequest extends AlfrescoPageRequest {
+
+    private final KeysetCursor cursor;
+    private final boolean includeTotalCount;
+
+    public AlfrescoKeysetPageRequest(@Nullable KeysetCursor cursor,
+                                     int maxItems,
+                                     boolean includeTotalCount,
+                                     Pageable pageable) {
+        super(0, maxItems, pageable);
+        this.cursor = cursor;
+        this.includeTotalCount = includeTotalCount;
+    }
+
+    @Nullable
+    public KeysetCursor getCursor() {
+        return cursor;
+    }
+
+    public boolean isIncludeTotalCount() {
+        return includeTotalCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        AlfrescoKeysetPageRequest that = (AlfrescoKeysetPageRequest) o;
+        return includeTotalCount == that.includeTotalCount &&
+            Objects.equals(cursor == null ? null : cursor.getValues(),
+                           that.cursor == null ? null : that.cursor.getValues());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (cursor != null ? cursor.getValues().hashCode() : 0);
+        result = 31 * result + (includeTotalCount ? 1 : 0);
+        return result;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.activiti.cloud.alfresco.argument.resolver;
 
+import org.activiti.cloud.alfresco.data.domain.KeysetCursor;
 import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableArgumentResolver;
@@ -52,6 +53,14 @@ public class AlfrescoPageArgumentMethodResolver implements PageableArgumentResol
                                                                                       binderFactory);
 
         AlfrescoQueryParameters alfrescoQueryParameters = pageParameterParser.parseParameters(webRequest);
+        ContinuationTokenParameter continuationTokenParameter = alfrescoQueryParameters.getContinuationTokenParameter();
+        if (continuationTokenParameter != null && continuationTokenParameter.isSet()) {
+            String continuationToken = continuationTokenParameter.getValue();
+            return new AlfrescoKeysetPageRequest(continuationToken.isEmpty() ? null : KeysetCursor.decode(continuationToken),
+                                                 alfrescoQueryParameters.getMaxItemsParameter().getValue(),
+                                                 alfrescoQueryParameters.getIncludeTotalCountParameter().getValue(),
+                                                 basePageable);
+        }
         if (alfrescoQueryParameters.getSkipCountParameter().isSet() || alfrescoQueryParameters.getMaxItemsParameter().isSet()) {
 
             return new AlfrescoPageRequest(alfrescoQueryParameters.getSkipCountParameter().getValue(),
@@ -26,7 +26,10 @@ public class AlfrescoPageParameterParser {
     }
 
     public AlfrescoQueryParameters parseParameters(NativeWebRequest webRequest) {
-        return new AlfrescoQueryParameters(parseSkipCount(webRequest), parseMaxItems(webRequest));
+        return new AlfrescoQueryParameters(parseSkipCount(webRequest),
+                                           parseMaxItems(webRequest),
+                                           parseContinuationToken(webRequest),
+                                           parseIncludeTotalCount(webRequest));
     }
 
     protected MaxItemsParameter parseMaxItems(NativeWebRequest webRequest) {
@@ -51,4 +54,19 @@ public class AlfrescoPageParameterParser {
         return new SkipCountParameter(isSet, skipCount);
     }
 
+    protected ContinuationTokenParameter parseContinuationToken(NativeWebRequest webRequest) {
+        String continuationToken = webRequest.getParameter("continuationToken");
+        return new ContinuationTokenParameter(continuationToken != null, continuationToken);
+    }
+
+    protected IncludeTotalCountParameter parseIncludeTotalCount(NativeWebRequest webRequest) {
+        boolean includeTotalCount = true;
+        String includeTotalCountString = webRequest.getParameter("includeTotalCount");
+        boolean isSet = includeTotalCountString != null;
+        if (isSet) {
+            includeTotalCount = Boolean.parseBoolean(includeTotalCountString);
+        }
+        return new IncludeTotalCountParameter(isSet, includeTotalCount);
+    }
+
 }
@@ -21,10 +21,26 @@ public class AlfrescoQueryParameters {
 
     private MaxItemsParameter maxItemsParameter;
 
+    private ContinuationTokenParameter continuationTokenParameter;
+
+    private IncludeTotalCountParameter includeTotalCountParameter;
+
     public AlfrescoQueryParameters(SkipCountParameter skipCountParameter,
                                    MaxItemsParameter maxItemsParameter) {
+        this(skipCountParameter,
+             maxItemsParameter,
+             new ContinuationTokenParameter(false, null),
+             new IncludeTotalCountParameter(false, true));
+    }
+
+    public AlfrescoQueryParameters(SkipCountParameter skipCountParameter,
+                                   MaxItemsParameter maxItemsParameter,
+                                   ContinuationTokenParameter continuationTokenParameter,
+                                   IncludeTotalCountParameter includeTotalCountParameter) {
         this.skipCountParameter = skipCountParameter;
         this.maxItemsParameter = maxItemsParameter;
+        this.continuationTokenParameter = continuationTokenParameter;
+        this.includeTotalCountParameter = includeTotalCountParameter;
     }
 
     public SkipCountParameter getSkipCountParameter() {
@@ -34,4 +50,12 @@ public class AlfrescoQueryParameters {
     public MaxItemsParameter getMaxItemsParameter() {
         return maxItemsParameter;
     }
+
+    public ContinuationTokenParameter getContinuationTokenParameter() {
+        return continuationTokenParameter;
+    }
+
+    public IncludeTotalCountParameter getIncludeTotalCountParameter() {
+        return includeTotalCountParameter;
+    }
 }
@@ -16,6 +16,7 @@
 package org.activiti.cloud.alfresco.converter.json;
 
 import org.activiti.cloud.alfresco.data.domain.ExtendedPageMetadata;
+import org.activiti.cloud.alfresco.data.domain.KeysetPageMetadata;
 import org.activiti.cloud.alfresco.rest.model.PaginationMetadata;
 import org.springframework.hateoas.PagedModel;
 
@@ -23,6 +24,16 @@ public class PageMetadataConverter {
 
     public PaginationMetadata toAlfrescoPageMetadata(PagedModel.PageMetadata basePageMetadata,
                                                      long count) {
+        if (basePageMetadata instanceof KeysetPageMetadata) {
+            KeysetPageMetadata keysetPageMetadata = (KeysetPageMetadata) basePageMetadata;
+            return new PaginationMetadata(0,
+                                          keysetPageMetadata.getSize(),
+                                          count,
+                                          keysetPageMetadata.isHasMoreItems(),
+                                          keysetPageMetadata.getTotalElements(),
+                                          keysetPageMetadata.getContinuationToken());
+        }
+
         long skipCount = basePageMetadata.getNumber() * basePageMetadata.getSize();
         if (basePageMetadata instanceof ExtendedPageMetadata) {
             skipCount = ((ExtendedPageMetadata) basePageMetadata).getSkipCount();
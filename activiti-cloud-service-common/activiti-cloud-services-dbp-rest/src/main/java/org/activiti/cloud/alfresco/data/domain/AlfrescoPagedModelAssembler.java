@@ -15,15 +15,22 @@
  */
 package org.activiti.cloud.alfresco.data.domain;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponents;
 
 public class AlfrescoPagedModelAssembler<T> extends PagedResourcesAssembler<T> {
@@ -49,6 +56,9 @@ public class AlfrescoPagedModelAssembler<T> extends PagedResourcesAssembler<T> {
                                                                     Page<T> page,
                                                                     RepresentationModelAssembler<T, R> assembler) {
         PagedModel<R> pagedModel = toModel(page, assembler);
+        if (page instanceof KeysetPage) {
+            return toKeysetModel((KeysetPage<T>) page, pagedModel);
+        }
         ExtendedPageMetadata extendedPageMetadata = extendedPageMetadataConverter.toExtendedPageMetadata(pageable.getOffset(),
                                                                                                          pagedModel.getMetadata());
         pagedModel = PagedModel.of(pagedModel.getContent(),
@@ -57,4 +67,27 @@ public class AlfrescoPagedModelAssembler<T> extends PagedResourcesAssembler<T> {
 
         return pagedModel;
     }
+
+    private <R extends RepresentationModel<?>> PagedModel<R> toKeysetModel(KeysetPage<T> page,
+                                                                          PagedModel<R> pagedModel) {
+        KeysetPageMetadata keysetPageMetadata = new KeysetPageMetadata(page.getSize(),
+                                                                       page.getTotalElements(),
+                                                                       page.getTotalPages(),
+                                                                       page.getNextContinuationToken(),
+                                                                       page.hasNext());
+        // offset based links are meaningless when seeking: only keep self and point next to the continuation token
+        List<Link> links = new ArrayList<>();
+        pagedModel.getLink(IanaLinkRelations.SELF).ifPresent(links::add);
+        if (page.hasNext() && RequestContextHolder.getRequestAttributes() != null) {
+            links.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest()
+                                  .replaceQueryParam("continuationToken", page.getNextContinuationToken())
+                                  .replaceQueryParam("skipCount")
+                                  .build()
+                                  .toUriString(),
+                              IanaLinkRelations.NEXT));
+        }
+        return PagedModel.of(pagedModel.getContent(),
+                             keysetPageMetadata,
+                             links);
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+/**
+ * Position of the last row of a keyset page: the values of the sort keys followed by the id of the row.
+ * It's exchanged with clients as an opaque, url-safe continuation token.
+ */
+public class KeysetCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String NULL = "n";
+    private static final String DATE = "t";
+    private static final String BOOLEAN = "b";
+    private static final String TEXT = "s";
+
+    private final List<Object> values;
+
+    public KeysetCursor(List<Object> values) {
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public static KeysetCursor of(Object row,
+                                  List<String> properties) {
+        BeanWrapper beanWrapper = new BeanWrapperImpl(row);
+        List<Object> values = new ArrayList<>();
+        for (String property : properties) {
+            values.add(beanWrapper.getPropertyValue(property));
+        }
+        return new KeysetCursor(values);
+    }
+
+    public static KeysetCursor decode(String continuationToken) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(continuationToken);
+            List<List<Object>> encodedValues = OBJECT_MAPPER.readValue(json,
+                                                                       new TypeReference<List<List<Object>>>() {
+                                                                       });
+            List<Object> values = new ArrayList<>();
+            for (List<Object> encodedValue : encodedValues) {
+                values.add(decodeValue(encodedValue));
+            }
+            return new KeysetCursor(values);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Invalid continuation token: " + continuationToken, e);
+        }
+    }
+
+    private static Object decodeValue(List<Object> encodedValue) {
+        String type = (String) encodedValue.get(0);
+        Object value = encodedValue.get(1);
+        switch (type) {
+            case NULL:
+                return null;
+            case DATE:
+                return new Date(((Number) value).longValue());
+            case BOOLEAN:
+                return value;
+            case TEXT:
+                return value.toString();
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    public String encode() {
+        List<List<Object>> encodedValues = new ArrayList<>();
+        for (Object value : values) {
+            encodedValues.add(encodeValue(value));
+        }
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsString(encodedValues).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode continuation token", e);
+        }
+    }
+
+    private static List<Object> encodeValue(Object value) {
+        if (value == null) {
+            return List.of(NULL, "");
+        }
+        if (value instanceof Date) {
+            return List.of(DATE, ((Date) value).getTime());
+        }
+        if (value instanceof Boolean) {
+            return List.of(BOOLEAN, value);
+        }
+        if (value instanceof Enum) {
+            return List.of(TEXT, ((Enum<?>) value).name());
+        }
+        return List.of(TEXT, value.toString());
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public Object getValue(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Returns the value at the given position converted to the type of the property it was read from,
+     * e.g. a number or an enum constant, as they travel as text inside the token.
+     */
+    public <T> T getValue(int index,
+                          Class<T> type) {
+        return DefaultConversionService.getSharedInstance().convert(values.get(index),
+                                                                    type);
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+}
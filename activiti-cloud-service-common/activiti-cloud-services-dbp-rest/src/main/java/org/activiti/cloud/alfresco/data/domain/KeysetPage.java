@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.lang.Nullable;
+
+/**
+ * Page fetched by keyset pagination. It carries the continuation token of the next page, if any.
+ * When the total count was not requested the total elements are only a lower bound.
+ */
+public class KeysetPage<T> extends PageImpl<T> {
+
+    private final String nextContinuationToken;
+    private final boolean totalCounted;
+
+    public KeysetPage(List<T> content,
+                      AlfrescoKeysetPageRequest pageable,
+                      long total,
+                      @Nullable String nextContinuationToken,
+                      boolean totalCounted) {
+        super(content,
+              pageable,
+              total);
+        this.nextContinuationToken = nextContinuationToken;
+        this.totalCounted = totalCounted;
+    }
+
+    /**
+     * Builds a page out of rows fetched with a limit of one more than the page size: the extra row,
+     * if present, is dropped and only used to know there are more items.
+     * @param rows the fetched rows, at most page size + 1
+     * @param pageable the keyset page request
+     * @param keyProperties the sort properties, ending with the id, used to build the next continuation token
+     * @param total the total count or {@literal null} when it was not computed
+     */
+    public static <T> KeysetPage<T> of(List<T> rows,
+                                       AlfrescoKeysetPageRequest pageable,
+                                       List<String> keyProperties,
+                                       @Nullable Long total) {
+        boolean hasMoreItems = rows.size() > pageable.getPageSize();
+        List<T> content = hasMoreItems ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+        String nextContinuationToken = hasMoreItems ?
+            KeysetCursor.of(content.get(content.size() - 1), keyProperties).encode() :
+            null;
+        long totalElements = total != null ? total : content.size() + (hasMoreItems ? 1 : 0);
+        return new KeysetPage<>(content,
+                                pageable,
+                                totalElements,
+                                nextContinuationToken,
+                                total != null);
+    }
+
+    /**
+     * Returns a page with the same position holding the given content, e.g. the rows converted to another type.
+     */
+    public <U> KeysetPage<U> withContent(List<U> content) {
+        return new KeysetPage<>(content,
+                                (AlfrescoKeysetPageRequest) getPageable(),
+                                getTotalElements(),
+                                nextContinuationToken,
+                                totalCounted);
+    }
+
+    @Nullable
+    public String getNextContinuationToken() {
+        return nextContinuationToken;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextContinuationToken != null;
+    }
+
+    public boolean isTotalCounted() {
+        return totalCounted;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
+import org.activiti.cloud.services.common.util.KeysetSortUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+/**
+ * Runs a keyset page request: fetches one row more than the page size after the position of the
+ * continuation token and only counts the total when the client asked for it.
+ */
+public final class KeysetPageExecutor {
+
+    private KeysetPageExecutor() {
+    }
+
+    public static <T> KeysetPage<T> getPage(Class<T> rowType,
+                                            AlfrescoKeysetPageRequest pageable,
+                                            RowsFinder<T> rowsFinder,
+                                            LongSupplier totalSupplier) {
+        Sort keysetSort = KeysetSortUtils.keysetSort(pageable.getSort());
+        List<String> keyProperties = new ArrayList<>();
+        keysetSort.forEach(order -> keyProperties.add(order.getProperty()));
+
+        List<Object> keyValues = pageable.getCursor() != null ?
+            toKeyValues(rowType, keyProperties, pageable.getCursor()) :
+            null;
+
+        List<T> rows = rowsFinder.find(keysetSort,
+                                       keyValues,
+                                       pageable.getPageSize() + 1);
+        Long total = pageable.isIncludeTotalCount() ? totalSupplier.getAsLong() : null;
+
+        return KeysetPage.of(rows,
+                             pageable,
+                             keyProperties,
+                             total);
+    }
+
+    private static List<Object> toKeyValues(Class<?> rowType,
+                                            List<String> keyProperties,
+                                            KeysetCursor cursor) {
+        if (cursor.size() != keyProperties.size()) {
+            throw new IllegalStateException("The continuation token does not match the requested sort");
+        }
+        List<Object> keyValues = new ArrayList<>();
+        for (int i = 0; i < keyProperties.size(); i++) {
+            keyValues.add(cursor.getValue(i,
+                                          propertyType(rowType, keyProperties.get(i))));
+        }
+        return keyValues;
+    }
+
+    private static Class<?> propertyType(Class<?> rowType,
+                                         String propertyPath) {
+        Class<?> type = rowType;
+        for (String property : propertyPath.split("\\.")) {
+            PropertyDescriptor propertyDescriptor = BeanUtils.getPropertyDescriptor(type, property);
+            if (propertyDescriptor == null) {
+                throw new IllegalStateException("Unable to sort by " + propertyPath + " using a continuation token");
+            }
+            type = propertyDescriptor.getPropertyType();
+        }
+        return type;
+    }
+
+    @FunctionalInterface
+    public interface RowsFinder<T> {
+
+        /**
+         * Fetches at most {@code limit} rows ordered by the given sort that come after the given key values,
+         * or from the first row when they are {@literal null}.
+         */
+        List<T> find(Sort keysetSort,
+                     @Nullable List<Object> keyValues,
+                     int limit);
+    }
+}
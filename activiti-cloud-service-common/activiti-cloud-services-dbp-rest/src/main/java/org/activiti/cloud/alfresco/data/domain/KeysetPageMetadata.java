@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class KeysetPageMetadata extends ExtendedPageMetadata {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String continuationToken;
+
+    @JsonIgnore
+    private boolean hasMoreItems;
+
+    public KeysetPageMetadata(long size,
+                              long totalElements,
+                              long totalPages,
+                              String continuationToken,
+                              boolean hasMoreItems) {
+        super(0,
+              size,
+              0,
+              totalElements,
+              totalPages);
+        this.continuationToken = continuationToken;
+        this.hasMoreItems = hasMoreItems;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean isHasMoreItems() {
+        return hasMoreItems;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.activiti.cloud.alfresco.rest.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class PaginationMetadata {
 
     private long skipCount;
@@ -27,6 +29,9 @@ public class PaginationMetadata {
 
     private long totalItems;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String continuationToken;
+
     public PaginationMetadata() {
     }
 
@@ -42,6 +47,20 @@ public class PaginationMetadata {
         this.totalItems = totalItems;
     }
 
+    public PaginationMetadata(long skipCount,
+                              long maxItems,
+                              long count,
+                              boolean hasMoreItems,
+                              long totalItems,
+                              String continuationToken) {
+        this(skipCount,
+             maxItems,
+             count,
+             hasMoreItems,
+             totalItems);
+        this.continuationToken = continuationToken;
+    }
+
     public long getSkipCount() {
         return skipCount;
     }
@@ -62,4 +81,8 @@ public class PaginationMetadata {
         return totalItems;
     }
 
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
 }
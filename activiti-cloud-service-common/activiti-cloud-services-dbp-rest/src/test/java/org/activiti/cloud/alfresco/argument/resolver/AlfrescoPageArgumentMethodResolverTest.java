@@ -15,8 +15,10 @@
  */
 package org.activiti.cloud.alfresco.argument.resolver;
 
+import java.util.Arrays;
 import java.util.Collections;
 
+import org.activiti.cloud.alfresco.data.domain.KeysetCursor;
 import org.activiti.test.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -148,4 +150,74 @@ public class AlfrescoPageArgumentMethodResolverTest {
         //then
         assertThat(resolvedPageable).isEqualTo(basePageable);
     }
+
+    @Test
+    public void resolveArgumentShouldReturnAKeysetPageRequestWhenContinuationTokenIsSet() throws Exception {
+        //given
+        MethodParameter methodParameter = mock(MethodParameter.class);
+        ModelAndViewContainer modelAndViewContainer = mock(ModelAndViewContainer.class);
+        NativeWebRequest webRequest = mock(NativeWebRequest.class);
+        WebDataBinderFactory binderFactory = mock(WebDataBinderFactory.class);
+
+        Pageable basePageable = mock(Pageable.class);
+        given(pageableHandlerMethodArgumentResolver.resolveArgument(methodParameter,
+                                                                    modelAndViewContainer,
+                                                                    webRequest,
+                                                                    binderFactory))
+                .willReturn(basePageable);
+        String continuationToken = new KeysetCursor(Arrays.asList("task", 10L)).encode();
+        given(pageParameterParser.parseParameters(webRequest))
+                .willReturn(new AlfrescoQueryParameters(new SkipCountParameter(false,
+                                                                               0),
+                                                        new MaxItemsParameter(true,
+                                                                              20),
+                                                        new ContinuationTokenParameter(true,
+                                                                                       continuationToken),
+                                                        new IncludeTotalCountParameter(true,
+                                                                                       false)));
+
+        //when
+        Pageable resolvedPageable = alfrescoPageArgumentMethodResolver.resolveArgument(methodParameter,
+                                                                                       modelAndViewContainer,
+                                                                                       webRequest,
+                                                                                       binderFactory);
+
+        //then
+        assertThat(resolvedPageable).isInstanceOf(AlfrescoKeysetPageRequest.class);
+        AlfrescoKeysetPageRequest keysetPageRequest = (AlfrescoKeysetPageRequest) resolvedPageable;
+        assertThat(keysetPageRequest.getOffset()).isZero();
+        assertThat(keysetPageRequest.getPageSize()).isEqualTo(20);
+        assertThat(keysetPageRequest.isIncludeTotalCount()).isFalse();
+        assertThat(keysetPageRequest.getCursor().getValues()).containsExactly("task", "10");
+    }
+
+    @Test
+    public void resolveArgumentShouldStartFromTheFirstRowWhenContinuationTokenIsEmpty() throws Exception {
+        //given
+        MethodParameter methodParameter = mock(MethodParameter.class);
+        ModelAndViewContainer modelAndViewContainer = mock(ModelAndViewContainer.class);
+        NativeWebRequest webRequest = mock(NativeWebRequest.class);
+        WebDataBinderFactory binderFactory = mock(WebDataBinderFactory.class);
+
+        given(pageParameterParser.parseParameters(webRequest))
+                .willReturn(new AlfrescoQueryParameters(new SkipCountParameter(false,
+                                                                               0),
+                                                        new MaxItemsParameter(false,
+                                                                              100),
+                                                        new ContinuationTokenParameter(true,
+                                                                                       ""),
+                                                        new IncludeTotalCountParameter(false,
+                                                                                       true)));
+
+        //when
+        Pageable resolvedPageable = alfrescoPageArgumentMethodResolver.resolveArgument(methodParameter,
+                                                                                       modelAndViewContainer,
+                                                                                       webRequest,
+                                                                                       binderFactory);
+
+        //then
+        assertThat(resolvedPageable).isInstanceOf(AlfrescoKeysetPageRequest.class);
+        assertThat(((AlfrescoKeysetPageRequest) resolvedPageable).getCursor()).isNull();
+        assertThat(((AlfrescoKeysetPageRequest) resolvedPageable).isIncludeTotalCount()).isTrue();
+    }
 }
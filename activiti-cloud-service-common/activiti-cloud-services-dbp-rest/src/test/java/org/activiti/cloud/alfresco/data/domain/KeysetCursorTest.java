@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void decodeShouldRestoreTheEncodedValues() {
+        //given
+        Date createdDate = new Date(1600000000000L);
+        KeysetCursor cursor = new KeysetCursor(Arrays.asList("task", null, createdDate, true));
+
+        //when
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        //then
+        assertThat(decoded.getValues()).containsExactly("task", null, createdDate, true);
+    }
+
+    @Test
+    public void getValueShouldConvertToTheRequestedType() {
+        //given
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor(Arrays.asList(42L, Thread.State.RUNNABLE)).encode());
+
+        //then
+        assertThat(cursor.getValue(0, Long.class)).isEqualTo(42L);
+        assertThat(cursor.getValue(1, Thread.State.class)).isEqualTo(Thread.State.RUNNABLE);
+    }
+
+    @Test
+    public void encodeShouldProduceAnUrlSafeToken() {
+        //given
+        KeysetCursor cursor = new KeysetCursor(Arrays.asList("???>>>", 1L));
+
+        //when
+        String token = cursor.encode();
+
+        //then
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    public void ofShouldReadTheGivenPropertiesOfTheRow() {
+        //given
+        Row row = new Row("row-1", "name");
+
+        //when
+        KeysetCursor cursor = KeysetCursor.of(row, List.of("name", "id"));
+
+        //then
+        assertThat(cursor.getValues()).containsExactly("name", "row-1");
+    }
+
+    @Test
+    public void decodeShouldThrowWhenTheTokenIsInvalid() {
+        //when
+        Throwable throwable = catchThrowable(() -> KeysetCursor.decode("not-a-token"));
+
+        //then
+        assertThat(throwable)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Invalid continuation token");
+    }
+
+    public static class Row {
+
+        private final String id;
+        private final String name;
+
+        public Row(String id,
+                   String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
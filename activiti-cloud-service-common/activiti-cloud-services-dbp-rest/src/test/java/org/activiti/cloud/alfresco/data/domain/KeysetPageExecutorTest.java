@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017-2020 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.alfresco.data.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.activiti.cloud.alfresco.argument.resolver.AlfrescoKeysetPageRequest;
+import org.activiti.cloud.alfresco.data.domain.KeysetCursorTest.Row;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+public class KeysetPageExecutorTest {
+
+    @Test
+    public void getPageShouldFetchOneExtraRowAndBuildTheNextContinuationToken() {
+        //given
+        AlfrescoKeysetPageRequest pageable = new AlfrescoKeysetPageRequest(null,
+                                                                           2,
+                                                                           false,
+                                                                           PageRequest.of(0, 2, Sort.by("name")));
+        List<Sort> requestedSorts = new ArrayList<>();
+        List<Integer> requestedLimits = new ArrayList<>();
+
+        //when
+        KeysetPage<Row> page = KeysetPageExecutor.getPage(Row.class,
+                                                          pageable,
+                                                          (sort, keyValues, limit) -> {
+                                                              requestedSorts.add(sort);
+                                                              requestedLimits.add(limit);
+                                                              return Arrays.asList(new Row("1", "a"),
+                                                                                   new Row("2", "b"),
+                                                                                   new Row("3", "c"));
+                                                          },
+                                                          () -> {
+                                                              throw new AssertionError("total should not be counted");
+                                                          });
+
+        //then
+        assertThat(requestedSorts).containsExactly(Sort.by("name").and(Sort.by("id")));
+        assertThat(requestedLimits).containsExactly(3);
+        assertThat(page.getContent()).extracting(Row::getId).containsExactly("1", "2");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.isTotalCounted()).isFalse();
+        assertThat(KeysetCursor.decode(page.getNextContinuationToken()).getValues()).containsExactly("b", "2");
+    }
+
+    @Test
+    public void getPageShouldSeekAfterTheCursorAndCountWhenRequested() {
+        //given
+        AlfrescoKeysetPageRequest pageable = new AlfrescoKeysetPageRequest(new KeysetCursor(Arrays.asList("b", "2")),
+                                                                           2,
+                                                                           true,
+                                                                           PageRequest.of(0, 2, Sort.by("name")));
+        List<List<Object>> requestedKeyValues = new ArrayList<>();
+
+        //when
+        KeysetPage<Row> page = KeysetPageExecutor.getPage(Row.class,
+                                                          pageable,
+                                                          (sort, keyValues, limit) -> {
+                                                              requestedKeyValues.add(keyValues);
+                                                              return Arrays.asList(new Row("3", "c"));
+                                                          },
+                                                          () -> 3L);
+
+        //then
+        assertThat(requestedKeyValues).containsExactly(Arrays.asList("b", "2"));
+        assertThat(page.getContent()).extracting(Row::getId).containsExactly("3");
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.getNextContinuationToken()).isNull();
+        assertThat(page.isTotalCounted()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void getPageShouldThrowWhenTheCursorDoesNotMatchTheSort() {
+        //given
+        AlfrescoKeysetPageRequest pageable = new AlfrescoKeysetPageRequest(new KeysetCursor(Arrays.asList("2")),
+                                                                           2,
+                                                                           true,
+                                                                           PageRequest.of(0, 2, Sort.by("name")));
+
+        //when
+        Throwable throwable = catchThrowable(() -> KeysetPageExecutor.getPage(Row.class,
+                                                                              pageable,
+                                                                              (sort, keyValues, limit) -> new ArrayList<>(),
+                                                                              () -> 0L));
+
+        //then
+        assertThat(throwable).isInstanceOf(IllegalStateException.class);
+    }
+}
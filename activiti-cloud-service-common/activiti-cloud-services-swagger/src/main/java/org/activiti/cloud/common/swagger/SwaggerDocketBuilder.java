@@ -153,6 +153,10 @@ public class SwaggerDocketBuilder {
                                  "skipCount"),
                         property(Integer.class,
                                  "maxItems"),
+                        property(String.class,
+                                 "continuationToken"),
+                        property(Boolean.class,
+                                 "includeTotalCount"),
                         property(String.class,
                                  "sort")
                 ))